@@ -2,17 +2,26 @@ package com.jumbo.application.domain.model;
 
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
 import lombok.AllArgsConstructor;
 import lombok.Data;
-import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.With;
 
 import java.time.LocalTime;
 
+/**
+ * A store as loaded from the store data. Instances held by the repository and the search indexes are shared by all
+ * requests; the per-search fields {@code distance} and {@code travelTimeSeconds} are only ever set on the copies
+ * returned by {@link #withDistance(double)} and {@link #withTravelTimeSeconds(Double)}.
+ */
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 @Schema(description = "Jumbo store information with location details")
 public class Store {
 
@@ -70,8 +79,32 @@ public class Store {
 
     @Schema(description = "Distance from search coordinates in kilometers", example = "1.23")
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @With
     private transient double distance;
 
+    @Schema(description = "Travel time over the road network in seconds, only present when travel-time ranking "
+            + "is enabled and the store is reachable", example = "420")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @With
+    private transient Double travelTimeSeconds;
+
+    /**
+     * A copy without the per-search fields, for handing out a store that is not the result of a search.
+     */
+    public Store withoutSearchFields() {
+        return new Store(city, postalCode, street, street2, street3, addressName, uuid, longitude, latitude,
+                complexNumber, showWarningMessage, todayOpen, todayClose, locationType, collectionPoint, sapStoreID,
+                0, null);
+    }
+
+    /**
+     * A copy including the per-search fields, for handing one search result to several callers.
+     */
+    public Store copy() {
+        return withoutSearchFields().withDistance(distance).withTravelTimeSeconds(travelTimeSeconds);
+    }
+
     public Store opensAt(int hour, int minute) {
         validateTime(hour, minute);
         this.todayOpen = LocalTime.of(hour, minute);
@@ -0,0 +1,12 @@
+package com.jumbo.application.port.in;
+
+/**
+ * A page cursor that cannot be decoded, belongs to a different query or refers to store data that has since been
+ * reloaded.
+ */
+public class InvalidCursorException extends IllegalArgumentException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,63 @@
+package com.jumbo.application.port.in;
+
+import static com.jumbo.common.validation.Validation.validate;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+
+
+public record NearByRequest(
+
+        @DecimalMin(value = "-90.0")
+        @DecimalMax(value = "90.0")
+        double latitude,
+
+        @DecimalMin(value = "-180.0")
+        @DecimalMax(value = "180.0")
+        double longitude,
+
+        @Min(1)
+        double maxRadiusKm,
+
+        @Min(1) int limit,
+        boolean onlyOpen,
+        StoreFilter filter,
+        SearchCursor after
+) {
+
+    public NearByRequest(double latitude, double longitude, double maxRadiusKm, int limit, boolean onlyOpen) {
+        this(latitude, longitude, maxRadiusKm, limit, onlyOpen, StoreFilter.NONE);
+    }
+
+    public NearByRequest(double latitude, double longitude, double maxRadiusKm, int limit, boolean onlyOpen,
+                         StoreFilter filter) {
+        this(latitude, longitude, maxRadiusKm, limit, onlyOpen, filter, null);
+    }
+
+    /**
+     * @param after cursor of the previous page, or {@code null} for the first page
+     * @throws InvalidCursorException if the cursor was issued for a different query
+     */
+    public NearByRequest(double latitude, double longitude, double maxRadiusKm, int limit, boolean onlyOpen,
+                         StoreFilter filter, SearchCursor after) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.maxRadiusKm = maxRadiusKm;
+        this.limit = limit;
+        this.onlyOpen = onlyOpen;
+        this.filter = filter == null ? StoreFilter.NONE : filter;
+        this.after = after;
+        // plain range checks mirroring the annotations; the reflective validator only runs for invalid input,
+        // where it builds the usual ConstraintViolationException with the same messages and property paths
+        if (!(latitude >= -90.0 && latitude <= 90.0
+                && longitude >= -180.0 && longitude <= 180.0
+                && maxRadiusKm >= 1
+                && limit >= 1)) {
+            validate(this);
+        }
+        if (after != null && after.queryHash() != SearchCursor.queryHash(this)) {
+            throw new InvalidCursorException("Cursor was issued for a different query");
+        }
+    }
+}
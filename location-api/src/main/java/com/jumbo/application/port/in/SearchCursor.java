@@ -0,0 +1,55 @@
+package com.jumbo.application.port.in;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Position after the last store of a nearby page: stores come in (distance, uuid) order, so the next page starts
+ * strictly after {@code (distanceKm, uuid)}. Also carries the fingerprint of the store data and a hash of the query
+ * so a cursor cannot be replayed against different data or a different search; the fingerprint depends only on the
+ * data, so any replica serving the same data accepts it.
+ */
+public record SearchCursor(long fingerprint, int queryHash, double distanceKm, String uuid) {
+
+    private static final int HEADER_BYTES = Long.BYTES + Integer.BYTES + Double.BYTES;
+
+    /**
+     * Hash over everything that defines the result order; the limit may change from page to page.
+     */
+    public static int queryHash(NearByRequest req) {
+        return Objects.hash(req.latitude(), req.longitude(), req.maxRadiusKm(), req.onlyOpen(), req.filter());
+    }
+
+    public String encode() {
+        byte[] id = uuid.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + id.length)
+                .putLong(fingerprint)
+                .putInt(queryHash)
+                .putDouble(distanceKm)
+                .put(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    public static SearchCursor decode(String token) {
+        ByteBuffer buffer;
+        try {
+            buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(token));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        if (buffer.remaining() < HEADER_BYTES) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        long fingerprint = buffer.getLong();
+        int queryHash = buffer.getInt();
+        double distanceKm = buffer.getDouble();
+        if (!(distanceKm >= 0)) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        byte[] id = new byte[buffer.remaining()];
+        buffer.get(id);
+        return new SearchCursor(fingerprint, queryHash, distanceKm, new String(id, StandardCharsets.UTF_8));
+    }
+}
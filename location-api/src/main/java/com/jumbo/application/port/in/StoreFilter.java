@@ -0,0 +1,21 @@
+package com.jumbo.application.port.in;
+
+import com.jumbo.application.domain.model.Store;
+
+/**
+ * Attribute constraints for a nearby search; a {@code null} component does not constrain the result.
+ */
+public record StoreFilter(String locationType, Boolean collectionPoint, Boolean showWarningMessage) {
+
+    public static final StoreFilter NONE = new StoreFilter(null, null, null);
+
+    public boolean isEmpty() {
+        return locationType == null && collectionPoint == null && showWarningMessage == null;
+    }
+
+    public boolean matches(Store store) {
+        return (locationType == null || locationType.equalsIgnoreCase(store.getLocationType()))
+                && (collectionPoint == null || collectionPoint == store.isCollectionPoint())
+                && (showWarningMessage == null || showWarningMessage == store.isShowWarningMessage());
+    }
+}
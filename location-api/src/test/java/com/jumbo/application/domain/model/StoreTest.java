@@ -105,4 +105,20 @@ class StoreTest {
         assertThrows(IllegalArgumentException.class, () -> store.opensAt(20, 60));
         assertThrows(IllegalArgumentException.class, () -> store.opensAt(20, -1));
     }
-}
\ No newline at end of file
+
+    @Test
+    void withDistance_ReturnsCopy_LeavesSharedStoreUntouched() {
+        Store store = new Store().opensAt(8, 0).closesAt(22, 0);
+        store.setUuid("a");
+        store.setLatitude(52.37);
+
+        Store result = store.withDistance(1.5).withTravelTimeSeconds(300.0);
+
+        assertNotSame(store, result);
+        assertEquals(store, result);
+        assertEquals(1.5, result.getDistance());
+        assertEquals(300.0, result.getTravelTimeSeconds());
+        assertEquals(0.0, store.getDistance());
+        assertNull(store.getTravelTimeSeconds());
+    }
+}
@@ -0,0 +1,102 @@
+package com.jumbo.application.port.in;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NearByRequestTest {
+
+    @Test
+    void createsInstanceWithValidValues() {
+        assertDoesNotThrow(() -> new NearByRequest(52.0, 4.0, 1, 5, true));
+        assertDoesNotThrow(() -> new NearByRequest(-45.123, 100.987, 1, 1, false));
+    }
+
+    @Test
+    void acceptsBoundaryValuesForLatitudeAndLongitude() {
+        assertDoesNotThrow(() -> new NearByRequest(-90.0, -180.0, 1, 1, false));
+        assertDoesNotThrow(() -> new NearByRequest(90.0, 180.0, 1, 1, true));
+    }
+
+    @Test
+    void throwsConstraintViolationWhenLimitIsZero() {
+        assertThrows(jakarta.validation.ConstraintViolationException.class,
+                () -> new NearByRequest(0.0, 0.0, 1, 0, false));
+    }
+
+    @Test
+    void throwsConstraintViolationWhenLimitIsNegative() {
+        assertThrows(jakarta.validation.ConstraintViolationException.class,
+                () -> new NearByRequest(0.0, 0.0, 1, -1, true));
+    }
+
+    @Test
+    void throwsConstraintViolationWhenLatitudeTooLow() {
+        assertThrows(jakarta.validation.ConstraintViolationException.class,
+                () -> new NearByRequest(-90.0001, 0.0, 1, 1, false));
+    }
+
+    @Test
+    void throwsConstraintViolationWhenLatitudeTooHigh() {
+        assertThrows(jakarta.validation.ConstraintViolationException.class,
+                () -> new NearByRequest(90.0001, 0.0, 1, 1, false));
+    }
+
+    @Test
+    void throwsConstraintViolationWhenLongitudeTooLow() {
+        assertThrows(jakarta.validation.ConstraintViolationException.class,
+                () -> new NearByRequest(0.0, -180.0001, 1, 1, true));
+    }
+
+    @Test
+    void throwsConstraintViolationWhenLongitudeTooHigh() {
+        assertThrows(jakarta.validation.ConstraintViolationException.class,
+                () -> new NearByRequest(0.0, 180.0001, 1, 1, true));
+    }
+
+    @Test
+    void throwsConstraintViolationWhenRadiusBelowOne() {
+        assertThrows(jakarta.validation.ConstraintViolationException.class,
+                () -> new NearByRequest(0.0, 0.0, 0.5, 1, false));
+    }
+
+    @Test
+    void reportsViolationForOffendingPropertyOnly() {
+        ConstraintViolationException ex = assertThrows(ConstraintViolationException.class,
+                () -> new NearByRequest(0.0, 0.0, 1, 0, false));
+
+        assertEquals(1, ex.getConstraintViolations().size());
+        ConstraintViolation<?> violation = ex.getConstraintViolations().iterator().next();
+        assertEquals("limit", violation.getPropertyPath().toString());
+    }
+
+    @Test
+    void acceptsCursorIssuedForTheSameQueryWithAnotherLimit() {
+        NearByRequest first = new NearByRequest(52.0, 4.0, 5, 10, false);
+        SearchCursor cursor = new SearchCursor(1, SearchCursor.queryHash(first), 1.5, "store-1");
+
+        assertDoesNotThrow(() -> new NearByRequest(52.0, 4.0, 5, 20, false, StoreFilter.NONE, cursor));
+    }
+
+    @Test
+    void throwsInvalidCursorWhenCursorBelongsToAnotherQuery() {
+        NearByRequest first = new NearByRequest(52.0, 4.0, 5, 10, false);
+        SearchCursor cursor = new SearchCursor(1, SearchCursor.queryHash(first), 1.5, "store-1");
+
+        assertThrows(InvalidCursorException.class,
+                () -> new NearByRequest(52.0, 4.1, 5, 10, false, StoreFilter.NONE, cursor));
+    }
+
+    @Test
+    void cursorSurvivesEncodingAndRejectsGarbage() {
+        SearchCursor cursor = new SearchCursor(3, 42, 1.25, "EOgKYx4XFiQAAAFJa_YYZ4At");
+
+        assertEquals(cursor, SearchCursor.decode(cursor.encode()));
+        assertThrows(InvalidCursorException.class, () -> SearchCursor.decode("not a cursor"));
+        assertThrows(InvalidCursorException.class, () -> SearchCursor.decode("AAAA"));
+    }
+}
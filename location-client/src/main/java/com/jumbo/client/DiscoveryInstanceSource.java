@@ -0,0 +1,33 @@
+package com.jumbo.client;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Instances registered in the name-server under {@code serviceId}, read through the caller's discovery client (the
+ * Eureka client keeps a periodically refreshed local copy of the registry).
+ */
+public class DiscoveryInstanceSource implements InstanceSource {
+
+    public static final String DEFAULT_SERVICE_ID = "jumbo-location-service";
+
+    private final DiscoveryClient discoveryClient;
+    private final String serviceId;
+
+    public DiscoveryInstanceSource(DiscoveryClient discoveryClient) {
+        this(discoveryClient, DEFAULT_SERVICE_ID);
+    }
+
+    public DiscoveryInstanceSource(DiscoveryClient discoveryClient, String serviceId) {
+        this.discoveryClient = discoveryClient;
+        this.serviceId = serviceId;
+    }
+
+    @Override
+    public List<URI> instances() {
+        return discoveryClient.getInstances(serviceId).stream().map(ServiceInstance::getUri).toList();
+    }
+}
@@ -0,0 +1,115 @@
+package com.jumbo.client;
+
+import java.net.URI;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks the instance for each attempt and keeps the per-instance latency estimates.
+ * <p>
+ * With {@link LocationClientOptions.Balancing#PEAK_EWMA} two distinct instances are drawn at random and the one with
+ * the lower {@link Endpoint#cost() cost} wins ("power of two choices"): cheap to compute, and it never sends every
+ * request to the same instance the way always taking the global minimum would. The latency estimate jumps up to any
+ * slower response at once and only decays slowly afterwards, so an instance stuck in a GC pause is avoided from its
+ * first slow response on.
+ */
+class InstanceBalancer {
+
+    private final LocationClientOptions.Balancing balancing;
+    private final double decayNanos;
+    private final Map<URI, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final AtomicInteger nextRoundRobin = new AtomicInteger();
+
+    InstanceBalancer(LocationClientOptions.Balancing balancing, double decayNanos) {
+        this.balancing = balancing;
+        this.decayNanos = decayNanos;
+    }
+
+    /**
+     * @param exclude instance already tried for this request, or {@code null}; only used when there is another one
+     */
+    Endpoint choose(List<URI> instances, URI exclude) {
+        if (endpoints.size() > instances.size()) {
+            endpoints.keySet().retainAll(new HashSet<>(instances));
+        }
+        int size = instances.size();
+        int skip = exclude == null || size < 2 ? -1 : instances.indexOf(exclude);
+        int candidates = skip < 0 ? size : size - 1;
+
+        if (balancing == LocationClientOptions.Balancing.ROUND_ROBIN || candidates < 2) {
+            return endpoint(instances.get(index(Math.floorMod(nextRoundRobin.getAndIncrement(), candidates), skip)));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates);
+        int second = random.nextInt(candidates - 1);
+        if (second >= first) {
+            second++;
+        }
+        Endpoint a = endpoint(instances.get(index(first, skip)));
+        Endpoint b = endpoint(instances.get(index(second, skip)));
+        return b.cost() < a.cost() ? b : a;
+    }
+
+    // position among the instances when the excluded one is left out
+    private static int index(int candidate, int skip) {
+        return skip >= 0 && candidate >= skip ? candidate + 1 : candidate;
+    }
+
+    Endpoint endpoint(URI uri) {
+        return endpoints.computeIfAbsent(uri, key -> new Endpoint(key, decayNanos));
+    }
+
+    /**
+     * Peak-EWMA latency and in-flight count of one instance.
+     */
+    static final class Endpoint {
+
+        private final URI uri;
+        private final double decayNanos;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private double ewmaNanos;
+        private long stamp = System.nanoTime();
+
+        Endpoint(URI uri, double decayNanos) {
+            this.uri = uri;
+            this.decayNanos = decayNanos;
+        }
+
+        URI uri() {
+            return uri;
+        }
+
+        void start() {
+            outstanding.incrementAndGet();
+        }
+
+        void finish(long latencyNanos) {
+            outstanding.decrementAndGet();
+            observe(latencyNanos);
+        }
+
+        /**
+         * Expected latency of one more request: the decayed latency estimate scaled by the requests already waiting.
+         * An instance without any response yet costs nothing, so new instances get probed.
+         */
+        double cost() {
+            return observe(0) * (outstanding.get() + 1);
+        }
+
+        private synchronized double observe(long latencyNanos) {
+            long now = System.nanoTime();
+            if (latencyNanos > ewmaNanos) {
+                ewmaNanos = latencyNanos;
+            } else {
+                double weight = Math.exp(-(now - stamp) / decayNanos);
+                ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+            }
+            stamp = now;
+            return ewmaNanos;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.jumbo.client;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Base URIs of the location-service instances a request may go to. Asked once per request, so implementations
+ * should serve a locally cached view of the registry.
+ */
+@FunctionalInterface
+public interface InstanceSource {
+
+    List<URI> instances();
+}
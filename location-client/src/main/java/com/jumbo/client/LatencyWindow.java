@@ -0,0 +1,41 @@
+package com.jumbo.client;
+
+import java.util.Arrays;
+
+/**
+ * Latencies of the most recent successful responses, for deriving the hedge delay. The quantile is recomputed from a
+ * sorted copy every {@value #REFRESH} samples rather than on every request.
+ */
+class LatencyWindow {
+
+    static final int MIN_SAMPLES = 32;
+    private static final int SIZE = 1024;
+    private static final int REFRESH = 64;
+
+    private final double quantile;
+    private final long[] samples = new long[SIZE];
+    private long count;
+    private volatile long quantileNanos = -1;
+
+    LatencyWindow(double quantile) {
+        this.quantile = quantile;
+    }
+
+    synchronized void record(long latencyNanos) {
+        samples[(int) (count % SIZE)] = latencyNanos;
+        count++;
+        if (count == MIN_SAMPLES || count % REFRESH == 0) {
+            int filled = (int) Math.min(count, SIZE);
+            long[] sorted = Arrays.copyOf(samples, filled);
+            Arrays.sort(sorted);
+            quantileNanos = sorted[Math.min(filled - 1, (int) (quantile * filled))];
+        }
+    }
+
+    /**
+     * The configured latency quantile, or {@code -1} while fewer than {@value #MIN_SAMPLES} responses were seen.
+     */
+    long quantileNanos() {
+        return quantileNanos;
+    }
+}
@@ -0,0 +1,261 @@
+package com.jumbo.client;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.SearchCursor;
+import com.jumbo.application.port.in.StoreFilter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client for {@code GET /api/v1/stores/nearby} that spreads requests over the location-service instances registered
+ * in the name-server, for callers that care about tail latency.
+ * <p>
+ * Every attempt goes to the instance picked by the {@link InstanceBalancer}. When hedging is on and the first attempt
+ * has not answered after the configured quantile of recent response times, the same request is also sent to another
+ * instance and whichever answers first wins; the other attempt is cancelled. Hedges are limited to
+ * {@link LocationClientOptions#hedgeBudget()} per request on average so a slow cluster is not flooded with twice
+ * the load. A failed first attempt is retried on another instance straight away. Rejected requests (4xx) are not
+ * retried.
+ * <p>
+ * One {@link HttpClient} is shared by all requests and keeps its connections to each instance alive between them.
+ * The returned stores carry the distance and, with travel-time ranking, the travel time the service computed.
+ */
+public class LocationClient implements AutoCloseable {
+
+    static final String NEARBY_PATH = "/api/v1/stores/nearby";
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final long BUDGET_SCALE = 1_000;
+    private static final long MAX_BUDGET = 10 * BUDGET_SCALE;
+
+    private final InstanceSource instanceSource;
+    private final LocationClientOptions options;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final InstanceBalancer balancer;
+    private final LatencyWindow latencies;
+    private final AtomicLong hedgeBudget = new AtomicLong(MAX_BUDGET);
+    private final long budgetPerRequest;
+
+    public LocationClient(InstanceSource instanceSource, LocationClientOptions options) {
+        this.instanceSource = instanceSource;
+        this.options = options;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(options.requestTimeout())
+                .build();
+        this.objectMapper = new ObjectMapper().findAndRegisterModules()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .addMixIn(Store.class, SearchFields.class);
+        this.balancer = new InstanceBalancer(options.balancing(), options.decayTime().toNanos());
+        this.latencies = new LatencyWindow(options.hedgeQuantile());
+        this.budgetPerRequest = Math.round(options.hedgeBudget() * BUDGET_SCALE);
+    }
+
+    /**
+     * Blocking variant of {@link #findNearByStoresAsync(NearByRequest)}.
+     *
+     * @throws LocationClientException if no instance answered or the request was rejected
+     */
+    public NearByPage findNearByStores(NearByRequest req) {
+        try {
+            return findNearByStoresAsync(req).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LocationClientException("Interrupted while waiting for the location-service", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof LocationClientException failure) {
+                throw failure;
+            }
+            throw new LocationClientException("Nearby request failed", e.getCause());
+        }
+    }
+
+    public CompletableFuture<NearByPage> findNearByStoresAsync(NearByRequest req) {
+        List<URI> instances = instanceSource.instances();
+        if (instances.isEmpty()) {
+            return CompletableFuture.failedFuture(
+                    new LocationClientException("No location-service instances registered", null));
+        }
+        hedgeBudget.getAndUpdate(budget -> Math.min(MAX_BUDGET, budget + budgetPerRequest));
+        return new Exchange(query(req), instances).start();
+    }
+
+    @Override
+    public void close() {
+        httpClient.close();
+    }
+
+    private long hedgeDelayNanos() {
+        long quantile = latencies.quantileNanos();
+        if (quantile < 0) {
+            return -1;
+        }
+        return Math.min(Math.max(quantile, options.minHedgeDelay().toNanos()), options.requestTimeout().toNanos());
+    }
+
+    private boolean takeHedgeBudget() {
+        return hedgeBudget.getAndUpdate(budget -> budget >= BUDGET_SCALE ? budget - BUDGET_SCALE : budget)
+                >= BUDGET_SCALE;
+    }
+
+    private NearByPage page(HttpResponse<byte[]> response) throws IOException {
+        List<Store> stores = objectMapper.readValue(response.body(), new TypeReference<List<Store>>() {
+        });
+        Optional<String> next = response.headers().firstValue(NEXT_CURSOR_HEADER);
+        return new NearByPage(stores, next.map(SearchCursor::decode).orElse(null));
+    }
+
+    static String query(NearByRequest req) {
+        StringBuilder query = new StringBuilder()
+                .append("latitude=").append(req.latitude())
+                .append("&longitude=").append(req.longitude())
+                .append("&maxRadius=").append(req.maxRadiusKm())
+                .append("&limit=").append(req.limit())
+                .append("&onlyOpen=").append(req.onlyOpen());
+        StoreFilter filter = req.filter();
+        if (filter.locationType() != null) {
+            query.append("&locationType=").append(URLEncoder.encode(filter.locationType(), StandardCharsets.UTF_8));
+        }
+        if (filter.collectionPoint() != null) {
+            query.append("&collectionPoint=").append(filter.collectionPoint());
+        }
+        if (filter.showWarningMessage() != null) {
+            query.append("&showWarningMessage=").append(filter.showWarningMessage());
+        }
+        if (req.after() != null) {
+            query.append("&cursor=").append(req.after().encode());
+        }
+        return query.toString();
+    }
+
+    // the service only writes the per-search fields, the client has to read them back; Lombok copies the read-only
+    // access onto the setters, so that is where it is overridden
+    private abstract static class SearchFields {
+
+        @JsonProperty(access = JsonProperty.Access.READ_WRITE)
+        abstract void setDistance(double distance);
+
+        @JsonProperty(access = JsonProperty.Access.READ_WRITE)
+        abstract void setTravelTimeSeconds(Double travelTimeSeconds);
+    }
+
+    /**
+     * The attempts made for one request: the first one, and at most one hedge or retry on another instance.
+     */
+    private final class Exchange {
+
+        private final String query;
+        private final List<URI> instances;
+        private final CompletableFuture<NearByPage> result = new CompletableFuture<>();
+        private final List<CompletableFuture<?>> attempts = new CopyOnWriteArrayList<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean secondSent = new AtomicBoolean();
+        private volatile URI firstInstance;
+        private volatile Throwable lastFailure;
+
+        Exchange(String query, List<URI> instances) {
+            this.query = query;
+            this.instances = instances;
+        }
+
+        CompletableFuture<NearByPage> start() {
+            firstInstance = send(null);
+            long hedgeDelay = options.hedging() && instances.size() > 1 ? hedgeDelayNanos() : -1;
+            if (hedgeDelay >= 0) {
+                CompletableFuture.delayedExecutor(hedgeDelay, TimeUnit.NANOSECONDS).execute(() -> {
+                    if (!result.isDone() && takeHedgeBudget()) {
+                        sendSecond();
+                    }
+                });
+            }
+            return result;
+        }
+
+        private boolean sendSecond() {
+            if (result.isDone() || instances.size() < 2 || !secondSent.compareAndSet(false, true)) {
+                return false;
+            }
+            send(firstInstance);
+            return true;
+        }
+
+        private URI send(URI exclude) {
+            InstanceBalancer.Endpoint endpoint = balancer.choose(instances, exclude);
+            HttpRequest request = HttpRequest.newBuilder(endpoint.uri().resolve(NEARBY_PATH + "?" + query))
+                    .timeout(options.requestTimeout())
+                    .header("Accept", "application/json")
+                    .GET()
+                    .build();
+            pending.incrementAndGet();
+            endpoint.start();
+            long started = System.nanoTime();
+            CompletableFuture<HttpResponse<byte[]>> attempt = httpClient.sendAsync(request,
+                    HttpResponse.BodyHandlers.ofByteArray());
+            attempts.add(attempt);
+            attempt.whenComplete((response, failure) -> completed(endpoint, started, response, failure));
+            return endpoint.uri();
+        }
+
+        private void completed(InstanceBalancer.Endpoint endpoint, long started, HttpResponse<byte[]> response,
+                               Throwable failure) {
+            long latency = System.nanoTime() - started;
+            Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+            if (cause instanceof CancellationException) {
+                // lost the race; how long it had been waiting is still a lower bound on that instance's latency
+                endpoint.finish(latency);
+                return;
+            }
+            if (cause == null && response.statusCode() == 200) {
+                endpoint.finish(latency);
+                latencies.record(latency);
+                try {
+                    if (result.complete(page(response))) {
+                        attempts.forEach(other -> other.cancel(true));
+                    }
+                } catch (IOException | RuntimeException e) {
+                    result.completeExceptionally(new LocationClientException("Unreadable response from "
+                            + endpoint.uri(), e));
+                }
+                return;
+            }
+            if (cause == null && response.statusCode() >= 400 && response.statusCode() < 500) {
+                endpoint.finish(latency);
+                result.completeExceptionally(new LocationClientException("Request rejected with status "
+                        + response.statusCode() + ": " + new String(response.body(), StandardCharsets.UTF_8),
+                        response.statusCode()));
+                return;
+            }
+            // failing instances are treated as slow ones until the estimate decays again
+            endpoint.finish(Math.max(latency, options.requestTimeout().toNanos()));
+            lastFailure = cause != null ? cause
+                    : new IOException("Status " + response.statusCode() + " from " + endpoint.uri());
+            if (pending.decrementAndGet() == 0 && !sendSecond()) {
+                result.completeExceptionally(new LocationClientException("No location-service instance answered",
+                        lastFailure));
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.jumbo.client;
+
+/**
+ * A nearby request could not be answered: every instance tried failed, or the service rejected the request.
+ */
+public class LocationClientException extends RuntimeException {
+
+    private final int status;
+
+    public LocationClientException(String message, Throwable cause) {
+        super(message, cause);
+        this.status = 0;
+    }
+
+    public LocationClientException(String message, int status) {
+        super(message);
+        this.status = status;
+    }
+
+    /**
+     * HTTP status of a rejected request, {@code 0} when no instance answered.
+     */
+    public int getStatus() {
+        return status;
+    }
+}
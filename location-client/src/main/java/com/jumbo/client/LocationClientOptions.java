@@ -0,0 +1,57 @@
+package com.jumbo.client;
+
+import java.time.Duration;
+
+/**
+ * Tuning for {@link LocationClient}.
+ *
+ * @param balancing      how an instance is picked for each attempt
+ * @param requestTimeout connect and response timeout of one attempt
+ * @param decayTime      time constant of the peak-EWMA latency estimate; a latency spike is forgotten over a few
+ *                       multiples of it
+ * @param hedging        whether a second attempt is sent to another instance when the first is slow
+ * @param hedgeQuantile  latency quantile of recent responses after which the hedge is sent
+ * @param minHedgeDelay  lower bound of the hedge delay, so hedges never fire on normal jitter
+ * @param hedgeBudget    hedges allowed per request on average, which caps the extra load hedging adds
+ */
+public record LocationClientOptions(Balancing balancing, Duration requestTimeout, Duration decayTime, boolean hedging,
+                                    double hedgeQuantile, Duration minHedgeDelay, double hedgeBudget) {
+
+    public static final LocationClientOptions DEFAULTS = new LocationClientOptions(Balancing.PEAK_EWMA,
+            Duration.ofSeconds(2), Duration.ofSeconds(10), true, 0.95, Duration.ofMillis(5), 0.1);
+
+    public enum Balancing {
+        /**
+         * Cycle through the instances, ignoring how they perform.
+         */
+        ROUND_ROBIN,
+        /**
+         * Pick the cheaper of two random instances, cost being peak-EWMA latency times outstanding requests.
+         */
+        PEAK_EWMA
+    }
+
+    public LocationClientOptions {
+        if (balancing == null || requestTimeout == null || decayTime == null || minHedgeDelay == null) {
+            throw new IllegalArgumentException("Client options must not be null");
+        }
+        if (!(hedgeQuantile > 0 && hedgeQuantile < 1) || !(hedgeBudget >= 0)) {
+            throw new IllegalArgumentException("hedgeQuantile must be in (0, 1) and hedgeBudget at least 0");
+        }
+    }
+
+    public LocationClientOptions withBalancing(Balancing balancing) {
+        return new LocationClientOptions(balancing, requestTimeout, decayTime, hedging, hedgeQuantile, minHedgeDelay,
+                hedgeBudget);
+    }
+
+    public LocationClientOptions withHedging(boolean hedging) {
+        return new LocationClientOptions(balancing, requestTimeout, decayTime, hedging, hedgeQuantile, minHedgeDelay,
+                hedgeBudget);
+    }
+
+    public LocationClientOptions withRequestTimeout(Duration requestTimeout) {
+        return new LocationClientOptions(balancing, requestTimeout, decayTime, hedging, hedgeQuantile, minHedgeDelay,
+                hedgeBudget);
+    }
+}
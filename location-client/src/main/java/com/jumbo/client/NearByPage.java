@@ -0,0 +1,19 @@
+package com.jumbo.client;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.SearchCursor;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * One page of nearby stores.
+ *
+ * @param nextCursor position to continue from, {@code null} when this was the last page
+ */
+public record NearByPage(List<Store> stores, SearchCursor nextCursor) {
+
+    public Optional<SearchCursor> next() {
+        return Optional.ofNullable(nextCursor);
+    }
+}
@@ -0,0 +1,102 @@
+package com.jumbo.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * A stand-in location-service instance on a local port answering {@code /api/v1/stores/nearby} with a fixed page,
+ * after a configurable delay.
+ */
+public class FakeInstance implements AutoCloseable {
+
+    static final String BODY = """
+            [{"uuid":"store-1","city":"Amsterdam","latitude":52.3702,"longitude":4.8952,"todayOpen":"08:00",\
+            "todayClose":"22:00","locationType":"Supermarkt","collectionPoint":true,"distance":0.0},
+             {"uuid":"store-2","city":"Amsterdam","latitude":52.3800,"longitude":4.9000,"todayOpen":"08:00",\
+            "todayClose":"22:00","locationType":"Supermarkt","collectionPoint":false,"distance":1.2,\
+            "travelTimeSeconds":240.0}]""";
+
+    static {
+        // without it the JDK server waits on delayed ACKs and every small response takes ~40 ms
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile LongSupplier delayMillis = () -> 0;
+    private volatile int status = 200;
+    private volatile String nextCursor;
+    private volatile String lastQuery;
+
+    public FakeInstance() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(LocationClient.NEARBY_PATH, this::answer);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    public URI uri() {
+        return URI.create("http://localhost:" + server.getAddress().getPort());
+    }
+
+    public FakeInstance delay(LongSupplier delayMillis) {
+        this.delayMillis = delayMillis;
+        return this;
+    }
+
+    public FakeInstance status(int status) {
+        this.status = status;
+        return this;
+    }
+
+    public FakeInstance nextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+        return this;
+    }
+
+    public int requests() {
+        return requests.get();
+    }
+
+    public String lastQuery() {
+        return lastQuery;
+    }
+
+    private void answer(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        lastQuery = exchange.getRequestURI().getRawQuery();
+        try {
+            long delay = delayMillis.getAsLong();
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] body = (status == 200 ? BODY : "{\"error\":\"failed\"}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        if (nextCursor != null) {
+            exchange.getResponseHeaders().add(LocationClient.NEXT_CURSOR_HEADER, nextCursor);
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        } catch (IOException e) {
+            // the client cancelled a hedged attempt and closed the connection
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,75 @@
+package com.jumbo.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InstanceBalancerTest {
+
+    private static final double DECAY_NANOS = 10e9;
+    private static final List<URI> INSTANCES = List.of(URI.create("http://a:8080"), URI.create("http://b:8080"),
+            URI.create("http://c:8080"));
+
+    @Test
+    void choose_RoundRobin_CyclesThroughInstances() {
+        InstanceBalancer balancer = new InstanceBalancer(LocationClientOptions.Balancing.ROUND_ROBIN, DECAY_NANOS);
+
+        List<URI> picked = List.of(balancer.choose(INSTANCES, null).uri(), balancer.choose(INSTANCES, null).uri(),
+                balancer.choose(INSTANCES, null).uri(), balancer.choose(INSTANCES, null).uri());
+
+        assertEquals(List.of(INSTANCES.get(0), INSTANCES.get(1), INSTANCES.get(2), INSTANCES.get(0)), picked);
+    }
+
+    @Test
+    void choose_Excluded_IsNeverPicked() {
+        for (LocationClientOptions.Balancing balancing : LocationClientOptions.Balancing.values()) {
+            InstanceBalancer balancer = new InstanceBalancer(balancing, DECAY_NANOS);
+            for (int i = 0; i < 100; i++) {
+                assertNotEquals(INSTANCES.get(1), balancer.choose(INSTANCES, INSTANCES.get(1)).uri());
+            }
+        }
+    }
+
+    @Test
+    void choose_PeakEwma_AvoidsSlowInstance() {
+        InstanceBalancer balancer = new InstanceBalancer(LocationClientOptions.Balancing.PEAK_EWMA, DECAY_NANOS);
+        observe(balancer.endpoint(INSTANCES.get(0)), 1_000_000);
+        observe(balancer.endpoint(INSTANCES.get(1)), 1_000_000);
+        observe(balancer.endpoint(INSTANCES.get(2)), 500_000_000);
+
+        Map<URI, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 1_000; i++) {
+            counts.merge(balancer.choose(INSTANCES, null).uri(), 1, Integer::sum);
+        }
+
+        // two distinct draws always pair the slow instance with a faster one
+        assertEquals(0, counts.getOrDefault(INSTANCES.get(2), 0));
+        assertTrue(counts.get(INSTANCES.get(0)) > 300 && counts.get(INSTANCES.get(1)) > 300, counts.toString());
+    }
+
+    @Test
+    void cost_PeakEwma_JumpsToPeakAndGrowsWithOutstanding() {
+        InstanceBalancer.Endpoint endpoint = new InstanceBalancer.Endpoint(INSTANCES.get(0), DECAY_NANOS);
+        observe(endpoint, 1_000_000);
+        observe(endpoint, 80_000_000);
+
+        double idle = endpoint.cost();
+        endpoint.start();
+        double busy = endpoint.cost();
+
+        assertEquals(80_000_000, idle, 1_000_000);
+        assertEquals(2 * idle, busy, 2_000_000);
+    }
+
+    private static void observe(InstanceBalancer.Endpoint endpoint, long latencyNanos) {
+        endpoint.start();
+        endpoint.finish(latencyNanos);
+    }
+}
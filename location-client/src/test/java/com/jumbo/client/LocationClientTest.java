@@ -0,0 +1,159 @@
+package com.jumbo.client;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.SearchCursor;
+import com.jumbo.application.port.in.StoreFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocationClientTest {
+
+    private static final NearByRequest AMSTERDAM = new NearByRequest(52.3702, 4.8952, 5, 2, false);
+
+    private final List<FakeInstance> instances = new ArrayList<>();
+    private LocationClient client;
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.close();
+        }
+        instances.forEach(FakeInstance::close);
+    }
+
+    @Test
+    void findNearByStores_Response_ParsesStoresWithDistanceAndCursor() throws IOException {
+        SearchCursor cursor = new SearchCursor(1, SearchCursor.queryHash(AMSTERDAM), 1.2, "store-2");
+        FakeInstance instance = start().nextCursor(cursor.encode());
+        client = client(LocationClientOptions.DEFAULTS);
+
+        NearByPage page = client.findNearByStores(AMSTERDAM);
+
+        assertEquals(List.of("store-1", "store-2"), page.stores().stream().map(Store::getUuid).toList());
+        assertEquals(0.0, page.stores().getFirst().getDistance());
+        assertEquals(1.2, page.stores().get(1).getDistance());
+        assertNull(page.stores().getFirst().getTravelTimeSeconds());
+        assertEquals(240.0, page.stores().get(1).getTravelTimeSeconds());
+        assertEquals(cursor, page.nextCursor());
+        assertTrue(instance.lastQuery().contains("latitude=52.3702"));
+    }
+
+    @Test
+    void findNearByStores_FilterAndCursor_AreSentAsQueryParameters() throws IOException {
+        FakeInstance instance = start();
+        client = client(LocationClientOptions.DEFAULTS);
+        StoreFilter filter = new StoreFilter("Supermarkt PuP", true, null);
+        NearByRequest first = new NearByRequest(52.3702, 4.8952, 5, 2, true, filter);
+        SearchCursor after = new SearchCursor(1, SearchCursor.queryHash(first), 1.2, "store-2");
+
+        NearByPage page = client.findNearByStores(new NearByRequest(52.3702, 4.8952, 5, 2, true, filter, after));
+
+        assertNull(page.nextCursor());
+        String query = instance.lastQuery();
+        assertTrue(query.contains("locationType=Supermarkt+PuP"), query);
+        assertTrue(query.contains("collectionPoint=true"), query);
+        assertTrue(query.contains("onlyOpen=true"), query);
+        assertTrue(query.contains("cursor=" + after.encode()), query);
+    }
+
+    @Test
+    void findNearByStores_InstanceFails_RetriesOnAnother() throws IOException {
+        FakeInstance failing = start().status(503);
+        FakeInstance healthy = start();
+        client = client(LocationClientOptions.DEFAULTS.withHedging(false));
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(2, client.findNearByStores(AMSTERDAM).stores().size());
+        }
+        assertEquals(10, healthy.requests());
+        assertTrue(failing.requests() <= 2, "failing instance should be avoided after its first failure");
+    }
+
+    @Test
+    void findNearByStores_Rejected_IsNotRetried() throws IOException {
+        FakeInstance first = start().status(400);
+        FakeInstance second = start().status(400);
+        client = client(LocationClientOptions.DEFAULTS);
+
+        LocationClientException thrown = assertThrows(LocationClientException.class,
+                () -> client.findNearByStores(AMSTERDAM));
+
+        assertEquals(400, thrown.getStatus());
+        assertEquals(1, first.requests() + second.requests());
+    }
+
+    @Test
+    void findNearByStores_NoInstances_Fails() {
+        client = new LocationClient(List::of, LocationClientOptions.DEFAULTS);
+
+        assertThrows(LocationClientException.class, () -> client.findNearByStores(AMSTERDAM));
+    }
+
+    @Test
+    void findNearByStores_StalledInstance_HedgeAnswersFirst() throws IOException {
+        FakeInstance a = start().delay(() -> 2);
+        FakeInstance b = start().delay(() -> 2);
+        // enough budget that hedges fired on warm-up jitter cannot use it up
+        client = client(new LocationClientOptions(LocationClientOptions.Balancing.ROUND_ROBIN, Duration.ofSeconds(2),
+                Duration.ofSeconds(10), true, 0.95, Duration.ofMillis(5), 1.0));
+        for (int i = 0; i < LatencyWindow.MIN_SAMPLES * 2; i++) {
+            client.findNearByStores(AMSTERDAM);
+        }
+
+        // a "GC pause" on one instance: round robin keeps sending it every other request
+        a.delay(() -> 1_000);
+        long started = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            client.findNearByStores(AMSTERDAM);
+        }
+
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+        assertTrue(elapsedMillis < 1_000, "hedged requests should not wait for the stalled instance, took "
+                + elapsedMillis + " ms");
+        assertTrue(b.requests() > LatencyWindow.MIN_SAMPLES + 2);
+    }
+
+    @Test
+    void findNearByStores_StalledInstance_PeakEwmaStopsPickingIt() throws IOException {
+        FakeInstance stalled = start();
+        FakeInstance healthy = start();
+        client = client(LocationClientOptions.DEFAULTS.withHedging(false));
+        for (int i = 0; i < 20; i++) {
+            client.findNearByStores(AMSTERDAM);
+        }
+
+        stalled.delay(() -> 200);
+        int before = stalled.requests();
+        int healthyBefore = healthy.requests();
+        for (int i = 0; i < 50; i++) {
+            client.findNearByStores(AMSTERDAM);
+        }
+
+        assertTrue(stalled.requests() - before <= 2, "stalled instance got " + (stalled.requests() - before)
+                + " of 50 requests");
+        assertTrue(healthy.requests() - healthyBefore >= 48);
+    }
+
+    private FakeInstance start() throws IOException {
+        FakeInstance instance = new FakeInstance();
+        instances.add(instance);
+        return instance;
+    }
+
+    private LocationClient client(LocationClientOptions options) {
+        List<URI> uris = instances.stream().map(FakeInstance::uri).toList();
+        return new LocationClient(() -> uris, options);
+    }
+}
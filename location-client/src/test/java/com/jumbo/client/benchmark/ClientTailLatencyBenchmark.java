@@ -0,0 +1,77 @@
+package com.jumbo.client.benchmark;
+
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.client.FakeInstance;
+import com.jumbo.client.LocationClient;
+import com.jumbo.client.LocationClientOptions;
+import com.jumbo.client.NearByPage;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tail latency of the client against three local instances, one of which stalls for {@value #PAUSE_MILLIS} ms
+ * every second like a JVM in a long GC pause. Compare the p99 and p99.9 of round robin, peak-EWMA and peak-EWMA with
+ * hedging.
+ * <p>
+ * Run with {@code mvn test-compile} followed by this class' {@code main} method (or
+ * {@code org.openjdk.jmh.Main ClientTailLatencyBenchmark}) on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(8)
+@Fork(1)
+public class ClientTailLatencyBenchmark {
+
+    private static final long PAUSE_MILLIS = 150;
+    private static final long SERVICE_MILLIS = 1;
+    private static final NearByRequest REQUEST = new NearByRequest(52.3702, 4.8952, 5, 5, false);
+
+    @Param({"ROUND_ROBIN", "PEAK_EWMA"})
+    private LocationClientOptions.Balancing balancing;
+
+    @Param({"false", "true"})
+    private boolean hedging;
+
+    private final List<FakeInstance> instances = new ArrayList<>();
+    private LocationClient client;
+
+    @Setup
+    public void setUp() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            instances.add(new FakeInstance().delay(() -> SERVICE_MILLIS));
+        }
+        instances.getFirst().delay(ClientTailLatencyBenchmark::pausingDelay);
+        List<URI> uris = instances.stream().map(FakeInstance::uri).toList();
+        client = new LocationClient(() -> uris, LocationClientOptions.DEFAULTS
+                .withBalancing(balancing)
+                .withHedging(hedging));
+    }
+
+    // requests arriving during the pause wait for its end, as they would behind a stop-the-world collection
+    private static long pausingDelay() {
+        long inSecond = System.currentTimeMillis() % 1_000;
+        return inSecond < PAUSE_MILLIS ? PAUSE_MILLIS - inSecond + SERVICE_MILLIS : SERVICE_MILLIS;
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        instances.forEach(FakeInstance::close);
+    }
+
+    @Benchmark
+    public NearByPage nearby() {
+        return client.findNearByStores(REQUEST);
+    }
+
+    public static void main(String[] args) throws Exception {
+        org.openjdk.jmh.Main.main(new String[]{ClientTailLatencyBenchmark.class.getSimpleName()});
+    }
+}
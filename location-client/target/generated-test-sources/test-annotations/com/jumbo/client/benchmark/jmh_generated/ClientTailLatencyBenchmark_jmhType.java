@@ -0,0 +1,4 @@
+package com.jumbo.client.benchmark.jmh_generated;
+public class ClientTailLatencyBenchmark_jmhType extends ClientTailLatencyBenchmark_jmhType_B3 {
+}
+
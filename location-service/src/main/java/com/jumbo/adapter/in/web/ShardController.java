@@ -0,0 +1,92 @@
+package com.jumbo.adapter.in.web;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.NearByUseCase;
+import com.jumbo.application.port.in.SearchCursor;
+import com.jumbo.application.port.in.StoreFilter;
+import io.swagger.v3.oas.annotations.Hidden;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Instance-to-instance endpoint used by a sharding coordinator. Always answers from this instance's own stores and
+ * takes the cursor position as plain values, since the coordinator has already checked the client's cursor.
+ */
+@RestController
+@RequestMapping("/api/v1/shard")
+@Validated
+@Slf4j
+@Hidden
+public class ShardController {
+
+    private final NearByUseCase localNearByService;
+
+    public ShardController(@Qualifier("localNearByService") NearByUseCase localNearByService) {
+        this.localNearByService = localNearByService;
+    }
+
+    @GetMapping("/nearby")
+    public ResponseEntity<List<Store>> getClosestStores(
+            @RequestParam("latitude")
+            @DecimalMin("-90.0") @DecimalMax("90.0")
+            double latitude,
+
+            @RequestParam("longitude")
+            @DecimalMin("-180.0") @DecimalMax("180.0")
+            double longitude,
+
+            @RequestParam("maxRadius")
+            @Min(1) @Max(100)
+            double maxRadius,
+
+            @RequestParam("limit")
+            @Min(1) @Max(50)
+            int limit,
+
+            @RequestParam(name = "onlyOpen", defaultValue = "false")
+            boolean onlyOpen,
+
+            @RequestParam(name = "locationType", required = false)
+            @Size(max = 50)
+            String locationType,
+
+            @RequestParam(name = "collectionPoint", required = false)
+            Boolean collectionPoint,
+
+            @RequestParam(name = "showWarningMessage", required = false)
+            Boolean showWarningMessage,
+
+            @RequestParam(name = "afterDistanceKm", required = false)
+            @DecimalMin("0.0")
+            Double afterDistanceKm,
+
+            @RequestParam(name = "afterUuid", required = false)
+            @Size(max = 100)
+            String afterUuid
+    ) {
+        StoreFilter filter = new StoreFilter(locationType, collectionPoint, showWarningMessage);
+        NearByRequest request = new NearByRequest(latitude, longitude, maxRadius, limit, onlyOpen, filter);
+        if (afterDistanceKm != null && afterUuid != null) {
+            SearchCursor after = new SearchCursor(0, SearchCursor.queryHash(request), afterDistanceKm, afterUuid);
+            request = new NearByRequest(latitude, longitude, maxRadius, limit, onlyOpen, filter, after);
+        }
+        log.debug("Shard query: {}", request);
+
+        return ResponseEntity.ok(localNearByService.findNearByStores(request, LocalTime.now()));
+    }
+}
@@ -1,8 +1,24 @@
 package com.jumbo.adapter.in.web;
 
+import com.jumbo.adapter.in.web.exception.ResourceNotFoundException;
+import com.jumbo.application.domain.model.ApproximateNearByResult;
+import com.jumbo.application.domain.model.PostalCodeCentroid;
+import com.jumbo.application.domain.model.RouteStop;
 import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.model.ViewportResult;
+import com.jumbo.application.port.in.ApproximateNearByUseCase;
+import com.jumbo.application.port.in.CorridorRequest;
+import com.jumbo.application.port.in.CorridorUseCase;
+import com.jumbo.application.port.in.NearByCursorUseCase;
 import com.jumbo.application.port.in.NearByRequest;
 import com.jumbo.application.port.in.NearByUseCase;
+import com.jumbo.application.port.in.PostalCodeUseCase;
+import com.jumbo.application.port.in.SearchCursor;
+import com.jumbo.application.port.in.StoreFilter;
+import com.jumbo.application.port.in.TextSearchRequest;
+import com.jumbo.application.port.in.TextSearchUseCase;
+import com.jumbo.application.port.in.ViewportRequest;
+import com.jumbo.application.port.in.ViewportUseCase;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,14 +29,19 @@ import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/v1/stores")
@@ -30,33 +51,56 @@ import java.util.List;
 @Tag(name = "Store Location API", description = "API for finding nearby Jumbo stores")
 public class StoreController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String ERROR_BOUND_HEADER = "X-Approximation-Bound";
+
     private final NearByUseCase nearByService;
+    private final ViewportUseCase viewportService;
+    private final CorridorUseCase corridorService;
+    private final TextSearchUseCase textSearchService;
+    private final PostalCodeUseCase postalCodeService;
+    private final NearByCursorUseCase nearByCursorService;
+    private final ApproximateNearByUseCase approximateNearByService;
 
     @Operation(
             summary = "Get closest stores",
-            description = "Returns a list of the closest stores to the given latitude and longitude.",
+            description = "Returns a list of the closest stores to the given latitude and longitude, or to the "
+                    + "centroid of the given postal code when no coordinates are passed. A full page carries an "
+                    + "X-Next-Cursor header; pass it back as cursor to get the next page. With approximate=true the "
+                    + "search may return stores up to 1 + epsilon times farther than the exact ones and reports the "
+                    + "bound it achieved in the X-Approximation-Bound header; approximate pages carry no cursor.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "List of closest stores",
                             content = @Content(mediaType = "application/json",
                                     schema = @Schema(implementation = Store.class))),
-                    @ApiResponse(responseCode = "400", description = "Invalid parameters provided"),
-                    @ApiResponse(responseCode = "500", description = "Internal server error")
+                    @ApiResponse(responseCode = "400", description = "Invalid parameters or cursor provided"),
+                    @ApiResponse(responseCode = "404", description = "Unknown postal code"),
+                    @ApiResponse(responseCode = "500", description = "Internal server error"),
+                    @ApiResponse(responseCode = "503", description = "Too many concurrent searches, retry after "
+                            + "the Retry-After header")
             }
     )
     @GetMapping("/nearby")
     public ResponseEntity<List<Store>> getClosestStores(
 
-            @Parameter(description = "Latitude of the location", required = true, example = "52.3702")
-            @RequestParam("latitude")
+            @Parameter(description = "Latitude of the location, required unless postalCode is given", example = "52.3702")
+            @RequestParam(value = "latitude", required = false)
             @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
             @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
-            double latitude,
+            Double latitude,
 
-            @Parameter(description = "Longitude of the location", required = true, example = "4.8952")
-            @RequestParam("longitude")
+            @Parameter(description = "Longitude of the location, required unless postalCode is given", example = "4.8952")
+            @RequestParam(value = "longitude", required = false)
             @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
             @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
-            double longitude,
+            Double longitude,
+
+            @Parameter(description = "Dutch postal code (PC6 or PC4) used as the location when no coordinates are given",
+                    example = "1012 AB")
+            @RequestParam(value = "postalCode", required = false)
+            @Pattern(regexp = "\\s*[1-9][0-9]{3}\\s*([A-Za-z]{2})?\\s*",
+                    message = "Postal code must look like 1012 AB or 1012")
+            String postalCode,
 
             @Parameter(description = "Maximum search radius in kilometers", example = "5.0")
             @RequestParam(name = "maxRadius", defaultValue = "5.0")
@@ -72,15 +116,202 @@ public class StoreController {
 
             @Parameter(description = "Whether to return only open stores", example = "false")
             @RequestParam(name = "onlyOpen", defaultValue = "false")
-            boolean onlyOpen
-    ) {
-        log.debug("Finding nearby stores for coordinates: lat={}, lon={}, limit={}, onlyOpen={}, maxRadius={}",
-                latitude, longitude, limit, onlyOpen, maxRadius);
+            boolean onlyOpen,
+
+            @Parameter(description = "Only return stores of this location type", example = "SupermarktPuP")
+            @RequestParam(name = "locationType", required = false)
+            @Size(max = 50, message = "Location type cannot exceed 50 characters")
+            String locationType,
+
+            @Parameter(description = "Only return stores that are (true) or are not (false) a collection point")
+            @RequestParam(name = "collectionPoint", required = false)
+            Boolean collectionPoint,
+
+            @Parameter(description = "Only return stores that do (true) or do not (false) show a warning message")
+            @RequestParam(name = "showWarningMessage", required = false)
+            Boolean showWarningMessage,
+
+            @Parameter(description = "Continuation token from the X-Next-Cursor header of the previous page; "
+                    + "all other parameters except limit must be unchanged")
+            @RequestParam(name = "cursor", required = false)
+            @Size(max = 512, message = "Cursor cannot exceed 512 characters")
+            String cursor,
 
-        NearByRequest request = new NearByRequest(latitude, longitude, maxRadius, limit, onlyOpen);
+            @Parameter(description = "Allow results that are not exactly the nearest stores, e.g. for map previews",
+                    example = "false")
+            @RequestParam(name = "approximate", defaultValue = "false")
+            boolean approximate,
+
+            @Parameter(description = "Relative distance error allowed with approximate=true", example = "0.1")
+            @RequestParam(name = "epsilon", defaultValue = "0.1")
+            @DecimalMin(value = "0.0", message = "Epsilon must be between 0 and 1")
+            @DecimalMax(value = "1.0", message = "Epsilon must be between 0 and 1")
+            double epsilon
+    ) throws MissingServletRequestParameterException {
+        if (latitude == null || longitude == null) {
+            if (postalCode == null) {
+                throw new MissingServletRequestParameterException(latitude == null ? "latitude" : "longitude",
+                        "Double");
+            }
+            PostalCodeCentroid centroid = postalCodeService.locate(postalCode)
+                    .orElseThrow(() -> new ResourceNotFoundException("Unknown postal code '" + postalCode + "'"));
+            log.debug("Resolved postal code {} to {}", postalCode, centroid);
+            latitude = centroid.latitude();
+            longitude = centroid.longitude();
+        }
+
+        StoreFilter filter = new StoreFilter(locationType == null || locationType.isBlank() ? null : locationType.strip(),
+                collectionPoint, showWarningMessage);
+        log.debug("Finding nearby stores for coordinates: lat={}, lon={}, limit={}, onlyOpen={}, maxRadius={}, filter={}",
+                latitude, longitude, limit, onlyOpen, maxRadius, filter);
+
+        SearchCursor after = cursor == null ? null : nearByCursorService.decode(cursor);
+        NearByRequest request = new NearByRequest(latitude, longitude, maxRadius, limit, onlyOpen, filter, after);
+        if (approximate) {
+            ApproximateNearByResult result = approximateNearByService.findNearByStores(request, epsilon,
+                    LocalTime.now());
+            log.debug("Found {} nearby stores within {} of the exact distances", result.stores().size(),
+                    result.errorBound());
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .header(ERROR_BOUND_HEADER, String.format(Locale.ROOT, "%.4f", result.errorBound()));
+            // the next page may be requested without approximate=true, so it has to be ranked the same way
+            if (result.errorBound() == 0 && nearByService.ordersByDistance()) {
+                nearByCursorService.nextCursor(request, result.stores())
+                        .ifPresent(next -> response.header(NEXT_CURSOR_HEADER, next));
+            }
+            return response.body(result.stores());
+        }
         List<Store> stores = nearByService.findNearByStores(request, LocalTime.now());
 
         log.debug("Found {} nearby stores", stores.size());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nearByService.ordersByDistance()) {
+            nearByCursorService.nextCursor(request, stores)
+                    .ifPresent(next -> response.header(NEXT_CURSOR_HEADER, next));
+        }
+        return response.body(stores);
+    }
+
+    @Operation(
+            summary = "Get stores in a map viewport",
+            description = "Returns the stores inside the given bounding box. At low zoom levels the stores are "
+                    + "summarised as precomputed clusters so the response size does not grow with the viewport.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Stores or clusters in the viewport",
+                            content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = ViewportResult.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid parameters provided"),
+                    @ApiResponse(responseCode = "500", description = "Internal server error")
+            }
+    )
+    @GetMapping("/in-bounds")
+    public ResponseEntity<ViewportResult> getStoresInBounds(
+
+            @Parameter(description = "Southern edge of the viewport", required = true, example = "52.30")
+            @RequestParam("minLat")
+            @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+            @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+            double minLat,
+
+            @Parameter(description = "Western edge of the viewport", required = true, example = "4.80")
+            @RequestParam("minLon")
+            @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+            @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+            double minLon,
+
+            @Parameter(description = "Northern edge of the viewport", required = true, example = "52.42")
+            @RequestParam("maxLat")
+            @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+            @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+            double maxLat,
+
+            @Parameter(description = "Eastern edge of the viewport", required = true, example = "5.00")
+            @RequestParam("maxLon")
+            @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+            @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+            double maxLon,
+
+            @Parameter(description = "Map zoom level", required = true, example = "12")
+            @RequestParam("zoom")
+            @Min(value = 0, message = "Zoom must be at least 0")
+            @Max(value = 22, message = "Zoom cannot exceed 22")
+            int zoom
+    ) {
+        log.debug("Finding stores in bounds: lat=[{}, {}], lon=[{}, {}], zoom={}", minLat, maxLat, minLon, maxLon, zoom);
+
+        ViewportResult result = viewportService.findInBounds(new ViewportRequest(minLat, minLon, maxLat, maxLon, zoom));
+
+        log.debug("Found {} clusters and {} stores in bounds", result.clusters().size(), result.stores().size());
+        return ResponseEntity.ok(result);
+    }
+
+    @Operation(
+            summary = "Get stores along a route",
+            description = "Returns the stores within the given distance of a route, nearest to the route first "
+                    + "or in the order in which the route passes them.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Stores along the route",
+                            content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = RouteStop.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid request body"),
+                    @ApiResponse(responseCode = "500", description = "Internal server error")
+            }
+    )
+    @PostMapping("/along-route")
+    public ResponseEntity<List<RouteStop>> getStoresAlongRoute(@RequestBody CorridorRequest request) {
+        log.debug("Finding stores along route: buffer={}km, limit={}, rankBy={}, onlyOpen={}",
+                request.bufferKm(), request.limit(), request.rankBy(), request.onlyOpen());
+
+        List<RouteStop> stops = corridorService.findAlongRoute(request, LocalTime.now());
+
+        log.debug("Found {} stores along route", stops.size());
+        return ResponseEntity.ok(stops);
+    }
+
+    @Operation(
+            summary = "Search stores by address",
+            description = "Autocomplete over city, postal code, street and address name. Every word is matched as a "
+                    + "prefix, ignoring case and diacritics. With coordinates, nearer stores rank higher.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Matching stores, best match first",
+                            content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = Store.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid parameters provided"),
+                    @ApiResponse(responseCode = "500", description = "Internal server error")
+            }
+    )
+    @GetMapping("/search")
+    public ResponseEntity<List<Store>> searchStores(
+
+            @Parameter(description = "Search text", required = true, example = "amsterdam dam")
+            @RequestParam("q")
+            @NotBlank(message = "Query must not be blank")
+            @Size(max = 100, message = "Query cannot exceed 100 characters")
+            String query,
+
+            @Parameter(description = "Latitude of the caller, biases results towards nearby stores", example = "52.3702")
+            @RequestParam(value = "latitude", required = false)
+            @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+            @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+            Double latitude,
+
+            @Parameter(description = "Longitude of the caller, biases results towards nearby stores", example = "4.8952")
+            @RequestParam(value = "longitude", required = false)
+            @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+            @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+            Double longitude,
+
+            @Parameter(description = "Maximum number of stores to return", example = "10")
+            @RequestParam(value = "limit", defaultValue = "10")
+            @Min(value = 1, message = "Limit must be at least 1")
+            @Max(value = 50, message = "Limit cannot exceed 50")
+            int limit
+    ) {
+        log.debug("Searching stores: q='{}', lat={}, lon={}, limit={}", query, latitude, longitude, limit);
+
+        List<Store> stores = textSearchService.search(new TextSearchRequest(query, latitude, longitude, limit));
+
+        log.debug("Found {} stores matching '{}'", stores.size(), query);
         return ResponseEntity.ok(stores);
     }
 }
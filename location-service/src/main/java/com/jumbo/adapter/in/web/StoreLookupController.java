@@ -0,0 +1,102 @@
+package com.jumbo.adapter.in.web;
+
+import com.jumbo.adapter.in.web.exception.ResourceNotFoundException;
+import com.jumbo.application.domain.model.BatchGetResult;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.BatchGetRequest;
+import com.jumbo.application.port.in.StoreLookupUseCase;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Lookups by store identity. Mapped under {@code /api/v1} rather than {@code /api/v1/stores} because the batch
+ * endpoint uses the custom-method form {@code /stores:batchGet}.
+ */
+@RestController
+@RequestMapping("/api/v1")
+@Validated
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Store Location API", description = "API for finding nearby Jumbo stores")
+public class StoreLookupController {
+
+    private final StoreLookupUseCase storeLookupService;
+
+    @Operation(
+            summary = "Get a store by uuid",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "The store",
+                            content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = Store.class))),
+                    @ApiResponse(responseCode = "404", description = "No store with this uuid"),
+                    @ApiResponse(responseCode = "500", description = "Internal server error")
+            }
+    )
+    @GetMapping("/stores/{uuid}")
+    public ResponseEntity<Store> getStore(
+            @Parameter(description = "Store uuid", required = true, example = "EOgKYx4XFiQAAAFJa_YYZ4At")
+            @PathVariable("uuid") String uuid) {
+        log.debug("Looking up store {}", uuid);
+        return storeLookupService.findByUuid(uuid)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new ResourceNotFoundException("No store with uuid '" + uuid + "'"));
+    }
+
+    @Operation(
+            summary = "Get a store by SAP store id",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "The store",
+                            content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = Store.class))),
+                    @ApiResponse(responseCode = "404", description = "No store with this SAP store id"),
+                    @ApiResponse(responseCode = "500", description = "Internal server error")
+            }
+    )
+    @GetMapping("/stores/sap/{sapStoreId}")
+    public ResponseEntity<Store> getStoreBySapStoreId(
+            @Parameter(description = "SAP store identifier", required = true, example = "3605")
+            @PathVariable("sapStoreId") String sapStoreId) {
+        log.debug("Looking up store with SAP id {}", sapStoreId);
+        return storeLookupService.findBySapStoreId(sapStoreId)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new ResourceNotFoundException("No store with SAP store id '" + sapStoreId + "'"));
+    }
+
+    @Operation(
+            summary = "Get several stores",
+            description = "Fetches up to 100 stores by uuid and up to 100 by SAP store id in one call. Unknown ids "
+                    + "are listed in the response instead of failing the request.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Found stores and unknown ids",
+                            content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = BatchGetResult.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid request body"),
+                    @ApiResponse(responseCode = "500", description = "Internal server error")
+            }
+    )
+    @PostMapping("/stores:batchGet")
+    public ResponseEntity<BatchGetResult> batchGetStores(@RequestBody BatchGetRequest request) {
+        log.debug("Batch lookup of {} uuids and {} SAP store ids", request.uuids().size(),
+                request.sapStoreIds().size());
+
+        BatchGetResult result = storeLookupService.batchGet(request);
+
+        log.debug("Found {} stores, {} uuids and {} SAP store ids missing", result.stores().size(),
+                result.missingUuids().size(), result.missingSapStoreIds().size());
+        return ResponseEntity.ok(result);
+    }
+}
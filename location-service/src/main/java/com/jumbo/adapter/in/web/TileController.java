@@ -0,0 +1,80 @@
+package com.jumbo.adapter.in.web;
+
+import com.jumbo.application.port.in.TileRequest;
+import com.jumbo.application.port.in.TileUseCase;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/v1/stores/tiles")
+@Validated
+@Slf4j
+@Tag(name = "Store Location API", description = "API for finding nearby Jumbo stores")
+public class TileController {
+
+    static final String MVT_MEDIA_TYPE = "application/vnd.mapbox-vector-tile";
+
+    private final TileUseCase tileService;
+    private final CacheControl cacheControl;
+
+    public TileController(TileUseCase tileService,
+                          @Value("${jumbo.location.tiles.max-age:PT5M}") Duration maxAge) {
+        this.tileService = tileService;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+    }
+
+    @Operation(
+            summary = "Get a store vector tile",
+            description = "Returns the stores in a slippy map tile as a Mapbox Vector Tile. Low zoom tiles carry a "
+                    + "'clusters' layer with store counts, higher zoom tiles a 'stores' layer with one point per store.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Encoded vector tile",
+                            content = @Content(mediaType = MVT_MEDIA_TYPE)),
+                    @ApiResponse(responseCode = "400", description = "Invalid tile coordinates"),
+                    @ApiResponse(responseCode = "500", description = "Internal server error")
+            }
+    )
+    @GetMapping(value = "/{z}/{x}/{y}.mvt", produces = MVT_MEDIA_TYPE)
+    public ResponseEntity<byte[]> getTile(
+
+            @Parameter(description = "Zoom level", required = true, example = "10")
+            @PathVariable("z")
+            @Min(value = 0, message = "Zoom must be at least 0")
+            @Max(value = 22, message = "Zoom cannot exceed 22")
+            int z,
+
+            @Parameter(description = "Tile column", required = true, example = "525")
+            @PathVariable("x")
+            @Min(value = 0, message = "Tile column must be at least 0")
+            int x,
+
+            @Parameter(description = "Tile row", required = true, example = "336")
+            @PathVariable("y")
+            @Min(value = 0, message = "Tile row must be at least 0")
+            int y
+    ) {
+        log.debug("Rendering tile {}/{}/{}", z, x, y);
+
+        byte[] tile = tileService.findTile(new TileRequest(z, x, y));
+
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .body(tile);
+    }
+}
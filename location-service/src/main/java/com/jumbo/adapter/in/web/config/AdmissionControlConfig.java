@@ -0,0 +1,41 @@
+package com.jumbo.adapter.in.web.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "jumbo.location.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    static final String NEARBY_PATH = "/api/v1/stores/nearby";
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${jumbo.location.admission.initial-limit:20}") int initialLimit,
+            @Value("${jumbo.location.admission.min-limit:4}") int minLimit,
+            @Value("${jumbo.location.admission.max-limit:200}") int maxLimit,
+            @Value("${jumbo.location.admission.rtt-tolerance:1.5}") double rttTolerance,
+            @Value("${jumbo.location.admission.cheap-reserve:0.25}") double cheapReserve,
+            @Value("${jumbo.location.admission.expensive-radius-km:25}") double expensiveRadiusKm,
+            @Value("${jumbo.location.admission.expensive-limit:20}") int expensiveLimit,
+            @Value("${jumbo.location.admission.retry-after:PT1S}") Duration retryAfter) {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(initialLimit, minLimit, maxLimit,
+                rttTolerance, cheapReserve);
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionControlFilter(limiter, objectMapper, meterRegistry, expensiveRadiusKm, expensiveLimit,
+                        retryAfter));
+        registration.addUrlPatterns(NEARBY_PATH);
+        // before the request logging filter, so shed requests cost as little as possible
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,128 @@
+package com.jumbo.adapter.in.web.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jumbo.adapter.in.web.exception.ErrorResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Admission control for the nearby search, registered by {@link AdmissionControlConfig}: at most
+ * {@link GradientConcurrencyLimiter#limit()} searches run at once, anything above is answered right away with
+ * {@code 503} and {@code Retry-After} instead of queueing behind them. Searches over more than
+ * {@code expensive-radius-km} or for more than {@code expensive-limit} stores count as expensive and are shed before
+ * cheap ones. Failed requests ({@code 5xx}) do not feed the latency estimate.
+ */
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final GradientConcurrencyLimiter limiter;
+    private final ObjectMapper objectMapper;
+    private final double expensiveRadiusKm;
+    private final int expensiveLimit;
+    private final String retryAfterSeconds;
+    private final Counter cheapAdmitted;
+    private final Counter cheapRejected;
+    private final Counter expensiveAdmitted;
+    private final Counter expensiveRejected;
+
+    public AdmissionControlFilter(GradientConcurrencyLimiter limiter, ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry, double expensiveRadiusKm, int expensiveLimit,
+                                  Duration retryAfter) {
+        this.limiter = limiter;
+        this.objectMapper = objectMapper;
+        this.expensiveRadiusKm = expensiveRadiusKm;
+        this.expensiveLimit = expensiveLimit;
+        this.retryAfterSeconds = Long.toString(Math.max(1, retryAfter.toSeconds()));
+
+        Gauge.builder("jumbo.admission.limit", limiter, GradientConcurrencyLimiter::limit)
+                .description("Concurrent nearby searches currently allowed")
+                .register(meterRegistry);
+        Gauge.builder("jumbo.admission.in-flight", limiter, GradientConcurrencyLimiter::inFlight)
+                .description("Nearby searches currently running")
+                .register(meterRegistry);
+        this.cheapAdmitted = requests(meterRegistry, "cheap", "admitted");
+        this.cheapRejected = requests(meterRegistry, "cheap", "rejected");
+        this.expensiveAdmitted = requests(meterRegistry, "expensive", "admitted");
+        this.expensiveRejected = requests(meterRegistry, "expensive", "rejected");
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        boolean expensive = isExpensive(request);
+        int inFlight = limiter.tryAcquire(expensive);
+        if (inFlight < 0) {
+            (expensive ? expensiveRejected : cheapRejected).increment();
+            reject(request, response);
+            return;
+        }
+        (expensive ? expensiveAdmitted : cheapAdmitted).increment();
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            limiter.release(inFlight, failed ? -1 : System.nanoTime() - start);
+        }
+    }
+
+    boolean isExpensive(HttpServletRequest request) {
+        return parameter(request, "maxRadius", 5.0) > expensiveRadiusKm
+                || parameter(request, "limit", 5) > expensiveLimit;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.debug("Shedding {}?{}, {} searches in flight", request.getRequestURI(), request.getQueryString(),
+                limiter.inFlight());
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error("service unavailable")
+                .message("Too many concurrent searches, please retry")
+                .path(request.getRequestURI())
+                .build();
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    // malformed values are rejected by the controller's validation, count them as cheap here
+    private static double parameter(HttpServletRequest request, String name, double defaultValue) {
+        String value = request.getParameter(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String cost, String outcome) {
+        return Counter.builder("jumbo.admission.requests")
+                .description("Nearby searches by cost class and admission outcome")
+                .tag("cost", cost)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
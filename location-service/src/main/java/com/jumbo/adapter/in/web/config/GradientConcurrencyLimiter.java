@@ -0,0 +1,107 @@
+package com.jumbo.adapter.in.web.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit estimated from latency, after the gradient algorithm of Netflix' concurrency-limits.
+ * <p>
+ * Two averages of the request latency are kept: a short one over roughly the last ten requests and a long one over
+ * the last several hundred. While the short average stays within {@code rttTolerance} of the long one the limit
+ * grows by about its square root per request. Once queueing inflates latency the ratio of the two drops below one
+ * and the limit shrinks with it, down to half per step. Requests completing while less than half the limit is in
+ * use say nothing about capacity and only feed the averages.
+ * <p>
+ * Expensive requests may only fill the limit up to {@code 1 - cheapReserve}, so when the service is saturated they
+ * are rejected first and cheap ones still get through.
+ */
+public class GradientConcurrencyLimiter {
+
+    private static final double SHORT_WEIGHT = 0.1;
+    private static final double LONG_WEIGHT = 1.0 / 600;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double cheapReserve;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private double shortRtt;
+    private double longRtt;
+
+    public GradientConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double rttTolerance,
+                                      double cheapReserve) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max, got "
+                    + minLimit + " <= " + initialLimit + " <= " + maxLimit);
+        }
+        if (!(cheapReserve >= 0 && cheapReserve < 1)) {
+            throw new IllegalArgumentException("Cheap reserve must be in [0, 1), got " + cheapReserve);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.cheapReserve = cheapReserve;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * @return the number of requests in flight including this one, or {@code -1} if it has to be rejected; an
+     * admitted request must be followed by exactly one {@link #release}
+     */
+    public int tryAcquire(boolean expensive) {
+        double current = limit;
+        int capacity = expensive ? Math.max(1, (int) (current * (1 - cheapReserve))) : (int) current;
+        while (true) {
+            int running = inFlight.get();
+            if (running >= capacity) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(running, running + 1)) {
+                return running + 1;
+            }
+        }
+    }
+
+    /**
+     * @param inFlightAtStart what {@link #tryAcquire} returned for this request
+     * @param rttNanos        how long the request took, or a negative value if it failed and must not be sampled
+     */
+    public void release(int inFlightAtStart, long rttNanos) {
+        inFlight.decrementAndGet();
+        if (rttNanos >= 0) {
+            sample(inFlightAtStart, Math.max(1, rttNanos));
+        }
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void sample(int inFlightAtStart, double rtt) {
+        if (longRtt == 0) {
+            shortRtt = rtt;
+            longRtt = rtt;
+            return;
+        }
+        shortRtt += (rtt - shortRtt) * SHORT_WEIGHT;
+        longRtt += (rtt - longRtt) * LONG_WEIGHT;
+        // after an overload the long average lags far behind; pull it down instead of waiting for it to decay
+        if (longRtt > 2 * shortRtt) {
+            longRtt *= 0.95;
+        }
+
+        double current = limit;
+        if (inFlightAtStart < current / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / shortRtt));
+        double target = current * gradient + Math.sqrt(current);
+        double next = current * (1 - SMOOTHING) + target * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
@@ -0,0 +1,12 @@
+package com.jumbo.adapter.in.web.exception;
+
+/**
+ * Thrown by controllers when the requested resource does not exist; mapped to 404 by
+ * {@link GlobalExceptionHandler}.
+ */
+public class ResourceNotFoundException extends RuntimeException {
+
+    public ResourceNotFoundException(String message) {
+        super(message);
+    }
+}
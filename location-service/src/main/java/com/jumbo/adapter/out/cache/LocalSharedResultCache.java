@@ -0,0 +1,83 @@
+package com.jumbo.adapter.out.cache;
+
+import com.jumbo.application.port.out.SharedResultCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process stand-in for {@link RedisSharedResultCache} with the same expiry and claim semantics, for tests and
+ * for running a single instance without Redis. Instances sharing one object behave like replicas sharing one Redis.
+ * Expired entries are dropped when they are read, or when {@code maxEntries} is reached.
+ */
+@Component
+@ConditionalOnProperty(name = "jumbo.location.cache.shared.type", havingValue = "local")
+public class LocalSharedResultCache implements SharedResultCache {
+
+    private static final int DEFAULT_MAX_ENTRIES = 100_000;
+
+    private final Map<String, Entry> values = new ConcurrentHashMap<>();
+    private final Map<String, Claim> locks = new ConcurrentHashMap<>();
+    private final Clock clock;
+    private final int maxEntries;
+
+    public LocalSharedResultCache() {
+        this(Clock.systemUTC(), DEFAULT_MAX_ENTRIES);
+    }
+
+    public LocalSharedResultCache(Clock clock, int maxEntries) {
+        this.clock = clock;
+        this.maxEntries = maxEntries;
+    }
+
+    private record Entry(byte[] value, long expiresAt) {
+    }
+
+    private record Claim(String token, long expiresAt) {
+    }
+
+    @Override
+    public Optional<byte[]> get(String key) {
+        Entry entry = values.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.expiresAt() <= clock.millis()) {
+            values.remove(key, entry);
+            return Optional.empty();
+        }
+        return Optional.of(entry.value().clone());
+    }
+
+    @Override
+    public void put(String key, byte[] value, Duration ttl) {
+        long now = clock.millis();
+        if (values.size() >= maxEntries) {
+            values.values().removeIf(entry -> entry.expiresAt() <= now);
+            if (values.size() >= maxEntries) {
+                values.clear();
+            }
+        }
+        values.put(key, new Entry(value.clone(), now + ttl.toMillis()));
+    }
+
+    @Override
+    public Optional<String> tryLock(String key, Duration ttl) {
+        long now = clock.millis();
+        Claim claim = new Claim(UUID.randomUUID().toString(), now + ttl.toMillis());
+        // take the claim if it is free or its holder's has run out
+        return locks.merge(key, claim, (current, mine) -> current.expiresAt() <= now ? mine : current) == claim
+                ? Optional.of(claim.token()) : Optional.empty();
+    }
+
+    @Override
+    public void unlock(String key, String token) {
+        locks.computeIfPresent(key, (k, claim) -> claim.token().equals(token) ? null : claim);
+    }
+}
@@ -0,0 +1,77 @@
+package com.jumbo.adapter.out.cache;
+
+import com.jumbo.application.port.out.SharedResultCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Shared cache in Redis, or anything speaking its protocol, configured through {@code spring.data.redis.*}. Values
+ * are stored as raw bytes. A claim is a separate {@code <key>:lock} entry written with {@code SET NX PX} and holding
+ * a token of its own, so that releasing it never deletes a claim another caller took after ours expired.
+ */
+@Component
+@ConditionalOnProperty(name = "jumbo.location.cache.shared.type", havingValue = "redis")
+public class RedisSharedResultCache implements SharedResultCache {
+
+    private static final String LOCK_SUFFIX = ":lock";
+    private static final RedisScript<Long> RELEASE = RedisScript.of(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final RedisTemplate<String, byte[]> redis;
+
+    @Autowired
+    public RedisSharedResultCache(RedisConnectionFactory connectionFactory) {
+        this(template(connectionFactory));
+    }
+
+    RedisSharedResultCache(RedisTemplate<String, byte[]> redis) {
+        this.redis = redis;
+    }
+
+    private static RedisTemplate<String, byte[]> template(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    @Override
+    public Optional<byte[]> get(String key) {
+        return Optional.ofNullable(redis.opsForValue().get(key));
+    }
+
+    @Override
+    public void put(String key, byte[] value, Duration ttl) {
+        redis.opsForValue().set(key, value, ttl);
+    }
+
+    @Override
+    public Optional<String> tryLock(String key, Duration ttl) {
+        String token = UUID.randomUUID().toString();
+        return Boolean.TRUE.equals(redis.opsForValue().setIfAbsent(key + LOCK_SUFFIX, bytes(token), ttl))
+                ? Optional.of(token) : Optional.empty();
+    }
+
+    @Override
+    public void unlock(String key, String token) {
+        redis.execute(RELEASE, List.of(key + LOCK_SUFFIX), (Object) bytes(token));
+    }
+
+    private static byte[] bytes(String token) {
+        return token.getBytes(StandardCharsets.US_ASCII);
+    }
+}
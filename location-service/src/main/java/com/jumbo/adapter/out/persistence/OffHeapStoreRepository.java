@@ -0,0 +1,121 @@
+package com.jumbo.adapter.out.persistence;
+
+import com.jumbo.application.domain.model.OpeningHours;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.StoreFilter;
+import com.jumbo.application.port.out.SpatialStoreIndex;
+import com.jumbo.application.port.out.StoreRepository;
+import com.jumbo.application.port.out.StoreTable;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the store data off the Java heap in a memory-mapped {@link StoreSnapshot}: primitive columns plus
+ * dictionary-encoded strings. Only rows handed to {@link #store(int)} or {@link #stores(int...)} are turned into
+ * {@link Store} objects; box queries run on a {@link StoreGrid} over the mapped rows.
+ * <p>
+ * {@link #findAll()} materialises every row on each call. The search engines that copy the full list onto the heap
+ * are therefore not created with this storage; nearby queries go to the {@code columnar} strategy by default.
+ */
+@Service
+@ConditionalOnProperty(name = "jumbo.location.stores.storage", havingValue = "off-heap")
+@Slf4j
+public class OffHeapStoreRepository implements StoreRepository, StoreTable, SpatialStoreIndex {
+
+    private final String storesDataFile;
+    private final String snapshotFile;
+    private final StoreMapper storeMapper;
+    private final ResourceLoader resourceLoader;
+    private StoreSnapshot table;
+    private long fingerprint;
+    private StoreGrid grid;
+
+    public OffHeapStoreRepository(StoreMapper storeMapper, ResourceLoader resourceLoader,
+                                  @Value("${jumbo.location.stores.data-file}") String storesDataFile,
+                                  @Value("${jumbo.location.stores.snapshot-file:}") String snapshotFile) {
+        this.storeMapper = storeMapper;
+        this.resourceLoader = resourceLoader;
+        this.storesDataFile = storesDataFile;
+        this.snapshotFile = snapshotFile;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Path path;
+        if (StringUtils.hasText(snapshotFile)) {
+            path = Path.of(snapshotFile);
+        } else {
+            // a fresh path rather than an empty temp file, which would be reported as a broken snapshot
+            Path dir = Files.createTempDirectory("jumbo-stores");
+            dir.toFile().deleteOnExit();
+            path = dir.resolve("stores.snap");
+            path.toFile().deleteOnExit();
+        }
+        this.table = StoreRepositoryImpl.mapSnapshot(resourceLoader, storesDataFile, storeMapper, path);
+        this.grid = StoreGrid.of(table);
+        this.fingerprint = table.sourceChecksum();
+        log.info("Mapped {} stores off-heap from {}", table.size(), path);
+    }
+
+    @Override
+    public List<Store> findAll() throws IOException {
+        return table.toStores();
+    }
+
+    @Override
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    @Override
+    public int size() {
+        return table.size();
+    }
+
+    @Override
+    public double latitude(int row) {
+        return table.latitude(row);
+    }
+
+    @Override
+    public double longitude(int row) {
+        return table.longitude(row);
+    }
+
+    @Override
+    public boolean isOpen(int row, LocalTime now) {
+        return OpeningHours.isOpen(table.openMinute(row), table.closeMinute(row), now);
+    }
+
+    @Override
+    public Store store(int row) {
+        return table.toStore(row);
+    }
+
+    @Override
+    public void findInBounds(double minLat, double minLon, double maxLat, double maxLon, LocalTime openAt,
+                             StoreFilter filter, LocationConsumer consumer) {
+        grid.findInBounds(minLat, minLon, maxLat, maxLon, openAt, filter, consumer);
+    }
+
+    @Override
+    public List<Store> stores(int... ids) {
+        List<Store> stores = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            stores.add(table.toStore(id));
+        }
+        return stores;
+    }
+}
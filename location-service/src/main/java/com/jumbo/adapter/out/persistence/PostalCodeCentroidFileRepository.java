@@ -0,0 +1,74 @@
+package com.jumbo.adapter.out.persistence;
+
+import com.jumbo.application.domain.model.PostalCodeCentroid;
+import com.jumbo.application.port.out.PostalCodeCentroidRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads PC4/PC6 centroids from a CSV file with {@code postal_code,latitude,longitude} lines. A header line,
+ * blank lines and lines starting with {@code #} are skipped.
+ */
+@Service
+@Slf4j
+public class PostalCodeCentroidFileRepository implements PostalCodeCentroidRepository {
+
+    private final ResourceLoader resourceLoader;
+    private final String centroidFile;
+
+    public PostalCodeCentroidFileRepository(ResourceLoader resourceLoader,
+                                            @Value("${jumbo.location.postal-codes.centroid-file:}") String centroidFile) {
+        this.resourceLoader = resourceLoader;
+        this.centroidFile = centroidFile;
+    }
+
+    @Override
+    public List<PostalCodeCentroid> findAll() throws IOException {
+        if (!StringUtils.hasText(centroidFile)) {
+            return List.of();
+        }
+        List<PostalCodeCentroid> centroids = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                resourceLoader.getResource(centroidFile).getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            boolean firstRecord = true;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                boolean header = firstRecord;
+                firstRecord = false;
+                String[] fields = line.split(",");
+                if (fields.length < 3) {
+                    throw new IOException("Postal code file " + centroidFile + " line " + lineNumber
+                            + ": expected postal_code,latitude,longitude");
+                }
+                try {
+                    centroids.add(new PostalCodeCentroid(fields[0].strip(), Double.parseDouble(fields[1].strip()),
+                            Double.parseDouble(fields[2].strip())));
+                } catch (NumberFormatException e) {
+                    if (header) {
+                        continue;
+                    }
+                    throw new IOException("Postal code file " + centroidFile + " line " + lineNumber
+                            + ": invalid coordinates", e);
+                }
+            }
+        }
+        log.info("Read {} postal code centroids from {}", centroids.size(), centroidFile);
+        return centroids;
+    }
+}
@@ -0,0 +1,160 @@
+package com.jumbo.adapter.out.persistence;
+
+import com.jumbo.application.domain.model.RoadGraph;
+import com.jumbo.application.port.out.RoadGraphRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the road graph from a local file, plain or gzip-compressed ({@code .gz}). The file is produced ahead of
+ * time from an OSM extract and has one section of nodes followed by one section of directed edges:
+ * <pre>
+ * # comment lines are ignored
+ * nodes 3
+ * 52.3702 4.8952
+ * 52.3710 4.8960
+ * 52.3725 4.8975
+ * edges 4
+ * 0 1 12.5
+ * 1 0 12.5
+ * 1 2 20.0
+ * 2 1 20.0
+ * </pre>
+ * Nodes are given as {@code latitude longitude} and numbered from zero in file order; edges as
+ * {@code from to seconds}. Two-way roads appear once per direction.
+ */
+@Service
+@Slf4j
+public class RoadGraphFileRepository implements RoadGraphRepository {
+
+    private final String graphFile;
+
+    public RoadGraphFileRepository(@Value("${jumbo.location.routing.graph-file:}") String graphFile) {
+        this.graphFile = graphFile;
+    }
+
+    @Override
+    public Optional<RoadGraph> load() throws IOException {
+        if (!StringUtils.hasText(graphFile)) {
+            return Optional.empty();
+        }
+        Path path = Path.of(graphFile);
+        long start = System.nanoTime();
+        try (BufferedReader reader = open(path)) {
+            RoadGraph graph = parse(reader);
+            log.info("Loaded road graph with {} nodes and {} edges from {} in {} ms", graph.nodeCount(),
+                    graph.edgeCount(), path, (System.nanoTime() - start) / 1_000_000);
+            return Optional.of(graph);
+        }
+    }
+
+    static RoadGraph parse(BufferedReader reader) throws IOException {
+        LineReader lines = new LineReader(reader);
+
+        int nodes = lines.header("nodes");
+        double[] latitudes = new double[nodes];
+        double[] longitudes = new double[nodes];
+        for (int i = 0; i < nodes; i++) {
+            String[] fields = lines.fields(2);
+            latitudes[i] = lines.parseDouble(fields[0]);
+            longitudes[i] = lines.parseDouble(fields[1]);
+        }
+
+        int edges = lines.header("edges");
+        int[] from = new int[edges];
+        int[] to = new int[edges];
+        float[] seconds = new float[edges];
+        for (int e = 0; e < edges; e++) {
+            String[] fields = lines.fields(3);
+            from[e] = lines.parseNode(fields[0], nodes);
+            to[e] = lines.parseNode(fields[1], nodes);
+            seconds[e] = (float) lines.parseDouble(fields[2]);
+            if (!(seconds[e] >= 0)) {
+                throw lines.error("edge travel time must not be negative");
+            }
+        }
+        return new RoadGraph(latitudes, longitudes, from, to, seconds);
+    }
+
+    private static BufferedReader open(Path path) throws IOException {
+        InputStream in = Files.newInputStream(path);
+        if (path.getFileName().toString().endsWith(".gz")) {
+            in = new GZIPInputStream(in, 1 << 16);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    private static final class LineReader {
+        private final BufferedReader reader;
+        private int lineNumber;
+
+        LineReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        int header(String name) throws IOException {
+            String[] fields = fields(2);
+            if (!fields[0].equals(name)) {
+                throw error("expected '" + name + " <count>'");
+            }
+            try {
+                return Integer.parseInt(fields[1]);
+            } catch (NumberFormatException e) {
+                throw error("invalid count '" + fields[1] + "'");
+            }
+        }
+
+        String[] fields(int count) throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                lineNumber++;
+                if (line == null) {
+                    throw error("unexpected end of file");
+                }
+                line = line.strip();
+            } while (line.isEmpty() || line.startsWith("#"));
+            String[] fields = line.split("\\s+");
+            if (fields.length < count) {
+                throw error("expected " + count + " fields");
+            }
+            return fields;
+        }
+
+        double parseDouble(String value) throws IOException {
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                throw error("invalid number '" + value + "'");
+            }
+        }
+
+        int parseNode(String value, int nodes) throws IOException {
+            try {
+                int node = Integer.parseInt(value);
+                if (node >= 0 && node < nodes) {
+                    return node;
+                }
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+            throw error("invalid node '" + value + "'");
+        }
+
+        IOException error(String message) {
+            return new IOException("Road graph line " + lineNumber + ": " + message);
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.jumbo.adapter.out.persistence;
+
+import com.jumbo.application.domain.model.OpeningHours;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.StoreFilter;
+import com.jumbo.application.port.out.SpatialStoreIndex;
+import com.jumbo.common.geo.MortonCode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Store data in an SQLite file with an R*Tree over the store locations, so bounding-box queries are answered by the
+ * database and only the rows inside the box are read.
+ * <pre>
+ * store         : id (dense, Morton order), latitude, longitude, open/close minute, flags, one column per string
+ * store_location: R*Tree (id, min_lat, max_lat, min_lon, max_lon), one point per store
+ * metadata      : format version and the CRC32 of the JSON the file was built from
+ * </pre>
+ * Like a {@link StoreSnapshot}, a file whose checksum or format version does not match is treated as stale and
+ * rebuilt. Queries run on a fixed pool of read-only connections, each with its statements prepared once, so a
+ * query costs neither a connection set-up nor an SQL parse. Filters become part of the WHERE clause, so rows that
+ * do not match are never returned.
+ */
+@Slf4j
+public final class SqliteStoreDatabase implements SpatialStoreIndex, AutoCloseable {
+
+    static final int FORMAT_VERSION = 1;
+
+    // in the order of StoreSnapshot.STRING_GETTERS
+    private static final List<String> STRING_COLUMNS = List.of("city", "postal_code", "street", "street2", "street3",
+            "address_name", "uuid", "complex_number", "location_type", "sap_store_id");
+    private static final String COLUMNS = "s.id, s.latitude, s.longitude, s.open_minute, s.close_minute, "
+            + "s.show_warning_message, s.collection_point, "
+            + STRING_COLUMNS.stream().map(c -> "s." + c).collect(Collectors.joining(", "));
+    // R*Tree coordinates are 32-bit floats rounded outwards, so the box test never loses a store inside the box
+    private static final String IN_BOUNDS = "SELECT s.id, s.latitude, s.longitude "
+            + "FROM store_location l JOIN store s ON s.id = l.id "
+            + "WHERE l.max_lat >= ?1 AND l.min_lat <= ?2 AND l.max_lon >= ?3 AND l.min_lon <= ?4";
+    // same semantics as OpeningHours.isOpen, ?5 is the nano of day
+    private static final String OPEN = " AND s.open_minute >= 0 AND s.close_minute >= 0 AND CASE "
+            + "WHEN s.close_minute < s.open_minute "
+            + "THEN ?5 >= s.open_minute * 60000000000 OR ?5 <= s.close_minute * 60000000000 "
+            + "ELSE ?5 >= s.open_minute * 60000000000 AND ?5 <= s.close_minute * 60000000000 END";
+    // same semantics as StoreFilter.matches
+    private static final String LOCATION_TYPE = " AND s.location_type = ?6 COLLATE NOCASE";
+    private static final String COLLECTION_POINT = " AND s.collection_point = ?7";
+    private static final String SHOW_WARNING_MESSAGE = " AND s.show_warning_message = ?8";
+    private static final int OPEN_AT = 1;
+    private static final int BY_LOCATION_TYPE = 2;
+    private static final int BY_COLLECTION_POINT = 4;
+    private static final int BY_SHOW_WARNING_MESSAGE = 8;
+
+    private final BlockingQueue<Session> sessions;
+    private final int size;
+
+    private SqliteStoreDatabase(BlockingQueue<Session> sessions, int size) {
+        this.sessions = sessions;
+        this.size = size;
+    }
+
+    /**
+     * Opens the database at {@code path} if it exists, has the current format and was built from a source with the
+     * given checksum.
+     */
+    public static Optional<SqliteStoreDatabase> open(Path path, long expectedSourceChecksum, int connections) {
+        if (!Files.isRegularFile(path)) {
+            log.info("No store database at {}", path);
+            return Optional.empty();
+        }
+        BlockingQueue<Session> sessions = new ArrayBlockingQueue<>(connections);
+        try {
+            try (Connection connection = connect(path);
+                 Statement statement = connection.createStatement();
+                 ResultSet metadata = statement.executeQuery(
+                         "SELECT format_version, source_checksum, row_count FROM metadata")) {
+                if (!metadata.next() || metadata.getInt(1) != FORMAT_VERSION) {
+                    log.info("Ignoring store database {}: different format version", path);
+                    return Optional.empty();
+                }
+                if (metadata.getLong(2) != expectedSourceChecksum) {
+                    log.info("Ignoring store database {}: built from a different store data file", path);
+                    return Optional.empty();
+                }
+                for (int i = 0; i < connections; i++) {
+                    sessions.add(new Session(connect(path)));
+                }
+                return Optional.of(new SqliteStoreDatabase(sessions, metadata.getInt(3)));
+            }
+        } catch (SQLException e) {
+            sessions.forEach(Session::close);
+            log.warn("Ignoring unreadable store database {}", path, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes {@code stores} to a new database at {@code path}, replacing any existing one atomically.
+     */
+    public static void write(Path path, List<Store> stores, long sourceChecksum) throws IOException {
+        List<Store> sorted = new ArrayList<>(stores);
+        sorted.sort(Comparator.comparingLong(s -> MortonCode.encode(s.getLatitude(), s.getLongitude())));
+
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try (Connection connection = connect(tmp)) {
+            // the file is built once and only renamed into place when complete, so it needs no journal
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode = OFF");
+            }
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE store (id INTEGER PRIMARY KEY, latitude REAL NOT NULL, "
+                        + "longitude REAL NOT NULL, open_minute INTEGER NOT NULL, close_minute INTEGER NOT NULL, "
+                        + "show_warning_message INTEGER NOT NULL, collection_point INTEGER NOT NULL, "
+                        + STRING_COLUMNS.stream().map(c -> c + " TEXT").collect(Collectors.joining(", ")) + ")");
+                statement.execute("CREATE VIRTUAL TABLE store_location USING rtree(id, min_lat, max_lat, "
+                        + "min_lon, max_lon)");
+                statement.execute("CREATE TABLE metadata (format_version INTEGER NOT NULL, "
+                        + "source_checksum INTEGER NOT NULL, row_count INTEGER NOT NULL)");
+            }
+            try (PreparedStatement store = connection.prepareStatement("INSERT INTO store VALUES (?, ?, ?, ?, ?, ?, ?"
+                    + ", ?".repeat(STRING_COLUMNS.size()) + ")");
+                 PreparedStatement location = connection.prepareStatement(
+                         "INSERT INTO store_location VALUES (?, ?, ?, ?, ?)")) {
+                for (int id = 0; id < sorted.size(); id++) {
+                    Store s = sorted.get(id);
+                    store.setInt(1, id);
+                    store.setDouble(2, s.getLatitude());
+                    store.setDouble(3, s.getLongitude());
+                    store.setInt(4, OpeningHours.toMinute(s.getTodayOpen()));
+                    store.setInt(5, OpeningHours.toMinute(s.getTodayClose()));
+                    store.setBoolean(6, s.isShowWarningMessage());
+                    store.setBoolean(7, s.isCollectionPoint());
+                    for (int c = 0; c < STRING_COLUMNS.size(); c++) {
+                        store.setString(8 + c, StoreSnapshot.STRING_GETTERS.get(c).apply(s));
+                    }
+                    store.addBatch();
+                    location.setInt(1, id);
+                    location.setDouble(2, s.getLatitude());
+                    location.setDouble(3, s.getLatitude());
+                    location.setDouble(4, s.getLongitude());
+                    location.setDouble(5, s.getLongitude());
+                    location.addBatch();
+                }
+                store.executeBatch();
+                location.executeBatch();
+            }
+            try (PreparedStatement metadata = connection.prepareStatement("INSERT INTO metadata VALUES (?, ?, ?)")) {
+                metadata.setInt(1, FORMAT_VERSION);
+                metadata.setLong(2, sourceChecksum);
+                metadata.setInt(3, sorted.size());
+                metadata.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            Files.deleteIfExists(tmp);
+            throw new IOException("Could not write store database " + path, e);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Connection connect(Path path) throws SQLException {
+        return DriverManager.getConnection("jdbc:sqlite:" + path.toAbsolutePath());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void findInBounds(double minLat, double minLon, double maxLat, double maxLon, LocalTime openAt,
+                             StoreFilter filter, LocationConsumer consumer) {
+        int shape = shape(openAt, filter);
+        Session session = borrow();
+        try {
+            PreparedStatement statement = session.inBounds(shape);
+            statement.setDouble(1, minLat);
+            statement.setDouble(2, maxLat);
+            statement.setDouble(3, minLon);
+            statement.setDouble(4, maxLon);
+            if ((shape & OPEN_AT) != 0) {
+                statement.setLong(5, openAt.toNanoOfDay());
+            }
+            if ((shape & BY_LOCATION_TYPE) != 0) {
+                statement.setString(6, filter.locationType());
+            }
+            if ((shape & BY_COLLECTION_POINT) != 0) {
+                statement.setBoolean(7, filter.collectionPoint());
+            }
+            if ((shape & BY_SHOW_WARNING_MESSAGE) != 0) {
+                statement.setBoolean(8, filter.showWarningMessage());
+            }
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    consumer.accept(rows.getInt(1), rows.getDouble(2), rows.getDouble(3));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Store database query failed", e);
+        } finally {
+            sessions.add(session);
+        }
+    }
+
+    private static int shape(LocalTime openAt, StoreFilter filter) {
+        return (openAt == null ? 0 : OPEN_AT)
+                | (filter.locationType() == null ? 0 : BY_LOCATION_TYPE)
+                | (filter.collectionPoint() == null ? 0 : BY_COLLECTION_POINT)
+                | (filter.showWarningMessage() == null ? 0 : BY_SHOW_WARNING_MESSAGE);
+    }
+
+    private static String inBoundsSql(int shape) {
+        return IN_BOUNDS
+                + ((shape & OPEN_AT) != 0 ? OPEN : "")
+                + ((shape & BY_LOCATION_TYPE) != 0 ? LOCATION_TYPE : "")
+                + ((shape & BY_COLLECTION_POINT) != 0 ? COLLECTION_POINT : "")
+                + ((shape & BY_SHOW_WARNING_MESSAGE) != 0 ? SHOW_WARNING_MESSAGE : "");
+    }
+
+    @Override
+    public List<Store> stores(int... ids) {
+        List<Store> stores = new ArrayList<>(ids.length);
+        Session session = borrow();
+        try {
+            for (int id : ids) {
+                session.byId.setInt(1, id);
+                try (ResultSet row = session.byId.executeQuery()) {
+                    if (!row.next()) {
+                        throw new IllegalArgumentException("No store with id " + id);
+                    }
+                    stores.add(toStore(row));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Store database query failed", e);
+        } finally {
+            sessions.add(session);
+        }
+        return stores;
+    }
+
+    public List<Store> toStores() {
+        List<Store> stores = new ArrayList<>(size);
+        Session session = borrow();
+        try (ResultSet rows = session.all.executeQuery()) {
+            while (rows.next()) {
+                stores.add(toStore(rows));
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Store database query failed", e);
+        } finally {
+            sessions.add(session);
+        }
+        return stores;
+    }
+
+    private static Store toStore(ResultSet row) throws SQLException {
+        Store store = new Store();
+        store.setLatitude(row.getDouble(2));
+        store.setLongitude(row.getDouble(3));
+        store.setTodayOpen(OpeningHours.toLocalTime((short) row.getInt(4)));
+        store.setTodayClose(OpeningHours.toLocalTime((short) row.getInt(5)));
+        store.setShowWarningMessage(row.getBoolean(6));
+        store.setCollectionPoint(row.getBoolean(7));
+        for (int c = 0; c < STRING_COLUMNS.size(); c++) {
+            StoreSnapshot.STRING_SETTERS.get(c).accept(store, row.getString(8 + c));
+        }
+        return store;
+    }
+
+    private Session borrow() {
+        try {
+            return sessions.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a store database connection", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        List<Session> open = new ArrayList<>();
+        sessions.drainTo(open);
+        open.forEach(Session::close);
+    }
+
+    /**
+     * One connection with its statements prepared up front; used by one query at a time.
+     */
+    private static final class Session {
+
+        final Connection connection;
+        // one statement per combination of open-at and filter components, prepared on first use
+        final Map<Integer, PreparedStatement> inBounds = new HashMap<>();
+        final PreparedStatement byId;
+        final PreparedStatement all;
+
+        Session(Connection connection) throws SQLException {
+            this.connection = connection;
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA query_only = ON");
+            }
+            this.byId = connection.prepareStatement("SELECT " + COLUMNS + " FROM store s WHERE s.id = ?");
+            this.all = connection.prepareStatement("SELECT " + COLUMNS + " FROM store s ORDER BY s.id");
+        }
+
+        PreparedStatement inBounds(int shape) throws SQLException {
+            PreparedStatement statement = inBounds.get(shape);
+            if (statement == null) {
+                statement = connection.prepareStatement(inBoundsSql(shape));
+                inBounds.put(shape, statement);
+            }
+            return statement;
+        }
+
+        void close() {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.debug("Could not close store database connection", e);
+            }
+        }
+    }
+}
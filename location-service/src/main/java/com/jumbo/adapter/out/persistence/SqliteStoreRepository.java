@@ -0,0 +1,108 @@
+package com.jumbo.adapter.out.persistence;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.StoreFilter;
+import com.jumbo.application.port.out.SpatialStoreIndex;
+import com.jumbo.application.port.out.StoreRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps the store data in an embedded {@link SqliteStoreDatabase}, built from the JSON data file on first boot and
+ * reused while the data file is unchanged. Nearby searches push their bounding box down to the database's R*Tree
+ * through {@link SpatialStoreIndex} instead of holding the stores in memory.
+ * <p>
+ * {@link #findAll()} reads the whole table on each call. The search engines that copy the full list onto the heap
+ * are therefore not created with this storage; nearby queries go to the {@code database} strategy by default.
+ */
+@Service
+@ConditionalOnProperty(name = "jumbo.location.stores.storage", havingValue = "sqlite")
+@Slf4j
+public class SqliteStoreRepository implements StoreRepository, SpatialStoreIndex {
+
+    private final String storesDataFile;
+    private final String databaseFile;
+    private final int connections;
+    private final StoreMapper storeMapper;
+    private final ResourceLoader resourceLoader;
+    private SqliteStoreDatabase database;
+    private long fingerprint;
+
+    public SqliteStoreRepository(StoreMapper storeMapper, ResourceLoader resourceLoader,
+                                 @Value("${jumbo.location.stores.data-file}") String storesDataFile,
+                                 @Value("${jumbo.location.stores.database.file:}") String databaseFile,
+                                 @Value("${jumbo.location.stores.database.connections:4}") int connections) {
+        this.storeMapper = storeMapper;
+        this.resourceLoader = resourceLoader;
+        this.storesDataFile = storesDataFile;
+        this.databaseFile = databaseFile;
+        this.connections = connections;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        byte[] json = StoreRepositoryImpl.readDataFile(resourceLoader, storesDataFile);
+        long checksum = StoreSnapshot.checksum(json);
+
+        Path path;
+        Optional<SqliteStoreDatabase> opened = Optional.empty();
+        if (StringUtils.hasText(databaseFile)) {
+            path = Path.of(databaseFile);
+            opened = SqliteStoreDatabase.open(path, checksum, connections);
+        } else {
+            path = Files.createTempFile("jumbo-stores", ".db");
+            path.toFile().deleteOnExit();
+        }
+
+        if (opened.isEmpty()) {
+            List<Store> stores = StoreRepositoryImpl.parse(json, storeMapper);
+            long start = System.nanoTime();
+            SqliteStoreDatabase.write(path, stores, checksum);
+            log.info("Wrote {} stores to database {} in {} ms", stores.size(), path,
+                    (System.nanoTime() - start) / 1_000_000);
+            opened = SqliteStoreDatabase.open(path, checksum, connections);
+        }
+        this.database = opened.orElseThrow(() -> new IOException("Could not open store database " + path));
+        this.fingerprint = checksum;
+        log.info("Opened store database {} with {} stores and {} connections", path, database.size(), connections);
+    }
+
+    @PreDestroy
+    public void close() {
+        database.close();
+    }
+
+    @Override
+    public List<Store> findAll() throws IOException {
+        return database.toStores();
+    }
+
+    @Override
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    @Override
+    public void findInBounds(double minLat, double minLon, double maxLat, double maxLon, LocalTime openAt,
+                             StoreFilter filter, LocationConsumer consumer) {
+        database.findInBounds(minLat, minLon, maxLat, maxLon, openAt, filter, consumer);
+    }
+
+    @Override
+    public List<Store> stores(int... ids) {
+        return database.stores(ids);
+    }
+}
@@ -9,4 +9,6 @@ import org.springframework.stereotype.Component;
 @ConfigurationProperties(prefix = "jumbo.location.stores")
 public class StoreConfig {
     private String dataFile;
+    private String snapshotFile;
+    private String storage;
 }
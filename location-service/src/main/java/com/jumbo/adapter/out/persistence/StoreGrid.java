@@ -0,0 +1,304 @@
+package com.jumbo.adapter.out.persistence;
+
+import com.jumbo.application.domain.model.OpeningHours;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.StoreFilter;
+import com.jumbo.application.port.out.SpatialStoreIndex;
+
+import java.time.LocalTime;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link SpatialStoreIndex} box query for the storage modes that hold their rows in memory or in a mapped
+ * snapshot: a uniform grid over the data bounding box plus one bitmap per attribute value.
+ * <p>
+ * Row ids are sorted by grid cell, so the cells a box overlaps are contiguous runs of {@link #rowsByCell}. A filter
+ * is the intersection of its attribute bitmaps, cached per filter; rows outside it are skipped before their location
+ * is read. When the filter matches fewer rows than the box's cells hold, the matching rows are tested directly
+ * instead, so a selective filter costs the same wherever the box is.
+ */
+final class StoreGrid {
+
+    /**
+     * Column access to the rows being indexed.
+     */
+    interface Rows {
+
+        int size();
+
+        double latitude(int row);
+
+        double longitude(int row);
+
+        short openMinute(int row);
+
+        short closeMinute(int row);
+
+        String locationType(int row);
+
+        boolean collectionPoint(int row);
+
+        boolean showWarningMessage(int row);
+    }
+
+    private static final int GRID_SIZE = 128;
+
+    private final Rows rows;
+    private final int[] rowsByCell;
+    private final int[] cellStart = new int[GRID_SIZE * GRID_SIZE + 1];
+    private final double minLat;
+    private final double minLon;
+    private final double cellLat;
+    private final double cellLon;
+    private final Map<String, BitSet> byLocationType = new HashMap<>();
+    private final BitSet collectionPoints;
+    private final BitSet warningMessages;
+    private final Map<StoreFilter, Matching> filterCache = new ConcurrentHashMap<>();
+
+    private record Matching(BitSet rows, int cardinality) {
+    }
+
+    StoreGrid(Rows rows) {
+        this.rows = rows;
+        int n = rows.size();
+        double minLat = Double.POSITIVE_INFINITY;
+        double minLon = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        double maxLon = Double.NEGATIVE_INFINITY;
+        for (int row = 0; row < n; row++) {
+            minLat = Math.min(minLat, rows.latitude(row));
+            minLon = Math.min(minLon, rows.longitude(row));
+            maxLat = Math.max(maxLat, rows.latitude(row));
+            maxLon = Math.max(maxLon, rows.longitude(row));
+        }
+        this.minLat = n == 0 ? 0 : minLat;
+        this.minLon = n == 0 ? 0 : minLon;
+        this.cellLat = n == 0 ? 1 : Math.max((maxLat - minLat) / GRID_SIZE, 1e-6);
+        this.cellLon = n == 0 ? 1 : Math.max((maxLon - minLon) / GRID_SIZE, 1e-6);
+
+        // counting sort of the row ids by cell
+        int[] cells = new int[n];
+        collectionPoints = new BitSet(n);
+        warningMessages = new BitSet(n);
+        for (int row = 0; row < n; row++) {
+            cells[row] = cell(row(rows.latitude(row)), column(rows.longitude(row)));
+            cellStart[cells[row] + 1]++;
+            String locationType = rows.locationType(row);
+            if (locationType != null) {
+                byLocationType.computeIfAbsent(key(locationType), t -> new BitSet(n)).set(row);
+            }
+            collectionPoints.set(row, rows.collectionPoint(row));
+            warningMessages.set(row, rows.showWarningMessage(row));
+        }
+        for (int c = 0; c < GRID_SIZE * GRID_SIZE; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        rowsByCell = new int[n];
+        int[] next = cellStart.clone();
+        for (int row = 0; row < n; row++) {
+            rowsByCell[next[cells[row]]++] = row;
+        }
+    }
+
+    /**
+     * Indexes a list of stores; ids are positions in the list.
+     */
+    static StoreGrid of(List<Store> stores) {
+        int n = stores.size();
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        short[] openMinutes = new short[n];
+        short[] closeMinutes = new short[n];
+        for (int i = 0; i < n; i++) {
+            Store s = stores.get(i);
+            latitudes[i] = s.getLatitude();
+            longitudes[i] = s.getLongitude();
+            openMinutes[i] = OpeningHours.toMinute(s.getTodayOpen());
+            closeMinutes[i] = OpeningHours.toMinute(s.getTodayClose());
+        }
+        return new StoreGrid(new Rows() {
+            public int size() {
+                return n;
+            }
+
+            public double latitude(int row) {
+                return latitudes[row];
+            }
+
+            public double longitude(int row) {
+                return longitudes[row];
+            }
+
+            public short openMinute(int row) {
+                return openMinutes[row];
+            }
+
+            public short closeMinute(int row) {
+                return closeMinutes[row];
+            }
+
+            public String locationType(int row) {
+                return stores.get(row).getLocationType();
+            }
+
+            public boolean collectionPoint(int row) {
+                return stores.get(row).isCollectionPoint();
+            }
+
+            public boolean showWarningMessage(int row) {
+                return stores.get(row).isShowWarningMessage();
+            }
+        });
+    }
+
+    /**
+     * Indexes the rows of a snapshot in place; ids are snapshot rows.
+     */
+    static StoreGrid of(StoreSnapshot snapshot) {
+        return new StoreGrid(new Rows() {
+            public int size() {
+                return snapshot.size();
+            }
+
+            public double latitude(int row) {
+                return snapshot.latitude(row);
+            }
+
+            public double longitude(int row) {
+                return snapshot.longitude(row);
+            }
+
+            public short openMinute(int row) {
+                return snapshot.openMinute(row);
+            }
+
+            public short closeMinute(int row) {
+                return snapshot.closeMinute(row);
+            }
+
+            public String locationType(int row) {
+                return snapshot.string(row, StoreSnapshot.LOCATION_TYPE);
+            }
+
+            public boolean collectionPoint(int row) {
+                return snapshot.collectionPoint(row);
+            }
+
+            public boolean showWarningMessage(int row) {
+                return snapshot.showWarningMessage(row);
+            }
+        });
+    }
+
+    void findInBounds(double minLat, double minLon, double maxLat, double maxLon, LocalTime openAt,
+                      StoreFilter filter, SpatialStoreIndex.LocationConsumer consumer) {
+        if (rowsByCell.length == 0 || minLat > maxLat || minLon > maxLon) {
+            return;
+        }
+        Matching matching = filter.isEmpty() ? null : matching(filter);
+        if (matching != null && matching.cardinality() == 0) {
+            return;
+        }
+        long nanoOfDay = openAt == null ? -1 : openAt.toNanoOfDay();
+        int fromRow = row(minLat);
+        int toRow = row(maxLat);
+        int fromColumn = column(minLon);
+        int toColumn = column(maxLon);
+
+        if (matching != null && matching.cardinality() < rowsInCells(fromRow, toRow, fromColumn, toColumn)) {
+            BitSet bits = matching.rows();
+            for (int row = bits.nextSetBit(0); row >= 0; row = bits.nextSetBit(row + 1)) {
+                test(row, minLat, minLon, maxLat, maxLon, nanoOfDay, consumer);
+            }
+            return;
+        }
+        for (int r = fromRow; r <= toRow; r++) {
+            // the cells of one grid row are adjacent in rowsByCell
+            int to = cellStart[cell(r, toColumn) + 1];
+            for (int i = cellStart[cell(r, fromColumn)]; i < to; i++) {
+                int row = rowsByCell[i];
+                if (matching == null || matching.rows().get(row)) {
+                    test(row, minLat, minLon, maxLat, maxLon, nanoOfDay, consumer);
+                }
+            }
+        }
+    }
+
+    private void test(int row, double minLat, double minLon, double maxLat, double maxLon, long nanoOfDay,
+                      SpatialStoreIndex.LocationConsumer consumer) {
+        double lat = rows.latitude(row);
+        double lon = rows.longitude(row);
+        if (lat < minLat || lat > maxLat || lon < minLon || lon > maxLon) {
+            return;
+        }
+        if (nanoOfDay >= 0 && !OpeningHours.isOpen(rows.openMinute(row), rows.closeMinute(row), nanoOfDay)) {
+            return;
+        }
+        consumer.accept(row, lat, lon);
+    }
+
+    private int rowsInCells(int fromRow, int toRow, int fromColumn, int toColumn) {
+        int count = 0;
+        for (int r = fromRow; r <= toRow; r++) {
+            count += cellStart[cell(r, toColumn) + 1] - cellStart[cell(r, fromColumn)];
+        }
+        return count;
+    }
+
+    // unknown location types match nothing and are not cached, and the cache key uses the folded type, so the
+    // cache stays bounded by the attribute values actually present
+    private Matching matching(StoreFilter filter) {
+        String locationType = filter.locationType() == null ? null : key(filter.locationType());
+        if (locationType != null && !byLocationType.containsKey(locationType)) {
+            return new Matching(new BitSet(), 0);
+        }
+        StoreFilter cacheKey = new StoreFilter(locationType, filter.collectionPoint(), filter.showWarningMessage());
+        return filterCache.computeIfAbsent(cacheKey, f -> {
+            BitSet bits = new BitSet(rowsByCell.length);
+            bits.set(0, rowsByCell.length);
+            if (f.locationType() != null) {
+                bits.and(byLocationType.get(f.locationType()));
+            }
+            if (f.collectionPoint() != null) {
+                apply(bits, collectionPoints, f.collectionPoint());
+            }
+            if (f.showWarningMessage() != null) {
+                apply(bits, warningMessages, f.showWarningMessage());
+            }
+            return new Matching(bits, bits.cardinality());
+        });
+    }
+
+    private static void apply(BitSet bits, BitSet attribute, boolean value) {
+        if (value) {
+            bits.and(attribute);
+        } else {
+            bits.andNot(attribute);
+        }
+    }
+
+    private static String key(String locationType) {
+        return locationType.toLowerCase(Locale.ROOT);
+    }
+
+    private int row(double lat) {
+        return clamp((int) Math.floor((lat - minLat) / cellLat));
+    }
+
+    private int column(double lon) {
+        return clamp((int) Math.floor((lon - minLon) / cellLon));
+    }
+
+    private static int clamp(int index) {
+        return Math.max(0, Math.min(GRID_SIZE - 1, index));
+    }
+
+    private static int cell(int row, int column) {
+        return row * GRID_SIZE + column;
+    }
+}
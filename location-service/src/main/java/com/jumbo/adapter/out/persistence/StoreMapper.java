@@ -14,6 +14,11 @@ public interface StoreMapper {
 
     @Mapping(target = "todayOpen", source = "todayOpen", qualifiedByName = "stringToLocalTime")
     @Mapping(target = "todayClose", source = "todayClose", qualifiedByName = "stringToLocalTime")
+    @Mapping(target = "distance", ignore = true)
+    @Mapping(target = "travelTimeSeconds", ignore = true)
+    // Lombok's @With copies look like fluent setters to MapStruct
+    @Mapping(target = "withDistance", ignore = true)
+    @Mapping(target = "withTravelTimeSeconds", ignore = true)
     Store toDomain(StoreEntity entity);
 
     List<Store> toDomainList(List<StoreEntity> entities);
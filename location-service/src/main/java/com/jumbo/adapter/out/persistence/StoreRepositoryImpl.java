@@ -3,45 +3,165 @@ package com.jumbo.adapter.out.persistence;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.StoreFilter;
+import com.jumbo.application.port.out.SpatialStoreIndex;
 import com.jumbo.application.port.out.StoreRepository;
 import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
+/**
+ * Store data for {@code jumbo.location.stores.storage=heap}.
+ * <p>
+ * Without a snapshot file the JSON data file is parsed into the list that the heap-resident search engines copy.
+ * With one, the {@link StoreSnapshot} is memory-mapped and queried in place like the off-heap table: box queries run
+ * on a {@link StoreGrid} over the mapped rows and only the requested rows become {@link Store}s. The heap-resident
+ * engines are not created then, so a warm start neither parses the JSON nor builds their indexes, and
+ * {@link #findAll()} materialises every row on each call.
+ * <p>
+ * A missing or stale snapshot is rebuilt from the JSON. The data file is only read when its length or modification
+ * time differ from the ones recorded in the snapshot; if the snapshot cannot be written, the parsed list is used.
+ */
 @Service
-public class StoreRepositoryImpl implements StoreRepository {
+@ConditionalOnProperty(name = "jumbo.location.stores.storage", havingValue = "heap", matchIfMissing = true)
+@Slf4j
+public class StoreRepositoryImpl implements StoreRepository, SpatialStoreIndex {
 
     private final String storesDataFile;
+    private final Path snapshotFile;
     private final StoreMapper storeMapper;
     private final ResourceLoader resourceLoader;
     private List<Store> cachedStores;
+    private StoreSnapshot snapshot;
+    private StoreGrid grid;
+    private long fingerprint;
 
     public StoreRepositoryImpl(StoreMapper storeMapper, ResourceLoader resourceLoader,
-                               @Value("${jumbo.location.stores.data-file}") String storesDataFile) {
+                               @Value("${jumbo.location.stores.data-file}") String storesDataFile,
+                               @Value("${jumbo.location.stores.snapshot-file:}") String snapshotFile) {
         this.storeMapper = storeMapper;
         this.resourceLoader = resourceLoader;
         this.storesDataFile = storesDataFile;
+        this.snapshotFile = StringUtils.hasText(snapshotFile) ? Path.of(snapshotFile) : null;
     }
 
     @PostConstruct
     public void init() throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        try (InputStream is = resourceLoader.getResource(storesDataFile).getInputStream()) {
-            List<StoreEntity> entities = mapper.readValue(
-                    mapper.readTree(is).get("stores").traverse(mapper),
-                    new TypeReference<>() {
-                    }
-            );
-            this.cachedStores = storeMapper.toDomainList(entities);
+        if (snapshotFile != null) {
+            try {
+                this.snapshot = mapSnapshot(resourceLoader, storesDataFile, storeMapper, snapshotFile);
+                this.grid = StoreGrid.of(snapshot);
+                this.fingerprint = snapshot.sourceChecksum();
+                log.info("Mapped {} stores from snapshot {}", snapshot.size(), snapshotFile);
+                return;
+            } catch (IOException e) {
+                log.warn("Could not use store snapshot {}, parsing the store data file instead", snapshotFile, e);
+            }
+        }
+        byte[] json = readDataFile(resourceLoader, storesDataFile);
+        this.cachedStores = parse(json, storeMapper);
+        this.grid = StoreGrid.of(cachedStores == null ? List.of() : cachedStores);
+        this.fingerprint = StoreSnapshot.checksum(json);
+    }
+
+    /**
+     * Maps the snapshot at {@code path}, rebuilding it from the data file when it is missing or stale.
+     * <p>
+     * A snapshot recorded with the data file's current length and modification time is used once the checksum of
+     * the file, computed while streaming it, matches too: a file replaced with the same size and a preserved
+     * modification time is not trusted. That read is sequential and neither kept nor parsed. Otherwise the file is
+     * read: when its modification time is unknown, a snapshot of the same content is still used; in every other
+     * case the JSON is parsed and the snapshot rewritten, so the next start takes the fast path again.
+     */
+    static StoreSnapshot mapSnapshot(ResourceLoader resourceLoader, String storesDataFile, StoreMapper storeMapper,
+                                     Path path) throws IOException {
+        Resource resource = resourceLoader.getResource(storesDataFile);
+        long length;
+        long lastModified;
+        try {
+            length = resource.contentLength();
+            lastModified = resource.lastModified();
+        } catch (IOException e) {
+            length = -1;
+            lastModified = 0;
+        }
+        Optional<StoreSnapshot> snapshot = StoreSnapshot.open(path);
+        if (snapshot.isPresent() && snapshot.get().isBuiltFrom(length, lastModified)) {
+            try (InputStream is = resource.getInputStream()) {
+                if (StoreSnapshot.checksum(is) == snapshot.get().sourceChecksum()) {
+                    return snapshot.get();
+                }
+            }
+            log.info("{} changed without a change in length or modification time, rebuilding the snapshot",
+                    storesDataFile);
+        }
+
+        byte[] json = read(resource);
+        long checksum = StoreSnapshot.checksum(json);
+        if (snapshot.isPresent() && lastModified <= 0 && snapshot.get().sourceChecksum() == checksum) {
+            return snapshot.get();
+        }
+        List<Store> stores = parse(json, storeMapper);
+        StoreSnapshot.write(path, stores, new StoreSnapshot.Source(checksum, json.length, lastModified));
+        log.info("Wrote snapshot of {} stores to {}", stores.size(), path);
+        return StoreSnapshot.open(path, checksum)
+                .orElseThrow(() -> new IOException("Could not map store snapshot " + path));
+    }
+
+    static byte[] readDataFile(ResourceLoader resourceLoader, String storesDataFile) throws IOException {
+        return read(resourceLoader.getResource(storesDataFile));
+    }
+
+    private static byte[] read(Resource resource) throws IOException {
+        try (InputStream is = resource.getInputStream()) {
+            return is.readAllBytes();
         }
     }
 
+    static List<Store> parse(byte[] json, StoreMapper storeMapper) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        List<StoreEntity> entities = mapper.readValue(
+                mapper.readTree(json).get("stores").traverse(mapper),
+                new TypeReference<>() {
+                }
+        );
+        return storeMapper.toDomainList(entities);
+    }
+
     public List<Store> findAll() throws IOException {
-        return cachedStores;
+        return snapshot != null ? snapshot.toStores() : cachedStores;
+    }
+
+    @Override
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    @Override
+    public void findInBounds(double minLat, double minLon, double maxLat, double maxLon, LocalTime openAt,
+                             StoreFilter filter, LocationConsumer consumer) {
+        grid.findInBounds(minLat, minLon, maxLat, maxLon, openAt, filter, consumer);
+    }
+
+    @Override
+    public List<Store> stores(int... ids) {
+        List<Store> stores = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            stores.add(snapshot != null ? snapshot.toStore(id) : cachedStores.get(id));
+        }
+        return stores;
     }
 }
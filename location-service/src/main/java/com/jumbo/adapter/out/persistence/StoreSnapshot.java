@@ -0,0 +1,349 @@
+package com.jumbo.adapter.out.persistence;
+
+import com.jumbo.application.domain.model.OpeningHours;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.common.geo.MortonCode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * Compact, memory-mapped binary image of the store data set.
+ * <p>
+ * Rows are ordered by {@link MortonCode} so the key column doubles as a packed spatial index. Every column is stored
+ * contiguously (structure of arrays) and all string attributes are dictionary encoded: each distinct string is
+ * stored once and rows only keep an {@code int} reference to it.
+ * <pre>
+ * header : magic, format version, source checksum, payload checksum, row count, dictionary size,
+ *          source length, source modification time
+ * payload: dictionary (length-prefixed UTF-8), padding to 8 bytes,
+ *          long[] morton key, double[] latitude, double[] longitude, short[] open minute, short[] close minute,
+ *          int[] string reference per string column, byte[] flags
+ * </pre>
+ * The source checksum is the CRC32 of the JSON the snapshot was built from; a snapshot whose checksum or format
+ * version does not match is treated as stale and ignored. The length and modification time of the data file are
+ * recorded next to it, so a snapshot of an unchanged file is recognised without reading the file again.
+ */
+@Slf4j
+public final class StoreSnapshot {
+
+    static final int MAGIC = 0x4A534E50; // "JSNP"
+    static final int FORMAT_VERSION = 2;
+
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4 + 4 + 8 + 8;
+    private static final int NO_STRING = -1;
+    private static final byte FLAG_SHOW_WARNING = 1;
+    private static final byte FLAG_COLLECTION_POINT = 2;
+
+    static final List<Function<Store, String>> STRING_GETTERS = List.of(
+            Store::getCity, Store::getPostalCode, Store::getStreet, Store::getStreet2, Store::getStreet3,
+            Store::getAddressName, Store::getUuid, Store::getComplexNumber, Store::getLocationType,
+            Store::getSapStoreID);
+
+    static final List<BiConsumer<Store, String>> STRING_SETTERS = List.of(
+            Store::setCity, Store::setPostalCode, Store::setStreet, Store::setStreet2, Store::setStreet3,
+            Store::setAddressName, Store::setUuid, Store::setComplexNumber, Store::setLocationType,
+            Store::setSapStoreID);
+
+    // string column ids, in the order of STRING_GETTERS
+    public static final int CITY = 0;
+    public static final int POSTAL_CODE = 1;
+    public static final int STREET = 2;
+    public static final int STREET2 = 3;
+    public static final int STREET3 = 4;
+    public static final int ADDRESS_NAME = 5;
+    public static final int UUID = 6;
+    public static final int COMPLEX_NUMBER = 7;
+    public static final int LOCATION_TYPE = 8;
+    public static final int SAP_STORE_ID = 9;
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final String[] dictionary;
+    private final int mortonOffset;
+    private final int latitudeOffset;
+    private final int longitudeOffset;
+    private final int openOffset;
+    private final int closeOffset;
+    private final int stringsOffset;
+    private final int flagsOffset;
+
+    private StoreSnapshot(ByteBuffer buffer, int count, String[] dictionary, int columnsOffset) {
+        this.buffer = buffer;
+        this.count = count;
+        this.dictionary = dictionary;
+        this.mortonOffset = columnsOffset;
+        this.latitudeOffset = mortonOffset + count * Long.BYTES;
+        this.longitudeOffset = latitudeOffset + count * Double.BYTES;
+        this.openOffset = longitudeOffset + count * Double.BYTES;
+        this.closeOffset = openOffset + count * Short.BYTES;
+        this.stringsOffset = closeOffset + count * Short.BYTES;
+        this.flagsOffset = stringsOffset + count * STRING_GETTERS.size() * Integer.BYTES;
+    }
+
+    /**
+     * The data file a snapshot is built from.
+     *
+     * @param checksum     {@link #checksum(byte[])} of its content
+     * @param length       its size in bytes
+     * @param lastModified its modification time in milliseconds, or {@code 0} when unknown
+     */
+    public record Source(long checksum, long length, long lastModified) {
+    }
+
+    public static long checksum(byte[] source) {
+        CRC32 crc = new CRC32();
+        crc.update(source);
+        return crc.getValue();
+    }
+
+    /**
+     * The same checksum as {@link #checksum(byte[])}, computed while streaming, so the content is never held in
+     * memory.
+     */
+    public static long checksum(InputStream source) throws IOException {
+        try (CheckedInputStream in = new CheckedInputStream(source, new CRC32())) {
+            in.transferTo(OutputStream.nullOutputStream());
+            return in.getChecksum().getValue();
+        }
+    }
+
+    /**
+     * Maps the snapshot at {@code path} if it exists, is intact and was built from a source with the given checksum.
+     */
+    public static Optional<StoreSnapshot> open(Path path, long expectedSourceChecksum) {
+        Optional<StoreSnapshot> snapshot = open(path);
+        if (snapshot.isPresent() && snapshot.get().sourceChecksum() != expectedSourceChecksum) {
+            log.info("Ignoring store snapshot {}: built from a different store data file", path);
+            return Optional.empty();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Maps the snapshot at {@code path} if it exists, is intact and has the current format, whatever it was built
+     * from; {@link #sourceChecksum()} and {@link #isBuiltFrom(long, long)} tell whether it is current.
+     */
+    public static Optional<StoreSnapshot> open(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                log.warn("Ignoring store snapshot {}: not a snapshot file", path);
+                return Optional.empty();
+            }
+            if (buffer.getInt(4) != FORMAT_VERSION) {
+                log.info("Ignoring store snapshot {}: format version {} != {}", path, buffer.getInt(4), FORMAT_VERSION);
+                return Optional.empty();
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(HEADER_BYTES, buffer.capacity() - HEADER_BYTES));
+            if (crc.getValue() != buffer.getLong(16)) {
+                log.warn("Ignoring store snapshot {}: payload checksum mismatch", path);
+                return Optional.empty();
+            }
+            return Optional.of(read(buffer));
+        } catch (NoSuchFileException e) {
+            log.info("No store snapshot at {}", path);
+            return Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable store snapshot {}", path, e);
+            return Optional.empty();
+        }
+    }
+
+    private static StoreSnapshot read(ByteBuffer buffer) {
+        int count = buffer.getInt(24);
+        String[] dictionary = new String[buffer.getInt(28)];
+        int position = HEADER_BYTES;
+        for (int i = 0; i < dictionary.length; i++) {
+            int length = buffer.getInt(position);
+            byte[] bytes = new byte[length];
+            buffer.get(position + Integer.BYTES, bytes);
+            dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+            position += Integer.BYTES + length;
+        }
+        return new StoreSnapshot(buffer, count, dictionary, align(position));
+    }
+
+    /**
+     * Writes {@code stores} to {@code path}, replacing any existing snapshot atomically.
+     */
+    public static void write(Path path, List<Store> stores, Source source) throws IOException {
+        StoreSnapshot snapshot = build(stores, source);
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = snapshot.buffer.duplicate().clear();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Encodes {@code stores} into an on-heap snapshot; {@link #write} persists the same bytes.
+     */
+    static StoreSnapshot build(List<Store> stores, Source source) {
+        List<Store> sorted = new ArrayList<>(stores);
+        sorted.sort(Comparator.comparingLong(s -> MortonCode.encode(s.getLatitude(), s.getLongitude())));
+
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        int[][] refs = new int[STRING_GETTERS.size()][sorted.size()];
+        for (int f = 0; f < STRING_GETTERS.size(); f++) {
+            for (int i = 0; i < sorted.size(); i++) {
+                String value = STRING_GETTERS.get(f).apply(sorted.get(i));
+                refs[f][i] = value == null ? NO_STRING : dictionary.computeIfAbsent(value, v -> dictionary.size());
+            }
+        }
+        List<byte[]> encoded = dictionary.keySet().stream()
+                .map(s -> s.getBytes(StandardCharsets.UTF_8))
+                .toList();
+
+        int count = sorted.size();
+        int columnsOffset = align(HEADER_BYTES + encoded.stream().mapToInt(b -> Integer.BYTES + b.length).sum());
+        int size = columnsOffset + count * (Long.BYTES + 2 * Double.BYTES + 2 * Short.BYTES
+                + STRING_GETTERS.size() * Integer.BYTES + 1);
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(source.checksum()).putLong(0).putInt(count)
+                .putInt(encoded.size()).putLong(source.length()).putLong(source.lastModified());
+        for (byte[] bytes : encoded) {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+        buffer.position(columnsOffset);
+        sorted.forEach(s -> buffer.putLong(MortonCode.encode(s.getLatitude(), s.getLongitude())));
+        sorted.forEach(s -> buffer.putDouble(s.getLatitude()));
+        sorted.forEach(s -> buffer.putDouble(s.getLongitude()));
+        sorted.forEach(s -> buffer.putShort(OpeningHours.toMinute(s.getTodayOpen())));
+        sorted.forEach(s -> buffer.putShort(OpeningHours.toMinute(s.getTodayClose())));
+        for (int[] column : refs) {
+            for (int ref : column) {
+                buffer.putInt(ref);
+            }
+        }
+        sorted.forEach(s -> buffer.put((byte) ((s.isShowWarningMessage() ? FLAG_SHOW_WARNING : 0)
+                | (s.isCollectionPoint() ? FLAG_COLLECTION_POINT : 0))));
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(HEADER_BYTES, size - HEADER_BYTES));
+        buffer.putLong(16, crc.getValue());
+
+        return new StoreSnapshot(buffer, count, dictionary.keySet().toArray(String[]::new), columnsOffset);
+    }
+
+    private static int align(int position) {
+        return (position + 7) & ~7;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public long sourceChecksum() {
+        return buffer.getLong(8);
+    }
+
+    /**
+     * Whether this snapshot was built from a data file of exactly this length and modification time. An unknown
+     * modification time never matches, so such a file is always checked by its content.
+     */
+    public boolean isBuiltFrom(long length, long lastModified) {
+        return lastModified > 0 && buffer.getLong(32) == length && buffer.getLong(40) == lastModified;
+    }
+
+    public long mortonKey(int row) {
+        return buffer.getLong(mortonOffset + row * Long.BYTES);
+    }
+
+    public double latitude(int row) {
+        return buffer.getDouble(latitudeOffset + row * Double.BYTES);
+    }
+
+    public double longitude(int row) {
+        return buffer.getDouble(longitudeOffset + row * Double.BYTES);
+    }
+
+    public short openMinute(int row) {
+        return buffer.getShort(openOffset + row * Short.BYTES);
+    }
+
+    public short closeMinute(int row) {
+        return buffer.getShort(closeOffset + row * Short.BYTES);
+    }
+
+    /**
+     * Dictionary id of a string attribute, or {@code -1} when the attribute is absent.
+     */
+    public int stringRef(int row, int column) {
+        return buffer.getInt(stringsOffset + (column * count + row) * Integer.BYTES);
+    }
+
+    public String string(int row, int column) {
+        int ref = stringRef(row, column);
+        return ref == NO_STRING ? null : dictionary[ref];
+    }
+
+    public String dictionaryValue(int ref) {
+        return dictionary[ref];
+    }
+
+    public int dictionarySize() {
+        return dictionary.length;
+    }
+
+    public boolean showWarningMessage(int row) {
+        return (buffer.get(flagsOffset + row) & FLAG_SHOW_WARNING) != 0;
+    }
+
+    public boolean collectionPoint(int row) {
+        return (buffer.get(flagsOffset + row) & FLAG_COLLECTION_POINT) != 0;
+    }
+
+    /**
+     * Materialises a single row as a {@link Store}; strings are shared with the decoded dictionary.
+     */
+    public Store toStore(int row) {
+        Store store = new Store();
+        for (int f = 0; f < STRING_SETTERS.size(); f++) {
+            STRING_SETTERS.get(f).accept(store, string(row, f));
+        }
+        store.setLatitude(latitude(row));
+        store.setLongitude(longitude(row));
+        store.setTodayOpen(OpeningHours.toLocalTime(openMinute(row)));
+        store.setTodayClose(OpeningHours.toLocalTime(closeMinute(row)));
+        store.setShowWarningMessage(showWarningMessage(row));
+        store.setCollectionPoint(collectionPoint(row));
+        return store;
+    }
+
+    public List<Store> toStores() {
+        Store[] stores = new Store[count];
+        Arrays.setAll(stores, this::toStore);
+        return new ArrayList<>(Arrays.asList(stores));
+    }
+}
@@ -0,0 +1,76 @@
+package com.jumbo.adapter.out.shard;
+
+import com.jumbo.application.domain.model.ShardRegion;
+import com.jumbo.application.port.out.ShardClient;
+import com.jumbo.application.port.out.ShardRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shards as registered in the name-server (Eureka): every instance of this service that carries a
+ * {@value #REGION_METADATA} entry in its metadata. The discovery client keeps its own periodically refreshed copy of
+ * the registry, so this is cheap to call per query; clients are reused while an instance keeps its address and region.
+ */
+@Service
+@ConditionalOnProperty(name = "jumbo.location.sharding.coordinator", havingValue = "true")
+@Slf4j
+public class DiscoveryShardRegistry implements ShardRegistry {
+
+    public static final String REGION_METADATA = "shard-region";
+
+    private final DiscoveryClient discoveryClient;
+    private final String serviceId;
+    private final RestClient restClient;
+    private final Map<String, HttpShardClient> clients = new ConcurrentHashMap<>();
+
+    public DiscoveryShardRegistry(DiscoveryClient discoveryClient, RestClient.Builder restClientBuilder,
+                                  @Value("${spring.application.name}") String serviceId,
+                                  @Value("${jumbo.location.sharding.timeout:PT2S}") Duration timeout) {
+        this.discoveryClient = discoveryClient;
+        this.serviceId = serviceId;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+    }
+
+    @Override
+    public List<ShardClient> shards() {
+        List<ShardClient> shards = new ArrayList<>();
+        for (ServiceInstance instance : discoveryClient.getInstances(serviceId)) {
+            String region = instance.getMetadata().get(REGION_METADATA);
+            if (region == null || region.isBlank()) {
+                continue;
+            }
+            try {
+                shards.add(client(instance, ShardRegion.parse(region)));
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring shard {} with invalid region: {}", instance.getInstanceId(), e.getMessage());
+            }
+        }
+        return shards;
+    }
+
+    private HttpShardClient client(ServiceInstance instance, ShardRegion region) {
+        HttpShardClient client = clients.get(instance.getInstanceId());
+        if (client == null || !client.region().equals(region) || !client.baseUri().equals(instance.getUri())) {
+            client = new HttpShardClient(instance.getInstanceId(), region, instance.getUri(), restClient);
+            clients.put(instance.getInstanceId(), client);
+            log.info("Discovered shard {} at {} owning {}", instance.getInstanceId(), instance.getUri(),
+                    region.format());
+        }
+        return client;
+    }
+}
@@ -0,0 +1,86 @@
+package com.jumbo.adapter.out.shard;
+
+import com.jumbo.application.domain.model.ShardRegion;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.StoreFilter;
+import com.jumbo.application.port.out.ShardClient;
+import com.jumbo.application.port.out.ShardUnavailableException;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.util.UriBuilder;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Calls the shard-local endpoint ({@code /api/v1/shard/nearby}) of another location-service instance.
+ */
+public class HttpShardClient implements ShardClient {
+
+    static final String SHARD_NEARBY_PATH = "/api/v1/shard/nearby";
+
+    private final String id;
+    private final ShardRegion region;
+    private final URI baseUri;
+    private final RestClient restClient;
+
+    public HttpShardClient(String id, ShardRegion region, URI baseUri, RestClient restClient) {
+        this.id = id;
+        this.region = region;
+        this.baseUri = baseUri;
+        this.restClient = restClient;
+    }
+
+    @Override
+    public String id() {
+        return id;
+    }
+
+    @Override
+    public ShardRegion region() {
+        return region;
+    }
+
+    URI baseUri() {
+        return baseUri;
+    }
+
+    @Override
+    public List<Store> findNearByStores(NearByRequest req) {
+        try {
+            List<Store> stores = restClient.get()
+                    .uri(baseUri.resolve(SHARD_NEARBY_PATH).toString(), builder -> query(builder, req))
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<List<Store>>() {
+                    });
+            return stores == null ? List.of() : stores;
+        } catch (RestClientException e) {
+            throw new ShardUnavailableException("Shard " + id + " at " + baseUri + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    private static URI query(UriBuilder builder, NearByRequest req) {
+        builder.queryParam("latitude", req.latitude())
+                .queryParam("longitude", req.longitude())
+                .queryParam("maxRadius", req.maxRadiusKm())
+                .queryParam("limit", req.limit())
+                .queryParam("onlyOpen", req.onlyOpen());
+        StoreFilter filter = req.filter();
+        if (filter.locationType() != null) {
+            builder.queryParam("locationType", filter.locationType());
+        }
+        if (filter.collectionPoint() != null) {
+            builder.queryParam("collectionPoint", filter.collectionPoint());
+        }
+        if (filter.showWarningMessage() != null) {
+            builder.queryParam("showWarningMessage", filter.showWarningMessage());
+        }
+        if (req.after() != null) {
+            builder.queryParam("afterDistanceKm", req.after().distanceKm())
+                    .queryParam("afterUuid", req.after().uuid());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,14 @@
+package com.jumbo.application.domain.model;
+
+import java.util.List;
+
+/**
+ * Stores of an approximate nearby search. The {@code i}-th store is at most {@code 1 + errorBound} times as far away
+ * as the true {@code i}-th nearest store; {@code 0} means the result is exact.
+ */
+public record ApproximateNearByResult(List<Store> stores, double errorBound) {
+
+    public static ApproximateNearByResult exact(List<Store> stores) {
+        return new ApproximateNearByResult(stores, 0);
+    }
+}
@@ -0,0 +1,19 @@
+package com.jumbo.application.domain.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Stores found by a batch lookup")
+public record BatchGetResult(
+
+        @Schema(description = "Found stores, uuids first, in request order and without duplicates")
+        List<Store> stores,
+
+        @Schema(description = "Requested uuids that do not exist")
+        List<String> missingUuids,
+
+        @Schema(description = "Requested SAP store ids that do not exist")
+        List<String> missingSapStoreIds
+) {
+}
@@ -0,0 +1,45 @@
+package com.jumbo.application.domain.model;
+
+import java.time.LocalTime;
+
+/**
+ * Primitive encoding of opening hours as minute-of-day values, used by the packed/columnar store layouts.
+ * Semantics mirror {@link Store#isOpen(LocalTime)}: bounds are inclusive and a closing time before the
+ * opening time means the store is open past midnight.
+ */
+public final class OpeningHours {
+
+    public static final short UNKNOWN = -1;
+
+    private static final long NANOS_PER_MINUTE = 60_000_000_000L;
+
+    private OpeningHours() {
+    }
+
+    public static short toMinute(LocalTime time) {
+        return time == null ? UNKNOWN : (short) (time.getHour() * 60 + time.getMinute());
+    }
+
+    public static LocalTime toLocalTime(short minute) {
+        return minute == UNKNOWN ? null : LocalTime.of(minute / 60, minute % 60);
+    }
+
+    public static boolean isOpen(short openMinute, short closeMinute, LocalTime now) {
+        return isOpen(openMinute, closeMinute, now.toNanoOfDay());
+    }
+
+    /**
+     * @param nanoOfDay current time as {@link LocalTime#toNanoOfDay()}, so that 22:00:30 is after a 22:00 close
+     */
+    public static boolean isOpen(short openMinute, short closeMinute, long nanoOfDay) {
+        if (openMinute == UNKNOWN || closeMinute == UNKNOWN) {
+            return false;
+        }
+        long open = openMinute * NANOS_PER_MINUTE;
+        long close = closeMinute * NANOS_PER_MINUTE;
+        if (close < open) {
+            return nanoOfDay >= open || nanoOfDay <= close;
+        }
+        return nanoOfDay >= open && nanoOfDay <= close;
+    }
+}
@@ -0,0 +1,7 @@
+package com.jumbo.application.domain.model;
+
+/**
+ * Representative location of a Dutch postal code, either a full PC6 code ("1012AB") or a PC4 area ("1012").
+ */
+public record PostalCodeCentroid(String postalCode, double latitude, double longitude) {
+}
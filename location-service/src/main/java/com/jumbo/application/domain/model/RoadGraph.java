@@ -0,0 +1,313 @@
+package com.jumbo.application.domain.model;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Directed road graph in compressed sparse row form, with edge weights in seconds of travel time.
+ * <p>
+ * Nodes are indexed on a uniform latitude/longitude grid for snapping coordinates to the road network. Travel
+ * times are computed with a one-to-many Dijkstra that stops as soon as every requested target is settled, which for
+ * the few dozen stores around an origin explores only the neighbourhood of the origin rather than the whole graph.
+ */
+public final class RoadGraph {
+
+    private static final double SNAP_CELL_DEGREES = 0.01;
+    private static final int MAX_SNAP_RINGS = 20;
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int[] edgeOffsets;
+    private final int[] edgeTargets;
+    private final float[] edgeSeconds;
+
+    // node ids sorted by snap cell, with the cell key of each entry
+    private final long[] cellKeys;
+    private final int[] cellNodes;
+
+    // scratch space is pooled rather than thread-local, so its number follows concurrent searches, not threads
+    private final Queue<SearchState> searchStates = new ConcurrentLinkedQueue<>();
+
+    public RoadGraph(double[] latitudes, double[] longitudes, int[] edgeFrom, int[] edgeTo, float[] edgeSeconds) {
+        int n = latitudes.length;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+
+        edgeOffsets = new int[n + 1];
+        for (int from : edgeFrom) {
+            edgeOffsets[from + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            edgeOffsets[i + 1] += edgeOffsets[i];
+        }
+        edgeTargets = new int[edgeFrom.length];
+        this.edgeSeconds = new float[edgeFrom.length];
+        int[] next = Arrays.copyOf(edgeOffsets, n);
+        for (int e = 0; e < edgeFrom.length; e++) {
+            int slot = next[edgeFrom[e]]++;
+            edgeTargets[slot] = edgeTo[e];
+            this.edgeSeconds[slot] = edgeSeconds[e];
+        }
+
+        long[] keyed = new long[n];
+        for (int i = 0; i < n; i++) {
+            // cell key in the upper bits, node id in the lower 32 so one sort orders both
+            keyed[i] = (cellKey(latitudes[i], longitudes[i]) << 32) | i;
+        }
+        Arrays.sort(keyed);
+        cellKeys = new long[n];
+        cellNodes = new int[n];
+        for (int i = 0; i < n; i++) {
+            cellKeys[i] = keyed[i] >>> 32;
+            cellNodes[i] = (int) keyed[i];
+        }
+    }
+
+    public int nodeCount() {
+        return latitudes.length;
+    }
+
+    public int edgeCount() {
+        return edgeTargets.length;
+    }
+
+    public double latitude(int node) {
+        return latitudes[node];
+    }
+
+    public double longitude(int node) {
+        return longitudes[node];
+    }
+
+    /**
+     * Node closest to the given point, or {@code -1} when no node lies within about 20 km.
+     */
+    public int nearestNode(double lat, double lon) {
+        int row = row(lat);
+        int column = column(lon);
+        double cosLat = Math.cos(Math.toRadians(lat));
+        int best = -1;
+        double bestDistance = Double.MAX_VALUE;
+        for (int ring = 0; ring <= MAX_SNAP_RINGS; ring++) {
+            // every node outside the rings searched so far is at least this far away
+            double ringDistance = (ring - 1) * SNAP_CELL_DEGREES * cosLat;
+            if (best >= 0 && ringDistance * ringDistance > bestDistance) {
+                break;
+            }
+            for (int r = row - ring; r <= row + ring; r++) {
+                for (int c = column - ring; c <= column + ring; c++) {
+                    if (Math.abs(r - row) != ring && Math.abs(c - column) != ring) {
+                        continue;
+                    }
+                    int i = lowerBound(cellKey(r, c));
+                    for (; i < cellKeys.length && cellKeys[i] == cellKey(r, c); i++) {
+                        int node = cellNodes[i];
+                        double dy = latitudes[node] - lat;
+                        double dx = (longitudes[node] - lon) * cosLat;
+                        double distance = dx * dx + dy * dy;
+                        if (distance < bestDistance) {
+                            bestDistance = distance;
+                            best = node;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Shortest travel time in seconds from {@code origin} to each of {@code targets}, in the same order;
+     * {@link Float#POSITIVE_INFINITY} for targets that cannot be reached within {@code maxSeconds}. The bound keeps
+     * a search for a target in another component (an island, a closed-off site) from exploring the whole graph.
+     */
+    public float[] travelTimes(int origin, int[] targets, float maxSeconds) {
+        float[] result = new float[targets.length];
+        Arrays.fill(result, Float.POSITIVE_INFINITY);
+        if (targets.length == 0) {
+            return result;
+        }
+
+        SearchState state = searchStates.poll();
+        if (state == null) {
+            state = new SearchState(nodeCount());
+        }
+        state.reset();
+        int remaining = 0;
+        for (int target : targets) {
+            if (state.markTarget(target)) {
+                remaining++;
+            }
+        }
+
+        state.relax(origin, 0f);
+        while (remaining > 0 && !state.heapEmpty()) {
+            int node = state.pollNode();
+            float seconds = state.lastPolledKey;
+            if (state.isSettled(node) || seconds > state.distance(node)) {
+                continue;
+            }
+            if (seconds > maxSeconds) {
+                break;
+            }
+            state.settle(node);
+            if (state.isTarget(node)) {
+                remaining--;
+            }
+            for (int e = edgeOffsets[node]; e < edgeOffsets[node + 1]; e++) {
+                int next = edgeTargets[e];
+                if (!state.isSettled(next)) {
+                    state.relax(next, seconds + edgeSeconds[e]);
+                }
+            }
+        }
+
+        for (int i = 0; i < targets.length; i++) {
+            if (state.isSettled(targets[i])) {
+                result[i] = state.distance(targets[i]);
+            }
+        }
+        searchStates.offer(state);
+        return result;
+    }
+
+    private int lowerBound(long key) {
+        int i = Arrays.binarySearch(cellKeys, key);
+        if (i < 0) {
+            return -i - 1;
+        }
+        while (i > 0 && cellKeys[i - 1] == key) {
+            i--;
+        }
+        return i;
+    }
+
+    private static long cellKey(double lat, double lon) {
+        return cellKey(row(lat), column(lon));
+    }
+
+    private static long cellKey(int row, int column) {
+        // at 0.01 degrees rows fit in 15 bits and columns in 16, keeping the key below 2^31
+        return ((long) (row & 0x7FFF) << 16) | (column & 0xFFFF);
+    }
+
+    private static int row(double lat) {
+        return (int) Math.floor((lat + 90.0) / SNAP_CELL_DEGREES);
+    }
+
+    private static int column(double lon) {
+        return (int) Math.floor((lon + 180.0) / SNAP_CELL_DEGREES);
+    }
+
+    /**
+     * Dijkstra scratch space. Arrays are reused between searches and lazily cleared with a version
+     * stamp, so a search only pays for the nodes it touches.
+     */
+    private static final class SearchState {
+        private final float[] distances;
+        private final int[] visited;
+        private final int[] settled;
+        private final int[] targets;
+        private int version;
+
+        private int[] heapNodes = new int[256];
+        private float[] heapKeys = new float[256];
+        private int heapSize;
+        private float lastPolledKey;
+
+        SearchState(int nodes) {
+            distances = new float[nodes];
+            visited = new int[nodes];
+            settled = new int[nodes];
+            targets = new int[nodes];
+        }
+
+        void reset() {
+            version++;
+            heapSize = 0;
+        }
+
+        boolean markTarget(int node) {
+            if (targets[node] == version) {
+                return false;
+            }
+            targets[node] = version;
+            return true;
+        }
+
+        boolean isTarget(int node) {
+            return targets[node] == version;
+        }
+
+        boolean isSettled(int node) {
+            return settled[node] == version;
+        }
+
+        void settle(int node) {
+            settled[node] = version;
+        }
+
+        float distance(int node) {
+            return visited[node] == version ? distances[node] : Float.POSITIVE_INFINITY;
+        }
+
+        void relax(int node, float seconds) {
+            if (seconds < distance(node)) {
+                visited[node] = version;
+                distances[node] = seconds;
+                push(node, seconds);
+            }
+        }
+
+        boolean heapEmpty() {
+            return heapSize == 0;
+        }
+
+        // binary min-heap with lazy deletion: stale entries are skipped when polled
+        private void push(int node, float key) {
+            if (heapSize == heapNodes.length) {
+                heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+                heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+            }
+            int i = heapSize++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heapKeys[parent] <= key) {
+                    break;
+                }
+                heapNodes[i] = heapNodes[parent];
+                heapKeys[i] = heapKeys[parent];
+                i = parent;
+            }
+            heapNodes[i] = node;
+            heapKeys[i] = key;
+        }
+
+        int pollNode() {
+            int node = heapNodes[0];
+            lastPolledKey = heapKeys[0];
+            int lastNode = heapNodes[--heapSize];
+            float lastKey = heapKeys[heapSize];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) {
+                    child++;
+                }
+                if (heapKeys[child] >= lastKey) {
+                    break;
+                }
+                heapNodes[i] = heapNodes[child];
+                heapKeys[i] = heapKeys[child];
+                i = child;
+            }
+            heapNodes[i] = lastNode;
+            heapKeys[i] = lastKey;
+            return node;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.jumbo.application.domain.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Store near a route with its position relative to the route")
+public record RouteStop(
+
+        @Schema(description = "The store; its distance is the distance from the route in kilometers")
+        Store store,
+
+        @Schema(description = "Shortest distance between the store and the route in kilometers", example = "0.8")
+        double distanceFromRouteKm,
+
+        @Schema(description = "Straight-line distance from the closest point on the route to the store and back in "
+                + "kilometers; a lower bound for the extra distance of visiting the store", example = "1.6")
+        double roundTripKm,
+
+        @Schema(description = "Distance along the route to the point closest to the store in kilometers",
+                example = "12.4")
+        double routePositionKm
+) {
+}
@@ -0,0 +1,51 @@
+package com.jumbo.application.domain.model;
+
+/**
+ * Rectangular range of whole-degree geo cells owned by one location-service shard, written as
+ * {@code minLat,minLon,maxLat,maxLon} in the shard's registry metadata. The bounds are inclusive of the south and
+ * west edges and exclusive of the north and east ones, so adjacent regions never both own a store.
+ */
+public record ShardRegion(int minLat, int minLon, int maxLat, int maxLon) {
+
+    private static final double KM_PER_DEGREE = 111.195;
+
+    public ShardRegion {
+        if (!(minLat >= -90 && maxLat <= 90 && minLat < maxLat && minLon >= -180 && maxLon <= 180 && minLon < maxLon)) {
+            throw new IllegalArgumentException("Invalid shard region " + minLat + "," + minLon + "," + maxLat + ","
+                    + maxLon);
+        }
+    }
+
+    public static ShardRegion parse(String text) {
+        String[] parts = text.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Shard region must be minLat,minLon,maxLat,maxLon but was '" + text + "'");
+        }
+        try {
+            return new ShardRegion(Integer.parseInt(parts[0].strip()), Integer.parseInt(parts[1].strip()),
+                    Integer.parseInt(parts[2].strip()), Integer.parseInt(parts[3].strip()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Shard region must be whole degrees but was '" + text + "'", e);
+        }
+    }
+
+    public String format() {
+        return minLat + "," + minLon + "," + maxLat + "," + maxLon;
+    }
+
+    public boolean contains(double latitude, double longitude) {
+        return latitude >= minLat && latitude < maxLat && longitude >= minLon && longitude < maxLon;
+    }
+
+    /**
+     * Lower bound of the distance between the point and any store the region can hold, zero inside the region.
+     */
+    public double minDistanceKm(double latitude, double longitude) {
+        double dLat = Math.max(0, Math.max(minLat - latitude, latitude - maxLat));
+        double dLon = Math.max(0, Math.max(minLon - longitude, longitude - maxLon));
+        // the narrowest parallel the region and the point span keeps the longitude leg a lower bound
+        double widestLat = Math.max(Math.abs(latitude), Math.max(Math.abs(minLat), Math.abs(maxLat)));
+        double cosLat = Math.cos(Math.toRadians(Math.min(widestLat, 90)));
+        return Math.hypot(dLat, dLon * cosLat) * KM_PER_DEGREE * 0.99;
+    }
+}
@@ -0,0 +1,17 @@
+package com.jumbo.application.domain.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Aggregate of the stores inside one map grid cell")
+public record StoreCluster(
+
+        @Schema(description = "Latitude of the centroid of the clustered stores", example = "52.3702")
+        double latitude,
+
+        @Schema(description = "Longitude of the centroid of the clustered stores", example = "4.8952")
+        double longitude,
+
+        @Schema(description = "Number of stores in the cluster", example = "12")
+        int count
+) {
+}
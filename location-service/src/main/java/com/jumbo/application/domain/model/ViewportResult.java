@@ -0,0 +1,30 @@
+package com.jumbo.application.domain.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Stores or store clusters inside a map viewport")
+public record ViewportResult(
+
+        @Schema(description = "Zoom level the result was computed for", example = "8")
+        int zoom,
+
+        @Schema(description = "Whether the viewport is summarised as clusters instead of individual stores")
+        boolean clustered,
+
+        @Schema(description = "Clusters inside the viewport, empty when individual stores are returned")
+        List<StoreCluster> clusters,
+
+        @Schema(description = "Stores inside the viewport, empty when clusters are returned")
+        List<Store> stores
+) {
+
+    public static ViewportResult ofClusters(int zoom, List<StoreCluster> clusters) {
+        return new ViewportResult(zoom, true, clusters, List.of());
+    }
+
+    public static ViewportResult ofStores(int zoom, List<Store> stores) {
+        return new ViewportResult(zoom, false, List.of(), stores);
+    }
+}
@@ -0,0 +1,208 @@
+package com.jumbo.application.domain.servcie;
+
+import com.jumbo.application.domain.model.OpeningHours;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.NearByUseCase;
+import com.jumbo.application.port.out.StoreRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes every query to the engine expected to answer it fastest.
+ * <p>
+ * Queries are grouped by shape: radius, limit, whether only open stores are wanted and how many candidates the
+ * search box is estimated to hold (store density, scaled by the share of stores open at that minute when
+ * {@code onlyOpen} is set). Per group the router keeps an exponentially weighted average of each engine's observed
+ * latency. Every engine is tried a few times per group first; afterwards the cheapest engine is used, with a small
+ * share of queries still sent to a random engine so the averages follow changes in load and data.
+ * <p>
+ * Routing must only change latency, never the answer: every engine passed in has to return the exact nearest
+ * stores in distance order. Approximate engines such as {@link ApproximateNearByService} are not valid arms.
+ * <p>
+ * Decisions are counted in {@code jumbo.search.routing.decisions} (tags {@code engine}, {@code reason}) and engine
+ * latencies recorded in {@code jumbo.search.engine.latency}.
+ */
+@Slf4j
+public class AdaptiveNearByService implements NearByUseCase {
+
+    static final int MIN_SAMPLES = 5;
+    private static final double EWMA_ALPHA = 0.2;
+    private static final String[] REASONS = {"warmup", "explore", "exploit"};
+    private static final int WARMUP = 0;
+    private static final int EXPLORE = 1;
+    private static final int EXPLOIT = 2;
+
+    private final String[] names;
+    private final NearByUseCase[] engines;
+    private final StoreRepository storeRepository;
+    private final double explorationRate;
+    private final Counter[][] decisions;
+    private final Timer[] latencies;
+    private final Map<Integer, BucketStats> buckets = new ConcurrentHashMap<>();
+
+    private StoreDensityGrid densityGrid;
+    private float[] openFractionByMinute;
+
+    public AdaptiveNearByService(Map<String, NearByUseCase> engines, StoreRepository storeRepository,
+                                 MeterRegistry meterRegistry, double explorationRate) {
+        this.names = engines.keySet().toArray(String[]::new);
+        this.engines = engines.values().toArray(NearByUseCase[]::new);
+        this.storeRepository = storeRepository;
+        this.explorationRate = explorationRate;
+        this.decisions = new Counter[names.length][REASONS.length];
+        this.latencies = new Timer[names.length];
+        for (int e = 0; e < names.length; e++) {
+            for (int r = 0; r < REASONS.length; r++) {
+                decisions[e][r] = Counter.builder("jumbo.search.routing.decisions")
+                        .description("Queries routed to each search engine")
+                        .tag("engine", names[e])
+                        .tag("reason", REASONS[r])
+                        .register(meterRegistry);
+            }
+            latencies[e] = Timer.builder("jumbo.search.engine.latency")
+                    .description("Latency of queries routed to each search engine")
+                    .tag("engine", names[e])
+                    .register(meterRegistry);
+        }
+    }
+
+    public void init() throws Exception {
+        List<Store> stores = storeRepository.findAll();
+        densityGrid = new StoreDensityGrid(stores);
+        openFractionByMinute = openFractionByMinute(stores);
+        log.info("Adaptive routing between engines {}", String.join(", ", names));
+    }
+
+    @Override
+    public List<Store> findNearByStores(NearByRequest req, LocalTime now) {
+        BucketStats stats = buckets.computeIfAbsent(bucket(req, now), b -> new BucketStats(engines.length));
+
+        int engine = stats.leastSampled();
+        int reason = WARMUP;
+        if (stats.samples(engine) >= MIN_SAMPLES) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (random.nextDouble() < explorationRate) {
+                engine = random.nextInt(engines.length);
+                reason = EXPLORE;
+            } else {
+                engine = stats.cheapest();
+                reason = EXPLOIT;
+            }
+        }
+        decisions[engine][reason].increment();
+
+        long start = System.nanoTime();
+        List<Store> result = engines[engine].findNearByStores(req, now);
+        long elapsed = System.nanoTime() - start;
+
+        stats.record(engine, elapsed);
+        latencies[engine].record(elapsed, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    /**
+     * Engine currently preferred for queries shaped like {@code req}, or {@code null} while still warming up.
+     */
+    public String preferredEngine(NearByRequest req, LocalTime now) {
+        BucketStats stats = buckets.get(bucket(req, now));
+        if (stats == null || stats.samples(stats.leastSampled()) < MIN_SAMPLES) {
+            return null;
+        }
+        return names[stats.cheapest()];
+    }
+
+    private int bucket(NearByRequest req, LocalTime now) {
+        int radius = Math.min(7, log2(req.maxRadiusKm()));
+        int limit = req.limit() <= 1 ? 0 : req.limit() <= 5 ? 1 : req.limit() <= 20 ? 2 : 3;
+        double candidates = densityGrid.estimateCandidates(req.latitude(), req.longitude(), req.maxRadiusKm());
+        if (req.onlyOpen()) {
+            candidates *= openFractionByMinute[now.getHour() * 60 + now.getMinute()];
+        }
+        int density = Math.min(15, log2(candidates + 1));
+        int onlyOpen = req.onlyOpen() ? 1 : 0;
+        return ((radius * 4 + limit) * 2 + onlyOpen) * 16 + density;
+    }
+
+    private static int log2(double value) {
+        return value < 1 ? 0 : 63 - Long.numberOfLeadingZeros((long) value);
+    }
+
+    // share of stores open at each minute of the day, from a difference array over the opening intervals
+    private static float[] openFractionByMinute(List<Store> stores) {
+        int[] delta = new int[24 * 60 + 1];
+        for (Store s : stores) {
+            short open = OpeningHours.toMinute(s.getTodayOpen());
+            short close = OpeningHours.toMinute(s.getTodayClose());
+            if (open == OpeningHours.UNKNOWN || close == OpeningHours.UNKNOWN) {
+                continue;
+            }
+            if (close >= open) {
+                delta[open]++;
+                delta[close + 1]--;
+            } else {
+                delta[open]++;
+                delta[24 * 60]--;
+                delta[0]++;
+                delta[close + 1]--;
+            }
+        }
+        float[] fraction = new float[24 * 60];
+        int open = 0;
+        for (int minute = 0; minute < fraction.length; minute++) {
+            open += delta[minute];
+            fraction[minute] = stores.isEmpty() ? 0 : (float) open / stores.size();
+        }
+        return fraction;
+    }
+
+    private static final class BucketStats {
+        private final double[] averageNanos;
+        private final long[] samples;
+
+        BucketStats(int engines) {
+            averageNanos = new double[engines];
+            samples = new long[engines];
+        }
+
+        synchronized long samples(int engine) {
+            return samples[engine];
+        }
+
+        synchronized int leastSampled() {
+            int least = 0;
+            for (int e = 1; e < samples.length; e++) {
+                if (samples[e] < samples[least]) {
+                    least = e;
+                }
+            }
+            return least;
+        }
+
+        synchronized int cheapest() {
+            int cheapest = 0;
+            for (int e = 1; e < averageNanos.length; e++) {
+                if (averageNanos[e] < averageNanos[cheapest]) {
+                    cheapest = e;
+                }
+            }
+            return cheapest;
+        }
+
+        synchronized void record(int engine, long nanos) {
+            averageNanos[engine] = samples[engine] == 0
+                    ? nanos
+                    : averageNanos[engine] + EWMA_ALPHA * (nanos - averageNanos[engine]);
+            samples[engine]++;
+        }
+    }
+}
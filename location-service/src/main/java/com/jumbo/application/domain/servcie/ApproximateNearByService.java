@@ -0,0 +1,213 @@
+package com.jumbo.application.domain.servcie;
+
+import com.jumbo.application.domain.model.ApproximateNearByResult;
+import com.jumbo.application.domain.model.OpeningHours;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.ApproximateNearByUseCase;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.NearByUseCase;
+import com.jumbo.application.port.out.StoreRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Nearby search for map previews and analytics, where a store slightly farther than the true {@code i}-th nearest
+ * is good enough.
+ * <p>
+ * Stores are numbered in the order of a fixed grid over the data bounding box and the query walks the cells
+ * outwards in rings. Two things make it cheaper than an exact search:
+ * <ul>
+ *     <li>candidates are ranked by the planar (equirectangular) distance at the query's latitude, which needs no
+ *     trigonometry per store; only the returned stores get a haversine distance</li>
+ *     <li>the walk stops as soon as the next ring cannot hold a store nearer than the current {@code k}-th one
+ *     divided by {@code 1 + epsilon}, instead of waiting until it cannot hold a nearer one at all</li>
+ * </ul>
+ * The bound reported with the result combines how close the walk came to {@code epsilon} with the worst error of
+ * the planar distance over the search radius. Filtered and cursor queries are always answered exactly by the
+ * {@link IndexedNearByService}, which ranks by the haversine distance alone: the regular search may re-rank by
+ * travel time or share results between callers, and would not match a bound of 0.
+ */
+@Service
+@ConditionalOnExpression("'${jumbo.location.stores.storage:heap}' == 'heap'"
+        + " and '${jumbo.location.stores.snapshot-file:}' == ''")
+@Slf4j
+public class ApproximateNearByService implements ApproximateNearByUseCase {
+
+    private static final int GRID_SIZE = 128;
+    private static final double KM_PER_DEGREE = Math.toRadians(6371.0);
+    // difference between the mid-latitude planar distance and the haversine, far below this up to a few hundred km
+    private static final double CURVATURE_ERROR = 1e-3;
+
+    private final StoreRepository storeRepository;
+    private final DistanceCalculator distanceCalculator;
+    private final NearByUseCase exactSearch;
+
+    private Store[] stores;
+    private double[] latitudes;
+    private double[] longitudes;
+    private short[] openMinutes;
+    private short[] closeMinutes;
+    private int[] cellStart;
+    private double minLat;
+    private double minLon;
+    private double cellLat;
+    private double cellLon;
+
+    public ApproximateNearByService(StoreRepository storeRepository, DistanceCalculator distanceCalculator,
+                                    @Qualifier("indexedNearByService") NearByUseCase exactSearch) {
+        this.storeRepository = storeRepository;
+        this.distanceCalculator = distanceCalculator;
+        this.exactSearch = exactSearch;
+    }
+
+    @PostConstruct
+    public void init() throws Exception {
+        List<Store> all = storeRepository.findAll();
+        minLat = all.stream().mapToDouble(Store::getLatitude).min().orElse(0);
+        minLon = all.stream().mapToDouble(Store::getLongitude).min().orElse(0);
+        double maxLat = all.stream().mapToDouble(Store::getLatitude).max().orElse(0);
+        double maxLon = all.stream().mapToDouble(Store::getLongitude).max().orElse(0);
+        cellLat = Math.max((maxLat - minLat) / GRID_SIZE, 1e-6);
+        cellLon = Math.max((maxLon - minLon) / GRID_SIZE, 1e-6);
+
+        List<Store> sorted = new ArrayList<>(all);
+        sorted.sort(Comparator.comparingInt(s -> cell(clamp(row(s.getLatitude())), clamp(column(s.getLongitude())))));
+        int n = sorted.size();
+        stores = sorted.toArray(Store[]::new);
+        latitudes = new double[n];
+        longitudes = new double[n];
+        openMinutes = new short[n];
+        closeMinutes = new short[n];
+        cellStart = new int[GRID_SIZE * GRID_SIZE + 1];
+        for (int i = 0; i < n; i++) {
+            Store s = stores[i];
+            latitudes[i] = s.getLatitude();
+            longitudes[i] = s.getLongitude();
+            openMinutes[i] = OpeningHours.toMinute(s.getTodayOpen());
+            closeMinutes[i] = OpeningHours.toMinute(s.getTodayClose());
+            cellStart[cell(clamp(row(latitudes[i])), clamp(column(longitudes[i]))) + 1]++;
+        }
+        for (int c = 0; c < GRID_SIZE * GRID_SIZE; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        log.info("Indexed {} stores for approximate search", n);
+    }
+
+    @Override
+    public ApproximateNearByResult findNearByStores(NearByRequest req, double epsilon, LocalTime now) {
+        if (!req.filter().isEmpty() || req.after() != null) {
+            return ApproximateNearByResult.exact(exactSearch.findNearByStores(req, now));
+        }
+        double formulaError = formulaError(req.latitude(), req.maxRadiusKm());
+        // planar distances in degrees of latitude, compared squared
+        double cosLat = Math.cos(Math.toRadians(req.latitude()));
+        double radius = req.maxRadiusKm() * (1 + formulaError) / KM_PER_DEGREE;
+        double radius2 = radius * radius;
+        // planar distances below this are inside maxRadiusKm whatever the formula error; above it the haversine decides
+        double inside = req.maxRadiusKm() * (1 - formulaError) / KM_PER_DEGREE;
+        double inside2 = inside * inside;
+        double minCell = Math.min(cellLat, cellLon * cosLat);
+        double stopFactor = (1 + epsilon) * (1 + epsilon);
+        long nanoOfDay = now.toNanoOfDay();
+
+        // a query outside the grid starts from the nearest edge cell; the ring bound only gets more conservative
+        int originRow = clamp(row(req.latitude()));
+        int originColumn = clamp(column(req.longitude()));
+        TopK topK = new TopK(req.limit());
+        double slack = 0;
+        for (int ring = 0; ring < GRID_SIZE; ring++) {
+            double bound = Math.max(0, ring - 1) * minCell;
+            double bound2 = bound * bound;
+            double worst2 = topK.worstDistance();
+            if (bound2 > radius2) {
+                break;
+            }
+            if (bound2 * stopFactor > worst2) {
+                // stores not visited yet are at least bound away, the k-th one found is at most sqrt(worst2)
+                slack = bound2 < worst2 ? Math.sqrt(worst2 / bound2) - 1 : 0;
+                break;
+            }
+            for (int r = originRow - ring; r <= originRow + ring; r++) {
+                if (r < 0 || r >= GRID_SIZE) {
+                    continue;
+                }
+                boolean edgeRow = r == originRow - ring || r == originRow + ring;
+                int step = edgeRow ? 1 : 2 * ring;
+                for (int c = originColumn - ring; c <= originColumn + ring; c += step) {
+                    if (c >= 0 && c < GRID_SIZE) {
+                        int cell = cell(r, c);
+                        scan(req, nanoOfDay, cosLat, inside2, radius2, cellStart[cell], cellStart[cell + 1],
+                                topK);
+                    }
+                }
+            }
+        }
+
+        topK.sort();
+        List<Store> result = new ArrayList<>(topK.size());
+        for (int i = 0; i < topK.size(); i++) {
+            int row = topK.id(i);
+            result.add(stores[row].withDistance(distanceCalculator.distanceInKm(req.latitude(), req.longitude(),
+                    latitudes[row], longitudes[row])));
+        }
+        result.sort(Comparator.comparingDouble(Store::getDistance));
+        return new ApproximateNearByResult(result, (1 + slack) * (1 + formulaError) / (1 - formulaError) - 1);
+    }
+
+    private void scan(NearByRequest req, long nanoOfDay, double cosLat, double inside2, double radius2, int from,
+                      int to, TopK topK) {
+        double qLat = req.latitude();
+        double qLon = req.longitude();
+        for (int i = from; i < to; i++) {
+            double dy = latitudes[i] - qLat;
+            double dx = (longitudes[i] - qLon) * cosLat;
+            double d2 = dy * dy + dx * dx;
+            if (d2 > radius2 || (req.onlyOpen() && !OpeningHours.isOpen(openMinutes[i], closeMinutes[i], nanoOfDay))) {
+                continue;
+            }
+            // a store past the radius must not take a place in the top k, or a nearer one inside it is lost
+            if (d2 > inside2 && distanceCalculator.distanceInKm(qLat, qLon, latitudes[i], longitudes[i])
+                    > req.maxRadiusKm()) {
+                continue;
+            }
+            topK.offer(i, d2);
+        }
+    }
+
+    /**
+     * Relative error of the planar distance within {@code radiusKm} of {@code latitude}. The haversine behaves like
+     * the planar distance at the mean latitude of both points; the longitude scale at the query's latitude is off by
+     * at most the change of the cosine over the radius, which is twice the largest mean-latitude shift.
+     */
+    static double formulaError(double latitude, double radiusKm) {
+        double span = radiusKm / KM_PER_DEGREE;
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        double north = Math.cos(Math.toRadians(Math.min(latitude + span, 90.0)));
+        double south = Math.cos(Math.toRadians(Math.max(latitude - span, -90.0)));
+        return Math.max(Math.abs(north / cosLat - 1), Math.abs(south / cosLat - 1)) + CURVATURE_ERROR;
+    }
+
+    private int row(double lat) {
+        return (int) Math.floor((lat - minLat) / cellLat);
+    }
+
+    private int column(double lon) {
+        return (int) Math.floor((lon - minLon) / cellLon);
+    }
+
+    private static int clamp(int index) {
+        return Math.max(0, Math.min(GRID_SIZE - 1, index));
+    }
+
+    private static int cell(int row, int column) {
+        return row * GRID_SIZE + column;
+    }
+}
@@ -0,0 +1,353 @@
+package com.jumbo.application.domain.servcie;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.NearByUseCase;
+import com.jumbo.application.port.in.StoreFilter;
+import com.jumbo.application.port.out.SharedResultCache;
+import com.jumbo.application.port.out.SpatialStoreIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Two-level result cache in front of another engine. Level 1 is an LRU map in this instance; level 2 is a
+ * {@link SharedResultCache} shared by all replicas, so a freshly deployed instance is warm for every query any other
+ * replica has answered within the last {@code ttl}.
+ * <p>
+ * Results are cached as a compact binary list of store uuid and travel time (about 20 bytes per store) and turned back
+ * into copies of this instance's {@link Store}s through its {@link SpatialStoreIndex} on a hit, with the distance
+ * measured again from the query point. Nothing is read from the result's distance fields, so a cached entry only
+ * depends on which stores were found and in what order.
+ * <p>
+ * The key holds every parameter of the query, a fingerprint of the store data computed once at startup and the
+ * settings of the engine behind the cache, which a configuration refresh can change: replicas with different data,
+ * strategies or routing settings never share entries, and entries of replaced settings are simply never asked for
+ * again and expire. Opening hours have minute resolution, so {@code onlyOpen} queries are keyed by the minute of the
+ * day and whether it is the exact start of the minute, and stay exact. Cursor pages are not cached.
+ * <p>
+ * On a level 2 miss the instance claims the key before searching, so that when many replicas miss the same key at
+ * once, e.g. right after a data reload, one of them searches and the others wait up to {@code lockTimeout} for its
+ * result instead of searching too. Failures of the shared cache are logged and treated as misses.
+ * <p>
+ * Lookups are counted in {@code jumbo.search.cache.requests} with tag {@code outcome} {@code local-hit},
+ * {@code shared-hit} or {@code miss}; {@code jumbo.search.cache.shared.errors} counts failed shared cache calls.
+ */
+@Slf4j
+public class CachingNearByService implements NearByUseCase {
+
+    private static final String KEY_PREFIX = "jumbo:nearby:v2:";
+    private static final byte FORMAT_VERSION = 2;
+    private static final long POLL_INTERVAL_MILLIS = 10;
+
+    private final NearByUseCase delegate;
+    private final Supplier<String> settings;
+    private final SpatialStoreIndex storeIndex;
+    private final DistanceCalculator distanceCalculator;
+    private final SharedResultCache sharedCache;
+    private final Duration ttl;
+    private final Duration lockTimeout;
+    private final Map<String, byte[]> localCache;
+    private final Counter localHits;
+    private final Counter sharedHits;
+    private final Counter misses;
+    private final Counter sharedErrors;
+    // fingerprint of the store data, or null when its uuids cannot identify the stores
+    private final String fingerprint;
+    private final Map<String, Integer> byUuid = new HashMap<>();
+
+    /**
+     * @param settings    the settings of {@code delegate} that change its results, read on every query
+     * @param sharedCache level 2, or {@code null} to cache in this instance only
+     */
+    public CachingNearByService(NearByUseCase delegate, Supplier<String> settings, SpatialStoreIndex storeIndex,
+                                DistanceCalculator distanceCalculator, SharedResultCache sharedCache,
+                                MeterRegistry meterRegistry, int localSize, Duration ttl, Duration lockTimeout) {
+        this.delegate = delegate;
+        this.settings = settings;
+        this.storeIndex = storeIndex;
+        this.distanceCalculator = distanceCalculator;
+        this.sharedCache = sharedCache;
+        this.ttl = ttl;
+        this.lockTimeout = lockTimeout;
+        this.localCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > localSize;
+            }
+        };
+        this.localHits = requests(meterRegistry, "local-hit");
+        this.sharedHits = requests(meterRegistry, "shared-hit");
+        this.misses = requests(meterRegistry, "miss");
+        this.sharedErrors = Counter.builder("jumbo.search.cache.shared.errors")
+                .description("Shared result cache calls that failed and were treated as a miss")
+                .register(meterRegistry);
+        this.fingerprint = load();
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("jumbo.search.cache.requests")
+                .description("Nearby queries by the cache level that answered them")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<Store> findNearByStores(NearByRequest req, LocalTime now) {
+        if (req.after() != null || fingerprint == null) {
+            return delegate.findNearByStores(req, now);
+        }
+        String key = key(req, now);
+
+        byte[] cached = localGet(key);
+        List<Store> hit = cached == null ? null : decode(cached, req);
+        if (hit != null) {
+            localHits.increment();
+            return hit;
+        }
+        cached = sharedGet(key);
+        if (cached != null) {
+            List<Store> stores = decode(cached, req);
+            if (stores != null) {
+                sharedHits.increment();
+                localPut(key, cached);
+                return stores;
+            }
+        }
+
+        String claim = sharedTryLock(key);
+        try {
+            if (claim == null && sharedCache != null) {
+                cached = awaitShared(key);
+                List<Store> stores = cached == null ? null : decode(cached, req);
+                if (stores != null) {
+                    sharedHits.increment();
+                    localPut(key, cached);
+                    return stores;
+                }
+            }
+            misses.increment();
+            List<Store> stores = delegate.findNearByStores(req, now);
+            byte[] encoded = encode(stores);
+            localPut(key, encoded);
+            sharedPut(key, encoded);
+            return stores;
+        } finally {
+            if (claim != null) {
+                sharedUnlock(key, claim);
+            }
+        }
+    }
+
+    @Override
+    public boolean ordersByDistance() {
+        return delegate.ordersByDistance();
+    }
+
+    private String load() {
+        List<String> invalid = new ArrayList<>();
+        long[] fingerprint = {0};
+        storeIndex.forEachStore((id, store) -> {
+            if (store.getUuid() == null || byUuid.putIfAbsent(store.getUuid(), id) != null) {
+                invalid.add(store.getUuid());
+                return;
+            }
+            // order-independent, so replicas reading the same stores in another order agree
+            fingerprint[0] += mix(fnv(store.getUuid() + '|' + store.getLatitude() + '|' + store.getLongitude() + '|'
+                    + store.getTodayOpen() + '|' + store.getTodayClose() + '|' + store.getLocationType() + '|'
+                    + store.isCollectionPoint() + '|' + store.isShowWarningMessage()));
+        });
+        if (!invalid.isEmpty()) {
+            log.warn("Store data has a missing or duplicate uuid ({}), nearby results are not cached",
+                    invalid.getFirst());
+            return null;
+        }
+        String hex = Long.toHexString(fingerprint[0] + byUuid.size());
+        log.info("Caching nearby results for store data {} ({} stores)", hex, byUuid.size());
+        return hex;
+    }
+
+    private static long fnv(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private String key(NearByRequest req, LocalTime now) {
+        StoreFilter filter = req.filter();
+        // a store closing at 22:00 is still open at 22:00:00 but no longer at 22:00:01
+        String time = req.onlyOpen()
+                ? (now.getHour() * 60 + now.getMinute()) + (now.getSecond() == 0 && now.getNano() == 0 ? "" : "+")
+                : "-";
+        return KEY_PREFIX + fingerprint + ':' + settings.get() + ':' + req.latitude() + ':' + req.longitude() + ':'
+                + req.maxRadiusKm() + ':' + req.limit() + ':' + time + ':' + filter.collectionPoint() + ':'
+                + filter.showWarningMessage() + ':' + filter.locationType();
+    }
+
+    private byte[] localGet(String key) {
+        synchronized (localCache) {
+            return localCache.get(key);
+        }
+    }
+
+    private void localPut(String key, byte[] value) {
+        synchronized (localCache) {
+            localCache.put(key, value);
+        }
+    }
+
+    private byte[] sharedGet(String key) {
+        if (sharedCache == null) {
+            return null;
+        }
+        try {
+            return sharedCache.get(key).orElse(null);
+        } catch (RuntimeException e) {
+            sharedFailed("read", e);
+            return null;
+        }
+    }
+
+    private void sharedPut(String key, byte[] value) {
+        if (sharedCache == null) {
+            return;
+        }
+        try {
+            sharedCache.put(key, value, ttl);
+        } catch (RuntimeException e) {
+            sharedFailed("write", e);
+        }
+    }
+
+    private String sharedTryLock(String key) {
+        if (sharedCache == null) {
+            return null;
+        }
+        try {
+            return sharedCache.tryLock(key, lockTimeout).orElse(null);
+        } catch (RuntimeException e) {
+            sharedFailed("lock", e);
+            return null;
+        }
+    }
+
+    private void sharedUnlock(String key, String claim) {
+        try {
+            sharedCache.unlock(key, claim);
+        } catch (RuntimeException e) {
+            sharedFailed("unlock", e);
+        }
+    }
+
+    /**
+     * Polls the shared cache while another instance computes {@code key}, for at most {@link #lockTimeout}.
+     */
+    private byte[] awaitShared(String key) {
+        long deadline = System.nanoTime() + lockTimeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            Optional<byte[]> value;
+            try {
+                value = sharedCache.get(key);
+            } catch (RuntimeException e) {
+                sharedFailed("read", e);
+                return null;
+            }
+            if (value.isPresent()) {
+                return value.get();
+            }
+        }
+        return null;
+    }
+
+    private void sharedFailed(String operation, RuntimeException e) {
+        sharedErrors.increment();
+        log.debug("Shared result cache {} failed, treating it as a miss", operation, e);
+    }
+
+    static byte[] encode(List<Store> stores) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + stores.size() * 32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(stores.size());
+            for (Store store : stores) {
+                out.writeUTF(store.getUuid());
+                Double travelTime = store.getTravelTimeSeconds();
+                out.writeBoolean(travelTime != null);
+                if (travelTime != null) {
+                    out.writeDouble(travelTime);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return the stores of {@code value} with their distance from the point of {@code req}, or {@code null} if it is
+     * not a result of this format over this data
+     */
+    private List<Store> decode(byte[] value, NearByRequest req) {
+        int[] ids;
+        Double[] travelTimes;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(value))) {
+            if (in.readByte() != FORMAT_VERSION) {
+                return null;
+            }
+            int count = in.readInt();
+            ids = new int[count];
+            travelTimes = new Double[count];
+            for (int i = 0; i < count; i++) {
+                Integer id = byUuid.get(in.readUTF());
+                travelTimes[i] = in.readBoolean() ? in.readDouble() : null;
+                if (id == null) {
+                    return null;
+                }
+                ids[i] = id;
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        List<Store> stores = storeIndex.stores(ids);
+        List<Store> result = new ArrayList<>(stores.size());
+        for (int i = 0; i < stores.size(); i++) {
+            Store store = stores.get(i);
+            double distance = distanceCalculator.distanceInKm(req.latitude(), req.longitude(), store.getLatitude(),
+                    store.getLongitude());
+            result.add(store.withDistance(distance).withTravelTimeSeconds(travelTimes[i]));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,129 @@
+package com.jumbo.application.domain.servcie;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.model.StoreCluster;
+import com.jumbo.application.port.out.SpatialStoreIndex;
+import com.jumbo.common.geo.WebMercator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Store clusters precomputed for every zoom level from 0 to {@code maxZoom}.
+ * <p>
+ * Each level is a Web Mercator grid with {@link #CELLS_PER_TILE} cells per tile axis (64 px cells on 256 px
+ * tiles). The finest level is built from the stores; every coarser level merges 2x2 cells of the level below,
+ * so the whole pyramid costs O(n + clusters) to build. Cluster positions are the centroid of their stores.
+ */
+public final class ClusterPyramid {
+
+    public static final int CELLS_PER_TILE = 4;
+
+    private final Level[] levels;
+
+    /**
+     * Builds the pyramid from the store locations in {@code storeIndex}; no {@link Store} is materialised.
+     */
+    public ClusterPyramid(SpatialStoreIndex storeIndex, int maxZoom) {
+        levels = new Level[maxZoom + 1];
+
+        int finest = cellsPerAxis(maxZoom);
+        Map<Long, double[]> finestSums = new HashMap<>();
+        storeIndex.findInBounds(-90, -180, 90, 180, null, (id, latitude, longitude) -> {
+            int cx = WebMercator.cell(WebMercator.x(longitude), finest);
+            int cy = WebMercator.cell(WebMercator.y(latitude), finest);
+            double[] sum = finestSums.computeIfAbsent(key(cx, cy, finest), k -> new double[3]);
+            sum[0] += latitude;
+            sum[1] += longitude;
+            sum[2]++;
+        });
+        int cells = finest;
+        Map<Long, double[]> sums = finestSums;
+        levels[maxZoom] = new Level(cells, sums);
+
+        for (int zoom = maxZoom - 1; zoom >= 0; zoom--) {
+            int finerCells = cells;
+            cells = cellsPerAxis(zoom);
+            Map<Long, double[]> coarser = new HashMap<>();
+            for (Map.Entry<Long, double[]> e : sums.entrySet()) {
+                int cx = (int) (e.getKey() % finerCells) >> 1;
+                int cy = (int) (e.getKey() / finerCells) >> 1;
+                double[] sum = coarser.computeIfAbsent(key(cx, cy, cells), k -> new double[3]);
+                sum[0] += e.getValue()[0];
+                sum[1] += e.getValue()[1];
+                sum[2] += e.getValue()[2];
+            }
+            sums = coarser;
+            levels[zoom] = new Level(cells, sums);
+        }
+    }
+
+    public int maxZoom() {
+        return levels.length - 1;
+    }
+
+    public int clusterCount(int zoom) {
+        return levels[zoom].clusters.length;
+    }
+
+    /**
+     * Clusters whose grid cell intersects the given bounding box at {@code zoom}.
+     */
+    public List<StoreCluster> clustersIn(int zoom, double minLat, double minLon, double maxLat, double maxLon) {
+        Level level = levels[zoom];
+        int x0 = WebMercator.cell(WebMercator.x(minLon), level.cells);
+        int x1 = WebMercator.cell(WebMercator.x(maxLon), level.cells);
+        int y0 = WebMercator.cell(WebMercator.y(maxLat), level.cells);
+        int y1 = WebMercator.cell(WebMercator.y(minLat), level.cells);
+
+        List<StoreCluster> result = new ArrayList<>();
+        long cellsInRange = (long) (x1 - x0 + 1) * (y1 - y0 + 1);
+        if (cellsInRange <= level.clusters.length) {
+            for (int cy = y0; cy <= y1; cy++) {
+                for (int cx = x0; cx <= x1; cx++) {
+                    int i = Arrays.binarySearch(level.keys, key(cx, cy, level.cells));
+                    if (i >= 0) {
+                        result.add(level.clusters[i]);
+                    }
+                }
+            }
+        } else {
+            for (int i = 0; i < level.keys.length; i++) {
+                int cx = (int) (level.keys[i] % level.cells);
+                int cy = (int) (level.keys[i] / level.cells);
+                if (cx >= x0 && cx <= x1 && cy >= y0 && cy <= y1) {
+                    result.add(level.clusters[i]);
+                }
+            }
+        }
+        return result;
+    }
+
+    static int cellsPerAxis(int zoom) {
+        return (1 << zoom) * CELLS_PER_TILE;
+    }
+
+    private static long key(int cx, int cy, int cells) {
+        return (long) cy * cells + cx;
+    }
+
+    private static final class Level {
+        private final int cells;
+        // cell keys in ascending order, clusters in the same order
+        private final long[] keys;
+        private final StoreCluster[] clusters;
+
+        Level(int cells, Map<Long, double[]> sums) {
+            this.cells = cells;
+            this.keys = sums.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            this.clusters = new StoreCluster[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                double[] sum = sums.get(keys[i]);
+                clusters[i] = new StoreCluster(sum[0] / sum[2], sum[1] / sum[2], (int) sum[2]);
+            }
+        }
+    }
+}
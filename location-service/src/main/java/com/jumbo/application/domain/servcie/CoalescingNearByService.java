@@ -0,0 +1,147 @@
+package com.jumbo.application.domain.servcie;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.NearByUseCase;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single-flight in front of another engine: concurrent queries with the same normalised parameters share one
+ * computation. The first caller (the leader) runs its query on its own thread; callers arriving while it runs wait
+ * for it and each get their own copies of the stores, so no two callers share a mutable {@link Store}.
+ * <p>
+ * Only queries that are in flight are shared, nothing is cached afterwards: a follower always arrived while the
+ * result was being computed, so it is as fresh as if the follower had computed it itself. For the same reason the
+ * time of day is not part of the key.
+ * <p>
+ * By default only identical queries share, so every caller gets exactly what its own search would return. A
+ * non-negative {@code coordinateDecimals} groups callers by their coordinates rounded to that many decimal places
+ * (4 is about 11 m), so that clients a few metres apart share a computation. The leader searches with its own
+ * coordinates; a follower at another point gets the distances recomputed from its own point, the stores beyond its
+ * own radius dropped and, for a distance-ordered engine, the order restored. Which stores are found near the radius
+ * or the limit can still differ by the rounding, so this is an opt-in approximation. Queries with a cursor are never
+ * rounded: the next cursor is built from the caller's own point and the last distance it was served.
+ * <p>
+ * Queries are counted in {@code jumbo.search.coalescing.requests} with tag {@code role} {@code leader} or
+ * {@code follower}, so followers over all requests is the coalescing ratio; {@code jumbo.search.coalescing.fanout}
+ * records the callers served per computation.
+ */
+public class CoalescingNearByService implements NearByUseCase {
+
+    private static final Comparator<Store> BY_DISTANCE_AND_UUID = Comparator.comparingDouble(Store::getDistance)
+            .thenComparing(s -> s.getUuid() == null ? "" : s.getUuid());
+
+    private final NearByUseCase delegate;
+    private final DistanceCalculator distanceCalculator;
+    private final double scale;
+    private final ConcurrentHashMap<NearByRequest, Flight> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter followers;
+    private final DistributionSummary fanout;
+
+    public CoalescingNearByService(NearByUseCase delegate, DistanceCalculator distanceCalculator,
+                                   MeterRegistry meterRegistry, int coordinateDecimals) {
+        this.delegate = delegate;
+        this.distanceCalculator = distanceCalculator;
+        this.scale = coordinateDecimals < 0 ? 0 : Math.pow(10, coordinateDecimals);
+        this.leaders = Counter.builder("jumbo.search.coalescing.requests")
+                .description("Nearby queries by whether they ran the search or shared a running one")
+                .tag("role", "leader")
+                .register(meterRegistry);
+        this.followers = Counter.builder("jumbo.search.coalescing.requests")
+                .description("Nearby queries by whether they ran the search or shared a running one")
+                .tag("role", "follower")
+                .register(meterRegistry);
+        this.fanout = DistributionSummary.builder("jumbo.search.coalescing.fanout")
+                .description("Queries answered by one search")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<Store> findNearByStores(NearByRequest req, LocalTime now) {
+        NearByRequest key = key(req);
+        Flight flight = new Flight(req);
+        Flight running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            running.members.incrementAndGet();
+            followers.increment();
+            List<Store> stores = running.await();
+            return running.leader.latitude() == req.latitude() && running.leader.longitude() == req.longitude()
+                    ? stores : fromOwnPoint(stores, req);
+        }
+
+        leaders.increment();
+        try {
+            List<Store> stores = delegate.findNearByStores(req, now);
+            // followers copy from their own reference list, whatever the leader's caller does with this one
+            flight.result.complete(List.copyOf(stores));
+            return stores;
+        } catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+            fanout.record(flight.members.get());
+        }
+    }
+
+    @Override
+    public boolean ordersByDistance() {
+        return delegate.ordersByDistance();
+    }
+
+    private NearByRequest key(NearByRequest req) {
+        if (scale == 0 || req.after() != null) {
+            return req;
+        }
+        double latitude = Math.round(req.latitude() * scale) / scale;
+        double longitude = Math.round(req.longitude() * scale) / scale;
+        if (latitude == req.latitude() && longitude == req.longitude()) {
+            return req;
+        }
+        return new NearByRequest(latitude, longitude, req.maxRadiusKm(), req.limit(), req.onlyOpen(), req.filter());
+    }
+
+    private List<Store> fromOwnPoint(List<Store> stores, NearByRequest req) {
+        List<Store> own = stores.stream()
+                .map(store -> store.withDistance(distanceCalculator.distanceInKm(req.latitude(), req.longitude(),
+                        store.getLatitude(), store.getLongitude())))
+                .filter(store -> store.getDistance() <= req.maxRadiusKm())
+                .toList();
+        return delegate.ordersByDistance() ? own.stream().sorted(BY_DISTANCE_AND_UUID).toList() : own;
+    }
+
+    private static final class Flight {
+        private final NearByRequest leader;
+        private final CompletableFuture<List<Store>> result = new CompletableFuture<>();
+        private final AtomicInteger members = new AtomicInteger(1);
+
+        Flight(NearByRequest leader) {
+            this.leader = leader;
+        }
+
+        List<Store> await() {
+            try {
+                return result.join().stream().map(Store::copy).toList();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            }
+        }
+    }
+}
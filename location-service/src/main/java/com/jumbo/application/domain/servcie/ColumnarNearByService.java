@@ -0,0 +1,62 @@
+package com.jumbo.application.domain.servcie;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.NearByUseCase;
+import com.jumbo.application.port.out.StoreTable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scans a {@link StoreTable} column by column and only materialises the final top-k rows as {@link Store}s,
+ * so a query allocates O(limit) objects regardless of the data set size.
+ */
+@Service
+@ConditionalOnProperty(name = "jumbo.location.stores.storage", havingValue = "off-heap")
+public class ColumnarNearByService implements NearByUseCase {
+
+    private final StoreTable storeTable;
+    private final DistanceCalculator distanceCalculator;
+
+    public ColumnarNearByService(StoreTable storeTable, DistanceCalculator distanceCalculator) {
+        this.storeTable = storeTable;
+        this.distanceCalculator = distanceCalculator;
+    }
+
+    @Override
+    public List<Store> findNearByStores(NearByRequest req, LocalTime now) {
+        // cheap bounding box test before the haversine; 1 degree latitude ~ 111 km
+        double latDelta = req.maxRadiusKm() / 111.0;
+        double lonDelta = latDelta / Math.max(Math.cos(Math.toRadians(req.latitude())), 0.01);
+
+        TopK topK = new TopK(req.limit());
+        for (int row = 0, n = storeTable.size(); row < n; row++) {
+            double lat = storeTable.latitude(row);
+            double lon = storeTable.longitude(row);
+            if (Math.abs(lat - req.latitude()) > latDelta || Math.abs(lon - req.longitude()) > lonDelta) {
+                continue;
+            }
+            double distance = distanceCalculator.distanceInKm(req.latitude(), req.longitude(), lat, lon);
+            if (distance > req.maxRadiusKm() || distance > topK.worstDistance()) {
+                continue;
+            }
+            if (req.onlyOpen() && !storeTable.isOpen(row, now)) {
+                continue;
+            }
+            topK.offer(row, distance);
+        }
+
+        topK.sort();
+        List<Store> result = new ArrayList<>(topK.size());
+        for (int i = 0; i < topK.size(); i++) {
+            Store store = storeTable.store(topK.id(i));
+            store.setDistance(topK.distance(i));
+            result.add(store);
+        }
+        return result;
+    }
+}
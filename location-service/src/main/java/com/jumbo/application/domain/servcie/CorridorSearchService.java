@@ -0,0 +1,190 @@
+package com.jumbo.application.domain.servcie;
+
+import com.jumbo.application.domain.model.RouteStop;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.CorridorRequest;
+import com.jumbo.application.port.in.CorridorUseCase;
+import com.jumbo.application.port.out.SpatialStoreIndex;
+import com.jumbo.common.geo.Polyline;
+import org.locationtech.jts.geom.Envelope;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the stores within a buffer distance of a route.
+ * <p>
+ * The route is cut into pieces no longer than a few buffer widths, and consecutive pieces are grouped into chunks.
+ * The shared {@link SpatialStoreIndex} is queried once per chunk with the chunk envelope grown by the buffer, so a
+ * route with thousands of vertices costs a few hundred box queries rather than one nearby search per vertex. Each
+ * candidate is measured against the pieces of its chunk in a local planar approximation, which keeps the exact
+ * point-to-segment distance and the position along the route where the store is closest. Stores found by several
+ * chunks keep their best match, and only the stores returned are materialised.
+ * <p>
+ * Very long routes get longer pieces, so that a route is cut into at most about {@value #MAX_PIECES} of them.
+ */
+@Service
+public class CorridorSearchService implements CorridorUseCase {
+
+    // mean earth radius 6371 km, matching the haversine calculator
+    private static final double KM_PER_DEGREE = 111.195;
+    private static final double MIN_PIECE_KM = 5.0;
+    private static final int PIECES_PER_CHUNK = 16;
+    static final int MAX_PIECES = 100_000;
+
+    private final SpatialStoreIndex storeIndex;
+    private final DistanceCalculator distanceCalculator;
+
+    public CorridorSearchService(SpatialStoreIndex storeIndex, DistanceCalculator distanceCalculator) {
+        this.storeIndex = storeIndex;
+        this.distanceCalculator = distanceCalculator;
+    }
+
+    @Override
+    public List<RouteStop> findAlongRoute(CorridorRequest req, LocalTime now) {
+        Route route = Route.of(Polyline.decode(req.polyline()), Math.max(2 * req.bufferKm(), MIN_PIECE_KM),
+                distanceCalculator);
+
+        LocalTime openAt = req.onlyOpen() ? now : null;
+
+        // per store id: distance from the route and route position of the closest point
+        Map<Integer, double[]> best = new HashMap<>();
+        for (int from = 0; from < route.size(); from += PIECES_PER_CHUNK) {
+            int chunkFrom = from;
+            int chunkTo = Math.min(route.size(), from + PIECES_PER_CHUNK);
+            Envelope envelope = route.envelope(chunkFrom, chunkTo, req.bufferKm());
+            storeIndex.findInBounds(envelope.getMinY(), envelope.getMinX(), envelope.getMaxY(), envelope.getMaxX(),
+                    openAt, (id, latitude, longitude) -> {
+                        double[] match = route.closest(latitude, longitude, chunkFrom, chunkTo);
+                        if (match[0] <= req.bufferKm()) {
+                            best.merge(id, match, (a, b) -> a[0] <= b[0] ? a : b);
+                        }
+                    });
+        }
+
+        Comparator<Map.Entry<Integer, double[]>> byDistance = Comparator.comparingDouble(e -> e.getValue()[0]);
+        Comparator<Map.Entry<Integer, double[]>> byPosition = Comparator.comparingDouble(e -> e.getValue()[1]);
+        Comparator<Map.Entry<Integer, double[]>> order = req.rankBy() == CorridorRequest.Ranking.ROUTE_POSITION
+                ? byPosition.thenComparing(byDistance)
+                : byDistance.thenComparing(byPosition);
+        // ties are broken by row id so equal matches come back in the same order on every request
+        List<Map.Entry<Integer, double[]>> ranked = best.entrySet().stream()
+                .sorted(order.thenComparingInt(Map.Entry::getKey))
+                .limit(req.limit())
+                .toList();
+
+        List<Store> stores = storeIndex.stores(ranked.stream().mapToInt(Map.Entry::getKey).toArray());
+        List<RouteStop> stops = new ArrayList<>(ranked.size());
+        for (int i = 0; i < ranked.size(); i++) {
+            double distance = ranked.get(i).getValue()[0];
+            stops.add(new RouteStop(stores.get(i).withDistance(distance), distance, 2 * distance,
+                    ranked.get(i).getValue()[1]));
+        }
+        return stops;
+    }
+
+    /**
+     * The route as short straight pieces, each with its length and its start position along the route.
+     */
+    private record Route(double[] lat0, double[] lon0, double[] lat1, double[] lon1,
+                         double[] lengthKm, double[] startKm, int size) {
+
+        static Route of(double[] points, double maxPieceKm, DistanceCalculator distanceCalculator) {
+            int vertices = points.length / 2;
+            if (vertices == 1) {
+                // a single point is a zero-length route
+                points = new double[]{points[0], points[1], points[0], points[1]};
+                vertices = 2;
+            }
+
+            double[] lengths = new double[vertices];
+            double total = 0;
+            for (int v = 1; v < vertices; v++) {
+                lengths[v] = distanceCalculator.distanceInKm(points[2 * v - 2], points[2 * v - 1],
+                        points[2 * v], points[2 * v + 1]);
+                total += lengths[v];
+            }
+            // longer pieces only widen the chunk envelopes, the distances stay exact
+            maxPieceKm = Math.max(maxPieceKm, total / MAX_PIECES);
+
+            List<double[]> pieces = new ArrayList<>(vertices);
+            double position = 0;
+            for (int v = 1; v < vertices; v++) {
+                double aLat = points[2 * v - 2];
+                double aLon = points[2 * v - 1];
+                double bLat = points[2 * v];
+                double bLon = points[2 * v + 1];
+                double length = lengths[v];
+                int parts = Math.max(1, (int) Math.ceil(length / maxPieceKm));
+                for (int p = 0; p < parts; p++) {
+                    double t0 = (double) p / parts;
+                    double t1 = (double) (p + 1) / parts;
+                    pieces.add(new double[]{
+                            aLat + (bLat - aLat) * t0, aLon + (bLon - aLon) * t0,
+                            aLat + (bLat - aLat) * t1, aLon + (bLon - aLon) * t1,
+                            length / parts, position + length * t0});
+                }
+                position += length;
+            }
+
+            int n = pieces.size();
+            Route route = new Route(new double[n], new double[n], new double[n], new double[n],
+                    new double[n], new double[n], n);
+            for (int i = 0; i < n; i++) {
+                double[] piece = pieces.get(i);
+                route.lat0[i] = piece[0];
+                route.lon0[i] = piece[1];
+                route.lat1[i] = piece[2];
+                route.lon1[i] = piece[3];
+                route.lengthKm[i] = piece[4];
+                route.startKm[i] = piece[5];
+            }
+            return route;
+        }
+
+        Envelope envelope(int from, int to, double bufferKm) {
+            Envelope envelope = new Envelope();
+            for (int i = from; i < to; i++) {
+                envelope.expandToInclude(lon0[i], lat0[i]);
+                envelope.expandToInclude(lon1[i], lat1[i]);
+            }
+            double latDelta = bufferKm / KM_PER_DEGREE;
+            double maxAbsLat = Math.min(Math.max(Math.abs(envelope.getMinY()), Math.abs(envelope.getMaxY()))
+                    + latDelta, 89.0);
+            double lonDelta = latDelta / Math.cos(Math.toRadians(maxAbsLat));
+            envelope.expandBy(lonDelta, latDelta);
+            return envelope;
+        }
+
+        /**
+         * Distance in km from the point to the nearest piece in {@code [from, to)} and the route position of the
+         * closest point on that piece.
+         */
+        double[] closest(double lat, double lon, int from, int to) {
+            double kx = KM_PER_DEGREE * Math.cos(Math.toRadians(lat));
+            double bestDistance = Double.MAX_VALUE;
+            double bestPosition = 0;
+            for (int i = from; i < to; i++) {
+                double ax = (lon0[i] - lon) * kx;
+                double ay = (lat0[i] - lat) * KM_PER_DEGREE;
+                double dx = (lon1[i] - lon) * kx - ax;
+                double dy = (lat1[i] - lat) * KM_PER_DEGREE - ay;
+                double length2 = dx * dx + dy * dy;
+                double t = length2 == 0 ? 0 : Math.max(0, Math.min(1, -(ax * dx + ay * dy) / length2));
+                double px = ax + t * dx;
+                double py = ay + t * dy;
+                double distance = Math.sqrt(px * px + py * py);
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    bestPosition = startKm[i] + t * lengthKm[i];
+                }
+            }
+            return new double[]{bestDistance, bestPosition};
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package com.jumbo.application.domain.servcie;
+
+import com.jumbo.application.domain.model.OpeningHours;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.NearByUseCase;
+import com.jumbo.application.port.out.StoreRepository;
+import com.jumbo.common.geo.MortonCode;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.triangulate.DelaunayTriangulationBuilder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Nearest-store search by walking the Delaunay triangulation of the store locations, built for the "which is my
+ * store?" lookups with {@code limit=1}.
+ * <p>
+ * The stores are triangulated with JTS after a stereographic projection centred on the data. That projection maps
+ * circles on the sphere to circles in the plane, so the planar triangulation is the spherical one and its dual is
+ * the Voronoi diagram under the haversine distance. A query starts at the site a coarse grid remembers for its
+ * cell and walks to whichever neighbour is closer until none is; the site it stops at owns the Voronoi cell the
+ * query lies in, i.e. is the nearest store, usually after a few steps and without any envelope search.
+ * <p>
+ * Larger limits continue best-first from there: the next nearest site is always a neighbour of one already found,
+ * so sites come out of the frontier in exact distance order and the search stops at the first one beyond the
+ * radius or the current top-k. Stores sharing a location share one site.
+ * <p>
+ * Triangulating every store takes a noticeable part of startup, so the engine is only created with
+ * {@code jumbo.location.search.delaunay.enabled=true}.
+ */
+@Service
+@ConditionalOnExpression("${jumbo.location.search.delaunay.enabled:false}"
+        + " and '${jumbo.location.stores.storage:heap}' == 'heap'"
+        + " and '${jumbo.location.stores.snapshot-file:}' == ''")
+@Slf4j
+public class DelaunayNearByService implements NearByUseCase {
+
+    private final StoreRepository storeRepository;
+    private final DistanceCalculator distanceCalculator;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private short[] openMinutes;
+    private short[] closeMinutes;
+    private Store[] stores;
+
+    // per site: its coordinates, the store rows at that location and its Delaunay neighbours
+    private double[] siteLatitudes;
+    private double[] siteLongitudes;
+    private int[] siteRowStart;
+    private int[] siteRows;
+    private int[] neighbourStart;
+    private int[] neighbours;
+    private StartGrid startGrid;
+
+    public DelaunayNearByService(StoreRepository storeRepository, DistanceCalculator distanceCalculator) {
+        this.storeRepository = storeRepository;
+        this.distanceCalculator = distanceCalculator;
+    }
+
+    @PostConstruct
+    public void init() throws Exception {
+        List<Store> sorted = new ArrayList<>(storeRepository.findAll());
+        sorted.sort(Comparator.comparingLong(s -> MortonCode.encode(s.getLatitude(), s.getLongitude())));
+
+        int n = sorted.size();
+        latitudes = new double[n];
+        longitudes = new double[n];
+        openMinutes = new short[n];
+        closeMinutes = new short[n];
+        stores = sorted.toArray(Store[]::new);
+        for (int i = 0; i < n; i++) {
+            Store s = stores[i];
+            latitudes[i] = s.getLatitude();
+            longitudes[i] = s.getLongitude();
+            openMinutes[i] = OpeningHours.toMinute(s.getTodayOpen());
+            closeMinutes[i] = OpeningHours.toMinute(s.getTodayClose());
+        }
+
+        buildSites();
+        buildNeighbours();
+        if (siteLatitudes.length > 0) {
+            startGrid = new StartGrid();
+        }
+        log.info("Triangulated {} stores at {} distinct locations, {} Delaunay edges", n, siteLatitudes.length,
+                neighbours.length / 2);
+    }
+
+    @Override
+    public List<Store> findNearByStores(NearByRequest req, LocalTime now) {
+        if (siteLatitudes.length == 0) {
+            return List.of();
+        }
+        double qLat = req.latitude();
+        double qLon = req.longitude();
+        int nearest = walk(startGrid.start(qLat, qLon), qLat, qLon);
+        long nanoOfDay = now.toNanoOfDay();
+
+        TopK topK = new TopK(req.limit());
+        Frontier frontier = new Frontier();
+        frontier.markSeen(nearest);
+        frontier.push(nearest, distance(qLat, qLon, nearest));
+        while (!frontier.isEmpty()) {
+            double distance = frontier.nearestDistance();
+            if (distance > req.maxRadiusKm() || distance > topK.worstDistance()) {
+                break;
+            }
+            int site = frontier.pop();
+            for (int r = siteRowStart[site]; r < siteRowStart[site + 1]; r++) {
+                int row = siteRows[r];
+                if (!req.onlyOpen() || OpeningHours.isOpen(openMinutes[row], closeMinutes[row], nanoOfDay)) {
+                    topK.offer(row, distance);
+                }
+            }
+            for (int e = neighbourStart[site]; e < neighbourStart[site + 1]; e++) {
+                int neighbour = neighbours[e];
+                if (frontier.markSeen(neighbour)) {
+                    frontier.push(neighbour, distance(qLat, qLon, neighbour));
+                }
+            }
+        }
+
+        topK.sort();
+        List<Store> result = new ArrayList<>(topK.size());
+        for (int i = 0; i < topK.size(); i++) {
+            result.add(stores[topK.id(i)].withDistance(topK.distance(i)));
+        }
+        return result;
+    }
+
+    /**
+     * Greedy walk from {@code site} to the site nearest to the point.
+     */
+    private int walk(int site, double lat, double lon) {
+        double best = distance(lat, lon, site);
+        while (true) {
+            int next = -1;
+            for (int e = neighbourStart[site]; e < neighbourStart[site + 1]; e++) {
+                double d = distance(lat, lon, neighbours[e]);
+                if (d < best) {
+                    best = d;
+                    next = neighbours[e];
+                }
+            }
+            if (next < 0) {
+                return site;
+            }
+            site = next;
+        }
+    }
+
+    private double distance(double lat, double lon, int site) {
+        return distanceCalculator.distanceInKm(lat, lon, siteLatitudes[site], siteLongitudes[site]);
+    }
+
+    private void buildSites() {
+        Map<Coordinate, List<Integer>> rowsByLocation = new LinkedHashMap<>();
+        for (int i = 0; i < latitudes.length; i++) {
+            rowsByLocation.computeIfAbsent(new Coordinate(longitudes[i], latitudes[i]), c -> new ArrayList<>()).add(i);
+        }
+        int sites = rowsByLocation.size();
+        siteLatitudes = new double[sites];
+        siteLongitudes = new double[sites];
+        siteRowStart = new int[sites + 1];
+        siteRows = new int[latitudes.length];
+        int site = 0;
+        int position = 0;
+        for (Map.Entry<Coordinate, List<Integer>> entry : rowsByLocation.entrySet()) {
+            siteLatitudes[site] = entry.getKey().y;
+            siteLongitudes[site] = entry.getKey().x;
+            siteRowStart[site] = position;
+            for (int row : entry.getValue()) {
+                siteRows[position++] = row;
+            }
+            site++;
+        }
+        siteRowStart[sites] = position;
+    }
+
+    private void buildNeighbours() {
+        int sites = siteLatitudes.length;
+        List<int[]> edges = new ArrayList<>();
+        if (sites <= 3) {
+            for (int a = 0; a < sites; a++) {
+                for (int b = a + 1; b < sites; b++) {
+                    edges.add(new int[]{a, b});
+                }
+            }
+        } else {
+            Stereographic projection = new Stereographic(siteLatitudes, siteLongitudes);
+            Map<Coordinate, Integer> siteOf = new HashMap<>();
+            List<Coordinate> projected = new ArrayList<>(sites);
+            for (int s = 0; s < sites; s++) {
+                Coordinate c = projection.project(siteLatitudes[s], siteLongitudes[s]);
+                siteOf.put(c, s);
+                projected.add(c);
+            }
+            DelaunayTriangulationBuilder builder = new DelaunayTriangulationBuilder();
+            builder.setSites(projected);
+            Geometry triangulation = builder.getEdges(new GeometryFactory());
+            for (int i = 0; i < triangulation.getNumGeometries(); i++) {
+                Coordinate[] ends = triangulation.getGeometryN(i).getCoordinates();
+                Integer a = siteOf.get(ends[0]);
+                Integer b = siteOf.get(ends[ends.length - 1]);
+                if (a != null && b != null && !a.equals(b)) {
+                    edges.add(new int[]{a, b});
+                }
+            }
+        }
+
+        int[] degree = new int[sites + 1];
+        for (int[] edge : edges) {
+            degree[edge[0] + 1]++;
+            degree[edge[1] + 1]++;
+        }
+        for (int s = 0; s < sites; s++) {
+            degree[s + 1] += degree[s];
+        }
+        neighbourStart = degree.clone();
+        neighbours = new int[2 * edges.size()];
+        for (int[] edge : edges) {
+            neighbours[degree[edge[0]]++] = edge[1];
+            neighbours[degree[edge[1]]++] = edge[0];
+        }
+    }
+
+    /**
+     * Stereographic projection centred on the middle of the data; the antipode, which it cannot map, is on the
+     * other side of the earth.
+     */
+    private static final class Stereographic {
+        private final double sinLat0;
+        private final double cosLat0;
+        private final double lon0;
+
+        Stereographic(double[] latitudes, double[] longitudes) {
+            double lat0 = (Arrays.stream(latitudes).min().orElse(0) + Arrays.stream(latitudes).max().orElse(0)) / 2;
+            this.sinLat0 = Math.sin(Math.toRadians(lat0));
+            this.cosLat0 = Math.cos(Math.toRadians(lat0));
+            this.lon0 = Math.toRadians(
+                    (Arrays.stream(longitudes).min().orElse(0) + Arrays.stream(longitudes).max().orElse(0)) / 2);
+        }
+
+        Coordinate project(double lat, double lon) {
+            double phi = Math.toRadians(lat);
+            double dLon = Math.toRadians(lon) - lon0;
+            double cosPhi = Math.cos(phi);
+            double sinPhi = Math.sin(phi);
+            double k = 2 / (1 + sinLat0 * sinPhi + cosLat0 * cosPhi * Math.cos(dLon));
+            return new Coordinate(k * cosPhi * Math.sin(dLon), k * (cosLat0 * sinPhi - sinLat0 * cosPhi * Math.cos(dLon)));
+        }
+    }
+
+    /**
+     * Grid over the sites' bounding box remembering the site nearest to each cell centre, so walks start close to
+     * their target. Points outside the box start from the nearest border cell.
+     */
+    private final class StartGrid {
+        private final double minLat;
+        private final double minLon;
+        private final double cellLat;
+        private final double cellLon;
+        private final int size;
+        private final int[] start;
+
+        StartGrid() {
+            minLat = Arrays.stream(siteLatitudes).min().orElse(0);
+            minLon = Arrays.stream(siteLongitudes).min().orElse(0);
+            double maxLat = Arrays.stream(siteLatitudes).max().orElse(0);
+            double maxLon = Arrays.stream(siteLongitudes).max().orElse(0);
+            size = Math.max(1, Math.min(1024, (int) Math.sqrt(siteLatitudes.length)));
+            cellLat = Math.max((maxLat - minLat) / size, 1e-9);
+            cellLon = Math.max((maxLon - minLon) / size, 1e-9);
+            start = new int[size * size];
+            // each cell's walk starts from the previous cell's answer (rows alternate direction), so filling the
+            // grid costs a few steps per cell
+            int site = 0;
+            for (int r = 0; r < size; r++) {
+                for (int i = 0; i < size; i++) {
+                    int c = r % 2 == 0 ? i : size - 1 - i;
+                    site = walk(site, minLat + (r + 0.5) * cellLat, minLon + (c + 0.5) * cellLon);
+                    start[r * size + c] = site;
+                }
+            }
+        }
+
+        int start(double lat, double lon) {
+            int r = Math.max(0, Math.min(size - 1, (int) Math.floor((lat - minLat) / cellLat)));
+            int c = Math.max(0, Math.min(size - 1, (int) Math.floor((lon - minLon) / cellLon)));
+            return start[r * size + c];
+        }
+    }
+
+    /**
+     * Min-heap of sites by distance plus the set of sites already reached, both on primitive arrays.
+     */
+    private static final class Frontier {
+        private int[] sites = new int[16];
+        private double[] distances = new double[16];
+        private int size;
+        private int[] seen = new int[32];
+        private int seenCount;
+
+        Frontier() {
+            Arrays.fill(seen, -1);
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        double nearestDistance() {
+            return distances[0];
+        }
+
+        void push(int site, double distance) {
+            if (size == sites.length) {
+                sites = Arrays.copyOf(sites, 2 * size);
+                distances = Arrays.copyOf(distances, 2 * size);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (distances[parent] <= distance) {
+                    break;
+                }
+                sites[i] = sites[parent];
+                distances[i] = distances[parent];
+                i = parent;
+            }
+            sites[i] = site;
+            distances[i] = distance;
+        }
+
+        int pop() {
+            int top = sites[0];
+            int lastSite = sites[--size];
+            double lastDistance = distances[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && distances[child + 1] < distances[child]) {
+                    child++;
+                }
+                if (distances[child] >= lastDistance) {
+                    break;
+                }
+                sites[i] = sites[child];
+                distances[i] = distances[child];
+                i = child;
+            }
+            sites[i] = lastSite;
+            distances[i] = lastDistance;
+            return top;
+        }
+
+        /**
+         * @return whether the site was not reached before
+         */
+        boolean markSeen(int site) {
+            if (2 * (seenCount + 1) > seen.length) {
+                int[] old = seen;
+                seen = new int[2 * old.length];
+                Arrays.fill(seen, -1);
+                seenCount = 0;
+                for (int s : old) {
+                    if (s >= 0) {
+                        insert(s);
+                    }
+                }
+            }
+            return insert(site);
+        }
+
+        private boolean insert(int site) {
+            int mask = seen.length - 1;
+            for (int i = (site * 0x9E3779B9) & mask; ; i = (i + 1) & mask) {
+                if (seen[i] == site) {
+                    return false;
+                }
+                if (seen[i] < 0) {
+                    seen[i] = site;
+                    seenCount++;
+                    return true;
+                }
+            }
+        }
+    }
+}
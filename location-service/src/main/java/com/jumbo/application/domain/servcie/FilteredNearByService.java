@@ -0,0 +1,52 @@
+package com.jumbo.application.domain.servcie;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.NearByUseCase;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Answers nearby queries with attribute filters or a page cursor from the shared spatial index; other queries go
+ * straight to the wrapped engine.
+ * <p>
+ * The index is built once by the storage adapter and evaluates the filter next to the bounding box, so stores that
+ * do not match never reach the distance calculation and nothing here has to be rebuilt when the engine is.
+ * <p>
+ * Every page, the first one included, follows the same exact (distance, uuid) order, so a cursor taken from any
+ * page continues it without gaps or repeats. The engines agree on the nearest stores but break distance ties their
+ * own way, so a first page is fetched with one extra store: only when that store ties with the page's last one is
+ * the page recomputed from the index.
+ */
+public class FilteredNearByService implements NearByUseCase {
+
+    private static final Comparator<Store> BY_DISTANCE_AND_UUID = Comparator.comparingDouble(Store::getDistance)
+            .thenComparing(s -> s.getUuid() == null ? "" : s.getUuid());
+
+    private final NearByUseCase delegate;
+    private final IndexedNearByService indexedNearByService;
+
+    public FilteredNearByService(NearByUseCase delegate, IndexedNearByService indexedNearByService) {
+        this.delegate = delegate;
+        this.indexedNearByService = indexedNearByService;
+    }
+
+    @Override
+    public List<Store> findNearByStores(NearByRequest req, LocalTime now) {
+        if (!req.filter().isEmpty() || req.after() != null) {
+            return indexedNearByService.findNearByStores(req, now);
+        }
+        int limit = req.limit();
+        List<Store> stores = delegate.findNearByStores(new NearByRequest(req.latitude(), req.longitude(),
+                req.maxRadiusKm(), limit + 1, req.onlyOpen()), now);
+        if (stores.size() > limit && stores.get(limit).getDistance() == stores.get(limit - 1).getDistance()) {
+            return indexedNearByService.findNearByStores(req, now);
+        }
+        List<Store> page = new ArrayList<>(stores.subList(0, Math.min(limit, stores.size())));
+        page.sort(BY_DISTANCE_AND_UUID);
+        return page;
+    }
+}
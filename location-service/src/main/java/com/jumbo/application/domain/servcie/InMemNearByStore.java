@@ -5,6 +5,7 @@ import com.jumbo.application.port.in.NearByUseCase;
 import com.jumbo.application.domain.model.Store;
 import com.jumbo.application.port.out.StoreRepository;
 import jakarta.annotation.PostConstruct;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalTime;
@@ -13,6 +14,8 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
+@ConditionalOnExpression("'${jumbo.location.stores.storage:heap}' == 'heap'"
+        + " and '${jumbo.location.stores.snapshot-file:}' == ''")
 public class InMemNearByStore implements NearByUseCase {
 
     private List<Store> stores;
@@ -33,11 +36,11 @@ public class InMemNearByStore implements NearByUseCase {
     public List<Store> findNearByStores(NearByRequest req, LocalTime now) {
         return stores.stream()
                 .filter(store -> !req.onlyOpen() || store.isOpen(now))
-                .peek(store -> store.setDistance(distanceCalculator.distanceInKm(
+                .map(store -> store.withDistance(distanceCalculator.distanceInKm(
                         req.latitude(), req.longitude(),
                         store.getLatitude(), store.getLongitude())))
-                .sorted(Comparator.comparingDouble(Store::getDistance))
                 .filter(s -> s.getDistance() <= req.maxRadiusKm())
+                .sorted(Comparator.comparingDouble(Store::getDistance))
                 .limit(req.limit())
                 .collect(Collectors.toList());
     }
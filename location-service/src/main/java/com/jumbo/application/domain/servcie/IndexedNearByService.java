@@ -0,0 +1,189 @@
+package com.jumbo.application.domain.servcie;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.NearByUseCase;
+import com.jumbo.application.port.in.SearchCursor;
+import com.jumbo.application.port.out.SpatialStoreIndex;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Nearby search answered by a {@link SpatialStoreIndex}: the bounding box of a search circle is pushed down to the
+ * index together with the request's attribute filter, and only the matching stores inside it are ranked here. The
+ * circle starts small and grows until it holds {@code limit} stores or reaches the requested radius, so a search in
+ * a dense area reads a handful of rows. Only the final top-k rows are materialised as {@link Store}s.
+ * <p>
+ * Results are exact and ordered by distance and then uuid, which makes this the engine behind filtered and paged
+ * queries. A cursor query starts with a circle around the cursor distance and reads only the ring between the
+ * cursor and that circle: the box around the circle minus a box that lies inside the cursor distance. The corners
+ * between that inner box and the cursor circle are still read and skipped, so a later page reads the stores in its
+ * ring plus about two fifths of the stores before the cursor, instead of all of them.
+ */
+@Service
+public class IndexedNearByService implements NearByUseCase {
+
+    private static final double INITIAL_RADIUS_KM = 2.0;
+    private static final double GROWTH = 4.0;
+    // lower bound of the haversine distance per degree of latitude, keeps the box around the circle
+    private static final double MIN_KM_PER_DEGREE = 110.0;
+    // of the haversine distance, the inner box of a cursor query relies on it
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final Comparator<Store> BY_DISTANCE_AND_UUID = Comparator.comparingDouble(Store::getDistance)
+            .thenComparing(IndexedNearByService::uuid);
+
+    private final SpatialStoreIndex storeIndex;
+    private final DistanceCalculator distanceCalculator;
+
+    public IndexedNearByService(SpatialStoreIndex storeIndex, DistanceCalculator distanceCalculator) {
+        this.storeIndex = storeIndex;
+        this.distanceCalculator = distanceCalculator;
+    }
+
+    @Override
+    public List<Store> findNearByStores(NearByRequest req, LocalTime now) {
+        LocalTime openAt = req.onlyOpen() ? now : null;
+        // nothing after the cursor is nearer than the cursor, so smaller circles cannot fill the page
+        double initial = req.after() == null ? INITIAL_RADIUS_KM
+                : Math.max(INITIAL_RADIUS_KM, 2 * req.after().distanceKm());
+        double radius = Math.min(initial, req.maxRadiusKm());
+        while (true) {
+            Page page = new Page(req.limit());
+            search(req, radius, openAt, page::offer);
+            // every store within the radius was seen, so a full heap is the exact answer
+            if (page.topK.isFull() || radius >= req.maxRadiusKm()) {
+                return materialise(req, radius, openAt, page);
+            }
+            radius = Math.min(radius * GROWTH, req.maxRadiusKm());
+        }
+    }
+
+    private void search(NearByRequest req, double radiusKm, LocalTime openAt, Candidates candidates) {
+        double latDelta = radiusKm / MIN_KM_PER_DEGREE;
+        // the narrowest longitude degree inside the box keeps it around the whole circle
+        double cosLat = Math.cos(Math.toRadians(Math.min(Math.abs(req.latitude()) + latDelta, 89.0)));
+        double lonDelta = latDelta / cosLat;
+        double minLat = req.latitude() - latDelta;
+        double maxLat = req.latitude() + latDelta;
+        double minLon = req.longitude() - lonDelta;
+        double maxLon = req.longitude() + lonDelta;
+        SpatialStoreIndex.LocationConsumer consumer = (id, lat, lon) -> {
+            double distance = distanceCalculator.distanceInKm(req.latitude(), req.longitude(), lat, lon);
+            if (distance <= radiusKm && isAfter(req.after(), id, distance)) {
+                candidates.offer(id, distance);
+            }
+        };
+
+        Span inner = req.after() == null ? null : innerSpan(req.latitude(), req.after().distanceKm());
+        if (inner == null || inner.lat() >= latDelta || inner.lon() >= lonDelta) {
+            storeIndex.findInBounds(minLat, minLon, maxLat, maxLon, openAt, req.filter(), consumer);
+            return;
+        }
+        // the box minus the inner box, as four strips that do not overlap, so no row is offered twice
+        double innerMinLat = req.latitude() - inner.lat();
+        double innerMaxLat = req.latitude() + inner.lat();
+        storeIndex.findInBounds(innerMaxLat, minLon, maxLat, maxLon, openAt, req.filter(), consumer);
+        storeIndex.findInBounds(minLat, minLon, Math.nextDown(innerMinLat), maxLon, openAt, req.filter(), consumer);
+        storeIndex.findInBounds(innerMinLat, minLon, Math.nextDown(innerMaxLat), req.longitude() - inner.lon(),
+                openAt, req.filter(), consumer);
+        storeIndex.findInBounds(innerMinLat, Math.nextUp(req.longitude() + inner.lon()),
+                Math.nextDown(innerMaxLat), maxLon, openAt, req.filter(), consumer);
+    }
+
+    /**
+     * Half the size of a box around the query point whose every point is nearer than {@code cursorKm}, so none of
+     * its stores can come after the cursor; {@code null} when there is no such box worth skipping.
+     * <p>
+     * With half sizes of {@code h / R} radians in latitude and {@code h / (R * sqrt(cos(lat) * cos(nearest lat)))}
+     * in longitude, {@code sin x <= x} bounds the haversine of any point in the box by {@code 2 * (h / 2R)^2}.
+     * Taking {@code h} as 0.7 of the chord of the cursor distance keeps that below the haversine of the cursor,
+     * because 0.7 * sqrt(2) < 1.
+     */
+    private static Span innerSpan(double latitude, double cursorKm) {
+        if (cursorKm <= 0 || cursorKm >= Math.PI * EARTH_RADIUS_KM) {
+            return null;
+        }
+        double half = 0.7 * 2 * EARTH_RADIUS_KM * Math.sin(cursorKm / (2 * EARTH_RADIUS_KM));
+        double latRadians = half / EARTH_RADIUS_KM;
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        double cosNearest = Math.cos(Math.max(Math.toRadians(Math.abs(latitude)) - latRadians, 0));
+        double lonRadians = latRadians / Math.sqrt(cosLat * cosNearest);
+        return new Span(Math.toDegrees(latRadians), Math.toDegrees(lonRadians));
+    }
+
+    // exact ties with the cursor are rare, so only those pay for reading the uuid
+    private boolean isAfter(SearchCursor after, int id, double distance) {
+        if (after == null || distance > after.distanceKm()) {
+            return true;
+        }
+        return distance == after.distanceKm() && uuid(storeIndex.stores(id).getFirst()).compareTo(after.uuid()) > 0;
+    }
+
+    private List<Store> materialise(NearByRequest req, double radiusKm, LocalTime openAt, Page page) {
+        TopK topK = page.topK;
+        // the heap breaks ties by row id; when the farthest kept distance is shared with a store that did not make
+        // it, the whole tie group is read again and cut by uuid so pages line up with their cursors
+        double tie = topK.isFull() && page.excluded == topK.worstDistance() ? page.excluded : Double.NaN;
+        topK.sort();
+        List<Integer> ids = new ArrayList<>(topK.size());
+        List<Double> distances = new ArrayList<>(topK.size());
+        for (int i = 0; i < topK.size() && !(topK.distance(i) == tie); i++) {
+            ids.add(topK.id(i));
+            distances.add(topK.distance(i));
+        }
+        List<Store> result = new ArrayList<>(req.limit());
+        List<Store> stores = storeIndex.stores(ids.stream().mapToInt(Integer::intValue).toArray());
+        for (int i = 0; i < stores.size(); i++) {
+            result.add(stores.get(i).withDistance(distances.get(i)));
+        }
+        if (!Double.isNaN(tie)) {
+            List<Integer> tied = new ArrayList<>();
+            search(req, radiusKm, openAt, (id, distance) -> {
+                if (distance == tie) {
+                    tied.add(id);
+                }
+            });
+            storeIndex.stores(tied.stream().mapToInt(Integer::intValue).toArray()).stream()
+                    .sorted(Comparator.comparing(IndexedNearByService::uuid))
+                    .limit(req.limit() - result.size())
+                    .forEach(store -> result.add(store.withDistance(tie)));
+        }
+        result.sort(BY_DISTANCE_AND_UUID);
+        return result;
+    }
+
+    private static String uuid(Store store) {
+        return store.getUuid() == null ? "" : store.getUuid();
+    }
+
+    private record Span(double lat, double lon) {
+    }
+
+    @FunctionalInterface
+    private interface Candidates {
+        void offer(int id, double distance);
+    }
+
+    private static final class Page {
+
+        final TopK topK;
+        // nearest distance that was offered but is not in the heap
+        double excluded = Double.POSITIVE_INFINITY;
+
+        Page(int limit) {
+            this.topK = new TopK(limit);
+        }
+
+        void offer(int id, double distance) {
+            if (topK.isFull()) {
+                // either the new row is rejected or the current worst one is evicted
+                excluded = Math.min(excluded, Math.max(distance, topK.worstDistance()));
+            }
+            topK.offer(id, distance);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.jumbo.application.domain.servcie;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.InvalidCursorException;
+import com.jumbo.application.port.in.NearByCursorUseCase;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.SearchCursor;
+import com.jumbo.application.port.out.StoreRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Issues and checks the opaque continuation tokens of {@code /nearby}. The next page starts after the page's
+ * farthest store in (distance, uuid) order; a short page means the search is exhausted.
+ */
+@Service
+public class NearByCursorService implements NearByCursorUseCase {
+
+    private static final Comparator<Store> PAGE_ORDER = Comparator.comparingDouble(Store::getDistance)
+            .thenComparing(s -> s.getUuid() == null ? "" : s.getUuid());
+
+    private final StoreRepository storeRepository;
+
+    public NearByCursorService(StoreRepository storeRepository) {
+        this.storeRepository = storeRepository;
+    }
+
+    @Override
+    public SearchCursor decode(String token) {
+        SearchCursor cursor = SearchCursor.decode(token);
+        if (cursor.fingerprint() != storeRepository.fingerprint()) {
+            throw new InvalidCursorException("Cursor has expired because the store data has changed, "
+                    + "start again from the first page");
+        }
+        return cursor;
+    }
+
+    @Override
+    public Optional<String> nextCursor(NearByRequest req, List<Store> page) {
+        if (page.size() < req.limit()) {
+            return Optional.empty();
+        }
+        Store last = page.stream().max(PAGE_ORDER).orElseThrow();
+        return Optional.of(new SearchCursor(storeRepository.fingerprint(), SearchCursor.queryHash(req),
+                last.getDistance(), last.getUuid() == null ? "" : last.getUuid()).encode());
+    }
+}
@@ -0,0 +1,124 @@
+package com.jumbo.application.domain.servcie;
+
+import com.jumbo.application.domain.model.OpeningHours;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.NearByUseCase;
+import com.jumbo.application.port.out.StoreRepository;
+import com.jumbo.common.geo.MortonCode;
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Brute-force scan over a structure-of-arrays copy of the stores.
+ * <p>
+ * Coordinates and opening hours live in primitive arrays sorted along a Morton curve, so the scan touches
+ * contiguous memory instead of chasing one {@link Store} pointer per row. Each block is first run through a
+ * branch-free planar distance pass the JIT can vectorise; only rows that pass it pay for the haversine.
+ */
+@Service
+@ConditionalOnExpression("'${jumbo.location.stores.storage:heap}' == 'heap'"
+        + " and '${jumbo.location.stores.snapshot-file:}' == ''")
+public class PackedArrayNearByService implements NearByUseCase {
+
+    static final int BLOCK = 1024;
+    // the planar pre-filter must never reject a store the haversine would accept
+    private static final double KM_PER_DEGREE = 111.0;
+    private static final double SAFETY_MARGIN = 1.01;
+
+    private final StoreRepository storeRepository;
+    private final DistanceCalculator distanceCalculator;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private short[] openMinutes;
+    private short[] closeMinutes;
+    private Store[] stores;
+
+    public PackedArrayNearByService(StoreRepository storeRepository, DistanceCalculator distanceCalculator) {
+        this.storeRepository = storeRepository;
+        this.distanceCalculator = distanceCalculator;
+    }
+
+    @PostConstruct
+    public void init() throws Exception {
+        List<Store> sorted = new ArrayList<>(storeRepository.findAll());
+        sorted.sort(Comparator.comparingLong(s -> MortonCode.encode(s.getLatitude(), s.getLongitude())));
+
+        int n = sorted.size();
+        latitudes = new double[n];
+        longitudes = new double[n];
+        openMinutes = new short[n];
+        closeMinutes = new short[n];
+        stores = sorted.toArray(Store[]::new);
+        for (int i = 0; i < n; i++) {
+            Store s = stores[i];
+            latitudes[i] = s.getLatitude();
+            longitudes[i] = s.getLongitude();
+            openMinutes[i] = OpeningHours.toMinute(s.getTodayOpen());
+            closeMinutes[i] = OpeningHours.toMinute(s.getTodayClose());
+        }
+    }
+
+    @Override
+    public List<Store> findNearByStores(NearByRequest req, LocalTime now) {
+        TopK topK = new TopK(req.limit());
+        scan(req, now.toNanoOfDay(), 0, stores.length, topK);
+        return materialise(topK);
+    }
+
+    int size() {
+        return stores.length;
+    }
+
+    /**
+     * Offers every store in {@code [from, to)} matching the request to {@code topK}. Safe to call concurrently on
+     * disjoint ranges with separate heaps.
+     */
+    void scan(NearByRequest req, long nanoOfDay, int from, int to, TopK topK) {
+        double qLat = req.latitude();
+        double qLon = req.longitude();
+        double radiusDeg = req.maxRadiusKm() / KM_PER_DEGREE * SAFETY_MARGIN;
+        double radiusDeg2 = radiusDeg * radiusDeg;
+        // smallest longitude scale inside the search band keeps the planar distance a lower bound
+        double cosLat = Math.cos(Math.toRadians(Math.min(Math.abs(qLat) + radiusDeg, 90.0)));
+
+        double[] d2 = new double[BLOCK];
+        for (int start = from; start < to; start += BLOCK) {
+            int len = Math.min(BLOCK, to - start);
+            for (int j = 0; j < len; j++) {
+                double dy = latitudes[start + j] - qLat;
+                double dx = (longitudes[start + j] - qLon) * cosLat;
+                d2[j] = dy * dy + dx * dx;
+            }
+            for (int j = 0; j < len; j++) {
+                if (d2[j] > radiusDeg2) {
+                    continue;
+                }
+                int i = start + j;
+                if (req.onlyOpen() && !OpeningHours.isOpen(openMinutes[i], closeMinutes[i], nanoOfDay)) {
+                    continue;
+                }
+                double distance = distanceCalculator.distanceInKm(qLat, qLon, latitudes[i], longitudes[i]);
+                if (distance <= req.maxRadiusKm()) {
+                    topK.offer(i, distance);
+                }
+            }
+        }
+    }
+
+    List<Store> materialise(TopK topK) {
+        topK.sort();
+        List<Store> result = new ArrayList<>(topK.size());
+        for (int i = 0; i < topK.size(); i++) {
+            result.add(stores[topK.id(i)].withDistance(topK.distance(i)));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,150 @@
+package com.jumbo.application.domain.servcie;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.NearByUseCase;
+import com.jumbo.application.port.out.StoreRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Chooses per query between the quadtree and a parallel brute-force scan.
+ * <p>
+ * Near the 100 km cap the quadtree envelope covers most of the country and its expansion loop turns into a
+ * single-threaded scan of nearly every store. A coarse density grid estimates how many stores the quadtree walks:
+ * its envelope only grows until the search circle holds {@code limit} stores, so a small limit in a dense area stays
+ * cheap whatever the radius. When walking those candidates through the index is estimated to cost more than
+ * scanning the packed arrays in parallel, the scan is split into chunks on a {@link ForkJoinPool}, each chunk
+ * filling its own top-k heap, and the heaps are merged at the end.
+ * <p>
+ * One query is split into at most {@code request-parallelism} tasks, so a few concurrent large queries share the
+ * pool instead of each one queueing all of its chunks in front of the others.
+ */
+@Service
+@ConditionalOnExpression("'${jumbo.location.stores.storage:heap}' == 'heap'"
+        + " and '${jumbo.location.stores.snapshot-file:}' == ''")
+public class ParallelScanNearByService implements NearByUseCase {
+
+    private final StoreRepository storeRepository;
+    private final QuadTreeNearByService quadTreeNearByService;
+    private final PackedArrayNearByService packedArrayNearByService;
+    private final int chunkSize;
+    private final double indexCostRatio;
+    private final ForkJoinPool pool;
+    private final int requestParallelism;
+
+    private StoreDensityGrid densityGrid;
+
+    public ParallelScanNearByService(StoreRepository storeRepository,
+                                     QuadTreeNearByService quadTreeNearByService,
+                                     PackedArrayNearByService packedArrayNearByService,
+                                     @Value("${jumbo.location.search.parallel.chunk-size:16384}") int chunkSize,
+                                     @Value("${jumbo.location.search.parallel.index-cost-ratio:8}") double indexCostRatio,
+                                     @Value("${jumbo.location.search.parallel.threads:0}") int threads,
+                                     @Value("${jumbo.location.search.parallel.request-parallelism:4}") int requestParallelism) {
+        this.storeRepository = storeRepository;
+        this.quadTreeNearByService = quadTreeNearByService;
+        this.packedArrayNearByService = packedArrayNearByService;
+        this.chunkSize = chunkSize;
+        this.indexCostRatio = indexCostRatio;
+        this.pool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        this.requestParallelism = requestParallelism > 0
+                ? Math.min(requestParallelism, pool.getParallelism()) : pool.getParallelism();
+    }
+
+    @PostConstruct
+    public void init() throws Exception {
+        densityGrid = new StoreDensityGrid(storeRepository.findAll());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Override
+    public List<Store> findNearByStores(NearByRequest req, LocalTime now) {
+        return findNearByStores(req, now, QuadTreeNearByService.DEFAULT_INITIAL_RADIUS_KM, quadTreeNearByService);
+    }
+
+    /**
+     * The same engine with the quadtree's first envelope sized for {@code initialRadiusKm}, see
+     * {@link QuadTreeNearByService#startingAt(double)}. The cost model follows the same doublings.
+     */
+    public NearByUseCase startingAt(double initialRadiusKm) {
+        NearByUseCase quadTree = quadTreeNearByService.startingAt(initialRadiusKm);
+        return (req, now) -> findNearByStores(req, now, initialRadiusKm, quadTree);
+    }
+
+    private List<Store> findNearByStores(NearByRequest req, LocalTime now, double initialRadiusKm,
+                                         NearByUseCase quadTree) {
+        int n = packedArrayNearByService.size();
+        double candidates = estimateCandidates(req, initialRadiusKm);
+        if (candidates * indexCostRatio < (double) n / requestParallelism || n <= chunkSize) {
+            return quadTree.findNearByStores(req, now);
+        }
+        // whole chunks per task, and no more tasks than this query may run at once
+        int chunks = (n + chunkSize - 1) / chunkSize;
+        int leafSize = (chunks + requestParallelism - 1) / requestParallelism * chunkSize;
+        TopK topK = pool.invoke(new ScanTask(req, now.toNanoOfDay(), leafSize, 0, n));
+        return packedArrayNearByService.materialise(topK);
+    }
+
+    /**
+     * Stores the quadtree ranks for {@code req}: the envelope of every doubling until the circle inside it (about
+     * {@code pi / 4} of the envelope) holds {@code limit} stores or the search radius is reached.
+     */
+    private double estimateCandidates(NearByRequest req, double initialRadiusKm) {
+        double radius = Math.min(initialRadiusKm, req.maxRadiusKm());
+        double candidates = 0;
+        while (true) {
+            double inEnvelope = densityGrid.estimateCandidates(req.latitude(), req.longitude(), radius);
+            candidates += inEnvelope;
+            if (inEnvelope * Math.PI / 4 >= req.limit() || radius >= req.maxRadiusKm()) {
+                return candidates;
+            }
+            radius = Math.min(radius * 2, req.maxRadiusKm());
+        }
+    }
+
+    private class ScanTask extends RecursiveTask<TopK> {
+        private final NearByRequest req;
+        private final long nanoOfDay;
+        private final int leafSize;
+        private final int from;
+        private final int to;
+
+        ScanTask(NearByRequest req, long nanoOfDay, int leafSize, int from, int to) {
+            this.req = req;
+            this.nanoOfDay = nanoOfDay;
+            this.leafSize = leafSize;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TopK compute() {
+            if (to - from <= leafSize) {
+                TopK topK = new TopK(req.limit());
+                packedArrayNearByService.scan(req, nanoOfDay, from, to, topK);
+                return topK;
+            }
+            // split on leaf boundaries so every leaf scans exactly one fixed-size range
+            int leaves = (to - from + leafSize - 1) / leafSize;
+            int mid = from + (leaves / 2) * leafSize;
+            ScanTask right = new ScanTask(req, nanoOfDay, leafSize, mid, to);
+            right.fork();
+            TopK left = new ScanTask(req, nanoOfDay, leafSize, from, mid).compute();
+            left.addAll(right.join());
+            return left;
+        }
+    }
+}
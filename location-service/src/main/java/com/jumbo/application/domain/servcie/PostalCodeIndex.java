@@ -0,0 +1,151 @@
+package com.jumbo.application.domain.servcie;
+
+import com.jumbo.application.domain.model.PostalCodeCentroid;
+import com.jumbo.application.port.in.PostalCodeUseCase;
+import com.jumbo.application.port.out.PostalCodeCentroidRepository;
+import com.jumbo.application.port.out.SpatialStoreIndex;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Dutch postal code to centroid lookup.
+ * <p>
+ * PC4 areas (1000-9999) are stored in arrays indexed directly by the four digits. Full PC6 codes are packed into
+ * an int ({@code digits * 676 + letters}) and kept in a sorted array searched by binary search. Centroids come from
+ * the average position of the stores in each code, overridden by the optional centroid file, which also covers
+ * codes without a store. A PC6 code that is not known falls back to its PC4 area.
+ */
+@Service
+@Slf4j
+public class PostalCodeIndex implements PostalCodeUseCase {
+
+    private static final Pattern POSTAL_CODE = Pattern.compile("[1-9][0-9]{3}([A-Z]{2})?");
+    private static final int PC4_MIN = 1000;
+    private static final int PC4_COUNT = 9000;
+
+    private final SpatialStoreIndex storeIndex;
+    private final PostalCodeCentroidRepository centroidRepository;
+
+    private float[] pc4Latitudes;
+    private float[] pc4Longitudes;
+    private int[] pc6Keys;
+    private float[] pc6Latitudes;
+    private float[] pc6Longitudes;
+
+    public PostalCodeIndex(SpatialStoreIndex storeIndex, PostalCodeCentroidRepository centroidRepository) {
+        this.storeIndex = storeIndex;
+        this.centroidRepository = centroidRepository;
+    }
+
+    @PostConstruct
+    public void init() throws Exception {
+        // running sums per code from the stores; [latitude sum, longitude sum, count]
+        Map<Integer, double[]> pc4Sums = new HashMap<>();
+        Map<Integer, double[]> pc6Sums = new HashMap<>();
+        storeIndex.forEachStore((id, store) -> {
+            String code = normalize(store.getPostalCode());
+            if (code == null) {
+                return;
+            }
+            add(pc4Sums, pc4(code), store.getLatitude(), store.getLongitude());
+            if (code.length() == 6) {
+                add(pc6Sums, pc6(code), store.getLatitude(), store.getLongitude());
+            }
+        });
+
+        Map<Integer, double[]> pc4 = averages(pc4Sums);
+        Map<Integer, double[]> pc6 = averages(pc6Sums);
+        List<PostalCodeCentroid> external = centroidRepository.findAll();
+        for (PostalCodeCentroid centroid : external) {
+            String code = normalize(centroid.postalCode());
+            if (code == null) {
+                continue;
+            }
+            double[] position = {centroid.latitude(), centroid.longitude()};
+            if (code.length() == 6) {
+                pc6.put(pc6(code), position);
+            } else {
+                pc4.put(pc4(code), position);
+            }
+        }
+
+        pc4Latitudes = new float[PC4_COUNT];
+        pc4Longitudes = new float[PC4_COUNT];
+        Arrays.fill(pc4Latitudes, Float.NaN);
+        for (Map.Entry<Integer, double[]> e : pc4.entrySet()) {
+            pc4Latitudes[e.getKey() - PC4_MIN] = (float) e.getValue()[0];
+            pc4Longitudes[e.getKey() - PC4_MIN] = (float) e.getValue()[1];
+        }
+
+        pc6Keys = pc6.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        pc6Latitudes = new float[pc6Keys.length];
+        pc6Longitudes = new float[pc6Keys.length];
+        for (int i = 0; i < pc6Keys.length; i++) {
+            double[] position = pc6.get(pc6Keys[i]);
+            pc6Latitudes[i] = (float) position[0];
+            pc6Longitudes[i] = (float) position[1];
+        }
+        log.info("Indexed {} PC4 and {} PC6 postal codes ({} from the centroid file)", pc4.size(), pc6Keys.length,
+                external.size());
+    }
+
+    @Override
+    public Optional<PostalCodeCentroid> locate(String postalCode) {
+        String code = normalize(postalCode);
+        if (code == null) {
+            return Optional.empty();
+        }
+        if (code.length() == 6) {
+            int i = Arrays.binarySearch(pc6Keys, pc6(code));
+            if (i >= 0) {
+                return Optional.of(new PostalCodeCentroid(code, pc6Latitudes[i], pc6Longitudes[i]));
+            }
+        }
+        int area = pc4(code) - PC4_MIN;
+        if (Float.isNaN(pc4Latitudes[area])) {
+            return Optional.empty();
+        }
+        return Optional.of(new PostalCodeCentroid(code.substring(0, 4), pc4Latitudes[area], pc4Longitudes[area]));
+    }
+
+    /**
+     * Upper-case code without spaces ("1012AB" or "1012"), or {@code null} if it is not a Dutch postal code.
+     */
+    public static String normalize(String postalCode) {
+        if (postalCode == null) {
+            return null;
+        }
+        String code = postalCode.replace(" ", "").toUpperCase(Locale.ROOT);
+        return POSTAL_CODE.matcher(code).matches() ? code : null;
+    }
+
+    private static int pc4(String code) {
+        return Integer.parseInt(code, 0, 4, 10);
+    }
+
+    private static int pc6(String code) {
+        return pc4(code) * 676 + (code.charAt(4) - 'A') * 26 + (code.charAt(5) - 'A');
+    }
+
+    private static void add(Map<Integer, double[]> sums, int key, double lat, double lon) {
+        double[] sum = sums.computeIfAbsent(key, k -> new double[3]);
+        sum[0] += lat;
+        sum[1] += lon;
+        sum[2]++;
+    }
+
+    private static Map<Integer, double[]> averages(Map<Integer, double[]> sums) {
+        Map<Integer, double[]> averages = new HashMap<>();
+        sums.forEach((key, sum) -> averages.put(key, new double[]{sum[0] / sum[2], sum[1] / sum[2]}));
+        return averages;
+    }
+}
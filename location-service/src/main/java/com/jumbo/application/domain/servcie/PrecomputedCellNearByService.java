@@ -0,0 +1,442 @@
+package com.jumbo.application.domain.servcie;
+
+import com.jumbo.application.domain.model.OpeningHours;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.NearByUseCase;
+import com.jumbo.application.port.out.StoreRepository;
+import com.jumbo.common.geo.MortonCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Answers nearby queries from candidate lists precomputed per grid cell.
+ * <p>
+ * The bounding box of the stores is cut into square cells of {@code cell-size-km}. For every cell the build keeps
+ * each store that can be among the {@value #MAX_LIMIT} nearest within {@value #MAX_RADIUS_KM} km of <em>some</em>
+ * point in the cell. With {@code d} the distance from the cell centre to its {@value #MAX_LIMIT}-th nearest store
+ * and {@code h} the distance from the centre to the farthest corner, every point of the cell has
+ * {@value #MAX_LIMIT} stores within {@code bound = min(d + h, 100 km)}, so by the triangle inequality only stores
+ * within {@code bound + h} of the centre can qualify. A query only ranks its cell's list, walked in order of
+ * distance from the centre so that it can stop as soon as no further candidate can beat the current top-k.
+ * <p>
+ * The answer is exact whenever the search radius is within the cell's bound or the top-k is full within it; this
+ * covers unfiltered queries in all but the emptiest areas. Everything else (points outside the grid, opening-hours
+ * queries short of open stores in the list, limits above {@value #MAX_LIMIT}) goes to the
+ * {@link PackedArrayNearByService packed scan}, which orders ties the same way.
+ * <p>
+ * When the lists for a cell size do not fit into {@code memory-budget-mb}, the build retries with cells twice as
+ * large. If no size up to {@value #MAX_CELL_SIZE_KM} km fits, or {@code max-build-time} runs out, every query is
+ * answered by the scan.
+ */
+@Service
+// the lists and the packed fallback hold the stores on the heap
+@ConditionalOnExpression("${jumbo.location.search.precomputed.enabled:false}"
+        + " and '${jumbo.location.stores.storage:heap}' == 'heap'"
+        + " and '${jumbo.location.stores.snapshot-file:}' == ''")
+@Slf4j
+public class PrecomputedCellNearByService implements NearByUseCase {
+
+    static final int MAX_LIMIT = 50;
+    static final double MAX_RADIUS_KM = 100.0;
+    static final double MAX_CELL_SIZE_KM = 64.0;
+    // kilometres per degree of latitude on the haversine sphere
+    private static final double KM_PER_DEGREE = 111.195;
+    private static final double CORNER_MARGIN = 1.01;
+    private static final double EPSILON_KM = 1e-9;
+
+    private final StoreRepository storeRepository;
+    private final DistanceCalculator distanceCalculator;
+    private final PackedArrayNearByService fallback;
+    private final double cellSizeKm;
+    private final long memoryBudgetBytes;
+    private final Duration maxBuildTime;
+    private final Counter fallbacks;
+    private final Timer buildTime;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private short[] openMinutes;
+    private short[] closeMinutes;
+    private Store[] stores;
+    private volatile Cells cells;
+
+    public PrecomputedCellNearByService(StoreRepository storeRepository,
+                                        DistanceCalculator distanceCalculator,
+                                        PackedArrayNearByService packedArrayNearByService,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${jumbo.location.search.precomputed.cell-size-km:1}") double cellSizeKm,
+                                        @Value("${jumbo.location.search.precomputed.memory-budget-mb:64}") long memoryBudgetMb,
+                                        @Value("${jumbo.location.search.precomputed.max-build-time:PT2M}") Duration maxBuildTime) {
+        this.storeRepository = storeRepository;
+        this.distanceCalculator = distanceCalculator;
+        this.fallback = packedArrayNearByService;
+        this.cellSizeKm = cellSizeKm;
+        this.memoryBudgetBytes = memoryBudgetMb * 1024 * 1024;
+        this.maxBuildTime = maxBuildTime;
+        this.fallbacks = Counter.builder("jumbo.search.precomputed.fallbacks")
+                .description("Queries the precomputed cells could not answer exactly")
+                .register(meterRegistry);
+        this.buildTime = Timer.builder("jumbo.search.precomputed.build")
+                .description("Time spent precomputing the cell candidate lists")
+                .register(meterRegistry);
+        Gauge.builder("jumbo.search.precomputed.memory", this, service -> service.memoryBytes())
+                .description("Size of the precomputed candidate lists")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("jumbo.search.precomputed.cell.size", this, service -> service.cellSizeKm())
+                .description("Edge length of the precomputed cells, 0 if the build gave up")
+                .baseUnit("kilometers")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() throws Exception {
+        List<Store> sorted = new ArrayList<>(storeRepository.findAll());
+        sorted.sort(Comparator.comparingLong(s -> MortonCode.encode(s.getLatitude(), s.getLongitude())));
+
+        int n = sorted.size();
+        latitudes = new double[n];
+        longitudes = new double[n];
+        openMinutes = new short[n];
+        closeMinutes = new short[n];
+        stores = sorted.toArray(Store[]::new);
+        for (int i = 0; i < n; i++) {
+            Store s = stores[i];
+            latitudes[i] = s.getLatitude();
+            longitudes[i] = s.getLongitude();
+            openMinutes[i] = OpeningHours.toMinute(s.getTodayOpen());
+            closeMinutes[i] = OpeningHours.toMinute(s.getTodayClose());
+        }
+        if (n == 0) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + maxBuildTime.toNanos();
+        Cells built = null;
+        for (double size = cellSizeKm; built == null && size <= MAX_CELL_SIZE_KM; size *= 2) {
+            built = build(size, deadline);
+            if (built == null && System.nanoTime() > deadline) {
+                break;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        buildTime.record(Duration.ofNanos(elapsed));
+
+        if (built == null) {
+            log.warn("Precomputed cells did not fit into {} MB within {}, all queries are answered by the packed scan",
+                    memoryBudgetBytes / (1024 * 1024), maxBuildTime);
+            return;
+        }
+        log.info("Precomputed {} cells of {} km in {} ms: {} candidates, {} per cell on average, {} KB",
+                built.bounds.length, built.cellSizeKm, elapsed / 1_000_000, built.candidates.length,
+                built.candidates.length / built.bounds.length, built.bytes() / 1024);
+        cells = built;
+    }
+
+    @Override
+    public List<Store> findNearByStores(NearByRequest req, LocalTime now) {
+        Cells index = cells;
+        int cell = index == null || req.limit() > MAX_LIMIT ? -1 : index.cell(req.latitude(), req.longitude());
+        if (cell < 0) {
+            fallbacks.increment();
+            return fallback.findNearByStores(req, now);
+        }
+
+        double qLat = req.latitude();
+        double qLon = req.longitude();
+        double fromCentre = distanceCalculator.distanceInKm(index.centreLatitude(cell), index.centreLongitude(cell),
+                qLat, qLon);
+        long nanoOfDay = now.toNanoOfDay();
+        TopK topK = new TopK(req.limit());
+        for (int i = index.offsets[cell], end = index.offsets[cell + 1]; i < end; i++) {
+            // candidates come in order of distance from the centre, none of the rest can be closer than this
+            double lowerBound = index.centreDistances[i] - fromCentre - EPSILON_KM;
+            if (lowerBound > req.maxRadiusKm() || lowerBound > topK.worstDistance()) {
+                break;
+            }
+            int row = index.candidates[i];
+            if (req.onlyOpen() && !OpeningHours.isOpen(openMinutes[row], closeMinutes[row], nanoOfDay)) {
+                continue;
+            }
+            double distance = distanceCalculator.distanceInKm(qLat, qLon, latitudes[row], longitudes[row]);
+            if (distance <= req.maxRadiusKm()) {
+                topK.offer(row, distance);
+            }
+        }
+
+        // stores outside the list are farther than the bound from anywhere in the cell
+        double bound = index.bounds[cell];
+        if (req.maxRadiusKm() > bound && !(topK.isFull() && topK.worstDistance() <= bound)) {
+            fallbacks.increment();
+            return fallback.findNearByStores(req, now);
+        }
+
+        topK.sort();
+        List<Store> result = new ArrayList<>(topK.size());
+        for (int i = 0; i < topK.size(); i++) {
+            result.add(stores[topK.id(i)].withDistance(topK.distance(i)));
+        }
+        return result;
+    }
+
+    long memoryBytes() {
+        Cells index = cells;
+        return index == null ? 0 : index.bytes();
+    }
+
+    double cellSizeKm() {
+        Cells index = cells;
+        return index == null ? 0 : index.cellSizeKm;
+    }
+
+    /**
+     * @return the candidate lists for cells of {@code sizeKm}, or {@code null} if they exceed the memory budget or
+     * the deadline passes
+     */
+    private Cells build(double sizeKm, long deadline) {
+        double minLat = Arrays.stream(latitudes).min().orElseThrow();
+        double maxLat = Arrays.stream(latitudes).max().orElseThrow();
+        double minLon = Arrays.stream(longitudes).min().orElseThrow();
+        double maxLon = Arrays.stream(longitudes).max().orElseThrow();
+        double cellLat = sizeKm / KM_PER_DEGREE;
+        double cellLon = cellLat / Math.max(Math.cos(Math.toRadians((minLat + maxLat) / 2)), 0.01);
+        int rows = (int) Math.floor((maxLat - minLat) / cellLat) + 1;
+        int columns = (int) Math.floor((maxLon - minLon) / cellLon) + 1;
+        long cellCount = (long) rows * columns;
+        // offsets and bounds take 8 bytes per cell, each candidate 8 more (row and distance from the centre)
+        long candidateBudget = (memoryBudgetBytes - 8 * cellCount) / 8;
+        if (candidateBudget <= 0 || cellCount >= Integer.MAX_VALUE) {
+            log.debug("{} cells of {} km exceed the memory budget on their own", cellCount, sizeKm);
+            return null;
+        }
+
+        Cells grid = new Cells(sizeKm, minLat, minLon, cellLat, cellLon, rows, columns);
+        Buckets buckets = new Buckets(Math.max(4 * sizeKm, 5.0), minLat, maxLat, minLon, maxLon);
+        int[][] rowsPerCell = new int[(int) cellCount][];
+        float[][] distancesPerCell = new float[(int) cellCount][];
+        AtomicLong total = new AtomicLong();
+        AtomicBoolean abandoned = new AtomicBoolean();
+        IntStream.range(0, rows).parallel().forEach(row -> {
+            for (int column = 0; column < columns && !abandoned.get(); column++) {
+                int cell = row * columns + column;
+                computeCell(grid, buckets, cell, rowsPerCell, distancesPerCell);
+                if (total.addAndGet(rowsPerCell[cell].length) > candidateBudget || System.nanoTime() > deadline) {
+                    abandoned.set(true);
+                }
+            }
+        });
+        if (abandoned.get()) {
+            log.debug("Candidate lists for {} km cells exceed the memory budget or build time", sizeKm);
+            return null;
+        }
+
+        grid.offsets = new int[(int) cellCount + 1];
+        grid.candidates = new int[(int) total.get()];
+        grid.centreDistances = new float[(int) total.get()];
+        int position = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            grid.offsets[cell] = position;
+            System.arraycopy(rowsPerCell[cell], 0, grid.candidates, position, rowsPerCell[cell].length);
+            System.arraycopy(distancesPerCell[cell], 0, grid.centreDistances, position, rowsPerCell[cell].length);
+            position += rowsPerCell[cell].length;
+        }
+        grid.offsets[(int) cellCount] = position;
+        return grid;
+    }
+
+    private void computeCell(Cells grid, Buckets buckets, int cell, int[][] rowsPerCell, float[][] distancesPerCell) {
+        double lat = grid.centreLatitude(cell);
+        double lon = grid.centreLongitude(cell);
+        double halfLat = grid.cellLat / 2;
+        double halfLon = grid.cellLon / 2;
+        double halfDiagonal = CORNER_MARGIN * Math.max(
+                Math.max(distanceCalculator.distanceInKm(lat, lon, lat - halfLat, lon - halfLon),
+                        distanceCalculator.distanceInKm(lat, lon, lat - halfLat, lon + halfLon)),
+                Math.max(distanceCalculator.distanceInKm(lat, lon, lat + halfLat, lon - halfLon),
+                        distanceCalculator.distanceInKm(lat, lon, lat + halfLat, lon + halfLon)));
+
+        // distance from the centre to its k-th nearest store, found by widening the search until it is certain
+        int k = Math.min(MAX_LIMIT, stores.length);
+        double reach = MAX_RADIUS_KM + 2 * halfDiagonal;
+        double kth = Double.POSITIVE_INFINITY;
+        for (double radius = buckets.sizeKm; ; radius = Math.min(2 * radius, reach)) {
+            TopK nearest = new TopK(k);
+            buckets.visit(lat, lon, radius, nearest::offer);
+            if (nearest.isFull() && nearest.worstDistance() <= radius) {
+                kth = nearest.worstDistance();
+                break;
+            }
+            if (radius >= reach) {
+                break;
+            }
+        }
+        double bound = Math.min(kth + halfDiagonal, MAX_RADIUS_KM);
+
+        // (distance, row) packed into one sortable key; non-negative float bits order like the floats
+        LongStream.Builder found = LongStream.builder();
+        buckets.visit(lat, lon, bound + halfDiagonal, (row, distance) ->
+                found.add((long) Float.floatToIntBits(roundDown(distance)) << 32 | row));
+        long[] keys = found.build().sorted().toArray();
+        int[] rows = new int[keys.length];
+        float[] distances = new float[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            rows[i] = (int) keys[i];
+            distances[i] = Float.intBitsToFloat((int) (keys[i] >>> 32));
+        }
+        rowsPerCell[cell] = rows;
+        distancesPerCell[cell] = distances;
+        grid.bounds[cell] = roundDown(bound);
+    }
+
+    // floats that never overstate a distance keep every lower bound derived from them valid
+    private static float roundDown(double value) {
+        float rounded = (float) value;
+        return rounded > value ? Math.nextDown(rounded) : rounded;
+    }
+
+    /**
+     * Candidate lists of all cells, stored back to back; cell {@code c} owns {@code [offsets[c], offsets[c + 1])}.
+     */
+    private static final class Cells {
+        private final double cellSizeKm;
+        private final double minLat;
+        private final double minLon;
+        private final double cellLat;
+        private final double cellLon;
+        private final int rows;
+        private final int columns;
+        private final float[] bounds;
+        private int[] offsets;
+        private int[] candidates;
+        private float[] centreDistances;
+
+        Cells(double cellSizeKm, double minLat, double minLon, double cellLat, double cellLon, int rows, int columns) {
+            this.cellSizeKm = cellSizeKm;
+            this.minLat = minLat;
+            this.minLon = minLon;
+            this.cellLat = cellLat;
+            this.cellLon = cellLon;
+            this.rows = rows;
+            this.columns = columns;
+            this.bounds = new float[rows * columns];
+        }
+
+        int cell(double lat, double lon) {
+            int row = (int) Math.floor((lat - minLat) / cellLat);
+            int column = (int) Math.floor((lon - minLon) / cellLon);
+            if (row < 0 || row >= rows || column < 0 || column >= columns) {
+                return -1;
+            }
+            return row * columns + column;
+        }
+
+        double centreLatitude(int cell) {
+            return minLat + (cell / columns + 0.5) * cellLat;
+        }
+
+        double centreLongitude(int cell) {
+            return minLon + (cell % columns + 0.5) * cellLon;
+        }
+
+        long bytes() {
+            return 4L * (offsets.length + bounds.length + candidates.length + centreDistances.length);
+        }
+    }
+
+    private interface RowVisitor {
+        void visit(int row, double distanceKm);
+    }
+
+    /**
+     * Coarse bucket grid over the store rows, only used while building the candidate lists.
+     */
+    private final class Buckets {
+        private final double sizeKm;
+        private final double minLat;
+        private final double minLon;
+        private final double bucketLat;
+        private final double bucketLon;
+        private final int rows;
+        private final int columns;
+        private final int[] offsets;
+        private final int[] members;
+
+        Buckets(double sizeKm, double minLat, double maxLat, double minLon, double maxLon) {
+            this.sizeKm = sizeKm;
+            this.minLat = minLat;
+            this.minLon = minLon;
+            this.bucketLat = sizeKm / KM_PER_DEGREE;
+            this.bucketLon = bucketLat / Math.max(Math.cos(Math.toRadians((minLat + maxLat) / 2)), 0.01);
+            this.rows = (int) Math.floor((maxLat - minLat) / bucketLat) + 1;
+            this.columns = (int) Math.floor((maxLon - minLon) / bucketLon) + 1;
+
+            int[] counts = new int[rows * columns + 1];
+            int[] bucketOf = new int[latitudes.length];
+            for (int i = 0; i < latitudes.length; i++) {
+                bucketOf[i] = row(latitudes[i]) * columns + column(longitudes[i]);
+                counts[bucketOf[i] + 1]++;
+            }
+            for (int b = 0; b < rows * columns; b++) {
+                counts[b + 1] += counts[b];
+            }
+            offsets = counts.clone();
+            members = new int[latitudes.length];
+            for (int i = 0; i < latitudes.length; i++) {
+                members[counts[bucketOf[i]]++] = i;
+            }
+        }
+
+        /**
+         * Calls {@code visitor} for every store within {@code radiusKm} of the point.
+         */
+        void visit(double lat, double lon, double radiusKm, RowVisitor visitor) {
+            double latDelta = radiusKm / KM_PER_DEGREE;
+            double lonDelta = latDelta * 1.01 / Math.max(Math.cos(Math.toRadians(Math.min(Math.abs(lat) + latDelta,
+                    89.0))), 0.01);
+            int fromRow = row(lat - latDelta);
+            int toRow = row(lat + latDelta);
+            int fromColumn = column(lon - lonDelta);
+            int toColumn = column(lon + lonDelta);
+            for (int r = fromRow; r <= toRow; r++) {
+                for (int c = fromColumn; c <= toColumn; c++) {
+                    int bucket = r * columns + c;
+                    for (int m = offsets[bucket]; m < offsets[bucket + 1]; m++) {
+                        int i = members[m];
+                        double distance = distanceCalculator.distanceInKm(lat, lon, latitudes[i], longitudes[i]);
+                        if (distance <= radiusKm) {
+                            visitor.visit(i, distance);
+                        }
+                    }
+                }
+            }
+        }
+
+        private int row(double lat) {
+            return Math.max(0, Math.min(rows - 1, (int) Math.floor((lat - minLat) / bucketLat)));
+        }
+
+        private int column(double lon) {
+            return Math.max(0, Math.min(columns - 1, (int) Math.floor((lon - minLon) / bucketLon)));
+        }
+    }
+}
@@ -7,15 +7,22 @@ import com.jumbo.application.port.out.StoreRepository;
 import jakarta.annotation.PostConstruct;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.index.quadtree.Quadtree;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalTime;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
+@ConditionalOnExpression("'${jumbo.location.stores.storage:heap}' == 'heap'"
+        + " and '${jumbo.location.stores.snapshot-file:}' == ''")
 public class QuadTreeNearByService implements NearByUseCase {
 
+    static final double DEFAULT_INITIAL_RADIUS_KM = 1.0;
+    // lower bound of the haversine distance per degree of latitude, keeps the envelope around the circle
+    private static final double MIN_KM_PER_DEGREE = 110.0;
+
     private Quadtree quadtree;
     private final StoreRepository storeRepository;
     private final DistanceCalculator distanceCalculator;
@@ -40,44 +47,60 @@ public class QuadTreeNearByService implements NearByUseCase {
 
     @Override
     public List<Store> findNearByStores(NearByRequest req, LocalTime now) {
-        double searchRadiusKm = 1.0; // start with 1 km
+        return findNearByStores(req, now, DEFAULT_INITIAL_RADIUS_KM);
+    }
 
-        Set<Store> stores = new HashSet<>();
+    /**
+     * The same search over the same tree, but with the first envelope sized for {@code initialRadiusKm}: larger
+     * for sparse data, so fewer doublings are needed, smaller for dense data, so fewer stores are ranked.
+     */
+    public NearByUseCase startingAt(double initialRadiusKm) {
+        return (req, now) -> findNearByStores(req, now, initialRadiusKm);
+    }
+
+    private List<Store> findNearByStores(NearByRequest req, LocalTime now, double initialRadiusKm) {
+        double searchRadiusKm = Math.min(initialRadiusKm, req.maxRadiusKm());
         while (true) {
             Envelope env = makeEnvelope(req.latitude(), req.longitude(), searchRadiusKm);
             @SuppressWarnings("unchecked")
             List<Store> found = quadtree.query(env);
 
-            List<Store> filtered = found.stream()
-                    .filter(s -> !req.onlyOpen() || s.isOpen(now))
-                    .toList();
-            stores.addAll(filtered);
-
-            if (stores.size() >= req.limit() || searchRadiusKm >= req.maxRadiusKm()) {
-                return stores.stream()
-                        .peek(store -> store.setDistance(distanceCalculator.distanceInKm(
-                                req.latitude(), req.longitude(),
-                                store.getLatitude(), store.getLongitude())))
-                        .filter(s -> s.getDistance() <= req.maxRadiusKm())
-                        .sorted(Comparator.comparingDouble(Store::getDistance))
-                        .limit(req.limit())
-                        .collect(Collectors.toList());
+            // only stores inside the circle count: the envelope's corners are farther away than stores just
+            // outside it, so a full top-k over the whole envelope would not be the exact answer
+            TopK topK = new TopK(req.limit());
+            for (int i = 0; i < found.size(); i++) {
+                Store store = found.get(i);
+                if (req.onlyOpen() && !store.isOpen(now)) {
+                    continue;
+                }
+                double distance = distanceCalculator.distanceInKm(req.latitude(), req.longitude(),
+                        store.getLatitude(), store.getLongitude());
+                if (distance <= searchRadiusKm) {
+                    topK.offer(i, distance);
+                }
+            }
+
+            if (topK.isFull() || searchRadiusKm >= req.maxRadiusKm()) {
+                topK.sort();
+                List<Store> result = new ArrayList<>(topK.size());
+                for (int i = 0; i < topK.size(); i++) {
+                    result.add(found.get(topK.id(i)).withDistance(topK.distance(i)));
+                }
+                return result;
             }
-            searchRadiusKm *= 2; // expand search area
+            searchRadiusKm = Math.min(searchRadiusKm * 2, req.maxRadiusKm()); // expand search area
         }
     }
 
     /*
-    Creates creates a square bounding box (Envelope) around a geographic point (latitude, longitude)
-    with a given search radius in kilometers. It approximates the conversion from kilometers to degrees
-    using 1 degree ≈ 111 km (valid near the equator).
-    The method calculates the degree offset (delta) for the radius,
-    then constructs an Envelope with min/max longitude and latitude expanded by delta from the center point.
+    Creates a bounding box (Envelope) around a geographic point (latitude, longitude) that holds the whole search
+    circle. One degree of latitude is at least 110 km, and a degree of longitude shrinks with the cosine of the
+    latitude, so the longitude half-width is taken at the box edge nearest to the pole.
     This envelope is used to query the quadtree for nearby stores.
      */
     private Envelope makeEnvelope(double lat, double lon, double radiusKm) {
-        // rough conversion: 1 degree lat ~ 111 km
-        double delta = radiusKm / 111.0;
-        return new Envelope(lon - delta, lon + delta, lat - delta, lat + delta);
+        double latDelta = radiusKm / MIN_KM_PER_DEGREE;
+        double lonDelta = latDelta / Math.cos(Math.toRadians(Math.min(Math.abs(lat) + latDelta, 89.0)));
+        return new Envelope(lon - lonDelta, lon + lonDelta, lat - latDelta, lat + latDelta);
     }
 }
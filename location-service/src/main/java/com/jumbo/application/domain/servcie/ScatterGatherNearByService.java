@@ -0,0 +1,90 @@
+package com.jumbo.application.domain.servcie;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.NearByUseCase;
+import com.jumbo.application.port.out.ShardClient;
+import com.jumbo.application.port.out.ShardRegistry;
+import com.jumbo.application.port.out.ShardUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Coordinator for sharded deployments: sends a query to every registered shard whose region comes within the
+ * search radius, in parallel, and merges their top-k lists into the overall top-k.
+ * <p>
+ * Each shard returns at most {@code limit} stores in (distance, uuid) order, so the merged list sorted the same way
+ * and cut at {@code limit} is exact. Distances are recomputed here rather than trusted from the wire. Stores owned
+ * by two overlapping shards are only counted once. If any shard that was asked fails, the whole query fails rather
+ * than silently returning a partial result.
+ */
+@Slf4j
+public class ScatterGatherNearByService implements NearByUseCase {
+
+    private static final Comparator<Store> RESULT_ORDER = Comparator.comparingDouble(Store::getDistance)
+            .thenComparing(s -> s.getUuid() == null ? "" : s.getUuid());
+
+    private final ShardRegistry shardRegistry;
+    private final DistanceCalculator distanceCalculator;
+    private final ExecutorService executor;
+
+    public ScatterGatherNearByService(ShardRegistry shardRegistry, DistanceCalculator distanceCalculator,
+                                      ExecutorService executor) {
+        this.shardRegistry = shardRegistry;
+        this.distanceCalculator = distanceCalculator;
+        this.executor = executor;
+    }
+
+    @Override
+    public List<Store> findNearByStores(NearByRequest req, LocalTime now) {
+        List<ShardClient> targets = shardRegistry.shards().stream()
+                .filter(shard -> shard.region().minDistanceKm(req.latitude(), req.longitude()) <= req.maxRadiusKm())
+                .toList();
+        log.debug("Fanning out to {} shard(s): {}", targets.size(), targets.stream().map(ShardClient::id).toList());
+        if (targets.isEmpty()) {
+            return List.of();
+        }
+
+        List<Future<List<Store>>> futures = new ArrayList<>(targets.size());
+        for (ShardClient shard : targets) {
+            futures.add(executor.submit(() -> shard.findNearByStores(req)));
+        }
+
+        List<Store> merged = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < futures.size(); i++) {
+            for (Store store : await(targets.get(i), futures.get(i))) {
+                if (store.getUuid() == null || seen.add(store.getUuid())) {
+                    store.setDistance(distanceCalculator.distanceInKm(req.latitude(), req.longitude(),
+                            store.getLatitude(), store.getLongitude()));
+                    merged.add(store);
+                }
+            }
+        }
+        merged.sort(RESULT_ORDER);
+        return merged.size() > req.limit() ? new ArrayList<>(merged.subList(0, req.limit())) : merged;
+    }
+
+    private static List<Store> await(ShardClient shard, Future<List<Store>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ShardUnavailableException("Interrupted while waiting for shard " + shard.id(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ShardUnavailableException unavailable) {
+                throw unavailable;
+            }
+            throw new ShardUnavailableException("Shard " + shard.id() + " failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.jumbo.application.domain.servcie;
+
+import com.jumbo.application.domain.model.Store;
+
+import java.util.List;
+
+/**
+ * Coarse store counts per cell of a fixed grid over the data bounding box, used by the engines' cost models to
+ * estimate how many stores a search box contains without touching the stores themselves.
+ */
+public final class StoreDensityGrid {
+
+    private static final int GRID_SIZE = 64;
+
+    private final int[] density = new int[GRID_SIZE * GRID_SIZE];
+    private final double minLat;
+    private final double minLon;
+    private final double cellLat;
+    private final double cellLon;
+
+    public StoreDensityGrid(List<Store> stores) {
+        minLat = stores.stream().mapToDouble(Store::getLatitude).min().orElse(0);
+        minLon = stores.stream().mapToDouble(Store::getLongitude).min().orElse(0);
+        double maxLat = stores.stream().mapToDouble(Store::getLatitude).max().orElse(0);
+        double maxLon = stores.stream().mapToDouble(Store::getLongitude).max().orElse(0);
+        cellLat = Math.max((maxLat - minLat) / GRID_SIZE, 1e-9);
+        cellLon = Math.max((maxLon - minLon) / GRID_SIZE, 1e-9);
+
+        for (Store s : stores) {
+            density[cell(row(s.getLatitude()), column(s.getLongitude()))]++;
+        }
+    }
+
+    /**
+     * Number of stores inside the search box, assuming stores are spread evenly within each grid cell.
+     */
+    public double estimateCandidates(double latitude, double longitude, double radiusKm) {
+        double latDelta = radiusKm / 111.0;
+        double lonDelta = latDelta / Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+        double south = latitude - latDelta;
+        double north = latitude + latDelta;
+        double west = longitude - lonDelta;
+        double east = longitude + lonDelta;
+
+        double estimate = 0;
+        for (int r = row(south); r <= row(north); r++) {
+            double cellSouth = minLat + r * cellLat;
+            double latOverlap = overlap(cellSouth, cellSouth + cellLat, south, north) / cellLat;
+            for (int c = column(west); c <= column(east); c++) {
+                double cellWest = minLon + c * cellLon;
+                double lonOverlap = overlap(cellWest, cellWest + cellLon, west, east) / cellLon;
+                estimate += density[cell(r, c)] * latOverlap * lonOverlap;
+            }
+        }
+        return estimate;
+    }
+
+    private static double overlap(double min1, double max1, double min2, double max2) {
+        return Math.max(0, Math.min(max1, max2) - Math.max(min1, min2));
+    }
+
+    private int row(double lat) {
+        return clamp((int) Math.floor((lat - minLat) / cellLat));
+    }
+
+    private int column(double lon) {
+        return clamp((int) Math.floor((lon - minLon) / cellLon));
+    }
+
+    private static int clamp(int index) {
+        return Math.max(0, Math.min(GRID_SIZE - 1, index));
+    }
+
+    private static int cell(int row, int column) {
+        return row * GRID_SIZE + column;
+    }
+}
@@ -0,0 +1,164 @@
+package com.jumbo.application.domain.servcie;
+
+import com.jumbo.application.domain.model.BatchGetResult;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.BatchGetRequest;
+import com.jumbo.application.port.in.StoreLookupUseCase;
+import com.jumbo.application.port.out.SpatialStoreIndex;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Store lookup by uuid and SAP store id.
+ * <p>
+ * Each key has an open-addressing table (linear probing, load factor at most one half) holding the store's id in the
+ * {@link SpatialStoreIndex}, the key's hash and the key itself, so a probe only compares strings when the hashes
+ * match and only the stores that are found are materialised. Like the other indexes over the store data, the
+ * tables are built once at startup.
+ * <p>
+ * A lookup is not a search, so the stores are returned as copies without a distance or travel time.
+ */
+@Service
+@Slf4j
+public class StoreLookupService implements StoreLookupUseCase {
+
+    private static final int NOT_FOUND = -1;
+
+    private final SpatialStoreIndex storeIndex;
+
+    private KeyTable byUuid;
+    private KeyTable bySapStoreId;
+
+    public StoreLookupService(SpatialStoreIndex storeIndex) {
+        this.storeIndex = storeIndex;
+    }
+
+    @PostConstruct
+    public void init() {
+        List<Integer> ids = new ArrayList<>();
+        List<String> uuids = new ArrayList<>();
+        List<String> sapStoreIds = new ArrayList<>();
+        storeIndex.forEachStore((id, store) -> {
+            ids.add(id);
+            uuids.add(store.getUuid());
+            sapStoreIds.add(store.getSapStoreID());
+        });
+        byUuid = KeyTable.build(ids, uuids);
+        bySapStoreId = KeyTable.build(ids, sapStoreIds);
+        log.info("Indexed {} stores by uuid and SAP store id", ids.size());
+    }
+
+    @Override
+    public Optional<Store> findByUuid(String uuid) {
+        return store(byUuid.find(uuid));
+    }
+
+    @Override
+    public Optional<Store> findBySapStoreId(String sapStoreId) {
+        return store(bySapStoreId.find(sapStoreId));
+    }
+
+    @Override
+    public BatchGetResult batchGet(BatchGetRequest request) {
+        Set<Integer> found = new LinkedHashSet<>();
+        List<String> missingUuids = collect(request.uuids(), byUuid, found);
+        List<String> missingSapStoreIds = collect(request.sapStoreIds(), bySapStoreId, found);
+        List<Store> stores = storeIndex.stores(found.stream().mapToInt(Integer::intValue).toArray()).stream()
+                .map(Store::withoutSearchFields)
+                .toList();
+        return new BatchGetResult(stores, missingUuids, missingSapStoreIds);
+    }
+
+    private Optional<Store> store(int id) {
+        return id == NOT_FOUND ? Optional.empty()
+                : Optional.of(storeIndex.stores(id).getFirst().withoutSearchFields());
+    }
+
+    private static List<String> collect(List<String> keys, KeyTable table, Set<Integer> found) {
+        List<String> missing = new ArrayList<>();
+        for (String key : keys) {
+            int id = table.find(key);
+            if (id == NOT_FOUND) {
+                missing.add(key);
+            } else {
+                found.add(id);
+            }
+        }
+        return missing;
+    }
+
+    private static final class KeyTable {
+
+        private final int[] ids;    // id + 1, 0 marks an empty slot
+        private final int[] hashes;
+        private final String[] keys;
+        private final int shift;
+
+        private KeyTable(int bits) {
+            this.ids = new int[1 << bits];
+            this.hashes = new int[1 << bits];
+            this.keys = new String[1 << bits];
+            this.shift = 32 - bits;
+        }
+
+        static KeyTable build(List<Integer> ids, List<String> keys) {
+            int bits = Math.max(4, 33 - Integer.numberOfLeadingZeros(Math.max(ids.size(), 1)));
+            KeyTable table = new KeyTable(bits);
+            int duplicates = 0;
+            for (int i = 0; i < ids.size(); i++) {
+                String key = keys.get(i);
+                if (key != null && !table.insert(key, ids.get(i))) {
+                    duplicates++;
+                }
+            }
+            if (duplicates > 0) {
+                log.warn("{} stores share a key with an earlier store and can only be found through that one",
+                        duplicates);
+            }
+            return table;
+        }
+
+        // keeps the first store for a key
+        private boolean insert(String key, int id) {
+            int hash = key.hashCode();
+            int mask = ids.length - 1;
+            for (int slot = slot(hash); ; slot = (slot + 1) & mask) {
+                if (ids[slot] == 0) {
+                    ids[slot] = id + 1;
+                    hashes[slot] = hash;
+                    keys[slot] = key;
+                    return true;
+                }
+                if (hashes[slot] == hash && key.equals(keys[slot])) {
+                    return false;
+                }
+            }
+        }
+
+        int find(String key) {
+            if (key == null) {
+                return NOT_FOUND;
+            }
+            int hash = key.hashCode();
+            int mask = ids.length - 1;
+            for (int slot = slot(hash); ids[slot] != 0; slot = (slot + 1) & mask) {
+                if (hashes[slot] == hash && key.equals(keys[slot])) {
+                    return ids[slot] - 1;
+                }
+            }
+            return NOT_FOUND;
+        }
+
+        // Fibonacci hashing spreads String.hashCode's low-entropy bits over the table
+        private int slot(int hash) {
+            return (hash * 0x9E3779B9) >>> shift;
+        }
+    }
+}
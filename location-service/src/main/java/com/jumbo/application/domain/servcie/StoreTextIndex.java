@@ -0,0 +1,213 @@
+package com.jumbo.application.domain.servcie;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.out.SpatialStoreIndex;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Prefix index over the address fields of the stores.
+ * <p>
+ * Every field is folded (lower case, diacritics removed) and split into terms. The distinct terms are kept in one
+ * sorted array with a posting list of store ids per term, so all terms starting with a prefix form a contiguous
+ * range found with a binary search. A query matches the stores that contain, for every query term, some term
+ * starting with it; those are then scored by which fields matched and whether the match was exact.
+ * <p>
+ * Only the most selective query term of at least {@value #MIN_PREFIX_LENGTH} characters reads its posting lists;
+ * the stores it matches are checked against the other terms one by one. A query is never more expensive than its
+ * best term, and a single letter, which starts terms in nearly every store, never drives a search.
+ * <p>
+ * Stores are numbered by position here and only their {@link SpatialStoreIndex} id and location are kept, so the
+ * index holds terms rather than {@link Store} objects.
+ */
+public final class StoreTextIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final List<Function<Store, String>> FIELDS = List.of(
+            Store::getCity, Store::getAddressName, Store::getStreet, Store::getPostalCode);
+    private static final int[] FIELD_WEIGHTS = {3, 3, 2, 2};
+    private static final int POSTAL_CODE = 3;
+    public static final int MIN_PREFIX_LENGTH = 2;
+
+    private final int[] ids;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final String[] terms;
+    private final int[][] postings;
+    // folded terms of every field of every store, used for scoring: [position][field][term]
+    private final String[][][] storeTerms;
+
+    public StoreTextIndex(SpatialStoreIndex storeIndex) {
+        List<Integer> storeIds = new ArrayList<>();
+        List<double[]> locations = new ArrayList<>();
+        List<String[][]> fieldTerms = new ArrayList<>();
+        Map<String, BitSet> index = new TreeMap<>();
+        storeIndex.forEachStore((id, store) -> {
+            int s = storeIds.size();
+            String[][] termsOfStore = new String[FIELDS.size()][];
+            for (int f = 0; f < FIELDS.size(); f++) {
+                List<String> fieldTermList = tokenize(FIELDS.get(f).apply(store));
+                if (f == POSTAL_CODE && fieldTermList.size() > 1) {
+                    // "1012 AB" is also searchable as "1012ab"
+                    fieldTermList = new ArrayList<>(fieldTermList);
+                    fieldTermList.add(String.join("", fieldTermList));
+                }
+                termsOfStore[f] = fieldTermList.toArray(String[]::new);
+                for (String term : fieldTermList) {
+                    index.computeIfAbsent(term, t -> new BitSet()).set(s);
+                }
+            }
+            storeIds.add(id);
+            locations.add(new double[]{store.getLatitude(), store.getLongitude()});
+            fieldTerms.add(termsOfStore);
+        });
+
+        int n = storeIds.size();
+        ids = storeIds.stream().mapToInt(Integer::intValue).toArray();
+        latitudes = new double[n];
+        longitudes = new double[n];
+        for (int s = 0; s < n; s++) {
+            latitudes[s] = locations.get(s)[0];
+            longitudes[s] = locations.get(s)[1];
+        }
+        storeTerms = fieldTerms.toArray(String[][][]::new);
+
+        terms = index.keySet().toArray(String[]::new);
+        postings = new int[terms.length][];
+        int t = 0;
+        for (BitSet ids : index.values()) {
+            postings[t++] = ids.stream().toArray();
+        }
+    }
+
+    public int termCount() {
+        return terms.length;
+    }
+
+    /**
+     * {@link SpatialStoreIndex} id of the store at {@code position}.
+     */
+    public int id(int position) {
+        return ids[position];
+    }
+
+    public double latitude(int position) {
+        return latitudes[position];
+    }
+
+    public double longitude(int position) {
+        return longitudes[position];
+    }
+
+    /**
+     * Positions of the stores matching every query term as a prefix in ascending order, or none when no query term
+     * has {@value #MIN_PREFIX_LENGTH} characters.
+     */
+    public int[] match(List<String> queryTerms) {
+        String selective = null;
+        int fewest = Integer.MAX_VALUE;
+        for (String queryTerm : queryTerms) {
+            if (queryTerm.length() >= MIN_PREFIX_LENGTH) {
+                int postingCount = 0;
+                for (int t = lowerBound(queryTerm); t < terms.length && terms[t].startsWith(queryTerm); t++) {
+                    postingCount += postings[t].length;
+                }
+                if (postingCount < fewest) {
+                    selective = queryTerm;
+                    fewest = postingCount;
+                }
+            }
+        }
+        if (selective == null || fewest == 0) {
+            return new int[0];
+        }
+
+        int[] candidates = new int[fewest];
+        int size = 0;
+        for (int t = lowerBound(selective); t < terms.length && terms[t].startsWith(selective); t++) {
+            System.arraycopy(postings[t], 0, candidates, size, postings[t].length);
+            size += postings[t].length;
+        }
+        Arrays.sort(candidates);
+        int matches = 0;
+        for (int i = 0; i < size; i++) {
+            int position = candidates[i];
+            // a store holding several terms with the prefix is in several posting lists
+            if ((matches == 0 || candidates[matches - 1] != position) && matchesAll(position, queryTerms)) {
+                candidates[matches++] = position;
+            }
+        }
+        return Arrays.copyOf(candidates, matches);
+    }
+
+    private boolean matchesAll(int position, List<String> queryTerms) {
+        for (String queryTerm : queryTerms) {
+            if (!hasPrefix(position, queryTerm)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean hasPrefix(int position, String queryTerm) {
+        for (String[] fieldTerms : storeTerms[position]) {
+            for (String term : fieldTerms) {
+                if (term.startsWith(queryTerm)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Relevance of a matching store: per query term the weight of the best matching field, doubled when the
+     * field contains the term exactly rather than only as a prefix.
+     */
+    public int score(int position, List<String> queryTerms) {
+        int score = 0;
+        for (String queryTerm : queryTerms) {
+            int best = 0;
+            for (int f = 0; f < FIELDS.size(); f++) {
+                for (String term : storeTerms[position][f]) {
+                    if (term.startsWith(queryTerm)) {
+                        best = Math.max(best, term.length() == queryTerm.length() ? 2 * FIELD_WEIGHTS[f] : FIELD_WEIGHTS[f]);
+                    }
+                }
+            }
+            score += best;
+        }
+        return score;
+    }
+
+    /**
+     * Folds {@code text} to lower case without diacritics and splits it into terms; "'s-Hertogenbosch" becomes
+     * {@code [s, hertogenbosch]}.
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(SEPARATORS.split(folded))
+                .filter(term -> !term.isEmpty())
+                .toList();
+    }
+
+    private int lowerBound(String prefix) {
+        int i = Arrays.binarySearch(terms, prefix);
+        return i >= 0 ? i : -i - 1;
+    }
+}
@@ -0,0 +1,68 @@
+package com.jumbo.application.domain.servcie;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.NearByUseCase;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Forwards to an engine that can be replaced while queries are running. A query runs entirely on the engine that was
+ * current when it started; the replacement is only published once it is fully built, so no query ever sees a
+ * half-initialised engine.
+ */
+public class SwitchableNearByService implements NearByUseCase {
+
+    private final AtomicReference<Active> active;
+
+    /**
+     * @param settings the settings {@code engine} was built with that change its results, see {@link #settings()}
+     */
+    public SwitchableNearByService(String strategy, String settings, NearByUseCase engine) {
+        this.active = new AtomicReference<>(new Active(strategy, settings, engine, 0));
+    }
+
+    @Override
+    public List<Store> findNearByStores(NearByRequest req, LocalTime now) {
+        return active.get().engine().findNearByStores(req, now);
+    }
+
+    @Override
+    public boolean ordersByDistance() {
+        return active.get().engine().ordersByDistance();
+    }
+
+    /**
+     * Makes {@code engine} the current engine.
+     *
+     * @return the strategy that was current before
+     */
+    public String swap(String strategy, String settings, NearByUseCase engine) {
+        return active.getAndUpdate(previous -> new Active(strategy, settings, engine, previous.version() + 1))
+                .strategy();
+    }
+
+    public String strategy() {
+        return active.get().strategy();
+    }
+
+    /**
+     * The strategy and the other settings of the current engine that change its results. Two engines with the same
+     * settings over the same store data answer a query alike.
+     */
+    public String settings() {
+        return active.get().settings();
+    }
+
+    /**
+     * Number of swaps since startup.
+     */
+    public long version() {
+        return active.get().version();
+    }
+
+    private record Active(String strategy, String settings, NearByUseCase engine, long version) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.jumbo.application.domain.servcie;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.TextSearchRequest;
+import com.jumbo.application.port.in.TextSearchUseCase;
+import com.jumbo.application.port.out.SpatialStoreIndex;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Autocomplete over store addresses, backed by a {@link StoreTextIndex} built next to the spatial indexes.
+ * <p>
+ * Every query term is matched as a prefix, so "amst cent" finds "Amsterdam Centraal". A query needs at least one
+ * term of two characters; single letters only narrow the matches of the longer terms. When the caller sends
+ * coordinates, relevance is divided by {@code 1 + distance / proximity-scale-km}: among equally good matches the
+ * nearest store wins, while a much better match farther away still ranks first.
+ */
+@Service
+@Slf4j
+public class TextSearchService implements TextSearchUseCase {
+
+    private final SpatialStoreIndex storeIndex;
+    private final DistanceCalculator distanceCalculator;
+    private final double proximityScaleKm;
+
+    private StoreTextIndex index;
+
+    public TextSearchService(SpatialStoreIndex storeIndex, DistanceCalculator distanceCalculator,
+                             @Value("${jumbo.location.text-search.proximity-scale-km:25}") double proximityScaleKm) {
+        this.storeIndex = storeIndex;
+        this.distanceCalculator = distanceCalculator;
+        this.proximityScaleKm = proximityScaleKm;
+    }
+
+    @PostConstruct
+    public void init() {
+        long start = System.nanoTime();
+        index = new StoreTextIndex(storeIndex);
+        log.info("Built text index with {} terms in {} ms", index.termCount(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public List<Store> search(TextSearchRequest req) {
+        List<String> terms = StoreTextIndex.tokenize(req.query());
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        // TopK keeps the smallest keys, so rank by negated relevance
+        TopK topK = new TopK(req.limit());
+        for (int position : index.match(terms)) {
+            double relevance = index.score(position, terms);
+            if (req.hasLocation()) {
+                double distance = distanceCalculator.distanceInKm(req.latitude(), req.longitude(),
+                        index.latitude(position), index.longitude(position));
+                relevance /= 1 + distance / proximityScaleKm;
+            }
+            topK.offer(position, -relevance);
+        }
+
+        topK.sort();
+        int[] ids = new int[topK.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = index.id(topK.id(i));
+        }
+        List<Store> result = new ArrayList<>(ids.length);
+        for (Store store : storeIndex.stores(ids)) {
+            // the index may hand out shared stores, so the distance goes on a copy
+            result.add(req.hasLocation() ? store.withDistance(distanceCalculator.distanceInKm(req.latitude(),
+                    req.longitude(), store.getLatitude(), store.getLongitude())) : store);
+        }
+        return result;
+    }
+}
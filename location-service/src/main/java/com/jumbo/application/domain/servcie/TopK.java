@@ -0,0 +1,116 @@
+package com.jumbo.application.domain.servcie;
+
+/**
+ * Bounded max-heap keeping the {@code k} row ids with the smallest distance, without boxing.
+ * Equal distances are ordered by row id so results are deterministic.
+ */
+public final class TopK {
+
+    private final int k;
+    private final int[] ids;
+    private final double[] distances;
+    private int size;
+
+    public TopK(int k) {
+        this.k = k;
+        this.ids = new int[k];
+        this.distances = new double[k];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == k;
+    }
+
+    /**
+     * Distance a new row has to beat to enter the heap; infinite while the heap is not full.
+     */
+    public double worstDistance() {
+        return size < k ? Double.POSITIVE_INFINITY : distances[0];
+    }
+
+    public void offer(int id, double distance) {
+        if (size < k) {
+            ids[size] = id;
+            distances[size] = distance;
+            siftUp(size++);
+        } else if (k > 0 && worse(distances[0], ids[0], distance, id)) {
+            ids[0] = id;
+            distances[0] = distance;
+            siftDown(0);
+        }
+    }
+
+    public void addAll(TopK other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.ids[i], other.distances[i]);
+        }
+    }
+
+    /**
+     * Heap-sorts the entries in place from nearest to farthest; afterwards {@link #id(int)} and
+     * {@link #distance(int)} read them in that order and no further rows may be offered.
+     */
+    public void sort() {
+        int n = size;
+        while (size > 1) {
+            swap(0, --size);
+            siftDown(0);
+        }
+        size = n;
+    }
+
+    public int id(int i) {
+        return ids[i];
+    }
+
+    public double distance(int i) {
+        return distances[i];
+    }
+
+    private static boolean worse(double d1, int id1, double d2, int id2) {
+        return d1 > d2 || (d1 == d2 && id1 > id2);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worse(distances[i], ids[i], distances[parent], ids[parent])) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int largest = left;
+            int right = left + 1;
+            if (right < size && worse(distances[right], ids[right], distances[left], ids[left])) {
+                largest = right;
+            }
+            if (!worse(distances[largest], ids[largest], distances[i], ids[i])) {
+                return;
+            }
+            swap(i, largest);
+            i = largest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        double d = distances[a];
+        distances[a] = distances[b];
+        distances[b] = d;
+    }
+}
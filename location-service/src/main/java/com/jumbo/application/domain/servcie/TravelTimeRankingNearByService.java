@@ -0,0 +1,173 @@
+package com.jumbo.application.domain.servcie;
+
+import com.jumbo.application.domain.model.RoadGraph;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.NearByUseCase;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Re-ranks the geometric top-N of another engine by travel time over a road graph.
+ * <p>
+ * The delegate is asked for {@code overfetch} times the requested number of stores; their travel times from the
+ * origin are computed with a one-to-many Dijkstra and the fastest {@code limit} are returned, each carrying its
+ * {@link Store#getTravelTimeSeconds() travel time}. Stores the graph cannot reach go last, in distance order.
+ * <p>
+ * Origins are bucketed into grid cells of {@code cellSizeMeters}: every query from a cell starts from the road
+ * node nearest to the cell centre, and the travel times found from that node are kept in a bounded LRU cache, so
+ * repeated searches from the same neighbourhood reuse earlier Dijkstra runs. The straight-line legs between the
+ * actual origin or store and their road nodes are added at {@link #ACCESS_SPEED_KMH}.
+ * <p>
+ * A re-ranked page is not a prefix of the distance order, so no continuation cursor is issued for it (see
+ * {@link #ordersByDistance()}); a cursor request still goes to the delegate unchanged.
+ */
+public class TravelTimeRankingNearByService implements NearByUseCase {
+
+    static final double ACCESS_SPEED_KMH = 15.0;
+    private static final double KM_PER_DEGREE = 111.195;
+
+    private final NearByUseCase delegate;
+    private final RoadGraph graph;
+    private final DistanceCalculator distanceCalculator;
+    private final int overfetch;
+    private final int maxCandidates;
+    private final double cellDegrees;
+    private final float maxSeconds;
+    private final Map<Long, OriginCell> cells;
+    private final Map<String, Integer> storeNodes = new ConcurrentHashMap<>();
+
+    public TravelTimeRankingNearByService(NearByUseCase delegate, RoadGraph graph,
+                                          DistanceCalculator distanceCalculator, int overfetch, int maxCandidates,
+                                          double cellSizeMeters, double maxTravelSeconds, int cacheSize) {
+        this.delegate = delegate;
+        this.graph = graph;
+        this.distanceCalculator = distanceCalculator;
+        this.overfetch = overfetch;
+        this.maxCandidates = maxCandidates;
+        this.cellDegrees = cellSizeMeters / 1000.0 / KM_PER_DEGREE;
+        this.maxSeconds = (float) maxTravelSeconds;
+        this.cells = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, OriginCell> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    @Override
+    public List<Store> findNearByStores(NearByRequest req, LocalTime now) {
+        if (req.after() != null) {
+            return delegate.findNearByStores(req, now);
+        }
+        int candidateCount = Math.max(req.limit(), Math.min(req.limit() * overfetch, maxCandidates));
+        List<Store> candidates = delegate.findNearByStores(new NearByRequest(req.latitude(), req.longitude(),
+                req.maxRadiusKm(), candidateCount, req.onlyOpen(), req.filter()), now);
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+
+        OriginCell cell = cell(req.latitude(), req.longitude());
+        if (cell.node < 0) {
+            // no road anywhere near the origin, keep the geometric order
+            return candidates.stream().limit(req.limit()).toList();
+        }
+        double originAccessSeconds = accessSeconds(req.latitude(), req.longitude(), cell.node);
+
+        int[] nodes = new int[candidates.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = storeNode(candidates.get(i));
+        }
+        float[] network = cell.travelTimes(graph, nodes, maxSeconds);
+
+        List<Store> ranked = new ArrayList<>(nodes.length);
+        for (int i = 0; i < nodes.length; i++) {
+            Store store = candidates.get(i);
+            ranked.add(store.withTravelTimeSeconds(Float.isInfinite(network[i]) ? null : (double) Math.round(
+                    originAccessSeconds + network[i] + accessSeconds(store.getLatitude(), store.getLongitude(),
+                            nodes[i]))));
+        }
+        ranked.sort(Comparator.comparing(Store::getTravelTimeSeconds, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparingDouble(Store::getDistance));
+        return ranked.subList(0, Math.min(req.limit(), ranked.size()));
+    }
+
+    // first pages are ranked by travel time, so they cannot be continued by distance
+    @Override
+    public boolean ordersByDistance() {
+        return false;
+    }
+
+    private OriginCell cell(double lat, double lon) {
+        long row = (long) Math.floor(lat / cellDegrees);
+        long column = (long) Math.floor(lon / cellDegrees);
+        long key = (row << 32) ^ column;
+        synchronized (cells) {
+            OriginCell cell = cells.get(key);
+            if (cell == null) {
+                cell = new OriginCell(graph.nearestNode((row + 0.5) * cellDegrees, (column + 0.5) * cellDegrees));
+                cells.put(key, cell);
+            }
+            return cell;
+        }
+    }
+
+    private int storeNode(Store store) {
+        if (store.getUuid() == null) {
+            return graph.nearestNode(store.getLatitude(), store.getLongitude());
+        }
+        return storeNodes.computeIfAbsent(store.getUuid(),
+                uuid -> graph.nearestNode(store.getLatitude(), store.getLongitude()));
+    }
+
+    private double accessSeconds(double lat, double lon, int node) {
+        if (node < 0) {
+            return 0;
+        }
+        double km = distanceCalculator.distanceInKm(lat, lon, graph.latitude(node), graph.longitude(node));
+        return km / ACCESS_SPEED_KMH * 3600.0;
+    }
+
+    /**
+     * Travel times from one origin node to every store node looked up so far.
+     */
+    private static final class OriginCell {
+        private final int node;
+        private final Map<Integer, Float> seconds = new HashMap<>();
+
+        OriginCell(int node) {
+            this.node = node;
+        }
+
+        synchronized float[] travelTimes(RoadGraph graph, int[] targets, float maxSeconds) {
+            int[] missing = new int[targets.length];
+            int missingCount = 0;
+            for (int target : targets) {
+                if (target >= 0 && !seconds.containsKey(target)) {
+                    missing[missingCount++] = target;
+                }
+            }
+            if (missingCount > 0) {
+                int[] lookup = Arrays.copyOf(missing, missingCount);
+                float[] found = graph.travelTimes(node, lookup, maxSeconds);
+                for (int i = 0; i < lookup.length; i++) {
+                    seconds.put(lookup[i], found[i]);
+                }
+            }
+
+            float[] result = new float[targets.length];
+            for (int i = 0; i < targets.length; i++) {
+                result[i] = targets[i] < 0 ? Float.POSITIVE_INFINITY : seconds.get(targets[i]);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.jumbo.application.domain.servcie;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.model.StoreCluster;
+import com.jumbo.application.domain.model.ViewportResult;
+import com.jumbo.application.port.in.TileRequest;
+import com.jumbo.application.port.in.TileUseCase;
+import com.jumbo.application.port.in.ViewportRequest;
+import com.jumbo.application.port.in.ViewportUseCase;
+import com.jumbo.common.geo.VectorTileEncoder;
+import com.jumbo.common.geo.WebMercator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Renders store layers as Mapbox Vector Tiles.
+ * <p>
+ * A tile holds exactly what the viewport query returns for its bounds: the {@code clusters} layer at low zoom and
+ * the {@code stores} layer once individual stores are shown. Features are assigned to the single tile containing
+ * them, so neighbouring tiles never draw a point twice. Encoded tiles are kept in a bounded LRU cache.
+ * <p>
+ * The store data is loaded once at startup and never changes while the instance runs, so cached tiles need no
+ * invalidation; new data arrives with a restart, and clients see it once the {@code max-age} the tile controller
+ * sends with every tile has passed.
+ */
+@Service
+public class VectorTileService implements TileUseCase {
+
+    private final ViewportUseCase viewportService;
+    private final Map<Long, byte[]> cache;
+
+    public VectorTileService(ViewportUseCase viewportService,
+                             @Value("${jumbo.location.tiles.cache-size:4096}") int cacheSize) {
+        this.viewportService = viewportService;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    @Override
+    public byte[] findTile(TileRequest req) {
+        long key = key(req);
+        synchronized (cache) {
+            byte[] tile = cache.get(key);
+            if (tile != null) {
+                return tile;
+            }
+        }
+
+        // rendered outside the lock; two threads missing on the same tile both render it, which is harmless
+        byte[] tile = render(req);
+        synchronized (cache) {
+            cache.put(key, tile);
+        }
+        return tile;
+    }
+
+    private byte[] render(TileRequest req) {
+        double tiles = 1 << req.z();
+        double west = WebMercator.longitude(req.x() / tiles);
+        double east = WebMercator.longitude((req.x() + 1) / tiles);
+        double north = WebMercator.latitude(req.y() / tiles);
+        double south = WebMercator.latitude((req.y() + 1) / tiles);
+        ViewportResult result = viewportService.findInBounds(new ViewportRequest(south, west, north, east, req.z()));
+
+        VectorTileEncoder encoder = new VectorTileEncoder();
+        VectorTileEncoder.Layer clusters = encoder.layer("clusters");
+        for (StoreCluster cluster : result.clusters()) {
+            addPoint(clusters, req, cluster.latitude(), cluster.longitude(), Map.of("count", cluster.count()));
+        }
+        VectorTileEncoder.Layer stores = encoder.layer("stores");
+        for (Store store : result.stores()) {
+            addPoint(stores, req, store.getLatitude(), store.getLongitude(), properties(store));
+        }
+        return encoder.encode();
+    }
+
+    private static void addPoint(VectorTileEncoder.Layer layer, TileRequest req, double lat, double lon,
+                                 Map<String, ?> properties) {
+        double tiles = 1 << req.z();
+        int x = (int) Math.floor((WebMercator.x(lon) * tiles - req.x()) * VectorTileEncoder.EXTENT);
+        int y = (int) Math.floor((WebMercator.y(lat) * tiles - req.y()) * VectorTileEncoder.EXTENT);
+        if (x >= 0 && x < VectorTileEncoder.EXTENT && y >= 0 && y < VectorTileEncoder.EXTENT) {
+            layer.addPoint(x, y, properties);
+        }
+    }
+
+    private static Map<String, Object> properties(Store store) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("uuid", store.getUuid());
+        properties.put("addressName", store.getAddressName());
+        properties.put("street", store.getStreet());
+        properties.put("postalCode", store.getPostalCode());
+        properties.put("city", store.getCity());
+        properties.put("locationType", store.getLocationType());
+        properties.put("collectionPoint", store.isCollectionPoint());
+        properties.put("todayOpen", format(store.getTodayOpen()));
+        properties.put("todayClose", format(store.getTodayClose()));
+        return properties;
+    }
+
+    private static String format(LocalTime time) {
+        return time == null ? null : time.toString();
+    }
+
+    private static long key(TileRequest req) {
+        return ((long) req.z() << 44) | ((long) req.x() << 22) | req.y();
+    }
+}
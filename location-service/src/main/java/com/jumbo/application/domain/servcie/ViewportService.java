@@ -0,0 +1,89 @@
+package com.jumbo.application.domain.servcie;
+
+import com.jumbo.application.domain.model.StoreCluster;
+import com.jumbo.application.domain.model.ViewportResult;
+import com.jumbo.application.port.in.ViewportRequest;
+import com.jumbo.application.port.in.ViewportUseCase;
+import com.jumbo.application.port.out.SpatialStoreIndex;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Answers map viewport queries. Up to {@code max-cluster-zoom} the viewport is summarised from the precomputed
+ * {@link ClusterPyramid}, so the response size depends on the number of grid cells on screen rather than on the
+ * number of stores. Beyond it individual stores are returned from the shared {@link SpatialStoreIndex}, falling back
+ * to clusters when a viewport would still contain more than {@code max-stores} stores.
+ * <p>
+ * {@code max-stores} bounds every response: cluster answers use the finest zoom level, up to the requested one, at
+ * which the viewport holds at most that many clusters, and stores are only materialised once the box query has
+ * shown that they fit.
+ */
+@Service
+@Slf4j
+public class ViewportService implements ViewportUseCase {
+
+    private final SpatialStoreIndex storeIndex;
+    private final int maxClusterZoom;
+    private final int maxStores;
+
+    private ClusterPyramid pyramid;
+
+    public ViewportService(SpatialStoreIndex storeIndex,
+                           @Value("${jumbo.location.viewport.max-cluster-zoom:12}") int maxClusterZoom,
+                           @Value("${jumbo.location.viewport.max-stores:500}") int maxStores) {
+        this.storeIndex = storeIndex;
+        this.maxClusterZoom = maxClusterZoom;
+        this.maxStores = maxStores;
+    }
+
+    @PostConstruct
+    public void init() {
+        long start = System.nanoTime();
+        pyramid = new ClusterPyramid(storeIndex, maxClusterZoom);
+        log.info("Built cluster pyramid for zoom 0-{} in {} ms ({} clusters at zoom {})", maxClusterZoom,
+                (System.nanoTime() - start) / 1_000_000, pyramid.clusterCount(maxClusterZoom), maxClusterZoom);
+    }
+
+    @Override
+    public ViewportResult findInBounds(ViewportRequest req) {
+        if (req.zoom() <= maxClusterZoom) {
+            return clusters(req.zoom(), req);
+        }
+
+        // one more than fits is enough to know that the viewport needs clusters
+        int[] ids = new int[maxStores + 1];
+        int[] count = {0};
+        storeIndex.findInBounds(req.minLatitude(), req.minLongitude(), req.maxLatitude(), req.maxLongitude(), null,
+                (id, latitude, longitude) -> {
+                    if (count[0] < ids.length) {
+                        ids[count[0]++] = id;
+                    }
+                });
+        if (count[0] > maxStores) {
+            return clusters(maxClusterZoom, req);
+        }
+        return ViewportResult.ofStores(req.zoom(), storeIndex.stores(Arrays.copyOf(ids, count[0])));
+    }
+
+    private ViewportResult clusters(int zoom, ViewportRequest req) {
+        List<StoreCluster> clusters = clustersIn(zoom, req);
+        while (clusters.size() > maxStores && zoom > 0) {
+            zoom--;
+            clusters = clustersIn(zoom, req);
+        }
+        return ViewportResult.ofClusters(zoom, clusters);
+    }
+
+    private List<StoreCluster> clustersIn(int zoom, ViewportRequest req) {
+        return pyramid.clustersIn(zoom, req.minLatitude(), req.minLongitude(), req.maxLatitude(), req.maxLongitude());
+    }
+
+    ClusterPyramid pyramid() {
+        return pyramid;
+    }
+}
@@ -0,0 +1,15 @@
+package com.jumbo.application.port.in;
+
+import com.jumbo.application.domain.model.ApproximateNearByResult;
+
+import java.time.LocalTime;
+
+public interface ApproximateNearByUseCase {
+
+    /**
+     * Nearby search that may stop once its stores are within {@code 1 + epsilon} of the exact distances.
+     *
+     * @param epsilon allowed relative error of the search; the returned bound adds the error of the distance formula
+     */
+    ApproximateNearByResult findNearByStores(NearByRequest req, double epsilon, LocalTime now);
+}
@@ -0,0 +1,35 @@
+package com.jumbo.application.port.in;
+
+import static com.jumbo.common.validation.Validation.validate;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "Stores to fetch by uuid and/or SAP store id")
+public record BatchGetRequest(
+
+        @Schema(description = "Store uuids", example = "[\"EOgKYx4XFiQAAAFJa_YYZ4At\"]")
+        @Size(max = 100, message = "At most 100 uuids per request")
+        List<String> uuids,
+
+        @Schema(description = "SAP store identifiers", example = "[\"3605\"]")
+        @Size(max = 100, message = "At most 100 SAP store ids per request")
+        List<String> sapStoreIds
+) {
+
+    public BatchGetRequest(List<String> uuids, List<String> sapStoreIds) {
+        this.uuids = uuids == null ? List.of() : uuids;
+        this.sapStoreIds = sapStoreIds == null ? List.of() : sapStoreIds;
+        if (!(this.uuids.size() <= 100 && this.sapStoreIds.size() <= 100 && isNotEmpty())) {
+            validate(this);
+        }
+    }
+
+    @AssertTrue(message = "At least one uuid or SAP store id is required")
+    public boolean isNotEmpty() {
+        return !uuids.isEmpty() || !sapStoreIds.isEmpty();
+    }
+}
@@ -0,0 +1,70 @@
+package com.jumbo.application.port.in;
+
+import static com.jumbo.common.validation.Validation.validate;
+
+import com.jumbo.common.geo.Polyline;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+
+@Schema(description = "Search for stores along a route")
+public record CorridorRequest(
+
+        @Schema(description = "Route as an encoded polyline (precision 5) of at most 10000 points", example = "_p~iF~ps|U_ulLnnqC_mqNvxq`@")
+        @NotBlank
+        String polyline,
+
+        @Schema(description = "Maximum distance from the route in kilometers", example = "2.0")
+        @DecimalMin(value = "0.1", message = "Buffer must be at least 0.1 km")
+        @DecimalMax(value = "50.0", message = "Buffer cannot exceed 50 km")
+        double bufferKm,
+
+        @Schema(description = "Maximum number of stores to return", example = "20")
+        @Min(value = 1, message = "Limit must be at least 1")
+        @Max(value = 500, message = "Limit cannot exceed 500")
+        int limit,
+
+        @Schema(description = "Ordering of the result, DETOUR (default) or ROUTE_POSITION")
+        Ranking rankBy,
+
+        @Schema(description = "Only return stores that are currently open", example = "false")
+        boolean onlyOpen
+) {
+
+    public enum Ranking {
+        /** Nearest to the route first, which is the shortest round trip from the route. */
+        DETOUR,
+        /** In the order the route passes them. */
+        ROUTE_POSITION
+    }
+
+    public static final int MAX_POINTS = 10_000;
+
+    public CorridorRequest(String polyline, double bufferKm, int limit, Ranking rankBy, boolean onlyOpen) {
+        this.polyline = polyline;
+        this.bufferKm = bufferKm;
+        this.limit = limit;
+        this.rankBy = rankBy == null ? Ranking.DETOUR : rankBy;
+        this.onlyOpen = onlyOpen;
+        if (!(bufferKm >= 0.1 && bufferKm <= 50.0
+                && limit >= 1 && limit <= 500
+                && isPolylineValid()
+                && isPolylineWithinLimit())) {
+            validate(this);
+        }
+    }
+
+    @AssertTrue(message = "polyline must be a valid encoded polyline")
+    public boolean isPolylineValid() {
+        return polyline == null || polyline.isBlank() || Polyline.isValid(polyline);
+    }
+
+    @AssertTrue(message = "polyline cannot have more than " + MAX_POINTS + " points")
+    public boolean isPolylineWithinLimit() {
+        return polyline == null || Polyline.size(polyline) <= MAX_POINTS;
+    }
+}
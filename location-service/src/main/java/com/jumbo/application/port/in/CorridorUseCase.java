@@ -0,0 +1,10 @@
+package com.jumbo.application.port.in;
+
+import com.jumbo.application.domain.model.RouteStop;
+
+import java.time.LocalTime;
+import java.util.List;
+
+public interface CorridorUseCase {
+    List<RouteStop> findAlongRoute(CorridorRequest req, LocalTime now);
+}
@@ -0,0 +1,19 @@
+package com.jumbo.application.port.in;
+
+import com.jumbo.application.domain.model.Store;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface NearByCursorUseCase {
+
+    /**
+     * @throws InvalidCursorException if the token is malformed or was issued for different store data
+     */
+    SearchCursor decode(String token);
+
+    /**
+     * Token for the page after {@code page}, empty when {@code page} was the last one.
+     */
+    Optional<String> nextCursor(NearByRequest req, List<Store> page);
+}
@@ -7,4 +7,11 @@ import java.util.List;
 
 public interface NearByUseCase {
     List<Store> findNearByStores(NearByRequest req, LocalTime now);
+
+    /**
+     * Whether results come in (distance, uuid) order, so that a page can be continued with a {@link SearchCursor}.
+     */
+    default boolean ordersByDistance() {
+        return true;
+    }
 }
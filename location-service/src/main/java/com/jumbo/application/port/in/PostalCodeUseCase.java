@@ -0,0 +1,12 @@
+package com.jumbo.application.port.in;
+
+import com.jumbo.application.domain.model.PostalCodeCentroid;
+
+import java.util.Optional;
+
+public interface PostalCodeUseCase {
+    /**
+     * Centroid of the given postal code, falling back to its PC4 area when the full code is unknown.
+     */
+    Optional<PostalCodeCentroid> locate(String postalCode);
+}
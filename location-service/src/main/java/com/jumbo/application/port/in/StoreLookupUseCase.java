@@ -0,0 +1,15 @@
+package com.jumbo.application.port.in;
+
+import com.jumbo.application.domain.model.BatchGetResult;
+import com.jumbo.application.domain.model.Store;
+
+import java.util.Optional;
+
+public interface StoreLookupUseCase {
+
+    Optional<Store> findByUuid(String uuid);
+
+    Optional<Store> findBySapStoreId(String sapStoreId);
+
+    BatchGetResult batchGet(BatchGetRequest request);
+}
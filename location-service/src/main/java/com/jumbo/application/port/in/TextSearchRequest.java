@@ -0,0 +1,63 @@
+package com.jumbo.application.port.in;
+
+import static com.jumbo.common.validation.Validation.validate;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.util.regex.Pattern;
+
+public record TextSearchRequest(
+
+        @NotBlank
+        @Size(max = 100)
+        String query,
+
+        @DecimalMin(value = "-90.0")
+        @DecimalMax(value = "90.0")
+        Double latitude,
+
+        @DecimalMin(value = "-180.0")
+        @DecimalMax(value = "180.0")
+        Double longitude,
+
+        @Min(1) @Max(50) int limit
+) {
+
+    // two letters or digits in a row, the shortest prefix the text index searches with
+    private static final Pattern PREFIX = Pattern.compile("[\\p{L}\\p{N}]{2}");
+
+    public TextSearchRequest(String query, Double latitude, Double longitude, int limit) {
+        this.query = query;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.limit = limit;
+        if (!(query != null && !query.isBlank() && query.length() <= 100
+                && (latitude == null || (latitude >= -90.0 && latitude <= 90.0))
+                && (longitude == null || (longitude >= -180.0 && longitude <= 180.0))
+                && isLocationComplete()
+                && isQuerySpecific()
+                && limit >= 1 && limit <= 50)) {
+            validate(this);
+        }
+    }
+
+    @AssertTrue(message = "latitude and longitude must be given together")
+    public boolean isLocationComplete() {
+        return (latitude == null) == (longitude == null);
+    }
+
+    @AssertTrue(message = "query must contain a word of at least 2 characters")
+    public boolean isQuerySpecific() {
+        return query == null || query.isBlank() || PREFIX.matcher(query).find();
+    }
+
+    public boolean hasLocation() {
+        return latitude != null && longitude != null;
+    }
+}
@@ -0,0 +1,9 @@
+package com.jumbo.application.port.in;
+
+import com.jumbo.application.domain.model.Store;
+
+import java.util.List;
+
+public interface TextSearchUseCase {
+    List<Store> search(TextSearchRequest req);
+}
@@ -0,0 +1,36 @@
+package com.jumbo.application.port.in;
+
+import static com.jumbo.common.validation.Validation.validate;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+
+public record TileRequest(
+
+        @Min(0) @Max(22) int z,
+
+        @Min(0) int x,
+
+        @Min(0) int y
+) {
+
+    public TileRequest(int z, int x, int y) {
+        this.z = z;
+        this.x = x;
+        this.y = y;
+        if (!(z >= 0 && z <= 22 && isInsideGrid())) {
+            validate(this);
+        }
+    }
+
+    @AssertTrue(message = "x and y must be between 0 and 2^z - 1")
+    public boolean isInsideGrid() {
+        if (z < 0 || z > 22) {
+            return true; // reported by the zoom constraint
+        }
+        int tiles = 1 << z;
+        return x >= 0 && x < tiles && y >= 0 && y < tiles;
+    }
+}
@@ -0,0 +1,8 @@
+package com.jumbo.application.port.in;
+
+public interface TileUseCase {
+    /**
+     * Mapbox Vector Tile for the given slippy map tile, encoded as protobuf.
+     */
+    byte[] findTile(TileRequest req);
+}
@@ -0,0 +1,51 @@
+package com.jumbo.application.port.in;
+
+import static com.jumbo.common.validation.Validation.validate;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+
+public record ViewportRequest(
+
+        @DecimalMin(value = "-90.0")
+        @DecimalMax(value = "90.0")
+        double minLatitude,
+
+        @DecimalMin(value = "-180.0")
+        @DecimalMax(value = "180.0")
+        double minLongitude,
+
+        @DecimalMin(value = "-90.0")
+        @DecimalMax(value = "90.0")
+        double maxLatitude,
+
+        @DecimalMin(value = "-180.0")
+        @DecimalMax(value = "180.0")
+        double maxLongitude,
+
+        @Min(0) @Max(22) int zoom
+) {
+
+    public ViewportRequest(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude, int zoom) {
+        this.minLatitude = minLatitude;
+        this.minLongitude = minLongitude;
+        this.maxLatitude = maxLatitude;
+        this.maxLongitude = maxLongitude;
+        this.zoom = zoom;
+        // same approach as NearByRequest: the reflective validator only runs to report invalid input
+        if (!(minLatitude >= -90.0 && maxLatitude <= 90.0 && minLatitude <= maxLatitude
+                && minLongitude >= -180.0 && maxLongitude <= 180.0 && minLongitude <= maxLongitude
+                && zoom >= 0 && zoom <= 22)) {
+            validate(this);
+        }
+    }
+
+    @AssertTrue(message = "minLatitude must not exceed maxLatitude and minLongitude must not exceed maxLongitude")
+    public boolean isOrdered() {
+        return minLatitude <= maxLatitude && minLongitude <= maxLongitude;
+    }
+}
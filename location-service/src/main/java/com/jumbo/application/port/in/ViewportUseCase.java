@@ -0,0 +1,7 @@
+package com.jumbo.application.port.in;
+
+import com.jumbo.application.domain.model.ViewportResult;
+
+public interface ViewportUseCase {
+    ViewportResult findInBounds(ViewportRequest req);
+}
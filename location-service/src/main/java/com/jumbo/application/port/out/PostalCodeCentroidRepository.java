@@ -0,0 +1,13 @@
+package com.jumbo.application.port.out;
+
+import com.jumbo.application.domain.model.PostalCodeCentroid;
+
+import java.io.IOException;
+import java.util.List;
+
+public interface PostalCodeCentroidRepository {
+    /**
+     * Externally sourced postal code centroids, empty when none are configured.
+     */
+    List<PostalCodeCentroid> findAll() throws IOException;
+}
@@ -0,0 +1,13 @@
+package com.jumbo.application.port.out;
+
+import com.jumbo.application.domain.model.RoadGraph;
+
+import java.io.IOException;
+import java.util.Optional;
+
+public interface RoadGraphRepository {
+    /**
+     * The road graph used for travel-time ranking, or empty when none is configured.
+     */
+    Optional<RoadGraph> load() throws IOException;
+}
@@ -0,0 +1,24 @@
+package com.jumbo.application.port.out;
+
+import com.jumbo.application.domain.model.ShardRegion;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.NearByRequest;
+
+import java.util.List;
+
+/**
+ * One location-service shard, usually another instance reached over the network.
+ */
+public interface ShardClient {
+
+    String id();
+
+    ShardRegion region();
+
+    /**
+     * The shard's own nearest stores for {@code req}, without fanning out any further.
+     *
+     * @throws ShardUnavailableException if the shard cannot be reached or fails
+     */
+    List<Store> findNearByStores(NearByRequest req);
+}
@@ -0,0 +1,10 @@
+package com.jumbo.application.port.out;
+
+import java.util.List;
+
+/**
+ * Shards currently registered, each with the region it owns.
+ */
+public interface ShardRegistry {
+    List<ShardClient> shards();
+}
@@ -0,0 +1,8 @@
+package com.jumbo.application.port.out;
+
+public class ShardUnavailableException extends RuntimeException {
+
+    public ShardUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,31 @@
+package com.jumbo.application.port.out;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Key-value store shared by all instances of the service, used as the second cache level behind each instance's
+ * own memory. Values are opaque bytes; every entry expires after the time it was written with. Implementations may
+ * fail with any runtime exception when the store is unreachable, callers treat that as a miss.
+ */
+public interface SharedResultCache {
+
+    Optional<byte[]> get(String key);
+
+    void put(String key, byte[] value, Duration ttl);
+
+    /**
+     * Claims {@code key} for the caller unless another caller holds it; claims are separate from the values stored
+     * under the same key. The claim is released by {@link #unlock(String, String)} or expires after {@code ttl}, so a
+     * crashed holder cannot block others for long.
+     *
+     * @return the token of the caller's claim, or empty when another caller holds it
+     */
+    Optional<String> tryLock(String key, Duration ttl);
+
+    /**
+     * Releases the claim on {@code key} if it is still the one {@code token} was issued for. A claim that expired and
+     * was taken by another caller in the meantime is left alone.
+     */
+    void unlock(String key, String token);
+}
@@ -0,0 +1,66 @@
+package com.jumbo.application.port.out;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.StoreFilter;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Store data behind a spatial index that evaluates bounding-box queries itself, so a search only ever sees the
+ * stores inside its box instead of the whole data set. Every storage mode provides one, next to its
+ * {@link StoreRepository}. Rows are addressed by a stable id; {@link #stores(int...)} materialises {@link Store}s and
+ * should only be called for rows that are returned to callers.
+ */
+public interface SpatialStoreIndex {
+
+    int BATCH_SIZE = 1024;
+
+    @FunctionalInterface
+    interface LocationConsumer {
+        void accept(int id, double latitude, double longitude);
+    }
+
+    @FunctionalInterface
+    interface StoreConsumer {
+        void accept(int id, Store store);
+    }
+
+    /**
+     * Passes every store inside the box that matches {@code filter} to {@code consumer}, or with {@code openAt} only
+     * the stores open at that time. The filter is evaluated by the index, so stores that do not match never reach the
+     * consumer.
+     */
+    void findInBounds(double minLat, double minLon, double maxLat, double maxLon, LocalTime openAt,
+                      StoreFilter filter, LocationConsumer consumer);
+
+    default void findInBounds(double minLat, double minLon, double maxLat, double maxLon, LocalTime openAt,
+                              LocationConsumer consumer) {
+        findInBounds(minLat, minLon, maxLat, maxLon, openAt, StoreFilter.NONE, consumer);
+    }
+
+    /**
+     * @return the stores with the given ids, in the same order
+     */
+    List<Store> stores(int... ids);
+
+    /**
+     * Passes every store with its id to {@code consumer}, in id order, for the lookup structures that are built once
+     * at startup. Stores are materialised {@value #BATCH_SIZE} at a time, so only the ids and the current batch are
+     * held, however the storage keeps them.
+     */
+    default void forEachStore(StoreConsumer consumer) {
+        IntStream.Builder all = IntStream.builder();
+        findInBounds(-90, -180, 90, 180, null, (id, latitude, longitude) -> all.add(id));
+        int[] ids = all.build().sorted().toArray();
+        for (int from = 0; from < ids.length; from += BATCH_SIZE) {
+            int[] batch = Arrays.copyOfRange(ids, from, Math.min(from + BATCH_SIZE, ids.length));
+            List<Store> stores = stores(batch);
+            for (int i = 0; i < batch.length; i++) {
+                consumer.accept(batch[i], stores.get(i));
+            }
+        }
+    }
+}
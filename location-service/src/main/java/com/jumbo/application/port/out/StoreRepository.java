@@ -7,4 +7,13 @@ import java.util.List;
 
 public interface StoreRepository {
     List<Store> findAll() throws IOException;
+
+    /**
+     * Fingerprint of the loaded store data, the checksum of the data file: it changes whenever different data is
+     * loaded and is the same on every instance and after every restart serving the same file, so tokens and cache
+     * entries derived from the data can be checked against it.
+     */
+    default long fingerprint() {
+        return 0;
+    }
 }
@@ -0,0 +1,22 @@
+package com.jumbo.application.port.out;
+
+import com.jumbo.application.domain.model.Store;
+
+import java.time.LocalTime;
+
+/**
+ * Row-oriented read access to a columnar store data set. Rows are addressed by a dense index in {@code [0, size())};
+ * {@link #store(int)} materialises a {@link Store} and should only be called for rows that are returned to callers.
+ */
+public interface StoreTable {
+
+    int size();
+
+    double latitude(int row);
+
+    double longitude(int row);
+
+    boolean isOpen(int row, LocalTime now);
+
+    Store store(int row);
+}
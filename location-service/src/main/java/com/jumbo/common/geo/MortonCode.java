@@ -0,0 +1,44 @@
+package com.jumbo.common.geo;
+
+/**
+ * Z-order (Morton) keys for geographic coordinates. Sorting stores by this key keeps stores that are close on the
+ * map close in memory, which is what the packed store layouts rely on for cache locality.
+ */
+public final class MortonCode {
+
+    private static final int BITS = 31;
+    private static final double SCALE = (1L << BITS) - 1;
+
+    private MortonCode() {
+    }
+
+    /**
+     * Interleaves 31 quantised bits of latitude and longitude into a non-negative key.
+     */
+    public static long encode(double latitude, double longitude) {
+        long y = quantise(latitude, -90.0, 180.0);
+        long x = quantise(longitude, -180.0, 360.0);
+        return (spread(y) << 1) | spread(x);
+    }
+
+    private static long quantise(double value, double min, double range) {
+        double normalised = (value - min) / range;
+        if (normalised < 0) {
+            normalised = 0;
+        } else if (normalised > 1) {
+            normalised = 1;
+        }
+        return (long) (normalised * SCALE);
+    }
+
+    // spreads the lower 32 bits of v so that there is a zero bit between each of them
+    private static long spread(long v) {
+        v &= 0xFFFFFFFFL;
+        v = (v | (v << 16)) & 0x0000FFFF0000FFFFL;
+        v = (v | (v << 8)) & 0x00FF00FF00FF00FFL;
+        v = (v | (v << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | (v << 2)) & 0x3333333333333333L;
+        v = (v | (v << 1)) & 0x5555555555555555L;
+        return v;
+    }
+}
@@ -0,0 +1,113 @@
+package com.jumbo.common.geo;
+
+import java.util.Arrays;
+
+/**
+ * Decoder for the Encoded Polyline Algorithm Format used by the Google and OSRM routing APIs (precision 5).
+ */
+public final class Polyline {
+
+    private static final double PRECISION = 1e5;
+
+    private Polyline() {
+    }
+
+    /**
+     * Decodes {@code encoded} into alternating latitude/longitude values: {@code [lat0, lon0, lat1, lon1, ...]}.
+     *
+     * @throws IllegalArgumentException if the string is not a valid encoded polyline
+     */
+    public static double[] decode(String encoded) {
+        double[] points = new double[Math.max(2, encoded.length())];
+        int size = 0;
+        int index = 0;
+        long lat = 0;
+        long lon = 0;
+        while (index < encoded.length()) {
+            long[] delta = new long[2];
+            for (int axis = 0; axis < 2; axis++) {
+                long result = 0;
+                int shift = 0;
+                int b;
+                do {
+                    if (index >= encoded.length() || shift > 30) {
+                        throw new IllegalArgumentException("Truncated or malformed encoded polyline");
+                    }
+                    b = encoded.charAt(index++) - 63;
+                    if (b < 0 || b > 63) {
+                        throw new IllegalArgumentException("Invalid character in encoded polyline at " + (index - 1));
+                    }
+                    result |= (long) (b & 0x1F) << shift;
+                    shift += 5;
+                } while (b >= 0x20);
+                delta[axis] = (result & 1) != 0 ? ~(result >> 1) : result >> 1;
+            }
+            lat += delta[0];
+            lon += delta[1];
+            if (size + 2 > points.length) {
+                points = Arrays.copyOf(points, points.length * 2);
+            }
+            points[size++] = lat / PRECISION;
+            points[size++] = lon / PRECISION;
+        }
+        return Arrays.copyOf(points, size);
+    }
+
+    /**
+     * Encodes alternating latitude/longitude values, the inverse of {@link #decode(String)}.
+     */
+    public static String encode(double... latLon) {
+        StringBuilder out = new StringBuilder(latLon.length * 4);
+        long previousLat = 0;
+        long previousLon = 0;
+        for (int i = 0; i + 1 < latLon.length; i += 2) {
+            long lat = Math.round(latLon[i] * PRECISION);
+            long lon = Math.round(latLon[i + 1] * PRECISION);
+            encodeValue(lat - previousLat, out);
+            encodeValue(lon - previousLon, out);
+            previousLat = lat;
+            previousLon = lon;
+        }
+        return out.toString();
+    }
+
+    /**
+     * Number of points in {@code encoded}, counted from the value terminators without decoding it. Malformed input
+     * gives a count that {@link #decode(String)} may reject.
+     */
+    public static int size(String encoded) {
+        int values = 0;
+        for (int i = 0; i < encoded.length(); i++) {
+            if (encoded.charAt(i) - 63 < 0x20) {
+                values++;
+            }
+        }
+        return (values + 1) / 2;
+    }
+
+    public static boolean isValid(String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return false;
+        }
+        try {
+            double[] points = decode(encoded);
+            for (int i = 0; i < points.length; i += 2) {
+                if (Math.abs(points[i]) > 90 || Math.abs(points[i + 1]) > 180) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static void encodeValue(long value, StringBuilder out) {
+        long v = value < 0 ? ~(value << 1) : value << 1;
+        while (v >= 0x20) {
+            out.append((char) ((0x20 | (v & 0x1F)) + 63));
+            v >>= 5;
+        }
+        out.append((char) (v + 63));
+    }
+}
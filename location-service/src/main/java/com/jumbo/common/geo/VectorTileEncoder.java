@@ -0,0 +1,174 @@
+package com.jumbo.common.geo;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal Mapbox Vector Tile (v2.1) writer for point layers.
+ * <p>
+ * Only what the store layers need is supported: {@code POINT} features with string, boolean, integer and double
+ * properties. Keys and values are deduplicated per layer as the specification recommends. Point coordinates are
+ * given in tile space, {@code 0..EXTENT} on both axes with {@code y} growing downwards.
+ */
+public final class VectorTileEncoder {
+
+    public static final int EXTENT = 4096;
+
+    private static final int VERSION = 2;
+    private static final int POINT = 1;
+    private static final int MOVE_TO = 1;
+
+    private final List<Layer> layers = new ArrayList<>();
+
+    public Layer layer(String name) {
+        Layer layer = new Layer(name);
+        layers.add(layer);
+        return layer;
+    }
+
+    public byte[] encode() {
+        ProtoWriter tile = new ProtoWriter();
+        for (Layer layer : layers) {
+            if (!layer.features.isEmpty()) {
+                tile.writeMessage(3, layer.encode());
+            }
+        }
+        return tile.toByteArray();
+    }
+
+    public static final class Layer {
+        private final String name;
+        private final Map<String, Integer> keys = new LinkedHashMap<>();
+        private final Map<Object, Integer> values = new LinkedHashMap<>();
+        private final List<byte[]> features = new ArrayList<>();
+
+        private Layer(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Adds a point feature; properties with a {@code null} value are left out.
+         */
+        public Layer addPoint(int x, int y, Map<String, ?> properties) {
+            List<Integer> tags = new ArrayList<>(properties.size() * 2);
+            for (Map.Entry<String, ?> property : properties.entrySet()) {
+                if (property.getValue() == null) {
+                    continue;
+                }
+                tags.add(keys.computeIfAbsent(property.getKey(), k -> keys.size()));
+                tags.add(values.computeIfAbsent(property.getValue(), v -> values.size()));
+            }
+
+            ProtoWriter feature = new ProtoWriter();
+            if (!tags.isEmpty()) {
+                feature.writePacked(2, tags.stream().mapToLong(Integer::longValue).toArray());
+            }
+            feature.writeVarint(3, POINT);
+            feature.writePacked(4, new long[]{command(MOVE_TO, 1), zigZag(x), zigZag(y)});
+            features.add(feature.toByteArray());
+            return this;
+        }
+
+        public int size() {
+            return features.size();
+        }
+
+        private byte[] encode() {
+            ProtoWriter layer = new ProtoWriter();
+            layer.writeVarint(15, VERSION);
+            layer.writeString(1, name);
+            for (byte[] feature : features) {
+                layer.writeMessage(2, feature);
+            }
+            for (String key : keys.keySet()) {
+                layer.writeString(3, key);
+            }
+            for (Object value : values.keySet()) {
+                layer.writeMessage(4, encodeValue(value));
+            }
+            layer.writeVarint(5, EXTENT);
+            return layer.toByteArray();
+        }
+
+        private static byte[] encodeValue(Object value) {
+            ProtoWriter writer = new ProtoWriter();
+            switch (value) {
+                case String s -> writer.writeString(1, s);
+                case Double d -> writer.writeDouble(3, d);
+                case Float f -> writer.writeDouble(3, f);
+                case Boolean b -> writer.writeVarint(7, b ? 1 : 0);
+                case Number n when n.longValue() >= 0 -> writer.writeVarint(5, n.longValue());
+                case Number n -> writer.writeVarint(6, zigZag(n.longValue()));
+                default -> writer.writeString(1, value.toString());
+            }
+            return writer.toByteArray();
+        }
+    }
+
+    private static long command(int id, int count) {
+        return (id & 0x7) | ((long) count << 3);
+    }
+
+    private static long zigZag(long n) {
+        return (n << 1) ^ (n >> 63);
+    }
+
+    private static final class ProtoWriter {
+        private static final int VARINT = 0;
+        private static final int FIXED64 = 1;
+        private static final int LENGTH_DELIMITED = 2;
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        void writeVarint(int field, long value) {
+            tag(field, VARINT);
+            varint(value);
+        }
+
+        void writeDouble(int field, double value) {
+            tag(field, FIXED64);
+            long bits = Double.doubleToLongBits(value);
+            for (int i = 0; i < 8; i++) {
+                out.write((int) (bits >>> (i * 8)));
+            }
+        }
+
+        void writeString(int field, String value) {
+            writeMessage(field, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void writeMessage(int field, byte[] bytes) {
+            tag(field, LENGTH_DELIMITED);
+            varint(bytes.length);
+            out.writeBytes(bytes);
+        }
+
+        void writePacked(int field, long[] values) {
+            ProtoWriter packed = new ProtoWriter();
+            for (long value : values) {
+                packed.varint(value);
+            }
+            writeMessage(field, packed.toByteArray());
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+
+        private void tag(int field, int wireType) {
+            varint(((long) field << 3) | wireType);
+        }
+
+        private void varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.jumbo.common.geo;
+
+/**
+ * Web Mercator (EPSG:3857) helpers in normalised world coordinates: {@code x} and {@code y} run from 0 to 1, with
+ * {@code y} growing southwards as in slippy map tiles. A tile or grid cell at zoom {@code z} with {@code n} cells
+ * per tile spans {@code 1 / (2^z * n)} of the world on each axis.
+ */
+public final class WebMercator {
+
+    public static final double MAX_LATITUDE = 85.0511287798;
+
+    private WebMercator() {
+    }
+
+    public static double x(double longitude) {
+        return (longitude + 180.0) / 360.0;
+    }
+
+    public static double y(double latitude) {
+        double lat = Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude)));
+        return (1.0 - Math.log(Math.tan(lat) + 1.0 / Math.cos(lat)) / Math.PI) / 2.0;
+    }
+
+    public static double longitude(double x) {
+        return x * 360.0 - 180.0;
+    }
+
+    public static double latitude(double y) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1.0 - 2.0 * y))));
+    }
+
+    /**
+     * Index of the cell containing normalised coordinate {@code v} on a grid of {@code cells} cells per axis.
+     */
+    public static int cell(double v, int cells) {
+        return Math.max(0, Math.min(cells - 1, (int) Math.floor(v * cells)));
+    }
+}
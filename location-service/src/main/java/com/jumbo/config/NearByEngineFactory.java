@@ -0,0 +1,234 @@
+package com.jumbo.config;
+
+import com.jumbo.application.domain.model.RoadGraph;
+import com.jumbo.application.domain.servcie.AdaptiveNearByService;
+import com.jumbo.application.domain.servcie.ColumnarNearByService;
+import com.jumbo.application.domain.servcie.DelaunayNearByService;
+import com.jumbo.application.domain.servcie.DistanceCalculator;
+import com.jumbo.application.domain.servcie.FilteredNearByService;
+import com.jumbo.application.domain.servcie.InMemNearByStore;
+import com.jumbo.application.domain.servcie.IndexedNearByService;
+import com.jumbo.application.domain.servcie.PackedArrayNearByService;
+import com.jumbo.application.domain.servcie.ParallelScanNearByService;
+import com.jumbo.application.domain.servcie.PrecomputedCellNearByService;
+import com.jumbo.application.domain.servcie.QuadTreeNearByService;
+import com.jumbo.application.domain.servcie.TravelTimeRankingNearByService;
+import com.jumbo.application.port.in.NearByUseCase;
+import com.jumbo.application.port.out.RoadGraphRepository;
+import com.jumbo.application.port.out.StoreRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Assembles the local search engine from the {@code jumbo.location.search.*} and {@code jumbo.location.routing.*}
+ * settings: the configured strategy (or the adaptive router over all of them), the index search for filtered and
+ * paged queries in front of it and, with a road graph, travel-time re-ranking on top.
+ * <p>
+ * Which strategies exist depends on {@code jumbo.location.stores.storage}: the engines that copy the stores onto the
+ * heap are only created with heap storage without a snapshot file, so off-heap and sqlite storage and a mapped
+ * snapshot never materialise the full store list. Without a configured strategy, each storage mode gets the engine
+ * that searches it in place.
+ * <p>
+ * Settings are read from the {@link Environment} on every {@link #build()}, so a rebuild after a configuration
+ * refresh picks up the new values. The strategy engines themselves are singletons that keep their indexes and stay
+ * warm across rebuilds; only the layers around them are created anew.
+ */
+@Component
+@Slf4j
+public class NearByEngineFactory {
+
+    static final String ADAPTIVE = "adaptive";
+    private static final String HEAP = "heap";
+    private static final String OFF_HEAP = "off-heap";
+    private static final String SQLITE = "sqlite";
+    // heap storage with a snapshot file, which is searched in place instead of being copied onto the heap
+    private static final String SNAPSHOT = "snapshot";
+    // engines that copy every store onto the heap at startup, so they are not created with the other storage modes
+    private static final Set<String> HEAP_ONLY = Set.of("in-memory", "quadtree", "packed", "parallel", "delaunay",
+            "precomputed");
+    private static final String HEAP_ONLY_HINT = " needs jumbo.location.stores.storage=heap without a snapshot-file)";
+
+    private final Map<String, NearByUseCase> engines = new LinkedHashMap<>();
+    // not the factory's own monitor, which mocks and callers waiting on the factory could hold
+    private final Object buildLock = new Object();
+    private final QuadTreeNearByService quadTreeNearByService;
+    private final ParallelScanNearByService parallelScanNearByService;
+    private final StoreRepository storeRepository;
+    private final IndexedNearByService indexedNearByService;
+    private final RoadGraphRepository roadGraphRepository;
+    private final DistanceCalculator distanceCalculator;
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+    private Optional<RoadGraph> roadGraph;
+
+    public NearByEngineFactory(ObjectProvider<InMemNearByStore> inMemNearByStore,
+                               ObjectProvider<QuadTreeNearByService> quadTreeNearByService,
+                               ObjectProvider<PackedArrayNearByService> packedArrayNearByService,
+                               ObjectProvider<ParallelScanNearByService> parallelScanNearByService,
+                               ObjectProvider<DelaunayNearByService> delaunayNearByService,
+                               ObjectProvider<ColumnarNearByService> columnarNearByService,
+                               ObjectProvider<PrecomputedCellNearByService> precomputedCellNearByService,
+                               IndexedNearByService indexedNearByService,
+                               StoreRepository storeRepository,
+                               RoadGraphRepository roadGraphRepository,
+                               DistanceCalculator distanceCalculator,
+                               MeterRegistry meterRegistry,
+                               Environment environment) {
+        // the heap-resident engines only exist with heap storage, see HEAP_ONLY
+        inMemNearByStore.ifAvailable(inMem -> engines.put("in-memory", inMem));
+        this.quadTreeNearByService = quadTreeNearByService.getIfAvailable();
+        if (this.quadTreeNearByService != null) {
+            engines.put("quadtree", this.quadTreeNearByService);
+        }
+        packedArrayNearByService.ifAvailable(packed -> engines.put("packed", packed));
+        this.parallelScanNearByService = parallelScanNearByService.getIfAvailable();
+        if (this.parallelScanNearByService != null) {
+            engines.put("parallel", this.parallelScanNearByService);
+        }
+        delaunayNearByService.ifAvailable(delaunay -> engines.put("delaunay", delaunay));
+        columnarNearByService.ifAvailable(columnar -> engines.put("columnar", columnar));
+        precomputedCellNearByService.ifAvailable(precomputed -> engines.put("precomputed", precomputed));
+        // every storage mode has a spatial index, but it is only a strategy of its own where it is the in-place
+        // search: the sqlite database and a mapped snapshot
+        String storage = storage(environment);
+        if (SQLITE.equals(storage) || SNAPSHOT.equals(storage)) {
+            engines.put("database", indexedNearByService);
+        }
+        this.indexedNearByService = indexedNearByService;
+        this.storeRepository = storeRepository;
+        this.roadGraphRepository = roadGraphRepository;
+        this.distanceCalculator = distanceCalculator;
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+    }
+
+    /**
+     * @param settings the strategy and the other settings that change the engine's results, for result caches
+     */
+    public record Engine(String strategy, String settings, NearByUseCase engine) {
+    }
+
+    /**
+     * Names accepted for {@code jumbo.location.search.strategy} after normalisation.
+     */
+    public Set<String> strategies() {
+        Set<String> strategies = new LinkedHashSet<>(engines.keySet());
+        strategies.add(ADAPTIVE);
+        return strategies;
+    }
+
+    /**
+     * @throws IllegalStateException if the configured strategy is unknown
+     */
+    public Engine build() throws Exception {
+        synchronized (buildLock) {
+            return buildEngine();
+        }
+    }
+
+    private Engine buildEngine() throws Exception {
+        Map<String, NearByUseCase> available = configuredEngines();
+        String searchStrategy = environment.getProperty("jumbo.location.search.strategy", "");
+        if (searchStrategy.isBlank()) {
+            searchStrategy = defaultStrategy(storage(environment));
+        }
+        String strategy = switch (searchStrategy.toLowerCase()) {
+            case "inmemory" -> "in-memory";
+            case "quad-tree" -> "quadtree";
+            default -> searchStrategy.toLowerCase();
+        };
+
+        NearByUseCase engine;
+        if (strategy.equals(ADAPTIVE)) {
+            if (available.size() < 2) {
+                throw new IllegalStateException("Adaptive routing needs at least two search strategies, "
+                        + storage(environment) + " storage only offers " + available.keySet());
+            }
+            log.info("Using Adaptive routing between {}", available.keySet());
+            AdaptiveNearByService adaptive = new AdaptiveNearByService(available, storeRepository, meterRegistry,
+                    environment.getProperty("jumbo.location.search.adaptive.exploration-rate", Double.class, 0.05));
+            adaptive.init();
+            engine = adaptive;
+        } else {
+            engine = available.get(strategy);
+            if (engine == null) {
+                String hint = switch (strategy) {
+                    case "columnar" -> " (columnar needs jumbo.location.stores.storage=off-heap)";
+                    case "database" -> " (database needs jumbo.location.stores.storage=sqlite or a snapshot-file)";
+                    case "precomputed", "delaunay" -> HEAP.equals(storage(environment))
+                            ? " (" + strategy + " needs jumbo.location.search." + strategy + ".enabled=true)"
+                            : " (" + strategy + HEAP_ONLY_HINT;
+                    default -> HEAP_ONLY.contains(strategy) ? " (" + strategy + HEAP_ONLY_HINT : "";
+                };
+                throw new IllegalStateException("Unknown search strategy '" + searchStrategy + "'" + hint
+                        + ", expected one of " + available.keySet() + " or adaptive");
+            }
+            log.info("Using {} search strategy", strategy);
+        }
+
+        engine = new FilteredNearByService(engine, indexedNearByService);
+        String settings = strategy;
+
+        // the graph file is fixed at startup, only the ranking parameters are refreshable
+        if (roadGraph == null) {
+            roadGraph = roadGraphRepository.load();
+        }
+        if (roadGraph.isPresent()) {
+            int overfetch = environment.getProperty("jumbo.location.routing.overfetch", Integer.class, 3);
+            int maxCandidates = environment.getProperty("jumbo.location.routing.max-candidates", Integer.class, 50);
+            double cellSizeMeters = environment.getProperty("jumbo.location.routing.cell-size-meters", Double.class,
+                    250.0);
+            long maxTravelTimeSeconds = environment.getProperty("jumbo.location.routing.max-travel-time",
+                    Duration.class, Duration.ofHours(1)).toSeconds();
+            log.info("Re-ranking the {}x nearest stores by road travel time", overfetch);
+            engine = new TravelTimeRankingNearByService(engine, roadGraph.get(), distanceCalculator, overfetch,
+                    maxCandidates, cellSizeMeters, maxTravelTimeSeconds,
+                    environment.getProperty("jumbo.location.routing.cache-size", Integer.class, 10000));
+            // the cache size only affects speed
+            settings += ";routing=" + roadGraph.get().nodeCount() + ',' + roadGraph.get().edgeCount() + ','
+                    + overfetch + ',' + maxCandidates + ',' + cellSizeMeters + ',' + maxTravelTimeSeconds;
+        }
+        return new Engine(strategy, settings, engine);
+    }
+
+    // the singleton engines with this build's settings applied to the views that have any
+    private Map<String, NearByUseCase> configuredEngines() {
+        Map<String, NearByUseCase> configured = new LinkedHashMap<>(engines);
+        double initialRadiusKm = environment.getProperty("jumbo.location.search.quadtree.initial-radius-km",
+                Double.class, 1.0);
+        if (quadTreeNearByService != null) {
+            configured.put("quadtree", quadTreeNearByService.startingAt(initialRadiusKm));
+        }
+        // the parallel engine falls back to the quadtree and estimates its cost from the same first envelope
+        if (parallelScanNearByService != null) {
+            configured.put("parallel", parallelScanNearByService.startingAt(initialRadiusKm));
+        }
+        return configured;
+    }
+
+    // the engine that searches each storage mode without copying it onto the heap
+    private static String defaultStrategy(String storage) {
+        return switch (storage) {
+            case OFF_HEAP -> "columnar";
+            case SQLITE, SNAPSHOT -> "database";
+            default -> "quadtree";
+        };
+    }
+
+    private static String storage(Environment environment) {
+        String storage = environment.getProperty("jumbo.location.stores.storage", HEAP);
+        return HEAP.equals(storage) && StringUtils.hasText(environment.getProperty(
+                "jumbo.location.stores.snapshot-file")) ? SNAPSHOT : storage;
+    }
+}
@@ -0,0 +1,118 @@
+package com.jumbo.config;
+
+import com.jumbo.application.domain.servcie.SwitchableNearByService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rebuilds the local search engine when search or routing settings change at runtime, e.g. after
+ * {@code POST /actuator/refresh} pulled new values from the config-server.
+ * <p>
+ * The new engine is built on a background thread while the old one keeps answering, then swapped in atomically. A
+ * build that fails (an unknown strategy, say) leaves the running engine in place. Every rebuild is counted in
+ * {@code jumbo.search.engine.switches} (tags {@code strategy}, {@code outcome}) and timed in
+ * {@code jumbo.search.engine.build}; {@code jumbo.search.engine.active} is 1 for the strategy currently serving and
+ * {@code jumbo.search.engine.version} counts the swaps.
+ */
+@Component
+@Slf4j
+public class NearByEngineRefresher {
+
+    static final List<String> REFRESHABLE_PREFIXES = List.of("jumbo.location.search.", "jumbo.location.routing.");
+
+    private final NearByEngineFactory engineFactory;
+    private final SwitchableNearByService localNearByService;
+    private final MeterRegistry meterRegistry;
+    private final Timer buildTimer;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("engine-refresh").daemon().factory());
+
+    public NearByEngineRefresher(NearByEngineFactory engineFactory,
+                                 @Qualifier("localNearByService") SwitchableNearByService localNearByService,
+                                 MeterRegistry meterRegistry) {
+        this.engineFactory = engineFactory;
+        this.localNearByService = localNearByService;
+        this.meterRegistry = meterRegistry;
+        this.buildTimer = Timer.builder("jumbo.search.engine.build")
+                .description("Time to build a search engine after a configuration change")
+                .register(meterRegistry);
+        Gauge.builder("jumbo.search.engine.version", localNearByService, SwitchableNearByService::version)
+                .description("Search engine swaps since startup")
+                .register(meterRegistry);
+        for (String strategy : engineFactory.strategies()) {
+            Gauge.builder("jumbo.search.engine.active", localNearByService,
+                            service -> strategy.equals(service.strategy()) ? 1 : 0)
+                    .tag("strategy", strategy)
+                    .description("1 for the search strategy currently answering queries")
+                    .register(meterRegistry);
+        }
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (affectsEngine(event.getKeys())) {
+            log.info("Search settings changed ({}), rebuilding the search engine", event.getKeys());
+            rebuild();
+        }
+    }
+
+    static boolean affectsEngine(Set<String> keys) {
+        return keys.stream().anyMatch(key -> REFRESHABLE_PREFIXES.stream().anyMatch(key::startsWith));
+    }
+
+    /**
+     * Builds an engine from the current settings in the background and swaps it in.
+     *
+     * @return completes once the engine is swapped in, or exceptionally if the build failed
+     */
+    public CompletableFuture<Void> rebuild() {
+        return CompletableFuture.runAsync(() -> {
+            long started = System.nanoTime();
+            String strategy = "unknown";
+            try {
+                NearByEngineFactory.Engine engine = engineFactory.build();
+                strategy = engine.strategy();
+                String previous = localNearByService.swap(engine.strategy(), engine.settings(),
+                        engine.engine());
+                log.info("Search engine switched from {} to {} (version {})", previous, engine.strategy(),
+                        localNearByService.version());
+                count(strategy, "success");
+            } catch (Exception e) {
+                log.error("Search engine rebuild failed, keeping {}", localNearByService.strategy(), e);
+                count(strategy, "failure");
+                throw new IllegalStateException("Search engine rebuild failed: " + e.getMessage(), e);
+            } finally {
+                buildTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        }, executor);
+    }
+
+    private void count(String strategy, String outcome) {
+        Counter.builder("jumbo.search.engine.switches")
+                .description("Search engine rebuilds after configuration changes")
+                .tag("strategy", strategy)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,39 +1,134 @@
 package com.jumbo.config;
 
-import com.jumbo.application.domain.servcie.InMemNearByStore;
+import com.jumbo.application.domain.model.ApproximateNearByResult;
+import com.jumbo.application.domain.servcie.CachingNearByService;
+import com.jumbo.application.domain.servcie.CoalescingNearByService;
+import com.jumbo.application.domain.servcie.DistanceCalculator;
+import com.jumbo.application.domain.servcie.IndexedNearByService;
+import com.jumbo.application.domain.servcie.ScatterGatherNearByService;
+import com.jumbo.application.domain.servcie.SwitchableNearByService;
+import com.jumbo.application.port.in.ApproximateNearByUseCase;
 import com.jumbo.application.port.in.NearByUseCase;
-import com.jumbo.application.domain.servcie.QuadTreeNearByService;
+import com.jumbo.application.port.out.ShardRegistry;
+import com.jumbo.application.port.out.SharedResultCache;
+import com.jumbo.application.port.out.SpatialStoreIndex;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 @Configuration
 @Slf4j
 public class NearByServiceConfig {
 
-    @Value("${jumbo.location.search.strategy:quadtree}")
-    private String searchStrategy;
+    @Value("${jumbo.location.sharding.enabled:false}")
+    private boolean shardingEnabled;
+
+    @Value("${jumbo.location.sharding.coordinator:false}")
+    private boolean shardingCoordinator;
+
+    @Value("${jumbo.location.coalescing.enabled:true}")
+    private boolean coalescingEnabled;
+
+    @Value("${jumbo.location.coalescing.coordinate-decimals:-1}")
+    private int coalescingCoordinateDecimals;
+
+    @Value("${jumbo.location.cache.enabled:false}")
+    private boolean cacheEnabled;
+
+    @Value("${jumbo.location.cache.local-size:10000}")
+    private int cacheLocalSize;
+
+    @Value("${jumbo.location.cache.shared.ttl:PT10M}")
+    private Duration cacheTtl;
+
+    @Value("${jumbo.location.cache.shared.lock-timeout:PT0.2S}")
+    private Duration cacheLockTimeout;
 
+    /**
+     * The engine searching this instance's own stores. Shard calls from a coordinator always land here. It is
+     * replaced in place by {@link NearByEngineRefresher} when the search settings change.
+     */
     @Bean
-    public NearByUseCase nearByService(InMemNearByStore inMemNearByStore,
-                                       QuadTreeNearByService quadTreeNearByService) {
-        log.info("Configuring NearByService with strategy: {}", searchStrategy);
-
-        return switch (searchStrategy.toLowerCase()) {
-            case "in-memory", "inmemory" -> {
-                log.info("Using InMemory search strategy");
-                yield inMemNearByStore;
+    public SwitchableNearByService localNearByService(NearByEngineFactory engineFactory) throws Exception {
+        log.info("Configuring NearByService");
+        NearByEngineFactory.Engine engine = engineFactory.build();
+        return new SwitchableNearByService(engine.strategy(), engine.settings(), engine.engine());
+    }
+
+    @Bean
+    @Primary
+    public NearByUseCase nearByService(@Qualifier("localNearByService") SwitchableNearByService localNearByService,
+                                       ObjectProvider<ShardRegistry> shardRegistry,
+                                       @Qualifier("shardExecutor") ObjectProvider<ExecutorService> shardExecutor,
+                                       ObjectProvider<SharedResultCache> sharedResultCache,
+                                       SpatialStoreIndex storeIndex,
+                                       DistanceCalculator distanceCalculator,
+                                       MeterRegistry meterRegistry) {
+        NearByUseCase nearByService = localNearByService;
+        if (shardingCoordinator) {
+            if (!shardingEnabled) {
+                // without the name-server client the registry never sees a shard and every query would come back empty
+                throw new IllegalStateException("jumbo.location.sharding.coordinator needs "
+                        + "jumbo.location.sharding.enabled=true to discover the shards");
             }
-            case "quadtree", "quad-tree" -> {
-                log.info("Using QuadTree search strategy");
-                yield quadTreeNearByService;
+            log.info("Acting as sharding coordinator, nearby queries fan out to the registered shards");
+            nearByService = new ScatterGatherNearByService(shardRegistry.getObject(), distanceCalculator,
+                    shardExecutor.getObject());
+        }
+        if (cacheEnabled) {
+            if (shardingCoordinator) {
+                // cached results are resolved against local stores, which a coordinator does not hold
+                log.warn("jumbo.location.cache.enabled is ignored on a sharding coordinator");
+            } else {
+                SharedResultCache sharedCache = sharedResultCache.getIfAvailable();
+                log.info("Caching nearby results, {} per instance{}", cacheLocalSize,
+                        sharedCache == null ? "" : " and in the shared " + sharedCache.getClass().getSimpleName());
+                nearByService = new CachingNearByService(nearByService, localNearByService::settings, storeIndex,
+                        distanceCalculator, sharedCache, meterRegistry, cacheLocalSize, cacheTtl, cacheLockTimeout);
             }
-            default -> {
-                log.warn("Unknown strategy '{}', defaulting to QuadTree", searchStrategy);
-                yield quadTreeNearByService;
+        }
+        if (coalescingEnabled) {
+            if (coalescingCoordinateDecimals < 0) {
+                log.info("Coalescing identical concurrent nearby queries");
+            } else {
+                log.info("Coalescing concurrent nearby queries, grouped by coordinates rounded to {} decimals",
+                        coalescingCoordinateDecimals);
             }
-        };
+            nearByService = new CoalescingNearByService(nearByService, distanceCalculator, meterRegistry,
+                    coalescingCoordinateDecimals);
+        }
+        return nearByService;
+    }
+
+    /**
+     * Threads for the calls to the shards, closed with the context so that no shard call outlives it.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "jumbo.location.sharding.coordinator", havingValue = "true")
+    public ExecutorService shardExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * The approximate engine keeps its own grid of every store on the heap, so the other storage modes and heap
+     * storage with a snapshot answer approximate queries with the {@link IndexedNearByService}, which is exact and
+     * reported with an error bound of 0. Not the regular search: that may re-rank by travel time.
+     */
+    @Bean
+    @ConditionalOnExpression("'${jumbo.location.stores.storage:heap}' != 'heap'"
+            + " or '${jumbo.location.stores.snapshot-file:}' != ''")
+    public ApproximateNearByUseCase exactApproximateNearByService(IndexedNearByService indexedNearByService) {
+        return (req, epsilon, now) -> ApproximateNearByResult.exact(indexedNearByService.findNearByStores(req, now));
     }
 }
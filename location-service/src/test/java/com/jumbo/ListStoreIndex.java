@@ -0,0 +1,59 @@
+package com.jumbo;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.StoreFilter;
+import com.jumbo.application.port.out.SpatialStoreIndex;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stands in for a storage adapter's index: answers box queries by scanning the list, ids are list positions.
+ */
+public final class ListStoreIndex implements SpatialStoreIndex {
+
+    private final List<Store> stores;
+    private int queries;
+    private int rows;
+
+    public ListStoreIndex(List<Store> stores) {
+        this.stores = stores;
+    }
+
+    /**
+     * Number of box queries answered so far.
+     */
+    public int queries() {
+        return queries;
+    }
+
+    /**
+     * Number of rows passed to the consumers so far.
+     */
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public void findInBounds(double minLat, double minLon, double maxLat, double maxLon, LocalTime openAt,
+                             StoreFilter filter, LocationConsumer consumer) {
+        queries++;
+        for (int id = 0; id < stores.size(); id++) {
+            Store s = stores.get(id);
+            if (s.getLatitude() >= minLat && s.getLatitude() <= maxLat
+                    && s.getLongitude() >= minLon && s.getLongitude() <= maxLon
+                    && (openAt == null || s.isOpen(openAt))
+                    && filter.matches(s)) {
+                rows++;
+                consumer.accept(id, s.getLatitude(), s.getLongitude());
+            }
+        }
+    }
+
+    @Override
+    public List<Store> stores(int... ids) {
+        return new ArrayList<>(Arrays.stream(ids).mapToObj(stores::get).toList());
+    }
+}
@@ -0,0 +1,66 @@
+package com.jumbo;
+
+import com.jumbo.application.domain.model.Store;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Store fixtures shared by the tests: single stores and random data sets over a two-by-two degree box in the
+ * Netherlands ({@code 51..53} N, {@code 4..6} E).
+ */
+public final class TestStores {
+
+    private TestStores() {
+    }
+
+    public static Store store(String uuid, double lat, double lon) {
+        Store store = new Store();
+        store.setUuid(uuid);
+        store.setLatitude(lat);
+        store.setLongitude(lon);
+        return store;
+    }
+
+    /**
+     * Uniformly spread stores {@code s0, s1, ...}; nine in ten get random opening hours, some of them past midnight,
+     * the others none and are never open.
+     */
+    public static List<Store> randomStores(int count, Random random) {
+        List<Store> stores = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            stores.add(withRandomHours(store("s" + i, 51 + random.nextDouble() * 2, 4 + random.nextDouble() * 2),
+                    random));
+        }
+        return stores;
+    }
+
+    /**
+     * Stores around 20 random town centres, with a fifth of them spread over the whole box; opening hours as in
+     * {@link #randomStores}.
+     */
+    public static List<Store> clusteredStores(int count, Random random) {
+        double[][] centres = new double[20][];
+        for (int c = 0; c < centres.length; c++) {
+            centres[c] = new double[]{51 + random.nextDouble() * 2, 4 + random.nextDouble() * 2};
+        }
+        List<Store> stores = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double[] centre = centres[random.nextInt(centres.length)];
+            Store store = random.nextInt(5) == 0
+                    ? store("s" + i, 51 + random.nextDouble() * 2, 4 + random.nextDouble() * 2)
+                    : store("s" + i, centre[0] + random.nextGaussian() * 0.05,
+                            centre[1] + random.nextGaussian() * 0.08);
+            stores.add(withRandomHours(store, random));
+        }
+        return stores;
+    }
+
+    private static Store withRandomHours(Store store, Random random) {
+        if (random.nextInt(10) > 0) {
+            store.opensAt(random.nextInt(24), random.nextInt(60)).closesAt(random.nextInt(24), random.nextInt(60));
+        }
+        return store;
+    }
+}
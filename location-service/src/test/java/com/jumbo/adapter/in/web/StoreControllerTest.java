@@ -1,8 +1,25 @@
 package com.jumbo.adapter.in.web;
 
+import com.jumbo.application.domain.model.ApproximateNearByResult;
+import com.jumbo.application.domain.model.PostalCodeCentroid;
 import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.model.RouteStop;
+import com.jumbo.application.port.in.ApproximateNearByUseCase;
+import com.jumbo.application.port.in.CorridorRequest;
+import com.jumbo.application.port.in.CorridorUseCase;
+import com.jumbo.application.port.in.InvalidCursorException;
+import com.jumbo.application.port.in.NearByCursorUseCase;
 import com.jumbo.application.port.in.NearByRequest;
 import com.jumbo.application.port.in.NearByUseCase;
+import com.jumbo.application.port.in.PostalCodeUseCase;
+import com.jumbo.application.port.in.SearchCursor;
+import com.jumbo.application.port.in.StoreFilter;
+import com.jumbo.application.port.in.TextSearchRequest;
+import com.jumbo.application.port.in.TextSearchUseCase;
+import com.jumbo.application.port.in.ViewportRequest;
+import com.jumbo.application.port.in.ViewportUseCase;
+import com.jumbo.application.domain.model.StoreCluster;
+import com.jumbo.application.domain.model.ViewportResult;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -13,10 +30,14 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.time.LocalTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(StoreController.class)
@@ -28,6 +49,24 @@ class StoreControllerTest {
     @MockBean
     private NearByUseCase nearByService;
 
+    @MockBean
+    private ViewportUseCase viewportService;
+
+    @MockBean
+    private CorridorUseCase corridorService;
+
+    @MockBean
+    private TextSearchUseCase textSearchService;
+
+    @MockBean
+    private PostalCodeUseCase postalCodeService;
+
+    @MockBean
+    private NearByCursorUseCase nearByCursorService;
+
+    @MockBean
+    private ApproximateNearByUseCase approximateNearByService;
+
     @Test
     void getClosestStores_ValidRequest_ReturnsStores() throws Exception {
 
@@ -87,6 +126,269 @@ class StoreControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void getClosestStores_PostalCode_SearchesFromCentroid() throws Exception {
+        Store store = createTestStore("store1", 52.3702, 4.8952, "Amsterdam");
+        when(postalCodeService.locate("1012 LG")).thenReturn(Optional.of(new PostalCodeCentroid("1012LG", 52.376, 4.897)));
+        when(nearByService.findNearByStores(argThat(r -> r.latitude() == 52.376 && r.longitude() == 4.897),
+                any(LocalTime.class))).thenReturn(List.of(store));
+
+        mockMvc.perform(get("/api/v1/stores/nearby")
+                        .param("postalCode", "1012 LG")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].uuid").value("store1"));
+    }
+
+    @Test
+    void getClosestStores_UnknownPostalCode_ReturnsNotFound() throws Exception {
+        when(postalCodeService.locate("9999 ZZ")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/v1/stores/nearby")
+                        .param("postalCode", "9999 ZZ")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+        verifyNoInteractions(nearByService);
+    }
+
+    @Test
+    void getClosestStores_MalformedPostalCode_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/stores/nearby")
+                        .param("postalCode", "0123")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getClosestStores_AttributeFilters_PassedToService() throws Exception {
+        Store store = createTestStore("store1", 52.3702, 4.8952, "Amsterdam");
+        when(nearByService.findNearByStores(
+                argThat(r -> r.filter().equals(new StoreFilter("SupermarktPuP", true, null))), any(LocalTime.class)))
+                .thenReturn(List.of(store));
+
+        mockMvc.perform(get("/api/v1/stores/nearby")
+                        .param("latitude", "52.3702")
+                        .param("longitude", "4.8952")
+                        .param("locationType", "SupermarktPuP")
+                        .param("collectionPoint", "true")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].uuid").value("store1"));
+    }
+
+    @Test
+    void getClosestStores_FullPage_ReturnsNextCursor() throws Exception {
+        List<Store> page = List.of(createTestStore("store1", 52.3702, 4.8952, "Amsterdam"));
+        when(nearByService.findNearByStores(any(NearByRequest.class), any(LocalTime.class))).thenReturn(page);
+        when(nearByService.ordersByDistance()).thenReturn(true);
+        when(nearByCursorService.nextCursor(any(NearByRequest.class), eq(page))).thenReturn(Optional.of("next"));
+
+        mockMvc.perform(get("/api/v1/stores/nearby")
+                        .param("latitude", "52.3702")
+                        .param("longitude", "4.8952")
+                        .param("limit", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"));
+    }
+
+    @Test
+    void getClosestStores_NotOrderedByDistance_ReturnsNoCursor() throws Exception {
+        List<Store> page = List.of(createTestStore("store1", 52.3702, 4.8952, "Amsterdam"));
+        when(nearByService.findNearByStores(any(NearByRequest.class), any(LocalTime.class))).thenReturn(page);
+        when(nearByService.ordersByDistance()).thenReturn(false);
+
+        mockMvc.perform(get("/api/v1/stores/nearby")
+                        .param("latitude", "52.3702")
+                        .param("longitude", "4.8952")
+                        .param("limit", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+        verifyNoInteractions(nearByCursorService);
+    }
+
+    @Test
+    void getClosestStores_WithCursor_ResumesSearch() throws Exception {
+        NearByRequest first = new NearByRequest(52.3702, 4.8952, 5.0, 5, false);
+        SearchCursor cursor = new SearchCursor(1, SearchCursor.queryHash(first), 0.8, "store1");
+        when(nearByCursorService.decode("token")).thenReturn(cursor);
+        when(nearByService.findNearByStores(argThat(r -> cursor.equals(r.after())), any(LocalTime.class)))
+                .thenReturn(List.of(createTestStore("store2", 52.3603, 4.8849, "Amsterdam")));
+
+        mockMvc.perform(get("/api/v1/stores/nearby")
+                        .param("latitude", "52.3702")
+                        .param("longitude", "4.8952")
+                        .param("cursor", "token")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].uuid").value("store2"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void getClosestStores_ExpiredCursor_ReturnsBadRequest() throws Exception {
+        when(nearByCursorService.decode("stale")).thenThrow(new InvalidCursorException("Cursor has expired"));
+
+        mockMvc.perform(get("/api/v1/stores/nearby")
+                        .param("latitude", "52.3702")
+                        .param("longitude", "4.8952")
+                        .param("cursor", "stale")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("invalid cursor"));
+        verifyNoInteractions(nearByService);
+    }
+
+    @Test
+    void getClosestStores_Approximate_ReturnsErrorBound() throws Exception {
+        List<Store> stores = List.of(createTestStore("store1", 52.3702, 4.8952, "Amsterdam"));
+        when(approximateNearByService.findNearByStores(any(NearByRequest.class), eq(0.25), any(LocalTime.class)))
+                .thenReturn(new ApproximateNearByResult(stores, 0.1234));
+
+        mockMvc.perform(get("/api/v1/stores/nearby")
+                        .param("latitude", "52.3702")
+                        .param("longitude", "4.8952")
+                        .param("limit", "1")
+                        .param("approximate", "true")
+                        .param("epsilon", "0.25")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].uuid").value("store1"))
+                .andExpect(header().string("X-Approximation-Bound", "0.1234"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+        verifyNoInteractions(nearByService, nearByCursorService);
+    }
+
+    @Test
+    void getClosestStores_ApproximateExactWhileRankedByTravelTime_ReturnsNoCursor() throws Exception {
+        List<Store> stores = List.of(createTestStore("store1", 52.3702, 4.8952, "Amsterdam"));
+        when(approximateNearByService.findNearByStores(any(NearByRequest.class), eq(0.25), any(LocalTime.class)))
+                .thenReturn(ApproximateNearByResult.exact(stores));
+        when(nearByService.ordersByDistance()).thenReturn(false);
+
+        mockMvc.perform(get("/api/v1/stores/nearby")
+                        .param("latitude", "52.3702")
+                        .param("longitude", "4.8952")
+                        .param("limit", "1")
+                        .param("approximate", "true")
+                        .param("epsilon", "0.25")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Approximation-Bound", "0.0000"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+        verifyNoInteractions(nearByCursorService);
+    }
+
+    @Test
+    void getClosestStores_EpsilonTooLarge_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/stores/nearby")
+                        .param("latitude", "52.3702")
+                        .param("longitude", "4.8952")
+                        .param("approximate", "true")
+                        .param("epsilon", "2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getStoresInBounds_LowZoom_ReturnsClusters() throws Exception {
+        when(viewportService.findInBounds(any(ViewportRequest.class)))
+                .thenReturn(ViewportResult.ofClusters(6, List.of(new StoreCluster(52.1, 5.1, 42))));
+
+        mockMvc.perform(get("/api/v1/stores/in-bounds")
+                        .param("minLat", "50.7")
+                        .param("minLon", "3.3")
+                        .param("maxLat", "53.6")
+                        .param("maxLon", "7.3")
+                        .param("zoom", "6")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.clustered").value(true))
+                .andExpect(jsonPath("$.clusters[0].count").value(42))
+                .andExpect(jsonPath("$.stores.length()").value(0));
+    }
+
+    @Test
+    void getStoresInBounds_InvalidZoom_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/stores/in-bounds")
+                        .param("minLat", "52.3")
+                        .param("minLon", "4.8")
+                        .param("maxLat", "52.4")
+                        .param("maxLon", "5.0")
+                        .param("zoom", "23")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getStoresAlongRoute_ValidRequest_ReturnsStops() throws Exception {
+        Store store = createTestStore("1", 52.3702, 4.8952, "Amsterdam");
+        when(corridorService.findAlongRoute(any(CorridorRequest.class), any(LocalTime.class)))
+                .thenReturn(List.of(new RouteStop(store, 0.4, 0.8, 12.5)));
+
+        mockMvc.perform(post("/api/v1/stores/along-route")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"polyline": "_p~iF~ps|U_ulLnnqC", "bufferKm": 2, "limit": 10, "rankBy": "ROUTE_POSITION"}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].store.city").value("Amsterdam"))
+                .andExpect(jsonPath("$[0].routePositionKm").value(12.5));
+    }
+
+    @Test
+    void getStoresAlongRoute_InvalidPolyline_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/stores/along-route")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"polyline": "not a polyline", "bufferKm": 2, "limit": 10}
+                                """))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.validationErrors.polylineValid").exists());
+    }
+
+    @Test
+    void getStoresAlongRoute_TooManyPoints_ReturnsBadRequest() throws Exception {
+        // "??" is a zero delta point, so this repeats one point past the limit
+        String polyline = "_p~iF~ps|U" + "??".repeat(CorridorRequest.MAX_POINTS);
+
+        mockMvc.perform(post("/api/v1/stores/along-route")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"polyline\": \"" + polyline + "\", \"bufferKm\": 2, \"limit\": 10}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.validationErrors.polylineWithinLimit").exists());
+    }
+
+    @Test
+    void searchStores_ValidQuery_ReturnsStores() throws Exception {
+        Store store = createTestStore("1", 52.3702, 4.8952, "Amsterdam");
+        when(textSearchService.search(new TextSearchRequest("amst", null, null, 10))).thenReturn(List.of(store));
+
+        mockMvc.perform(get("/api/v1/stores/search")
+                        .param("q", "amst")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].city").value("Amsterdam"));
+    }
+
+    @Test
+    void searchStores_SingleLetter_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/stores/search")
+                        .param("q", "a")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchStores_LatitudeWithoutLongitude_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/stores/search")
+                        .param("q", "amst")
+                        .param("latitude", "52.37")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     private Store createTestStore(String uuid, double lat, double lon, String city) {
         Store store = new Store();
         store.setUuid(uuid);
@@ -0,0 +1,91 @@
+package com.jumbo.adapter.in.web;
+
+import com.jumbo.application.domain.model.BatchGetResult;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.BatchGetRequest;
+import com.jumbo.application.port.in.StoreLookupUseCase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(StoreLookupController.class)
+class StoreLookupControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private StoreLookupUseCase storeLookupService;
+
+    @Test
+    void getStore_KnownUuid_ReturnsStore() throws Exception {
+        when(storeLookupService.findByUuid("abc")).thenReturn(Optional.of(createTestStore("abc", "3605")));
+
+        mockMvc.perform(get("/api/v1/stores/abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.uuid").value("abc"))
+                .andExpect(jsonPath("$.sapStoreID").value("3605"));
+    }
+
+    @Test
+    void getStore_UnknownUuid_ReturnsNotFound() throws Exception {
+        when(storeLookupService.findByUuid("nope")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/v1/stores/nope"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getStoreBySapStoreId_KnownId_ReturnsStore() throws Exception {
+        when(storeLookupService.findBySapStoreId("3605")).thenReturn(Optional.of(createTestStore("abc", "3605")));
+
+        mockMvc.perform(get("/api/v1/stores/sap/3605"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.uuid").value("abc"));
+    }
+
+    @Test
+    void batchGetStores_ValidRequest_ReturnsStoresAndMissingIds() throws Exception {
+        when(storeLookupService.batchGet(new BatchGetRequest(List.of("abc", "nope"), null)))
+                .thenReturn(new BatchGetResult(List.of(createTestStore("abc", "3605")), List.of("nope"), List.of()));
+
+        mockMvc.perform(post("/api/v1/stores:batchGet")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"uuids": ["abc", "nope"]}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stores[0].uuid").value("abc"))
+                .andExpect(jsonPath("$.missingUuids[0]").value("nope"));
+    }
+
+    @Test
+    void batchGetStores_EmptyRequest_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/stores:batchGet")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(storeLookupService);
+    }
+
+    private Store createTestStore(String uuid, String sapStoreId) {
+        Store store = new Store();
+        store.setUuid(uuid);
+        store.setSapStoreID(sapStoreId);
+        store.setCity("Amsterdam");
+        return store;
+    }
+}
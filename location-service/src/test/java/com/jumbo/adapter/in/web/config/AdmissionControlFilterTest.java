@@ -0,0 +1,88 @@
+package com.jumbo.adapter.in.web.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControlFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(4, 1, 10, 1.5, 0.25);
+    private final AdmissionControlFilter filter = new AdmissionControlFilter(limiter,
+            new ObjectMapper().findAndRegisterModules(), meterRegistry, 25, 20, Duration.ofSeconds(2));
+
+    @Test
+    void doFilter_UnderLimit_PassesThroughAndReleases() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(nearby("5", "5"), response, chain);
+
+        assertNotNull(chain.getRequest());
+        assertEquals(200, response.getStatus());
+        assertEquals(0, limiter.inFlight());
+        assertEquals(1, count("cheap", "admitted"));
+    }
+
+    @Test
+    void doFilter_AtLimit_Returns503WithRetryAfter() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire(false);
+        }
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(nearby("5", "5"), response, chain);
+
+        assertNull(chain.getRequest());
+        assertEquals(503, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("\"error\":\"service unavailable\""));
+        assertEquals(1, count("cheap", "rejected"));
+    }
+
+    @Test
+    void doFilter_NearlySaturated_ShedsWideSearchesOnly() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire(false);
+        }
+
+        MockHttpServletResponse wide = new MockHttpServletResponse();
+        filter.doFilter(nearby("100", "5"), wide, new MockFilterChain());
+        MockHttpServletResponse many = new MockHttpServletResponse();
+        filter.doFilter(nearby("5", "50"), many, new MockFilterChain());
+        MockHttpServletResponse cheap = new MockHttpServletResponse();
+        filter.doFilter(nearby("5", "5"), cheap, new MockFilterChain());
+
+        assertEquals(503, wide.getStatus());
+        assertEquals(503, many.getStatus());
+        assertEquals(200, cheap.getStatus());
+        assertEquals(2, count("expensive", "rejected"));
+        assertEquals(1, count("cheap", "admitted"));
+    }
+
+    private static MockHttpServletRequest nearby(String maxRadius, String limit) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", AdmissionControlConfig.NEARBY_PATH);
+        request.setParameter("latitude", "52.37");
+        request.setParameter("longitude", "4.89");
+        request.setParameter("maxRadius", maxRadius);
+        request.setParameter("limit", limit);
+        return request;
+    }
+
+    private double count(String cost, String outcome) {
+        return meterRegistry.get("jumbo.admission.requests").tag("cost", cost).tag("outcome", outcome).counter()
+                .count();
+    }
+}
@@ -0,0 +1,93 @@
+package com.jumbo.adapter.in.web.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GradientConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @Test
+    void tryAcquire_AtLimit_Rejects() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(4, 1, 10, 1.5, 0.25);
+
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, limiter.tryAcquire(false));
+        }
+        assertEquals(-1, limiter.tryAcquire(false));
+        assertEquals(4, limiter.inFlight());
+    }
+
+    @Test
+    void tryAcquire_CheapReserveInUse_RejectsOnlyExpensive() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(4, 1, 10, 1.5, 0.25);
+        limiter.tryAcquire(false);
+        limiter.tryAcquire(false);
+        limiter.tryAcquire(false);
+
+        assertEquals(-1, limiter.tryAcquire(true));
+        assertEquals(4, limiter.tryAcquire(false));
+    }
+
+    @Test
+    void release_SteadyLatencyAtLimit_GrowsLimit() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(10, 1, 100, 1.5, 0.25);
+
+        sample(limiter, 200, FAST);
+
+        assertTrue(limiter.limit() > 50, "limit " + limiter.limit());
+    }
+
+    @Test
+    void release_LatencyInflated_ShrinksLimit() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(10, 1, 100, 1.5, 0.25);
+        sample(limiter, 600, FAST);
+        int before = limiter.limit();
+
+        sample(limiter, 30, SLOW);
+
+        assertTrue(limiter.limit() < before / 4, before + " -> " + limiter.limit());
+    }
+
+    @Test
+    void release_LimitUnused_KeepsLimit() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(10, 1, 100, 1.5, 0.25);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.release(limiter.tryAcquire(false), FAST);
+        }
+
+        assertEquals(10, limiter.limit());
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void release_LatencyInflated_StaysAboveMinimum() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(6, 5, 100, 1.5, 0.25);
+        sample(limiter, 1, FAST);
+
+        sample(limiter, 50, 10 * SLOW);
+
+        assertEquals(5, limiter.limit());
+    }
+
+    @Test
+    void constructor_InitialLimitOutOfBounds_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new GradientConcurrencyLimiter(200, 1, 100, 1.5, 0.25));
+        assertThrows(IllegalArgumentException.class, () -> new GradientConcurrencyLimiter(10, 1, 100, 1.5, 1.0));
+    }
+
+    // requests completing while the whole limit is in use
+    private static void sample(GradientConcurrencyLimiter limiter, int count, long rttNanos) {
+        for (int i = 0; i < count; i++) {
+            limiter.tryAcquire(false);
+            limiter.release(limiter.limit(), rttNanos);
+        }
+    }
+}
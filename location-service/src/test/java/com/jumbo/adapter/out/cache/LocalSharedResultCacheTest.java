@@ -0,0 +1,78 @@
+package com.jumbo.adapter.out.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LocalSharedResultCacheTest {
+
+    private final Clock clock = mock(Clock.class);
+    private final LocalSharedResultCache cache = new LocalSharedResultCache(clock, 2);
+
+    @Test
+    void get_BeforeAndAfterTtl_ExpiresEntry() {
+        when(clock.millis()).thenReturn(1_000L);
+        cache.put("k", new byte[]{1, 2}, Duration.ofSeconds(10));
+
+        when(clock.millis()).thenReturn(10_999L);
+        assertArrayEquals(new byte[]{1, 2}, cache.get("k").orElseThrow());
+        when(clock.millis()).thenReturn(11_000L);
+        assertTrue(cache.get("k").isEmpty());
+    }
+
+    @Test
+    void put_AtCapacity_DropsExpiredEntriesFirst() {
+        when(clock.millis()).thenReturn(0L);
+        cache.put("short", new byte[]{1}, Duration.ofSeconds(1));
+        cache.put("long", new byte[]{2}, Duration.ofMinutes(1));
+
+        when(clock.millis()).thenReturn(2_000L);
+        cache.put("new", new byte[]{3}, Duration.ofMinutes(1));
+
+        assertTrue(cache.get("long").isPresent());
+        assertTrue(cache.get("new").isPresent());
+    }
+
+    @Test
+    void tryLock_HeldUntilUnlockedOrExpired() {
+        when(clock.millis()).thenReturn(0L);
+        assertTrue(cache.tryLock("k", Duration.ofSeconds(1)).isPresent());
+        assertTrue(cache.tryLock("k", Duration.ofSeconds(1)).isEmpty());
+
+        when(clock.millis()).thenReturn(1_000L);
+        String token = cache.tryLock("k", Duration.ofSeconds(1)).orElseThrow();
+
+        cache.unlock("k", token);
+        assertTrue(cache.tryLock("k", Duration.ofSeconds(1)).isPresent());
+    }
+
+    @Test
+    void unlock_AfterClaimExpiredAndWasTaken_KeepsNewClaim() {
+        when(clock.millis()).thenReturn(0L);
+        String expired = cache.tryLock("k", Duration.ofSeconds(1)).orElseThrow();
+        when(clock.millis()).thenReturn(1_000L);
+        String current = cache.tryLock("k", Duration.ofSeconds(1)).orElseThrow();
+
+        cache.unlock("k", expired);
+
+        assertNotEquals(expired, current);
+        assertTrue(cache.tryLock("k", Duration.ofSeconds(1)).isEmpty());
+    }
+
+    @Test
+    void tryLock_DoesNotTouchValueUnderSameKey() {
+        when(clock.millis()).thenReturn(0L);
+        cache.put("k", new byte[]{1}, Duration.ofMinutes(1));
+
+        cache.unlock("k", cache.tryLock("k", Duration.ofSeconds(1)).orElseThrow());
+
+        assertTrue(cache.get("k").isPresent());
+    }
+}
@@ -0,0 +1,84 @@
+package com.jumbo.adapter.out.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RedisSharedResultCacheTest {
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, byte[]> redis = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, byte[]> values = mock(ValueOperations.class);
+    private RedisSharedResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(redis.opsForValue()).thenReturn(values);
+        cache = new RedisSharedResultCache(redis);
+    }
+
+    @Test
+    void get_MissingKey_ReturnsEmpty() {
+        assertTrue(cache.get("k").isEmpty());
+    }
+
+    @Test
+    void get_StoredKey_ReturnsBytes() {
+        when(values.get("k")).thenReturn(new byte[]{1, 2});
+
+        assertArrayEquals(new byte[]{1, 2}, cache.get("k").orElseThrow());
+    }
+
+    @Test
+    void put_WritesWithTtl() {
+        cache.put("k", new byte[]{1}, Duration.ofMinutes(10));
+
+        verify(values).set("k", new byte[]{1}, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void tryLock_UsesSeparateLockKey() {
+        when(values.setIfAbsent(eq("k:lock"), any(), eq(Duration.ofSeconds(1)))).thenReturn(true, false);
+
+        assertTrue(cache.tryLock("k", Duration.ofSeconds(1)).isPresent());
+        assertTrue(cache.tryLock("k", Duration.ofSeconds(1)).isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unlock_ReleasesOnlyOwnClaim() {
+        ArgumentCaptor<byte[]> token = ArgumentCaptor.forClass(byte[].class);
+        when(values.setIfAbsent(eq("k:lock"), token.capture(), any())).thenReturn(true);
+        String claim = cache.tryLock("k", Duration.ofSeconds(1)).orElseThrow();
+
+        cache.unlock("k", claim);
+
+        assertArrayEquals(claim.getBytes(StandardCharsets.US_ASCII), token.getValue());
+        verify(redis).execute(any(RedisScript.class), eq(List.of("k:lock")), eq(token.getValue()));
+    }
+
+    @Test
+    void tryLock_IssuesNewTokenPerClaim() {
+        when(values.setIfAbsent(eq("k:lock"), any(), any())).thenReturn(true);
+
+        assertNotEquals(cache.tryLock("k", Duration.ofSeconds(1)).orElseThrow(),
+                cache.tryLock("k", Duration.ofSeconds(1)).orElseThrow());
+    }
+}
@@ -0,0 +1,83 @@
+package com.jumbo.adapter.out.persistence;
+
+import com.jumbo.application.domain.model.Store;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OffHeapStoreRepositoryTest {
+
+    private static final String JSON = "{\"stores\": [{\"uuid\": \"1\", \"city\": \"Amsterdam\"}]}";
+
+    @Mock
+    private StoreMapper storeMapper;
+    @Mock
+    private ResourceLoader resourceLoader;
+    @Mock
+    private Resource resource;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void init_MapsStoresAndExposesColumns() throws IOException {
+        stubJson();
+        Store store = new Store();
+        store.setUuid("1");
+        store.setCity("Amsterdam");
+        store.setLatitude(52.3676);
+        store.setLongitude(4.9041);
+        store.opensAt(8, 0).closesAt(22, 0);
+        when(storeMapper.toDomainList(any())).thenReturn(List.of(store));
+
+        OffHeapStoreRepository repository = new OffHeapStoreRepository(storeMapper, resourceLoader,
+                "classpath:stores.json", dir.resolve("stores.snap").toString());
+        repository.init();
+
+        assertEquals(1, repository.size());
+        assertEquals(52.3676, repository.latitude(0));
+        assertEquals(4.9041, repository.longitude(0));
+        assertTrue(repository.isOpen(0, LocalTime.of(12, 0)));
+        assertFalse(repository.isOpen(0, LocalTime.of(23, 0)));
+        assertEquals(store, repository.store(0));
+        assertEquals(List.of(store), repository.findAll());
+    }
+
+    @Test
+    void init_WhenSnapshotIsCurrent_DoesNotParseJson() throws IOException {
+        stubJson();
+        Path snapshot = dir.resolve("stores.snap");
+        StoreSnapshot.write(snapshot, List.of(new Store()),
+                new StoreSnapshot.Source(StoreSnapshot.checksum(JSON.getBytes()), JSON.length(), 0));
+
+        OffHeapStoreRepository repository = new OffHeapStoreRepository(storeMapper, resourceLoader,
+                "classpath:stores.json", snapshot.toString());
+        repository.init();
+
+        assertEquals(1, repository.size());
+        verify(storeMapper, never()).toDomainList(any());
+        assertTrue(Files.exists(snapshot));
+    }
+
+    private void stubJson() throws IOException {
+        when(resource.getInputStream()).thenReturn(new ByteArrayInputStream(JSON.getBytes()));
+        when(resourceLoader.getResource(anyString())).thenReturn(resource);
+    }
+}
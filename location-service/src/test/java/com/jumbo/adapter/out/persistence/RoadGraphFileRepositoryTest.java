@@ -0,0 +1,74 @@
+package com.jumbo.adapter.out.persistence;
+
+import com.jumbo.application.domain.model.RoadGraph;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoadGraphFileRepositoryTest {
+
+    private static final String GRAPH = """
+            # two-way street with a one-way turn-off
+            nodes 3
+            52.3702 4.8952
+            52.3710 4.8960
+            52.3725 4.8975
+
+            edges 3
+            0 1 12.5
+            1 0 12.5
+            1 2 20
+            """;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void load_NoFileConfigured_ReturnsEmpty() throws IOException {
+        assertTrue(new RoadGraphFileRepository("").load().isEmpty());
+    }
+
+    @Test
+    void load_PlainFile_ReturnsGraph() throws IOException {
+        Path file = dir.resolve("graph.txt");
+        Files.writeString(file, GRAPH);
+
+        RoadGraph graph = new RoadGraphFileRepository(file.toString()).load().orElseThrow();
+
+        assertEquals(3, graph.nodeCount());
+        assertEquals(3, graph.edgeCount());
+        // the turn-off is one-way, there is no way back from node 2
+        assertArrayEquals(new float[]{32.5f, 0f}, graph.travelTimes(0, new int[]{2, 0}, 3600), 1e-6f);
+        assertArrayEquals(new float[]{Float.POSITIVE_INFINITY}, graph.travelTimes(2, new int[]{0}, 3600), 1e-6f);
+    }
+
+    @Test
+    void load_GzipFile_ReturnsGraph() throws IOException {
+        Path file = dir.resolve("graph.txt.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(GRAPH.getBytes(StandardCharsets.UTF_8));
+        }
+
+        RoadGraph graph = new RoadGraphFileRepository(file.toString()).load().orElseThrow();
+
+        assertEquals(3, graph.nodeCount());
+    }
+
+    @Test
+    void load_EdgeToUnknownNode_ThrowsWithLineNumber() throws IOException {
+        Path file = dir.resolve("graph.txt");
+        Files.writeString(file, GRAPH.replace("1 2 20", "1 7 20"));
+
+        IOException e = assertThrows(IOException.class, () -> new RoadGraphFileRepository(file.toString()).load());
+
+        assertTrue(e.getMessage().contains("line 10"), e.getMessage());
+    }
+}
@@ -0,0 +1,138 @@
+package com.jumbo.adapter.out.persistence;
+
+import com.jumbo.TestStores;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.StoreFilter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqliteStoreDatabaseTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void open_AfterWrite_ReturnsEqualStores() throws IOException {
+        Store amsterdam = createStore("1", "Amsterdam", 52.3676, 4.9041);
+        amsterdam.setTodayOpen(LocalTime.of(8, 0));
+        amsterdam.setTodayClose(LocalTime.of(22, 0));
+        amsterdam.setCollectionPoint(true);
+        Store rotterdam = createStore("2", "Rotterdam", 51.9244, 4.4777);
+        rotterdam.setShowWarningMessage(true);
+        Store utrecht = createStore("3", "Müller-Straße", 52.0907, 5.1214);
+        List<Store> stores = List.of(amsterdam, rotterdam, utrecht);
+
+        Path file = dir.resolve("stores.db");
+        SqliteStoreDatabase.write(file, stores, 42L);
+        Optional<SqliteStoreDatabase> database = SqliteStoreDatabase.open(file, 42L, 2);
+
+        assertTrue(database.isPresent());
+        try (SqliteStoreDatabase db = database.get()) {
+            assertEquals(3, db.size());
+            List<Store> result = db.toStores();
+            result.sort(Comparator.comparing(Store::getUuid));
+            assertEquals(stores, result);
+            assertNull(result.get(1).getTodayOpen());
+        }
+    }
+
+    @Test
+    void findInBounds_ReturnsStoresInsideBox() throws IOException {
+        Store amsterdam = createStore("1", "Amsterdam", 52.3676, 4.9041).opensAt(8, 0).closesAt(22, 0);
+        Store nightShop = createStore("2", "Amsterdam", 52.3702, 4.8952).opensAt(22, 0).closesAt(3, 0);
+        Store rotterdam = createStore("3", "Rotterdam", 51.9244, 4.4777).opensAt(8, 0).closesAt(22, 0);
+        Path file = dir.resolve("stores.db");
+        SqliteStoreDatabase.write(file, List.of(amsterdam, nightShop, rotterdam), 1L);
+
+        try (SqliteStoreDatabase db = SqliteStoreDatabase.open(file, 1L, 1).orElseThrow()) {
+            assertEquals(List.of("1", "2"), uuidsInBounds(db, null));
+            assertEquals(List.of("1"), uuidsInBounds(db, LocalTime.of(12, 0)));
+            assertEquals(List.of("2"), uuidsInBounds(db, LocalTime.of(23, 30)));
+            // a store closing at 22:00 is closed at 22:00:30
+            assertEquals(List.of("2"), uuidsInBounds(db, LocalTime.of(22, 0, 30)));
+        }
+    }
+
+    @Test
+    void findInBounds_WithFilter_ReturnsOnlyMatchingStores() throws IOException {
+        Store supermarket = createStore("1", "Amsterdam", 52.3676, 4.9041).opensAt(8, 0).closesAt(22, 0);
+        supermarket.setLocationType("Supermarkt");
+        supermarket.setCollectionPoint(true);
+        Store pickUpPoint = createStore("2", "Amsterdam", 52.3702, 4.8952).opensAt(8, 0).closesAt(22, 0);
+        pickUpPoint.setLocationType("PuP");
+        pickUpPoint.setShowWarningMessage(true);
+        Path file = dir.resolve("stores.db");
+        SqliteStoreDatabase.write(file, List.of(supermarket, pickUpPoint), 1L);
+
+        try (SqliteStoreDatabase db = SqliteStoreDatabase.open(file, 1L, 1).orElseThrow()) {
+            assertEquals(List.of("2"), uuidsInBounds(db, null, new StoreFilter("pup", null, null)));
+            assertEquals(List.of("1"), uuidsInBounds(db, null, new StoreFilter(null, true, null)));
+            assertEquals(List.of("1"), uuidsInBounds(db, LocalTime.NOON, new StoreFilter(null, null, false)));
+            assertEquals(List.of(), uuidsInBounds(db, null, new StoreFilter("PuP", true, null)));
+            assertEquals(List.of(), uuidsInBounds(db, null, new StoreFilter("Unknown", null, null)));
+        }
+    }
+
+    @Test
+    void stores_ReturnsStoresInRequestedOrder() throws IOException {
+        Path file = dir.resolve("stores.db");
+        SqliteStoreDatabase.write(file, List.of(createStore("1", "Amsterdam", 52.37, 4.90),
+                createStore("2", "Rotterdam", 51.92, 4.48)), 1L);
+
+        try (SqliteStoreDatabase db = SqliteStoreDatabase.open(file, 1L, 1).orElseThrow()) {
+            List<Store> all = db.toStores();
+            assertEquals(List.of(all.get(1), all.get(0)), db.stores(1, 0));
+        }
+    }
+
+    @Test
+    void open_WhenSourceChecksumDiffers_ReturnsEmpty() throws IOException {
+        Path file = dir.resolve("stores.db");
+        SqliteStoreDatabase.write(file, List.of(createStore("1", "Amsterdam", 52.37, 4.90)), 1L);
+
+        assertTrue(SqliteStoreDatabase.open(file, 2L, 1).isEmpty());
+    }
+
+    @Test
+    void open_WhenNotADatabase_ReturnsEmpty() throws IOException {
+        Path file = dir.resolve("stores.db");
+        Files.writeString(file, "not a database");
+
+        assertTrue(SqliteStoreDatabase.open(file, 1L, 1).isEmpty());
+    }
+
+    @Test
+    void open_WhenFileMissing_ReturnsEmpty() {
+        assertTrue(SqliteStoreDatabase.open(dir.resolve("missing.db"), 1L, 1).isEmpty());
+    }
+
+    private static List<String> uuidsInBounds(SqliteStoreDatabase db, LocalTime openAt) {
+        return uuidsInBounds(db, openAt, StoreFilter.NONE);
+    }
+
+    private static List<String> uuidsInBounds(SqliteStoreDatabase db, LocalTime openAt, StoreFilter filter) {
+        List<Integer> ids = new ArrayList<>();
+        db.findInBounds(52.3, 4.8, 52.4, 5.0, openAt, filter, (id, lat, lon) -> ids.add(id));
+        return db.stores(ids.stream().mapToInt(Integer::intValue).toArray()).stream()
+                .map(Store::getUuid)
+                .sorted()
+                .toList();
+    }
+
+    private Store createStore(String uuid, String city, double latitude, double longitude) {
+        Store store = TestStores.store(uuid, latitude, longitude);
+        store.setCity(city);
+        return store;
+    }
+}
@@ -0,0 +1,81 @@
+package com.jumbo.adapter.out.persistence;
+
+import com.jumbo.application.domain.model.Store;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SqliteStoreRepositoryTest {
+
+    private static final String JSON = "{\"stores\": [{\"uuid\": \"1\", \"city\": \"Amsterdam\"}]}";
+
+    @Mock
+    private StoreMapper storeMapper;
+    @Mock
+    private ResourceLoader resourceLoader;
+    @Mock
+    private Resource resource;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void init_LoadsStoresAndAnswersBoxQueries() throws IOException {
+        stubJson();
+        Store store = new Store();
+        store.setUuid("1");
+        store.setCity("Amsterdam");
+        store.setLatitude(52.3676);
+        store.setLongitude(4.9041);
+        store.opensAt(8, 0).closesAt(22, 0);
+        when(storeMapper.toDomainList(any())).thenReturn(List.of(store));
+
+        SqliteStoreRepository repository = new SqliteStoreRepository(storeMapper, resourceLoader,
+                "classpath:stores.json", dir.resolve("stores.db").toString(), 2);
+        repository.init();
+
+        List<Integer> ids = new ArrayList<>();
+        repository.findInBounds(52, 4, 53, 5, null, (id, lat, lon) -> ids.add(id));
+        assertEquals(List.of(0), ids);
+        assertEquals(List.of(store), repository.stores(0));
+        assertEquals(List.of(store), repository.findAll());
+        assertEquals(StoreSnapshot.checksum(JSON.getBytes()), repository.fingerprint());
+        repository.close();
+    }
+
+    @Test
+    void init_WhenDatabaseIsCurrent_DoesNotParseJson() throws IOException {
+        stubJson();
+        Path file = dir.resolve("stores.db");
+        SqliteStoreDatabase.write(file, List.of(new Store()), StoreSnapshot.checksum(JSON.getBytes()));
+
+        SqliteStoreRepository repository = new SqliteStoreRepository(storeMapper, resourceLoader,
+                "classpath:stores.json", file.toString(), 1);
+        repository.init();
+
+        assertEquals(1, repository.findAll().size());
+        verify(storeMapper, never()).toDomainList(any());
+        repository.close();
+    }
+
+    private void stubJson() throws IOException {
+        when(resource.getInputStream()).thenReturn(new ByteArrayInputStream(JSON.getBytes()));
+        when(resourceLoader.getResource(anyString())).thenReturn(resource);
+    }
+}
@@ -0,0 +1,76 @@
+package com.jumbo.adapter.out.persistence;
+
+import com.jumbo.ListStoreIndex;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.port.in.StoreFilter;
+import com.jumbo.application.port.out.SpatialStoreIndex;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.jumbo.TestStores.randomStores;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StoreGridTest {
+
+    private static final String[] TYPES = {"Supermarkt", "SupermarktPuP", "PuP"};
+
+    @Test
+    void findInBounds_RandomBoxesAndFilters_MatchesListScan() {
+        Random random = new Random(1);
+        List<Store> stores = randomStores(5_000, random);
+        for (Store store : stores) {
+            store.setLocationType(TYPES[random.nextInt(TYPES.length)]);
+            store.setCollectionPoint(random.nextDouble() < 0.1);
+            store.setShowWarningMessage(random.nextDouble() < 0.05);
+        }
+        StoreGrid grid = StoreGrid.of(stores);
+        ListStoreIndex reference = new ListStoreIndex(stores);
+
+        for (int i = 0; i < 500; i++) {
+            double lat = 50.8 + random.nextDouble() * 2.4;
+            double lon = 3.8 + random.nextDouble() * 2.4;
+            double size = random.nextDouble() * (random.nextBoolean() ? 0.05 : 1.0);
+            LocalTime openAt = random.nextBoolean() ? null : LocalTime.of(random.nextInt(24), random.nextInt(60));
+            StoreFilter filter = new StoreFilter(
+                    random.nextBoolean() ? TYPES[random.nextInt(TYPES.length)].toLowerCase() : null,
+                    random.nextInt(3) == 0 ? null : random.nextBoolean(),
+                    random.nextInt(3) == 0 ? null : random.nextBoolean());
+
+            List<Integer> expected = new ArrayList<>();
+            reference.findInBounds(lat, lon, lat + size, lon + size, openAt, filter, collect(expected));
+            List<Integer> actual = new ArrayList<>();
+            grid.findInBounds(lat, lon, lat + size, lon + size, openAt, filter, collect(actual));
+
+            actual.sort(null);
+            assertEquals(expected, actual, "box at " + lat + "," + lon + " size " + size + " " + filter);
+        }
+    }
+
+    @Test
+    void findInBounds_UnknownLocationType_ReturnsNothing() {
+        StoreGrid grid = StoreGrid.of(randomStores(100, new Random(1)));
+        List<Integer> ids = new ArrayList<>();
+
+        grid.findInBounds(50, 3, 54, 7, null, new StoreFilter("Unknown", null, null), collect(ids));
+
+        assertTrue(ids.isEmpty());
+    }
+
+    @Test
+    void findInBounds_Empty_ReturnsNothing() {
+        List<Integer> ids = new ArrayList<>();
+
+        StoreGrid.of(List.of()).findInBounds(50, 3, 54, 7, null, StoreFilter.NONE, collect(ids));
+
+        assertTrue(ids.isEmpty());
+    }
+
+    private static SpatialStoreIndex.LocationConsumer collect(List<Integer> ids) {
+        return (id, lat, lon) -> ids.add(id);
+    }
+}
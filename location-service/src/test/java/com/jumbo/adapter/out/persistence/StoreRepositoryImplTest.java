@@ -4,6 +4,7 @@ import com.jumbo.application.domain.model.Store;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.core.io.Resource;
@@ -11,10 +12,12 @@ import org.springframework.core.io.ResourceLoader;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -24,6 +27,18 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class StoreRepositoryImplTest {
 
+    private static final String JSON = """
+            {
+                "stores": [
+                    {
+                        "uuid": "1",
+                        "city": "Amsterdam"
+                    }
+                ]
+            }
+            """;
+    private static final long MODIFIED = 1_700_000_000_000L;
+
     @Mock
     private StoreMapper storeMapper;
     @Mock
@@ -31,23 +46,15 @@ class StoreRepositoryImplTest {
     @Mock
     private Resource resource;
 
+    @TempDir
+    Path dir;
+
     private StoreRepositoryImpl storeRepository;
 
     @BeforeEach
     void setUp() throws IOException {
-        storeRepository = new StoreRepositoryImpl(storeMapper, resourceLoader, "classpath:stores.json");
-        String mockJson = """
-                {
-                    "stores": [
-                        {
-                            "uuid": "1",
-                            "city": "Amsterdam"
-                        }
-                    ]
-                }
-                """;
-        InputStream mockInputStream = new ByteArrayInputStream(mockJson.getBytes());
-        lenient().when(resource.getInputStream()).thenReturn(mockInputStream);
+        storeRepository = new StoreRepositoryImpl(storeMapper, resourceLoader, "classpath:stores.json", "");
+        lenient().when(resource.getInputStream()).thenAnswer(i -> new ByteArrayInputStream(JSON.getBytes()));
         lenient().when(resourceLoader.getResource(anyString())).thenReturn(resource);
     }
 
@@ -84,7 +91,7 @@ class StoreRepositoryImplTest {
 
     @Test
     void findAll_WhenResourceNotFound_ThrowsIOException() {
-        StoreRepositoryImpl repositoryWithMissingFile = new StoreRepositoryImpl(storeMapper, resourceLoader, "classpath:stores.json") {
+        StoreRepositoryImpl repositoryWithMissingFile = new StoreRepositoryImpl(storeMapper, resourceLoader, "classpath:stores.json", "") {
             @Override
             public List<Store> findAll() throws IOException {
                 throw new IOException("Resource not found");
@@ -164,6 +171,119 @@ class StoreRepositoryImplTest {
         verify(storeMapper, times(1)).toDomainList(any());
     }
 
+    @Test
+    void init_WithSnapshotFile_WritesSnapshotAndSearchesIt() throws IOException {
+        Path snapshot = dir.resolve("stores.snap");
+        List<Store> stores = Arrays.asList(
+                createStore("1", "Amsterdam", 52.3676, 4.9041),
+                createStore("2", "Rotterdam", 51.9244, 4.4777));
+        when(storeMapper.toDomainList(any())).thenReturn(stores);
+        stubDataFile(MODIFIED);
+
+        StoreRepositoryImpl repository = snapshotRepository(snapshot);
+        repository.init();
+
+        StoreSnapshot written = StoreSnapshot.open(snapshot).orElseThrow();
+        assertTrue(written.isBuiltFrom(JSON.length(), MODIFIED));
+        assertEquals(StoreSnapshot.checksum(JSON.getBytes()), repository.fingerprint());
+        assertEquals(List.of(stores.getFirst()), storesInBounds(repository, 52, 4.5, 53, 5.5));
+        assertEquals(stores.size(), repository.findAll().size());
+    }
+
+    @Test
+    void init_WhenSnapshotMatchesDataFile_DoesNotParseIt() throws IOException {
+        Path snapshot = dir.resolve("stores.snap");
+        Store amsterdam = createStore("1", "Amsterdam", 52.3676, 4.9041);
+        StoreSnapshot.write(snapshot, List.of(amsterdam),
+                new StoreSnapshot.Source(StoreSnapshot.checksum(JSON.getBytes()), JSON.length(), MODIFIED));
+        stubDataFile(MODIFIED);
+
+        StoreRepositoryImpl repository = snapshotRepository(snapshot);
+        repository.init();
+
+        verify(storeMapper, never()).toDomainList(any());
+        assertEquals(StoreSnapshot.checksum(JSON.getBytes()), repository.fingerprint());
+        assertEquals(List.of(amsterdam), storesInBounds(repository, 52, 4.5, 53, 5.5));
+    }
+
+    @Test
+    void init_WhenDataFileChanged_RewritesSnapshot() throws IOException {
+        Path snapshot = dir.resolve("stores.snap");
+        StoreSnapshot.write(snapshot, List.of(createStore("old", "Utrecht", 52.0907, 5.1214)),
+                new StoreSnapshot.Source(1L, JSON.length(), MODIFIED - 1));
+        Store amsterdam = createStore("1", "Amsterdam", 52.3676, 4.9041);
+        when(storeMapper.toDomainList(any())).thenReturn(List.of(amsterdam));
+        stubDataFile(MODIFIED);
+
+        StoreRepositoryImpl repository = snapshotRepository(snapshot);
+        repository.init();
+
+        assertEquals(List.of(amsterdam), repository.findAll());
+        assertTrue(StoreSnapshot.open(snapshot).orElseThrow().isBuiltFrom(JSON.length(), MODIFIED));
+    }
+
+    @Test
+    void init_WhenContentChangedWithSameLengthAndModificationTime_RewritesSnapshot() throws IOException {
+        Path snapshot = dir.resolve("stores.snap");
+        StoreSnapshot.write(snapshot, List.of(createStore("old", "Utrecht", 52.0907, 5.1214)),
+                new StoreSnapshot.Source(1L, JSON.length(), MODIFIED));
+        Store amsterdam = createStore("1", "Amsterdam", 52.3676, 4.9041);
+        when(storeMapper.toDomainList(any())).thenReturn(List.of(amsterdam));
+        stubDataFile(MODIFIED);
+
+        StoreRepositoryImpl repository = snapshotRepository(snapshot);
+        repository.init();
+
+        assertEquals(List.of(amsterdam), repository.findAll());
+        assertEquals(StoreSnapshot.checksum(JSON.getBytes()),
+                StoreSnapshot.open(snapshot).orElseThrow().sourceChecksum());
+    }
+
+    @Test
+    void init_WhenSnapshotCorrupted_ParsesJsonAndRewritesSnapshot() throws IOException {
+        Path snapshot = dir.resolve("stores.snap");
+        Files.write(snapshot, new byte[]{1, 2, 3});
+        Store amsterdam = createStore("1", "Amsterdam", 52.3676, 4.9041);
+        when(storeMapper.toDomainList(any())).thenReturn(List.of(amsterdam));
+        stubDataFile(MODIFIED);
+
+        StoreRepositoryImpl repository = snapshotRepository(snapshot);
+        repository.init();
+
+        assertEquals(List.of(amsterdam), storesInBounds(repository, 52, 4.5, 53, 5.5));
+        assertTrue(StoreSnapshot.open(snapshot, StoreSnapshot.checksum(JSON.getBytes())).isPresent());
+    }
+
+    @Test
+    void init_WhenSnapshotCannotBeWritten_UsesParsedStores() throws IOException {
+        Path notADirectory = Files.writeString(dir.resolve("file"), "");
+        List<Store> stores = List.of(createStore("1", "Amsterdam", 52.3676, 4.9041));
+        when(storeMapper.toDomainList(any())).thenReturn(stores);
+
+        StoreRepositoryImpl repository = snapshotRepository(notADirectory.resolve("stores.snap"));
+        repository.init();
+
+        assertSame(stores, repository.findAll());
+        assertEquals(stores, storesInBounds(repository, 52, 4.5, 53, 5.5));
+        assertEquals(StoreSnapshot.checksum(JSON.getBytes()), repository.fingerprint());
+    }
+
+    private StoreRepositoryImpl snapshotRepository(Path snapshot) {
+        return new StoreRepositoryImpl(storeMapper, resourceLoader, "classpath:stores.json", snapshot.toString());
+    }
+
+    private void stubDataFile(long lastModified) throws IOException {
+        when(resource.contentLength()).thenReturn((long) JSON.length());
+        when(resource.lastModified()).thenReturn(lastModified);
+    }
+
+    private static List<Store> storesInBounds(StoreRepositoryImpl repository, double minLat, double minLon,
+                                              double maxLat, double maxLon) {
+        IntStream.Builder ids = IntStream.builder();
+        repository.findInBounds(minLat, minLon, maxLat, maxLon, null, (id, lat, lon) -> ids.add(id));
+        return repository.stores(ids.build().toArray());
+    }
+
     private Store createStore(String uuid, String city, double latitude, double longitude) {
         Store store = new Store();
         store.setUuid(uuid);
@@ -0,0 +1,132 @@
+package com.jumbo.adapter.out.persistence;
+
+import com.jumbo.TestStores;
+import com.jumbo.application.domain.model.Store;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StoreSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void open_AfterWrite_ReturnsEqualStores() throws IOException {
+        Store amsterdam = createStore("1", "Amsterdam", 52.3676, 4.9041);
+        amsterdam.setTodayOpen(LocalTime.of(8, 0));
+        amsterdam.setTodayClose(LocalTime.of(22, 0));
+        amsterdam.setCollectionPoint(true);
+        Store rotterdam = createStore("2", "Rotterdam", 51.9244, 4.4777);
+        rotterdam.setShowWarningMessage(true);
+        Store utrecht = createStore("3", "Müller-Straße", 52.0907, 5.1214);
+        List<Store> stores = List.of(amsterdam, rotterdam, utrecht);
+
+        Path file = dir.resolve("stores.snap");
+        StoreSnapshot.write(file, stores, new StoreSnapshot.Source(42L, 0, 0));
+        Optional<StoreSnapshot> snapshot = StoreSnapshot.open(file, 42L);
+
+        assertTrue(snapshot.isPresent());
+        List<Store> result = snapshot.get().toStores();
+        result.sort(Comparator.comparing(Store::getUuid));
+        assertEquals(stores, result);
+        assertNull(result.get(1).getTodayOpen());
+    }
+
+    @Test
+    void build_SharesRepeatedStringsInDictionary() {
+        List<Store> stores = List.of(
+                createStore("1", "Amsterdam", 52.37, 4.90),
+                createStore("2", "Amsterdam", 52.36, 4.89));
+
+        StoreSnapshot snapshot = StoreSnapshot.build(stores, new StoreSnapshot.Source(0L, 0, 0));
+
+        assertEquals(snapshot.stringRef(0, StoreSnapshot.CITY), snapshot.stringRef(1, StoreSnapshot.CITY));
+        assertEquals(3, snapshot.dictionarySize()); // "Amsterdam", "1", "2"
+    }
+
+    @Test
+    void open_WhenSourceChecksumDiffers_ReturnsEmpty() throws IOException {
+        Path file = dir.resolve("stores.snap");
+        StoreSnapshot.write(file, List.of(createStore("1", "Amsterdam", 52.37, 4.90)),
+                new StoreSnapshot.Source(1L, 0, 0));
+
+        assertTrue(StoreSnapshot.open(file, 2L).isEmpty());
+    }
+
+    @Test
+    void open_WhenPayloadCorrupted_ReturnsEmpty() throws IOException {
+        Path file = dir.resolve("stores.snap");
+        StoreSnapshot.write(file, List.of(createStore("1", "Amsterdam", 52.37, 4.90)),
+                new StoreSnapshot.Source(1L, 0, 0));
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 0x7F;
+        Files.write(file, bytes, StandardOpenOption.TRUNCATE_EXISTING);
+
+        assertTrue(StoreSnapshot.open(file, 1L).isEmpty());
+    }
+
+    @Test
+    void open_WhenFormatVersionDiffers_ReturnsEmpty() throws IOException {
+        Path file = dir.resolve("stores.snap");
+        StoreSnapshot.write(file, List.of(createStore("1", "Amsterdam", 52.37, 4.90)),
+                new StoreSnapshot.Source(1L, 0, 0));
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[7] = StoreSnapshot.FORMAT_VERSION - 1;
+        Files.write(file, bytes, StandardOpenOption.TRUNCATE_EXISTING);
+
+        assertTrue(StoreSnapshot.open(file).isEmpty());
+    }
+
+    @Test
+    void isBuiltFrom_MatchesRecordedLengthAndModificationTime() throws IOException {
+        Path file = dir.resolve("stores.snap");
+        StoreSnapshot.write(file, List.of(createStore("1", "Amsterdam", 52.37, 4.90)),
+                new StoreSnapshot.Source(1L, 120, 1_700_000_000_000L));
+
+        StoreSnapshot snapshot = StoreSnapshot.open(file).orElseThrow();
+
+        assertEquals(1L, snapshot.sourceChecksum());
+        assertTrue(snapshot.isBuiltFrom(120, 1_700_000_000_000L));
+        assertFalse(snapshot.isBuiltFrom(121, 1_700_000_000_000L));
+        assertFalse(snapshot.isBuiltFrom(120, 1_700_000_000_001L));
+    }
+
+    @Test
+    void isBuiltFrom_WhenModificationTimeUnknown_NeverMatches() {
+        StoreSnapshot snapshot = StoreSnapshot.build(List.of(createStore("1", "Amsterdam", 52.37, 4.90)),
+                new StoreSnapshot.Source(1L, 0, 0));
+
+        assertFalse(snapshot.isBuiltFrom(0, 0));
+    }
+
+    @Test
+    void checksum_OfStream_MatchesChecksumOfBytes() throws IOException {
+        byte[] source = "{\"stores\": []}".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(StoreSnapshot.checksum(source), StoreSnapshot.checksum(new ByteArrayInputStream(source)));
+    }
+
+    @Test
+    void open_WhenFileMissing_ReturnsEmpty() {
+        assertTrue(StoreSnapshot.open(dir.resolve("missing.snap"), 1L).isEmpty());
+    }
+
+    private Store createStore(String uuid, String city, double latitude, double longitude) {
+        Store store = TestStores.store(uuid, latitude, longitude);
+        store.setCity(city);
+        return store;
+    }
+}
@@ -0,0 +1,217 @@
+package com.jumbo.adapter.out.shard;
+
+import com.jumbo.adapter.in.web.ShardController;
+import com.jumbo.adapter.in.web.exception.GlobalExceptionHandler;
+import com.jumbo.application.domain.model.ShardRegion;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.servcie.HaversineDistanceCalculator;
+import com.jumbo.application.domain.servcie.InMemNearByStore;
+import com.jumbo.application.domain.servcie.ScatterGatherNearByService;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.NearByUseCase;
+import com.jumbo.application.port.in.SearchCursor;
+import com.jumbo.application.port.in.StoreFilter;
+import com.jumbo.application.port.out.ShardClient;
+import com.jumbo.application.port.out.ShardUnavailableException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.Banner;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.jumbo.TestStores.randomStores;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs each shard as its own web server with the real {@link ShardController} over only its region's stores, the way
+ * separate location-service instances registered with the name-server would, and queries them through the
+ * discovery-backed registry.
+ */
+class DiscoveryShardRegistryTest {
+
+    private static final String SERVICE_ID = "jumbo-location-service";
+    private static final LocalTime NOON = LocalTime.NOON;
+
+    private static final List<Store> STORES = randomStores(4_000, new Random(6));
+    // started once for all tests, a web server takes a while
+    private static final List<ConfigurableApplicationContext> SHARDS = new ArrayList<>();
+    // requests as the shard engines received them
+    private static final List<NearByRequest> QUERIES = new CopyOnWriteArrayList<>();
+    private static List<ServiceInstance> shardInstances;
+
+    private final DiscoveryClient discoveryClient = mock(DiscoveryClient.class);
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private List<ServiceInstance> instances;
+    private DiscoveryShardRegistry registry;
+
+    @BeforeAll
+    static void startShards() throws Exception {
+        shardInstances = List.of(startShard("south", "51,4,52,6"), startShard("north", "52,4,53,6"));
+    }
+
+    @AfterAll
+    static void stopShards() {
+        SHARDS.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @BeforeEach
+    void setUp() {
+        QUERIES.clear();
+        instances = new ArrayList<>(shardInstances);
+        // a plain instance without a region is not a shard
+        instances.add(new DefaultServiceInstance("plain", SERVICE_ID, "localhost", 1, false));
+        when(discoveryClient.getInstances(SERVICE_ID)).thenAnswer(invocation -> instances);
+        registry = new DiscoveryShardRegistry(discoveryClient, RestClient.builder(), SERVICE_ID,
+                Duration.ofSeconds(2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shards_RegisteredInstances_OnlyThoseWithRegion() {
+        List<ShardClient> shards = registry.shards();
+
+        assertEquals(List.of("south", "north"), shards.stream().map(ShardClient::id).toList());
+        assertEquals(ShardRegion.parse("52,4,53,6"), shards.get(1).region());
+    }
+
+    @Test
+    void shards_InvalidRegion_IsIgnored() {
+        instances.add(new DefaultServiceInstance("broken", SERVICE_ID, "localhost", 1, false,
+                Map.of(DiscoveryShardRegistry.REGION_METADATA, "52,4,51,6")));
+
+        assertEquals(2, registry.shards().size());
+    }
+
+    @Test
+    void scatterGather_AcrossShardInstances_MatchesSingleEngine() throws Exception {
+        InMemNearByStore reference = new InMemNearByStore(() -> STORES, new HaversineDistanceCalculator());
+        reference.init();
+        ScatterGatherNearByService service = new ScatterGatherNearByService(registry,
+                new HaversineDistanceCalculator(), executor);
+
+        Random random = new Random(7);
+        for (int i = 0; i < 50; i++) {
+            NearByRequest req = new NearByRequest(51 + random.nextDouble() * 2, 4 + random.nextDouble() * 2,
+                    1 + random.nextInt(100), 1 + random.nextInt(50), false);
+
+            List<String> expected = reference.findNearByStores(req, NOON).stream().map(Store::getUuid).toList();
+            List<String> actual = service.findNearByStores(req, NOON).stream().map(Store::getUuid).toList();
+
+            assertEquals(expected, actual, "request " + req);
+        }
+    }
+
+    @Test
+    void findNearByStores_FilterAndCursor_AreForwarded() {
+        StoreFilter filter = new StoreFilter("PuP", true, null);
+        NearByRequest first = new NearByRequest(52.5, 5, 10, 5, true, filter);
+        SearchCursor after = new SearchCursor(3, SearchCursor.queryHash(first), 1.5, "store-7");
+
+        registry.shards().get(1).findNearByStores(new NearByRequest(52.5, 5, 10, 5, true, filter, after));
+
+        NearByRequest received = QUERIES.getLast();
+        assertEquals(filter, received.filter());
+        assertTrue(received.onlyOpen());
+        assertEquals(1.5, received.after().distanceKm());
+        assertEquals("store-7", received.after().uuid());
+        assertNull(received.filter().showWarningMessage());
+    }
+
+    @Test
+    void findNearByStores_ShardDown_ThrowsShardUnavailable() throws IOException {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        instances.add(new DefaultServiceInstance("down", SERVICE_ID, "localhost", closedPort, false,
+                Map.of(DiscoveryShardRegistry.REGION_METADATA, "50,4,51,6")));
+
+        ShardClient down = registry.shards().getLast();
+
+        assertEquals("down", down.id());
+        assertThrows(ShardUnavailableException.class,
+                () -> down.findNearByStores(new NearByRequest(50.5, 5, 10, 5, false)));
+    }
+
+    @Test
+    void findNearByStores_InvalidRequest_ThrowsShardUnavailable() {
+        ShardClient north = registry.shards().get(1);
+
+        // the shard endpoint validates like the public one
+        assertThrows(ShardUnavailableException.class,
+                () -> north.findNearByStores(new NearByRequest(52.5, 5, 500, 5, false)));
+        assertTrue(QUERIES.isEmpty());
+    }
+
+    private static ServiceInstance startShard(String id, String region) throws Exception {
+        ShardRegion shardRegion = ShardRegion.parse(region);
+        List<Store> own = STORES.stream()
+                .filter(s -> shardRegion.contains(s.getLatitude(), s.getLongitude()))
+                .toList();
+        InMemNearByStore engine = new InMemNearByStore(() -> own, new HaversineDistanceCalculator());
+        engine.init();
+        NearByUseCase recording = (req, now) -> {
+            QUERIES.add(req);
+            return engine.findNearByStores(req, now);
+        };
+
+        ConfigurableApplicationContext shard = new SpringApplicationBuilder(ShardServer.class)
+                .bannerMode(Banner.Mode.OFF)
+                .initializers(context -> context.getBeanFactory().registerSingleton("localNearByService", recording))
+                // arguments, so the port wins over application.yaml
+                .run("--server.port=0");
+        SHARDS.add(shard);
+        int port = ((ServletWebServerApplicationContext) shard).getWebServer().getPort();
+        return new DefaultServiceInstance(id, SERVICE_ID, "localhost", port, false,
+                Map.of(DiscoveryShardRegistry.REGION_METADATA, region));
+    }
+
+    /**
+     * The web layer of one instance with nothing but the shard endpoint.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({ServletWebServerFactoryAutoConfiguration.class, DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class, HttpMessageConvertersAutoConfiguration.class,
+            JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+    @Import({ShardController.class, GlobalExceptionHandler.class})
+    static class ShardServer {
+    }
+}
@@ -39,10 +39,10 @@ public abstract class AbstractNearByServiceTest {
         when(store.isOpen()).thenReturn(open);
 
         AtomicReference<Double> distanceRef = new AtomicReference<>(Double.NaN);
-        doAnswer(inv -> {
+        when(store.withDistance(anyDouble())).thenAnswer(inv -> {
             distanceRef.set(inv.getArgument(0));
-            return null;
-        }).when(store).setDistance(anyDouble());
+            return store;
+        });
         when(store.getDistance()).thenAnswer(inv -> distanceRef.get());
 
         return store;
@@ -0,0 +1,61 @@
+package com.jumbo.application.domain.service;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.servcie.AdaptiveNearByService;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.NearByUseCase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AdaptiveNearByServiceTest {
+
+    private static final LocalTime NOON = LocalTime.of(12, 0);
+
+    @Test
+    @DisplayName("Tries every engine during warm-up, then routes to the fastest one")
+    void routesToFastestEngineAfterWarmUp() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Map<String, NearByUseCase> engines = new LinkedHashMap<>();
+        engines.put("slow", (req, now) -> {
+            long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(2);
+            while (System.nanoTime() < until) {
+                Thread.onSpinWait();
+            }
+            return List.of();
+        });
+        engines.put("fast", (req, now) -> List.of());
+
+        Store store = new Store();
+        store.setLatitude(52.0);
+        store.setLongitude(4.0);
+        AdaptiveNearByService service = new AdaptiveNearByService(engines, () -> List.of(store), registry, 0.0);
+        service.init();
+
+        NearByRequest req = new NearByRequest(52.0, 4.0, 5, 5, false);
+        assertNull(service.preferredEngine(req, NOON));
+        for (int i = 0; i < 30; i++) {
+            service.findNearByStores(req, NOON);
+        }
+
+        assertEquals("fast", service.preferredEngine(req, NOON));
+        assertEquals(5, decisions(registry, "slow", "warmup"));
+        assertEquals(5, decisions(registry, "fast", "warmup"));
+        assertEquals(0, decisions(registry, "slow", "exploit"));
+        assertEquals(20, decisions(registry, "fast", "exploit"));
+    }
+
+    private static double decisions(SimpleMeterRegistry registry, String engine, String reason) {
+        return registry.get("jumbo.search.routing.decisions").tag("engine", engine).tag("reason", reason)
+                .counter().count();
+    }
+}
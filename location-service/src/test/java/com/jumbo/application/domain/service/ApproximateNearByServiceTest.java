@@ -0,0 +1,90 @@
+package com.jumbo.application.domain.service;
+
+import com.jumbo.application.domain.model.ApproximateNearByResult;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.servcie.ApproximateNearByService;
+import com.jumbo.application.domain.servcie.HaversineDistanceCalculator;
+import com.jumbo.application.domain.servcie.PackedArrayNearByService;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.NearByUseCase;
+import com.jumbo.application.port.in.StoreFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Random;
+
+import static com.jumbo.TestStores.clusteredStores;
+import static com.jumbo.TestStores.store;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ApproximateNearByServiceTest {
+
+    @Test
+    @DisplayName("Keeps every store within the reported bound of the exact distances")
+    void keepsStoresWithinReportedBound() throws Exception {
+        List<Store> stores = clusteredStores(5_000, new Random(1));
+        PackedArrayNearByService packed = new PackedArrayNearByService(() -> stores, new HaversineDistanceCalculator());
+        packed.init();
+        NearByUseCase exactSearch = mock(NearByUseCase.class);
+        ApproximateNearByService approximate = new ApproximateNearByService(() -> stores,
+                new HaversineDistanceCalculator(), exactSearch);
+        approximate.init();
+
+        Random random = new Random(2);
+        for (double epsilon : new double[]{0, 0.1, 0.5, 1}) {
+            for (int i = 0; i < 300; i++) {
+                NearByRequest req = new NearByRequest(50.5 + random.nextDouble() * 3, 3.5 + random.nextDouble() * 3,
+                        1 + random.nextInt(100), 1 + random.nextInt(50), random.nextBoolean());
+                LocalTime now = LocalTime.of(random.nextInt(24), random.nextInt(60));
+
+                double[] exact = packed.findNearByStores(req, now).stream().mapToDouble(Store::getDistance).toArray();
+                ApproximateNearByResult result = approximate.findNearByStores(req, epsilon, now);
+
+                assertEquals(exact.length, result.stores().size(), "request " + req + " at " + now);
+                assertTrue(result.errorBound() <= epsilon + 0.15, "bound " + result.errorBound());
+                for (int k = 0; k < exact.length; k++) {
+                    assertTrue(result.stores().get(k).getDistance() <= (1 + result.errorBound()) * exact[k] + 1e-9,
+                            "store " + k + " of request " + req + " at " + now);
+                }
+            }
+        }
+        verifyNoInteractions(exactSearch);
+    }
+
+    @Test
+    @DisplayName("Reports a small formula error for short searches")
+    void reportsSmallFormulaError() throws Exception {
+        List<Store> stores = clusteredStores(1_000, new Random(3));
+        ApproximateNearByService approximate = new ApproximateNearByService(() -> stores,
+                new HaversineDistanceCalculator(), mock(NearByUseCase.class));
+        approximate.init();
+
+        ApproximateNearByResult result = approximate.findNearByStores(new NearByRequest(52.0, 5.0, 5, 5, false), 0,
+                LocalTime.NOON);
+
+        assertTrue(result.errorBound() > 0 && result.errorBound() < 0.01, "bound " + result.errorBound());
+    }
+
+    @Test
+    @DisplayName("Answers filtered queries exactly with the regular search")
+    void answersFilteredQueriesExactly() throws Exception {
+        NearByUseCase exactSearch = mock(NearByUseCase.class);
+        ApproximateNearByService approximate = new ApproximateNearByService(List::of,
+                new HaversineDistanceCalculator(), exactSearch);
+        approximate.init();
+        NearByRequest req = new NearByRequest(52.0, 5.0, 5, 5, false, new StoreFilter("SupermarktPuP", null, null));
+        Store store = store("a", 52.0, 5.0);
+        when(exactSearch.findNearByStores(req, LocalTime.NOON)).thenReturn(List.of(store));
+
+        ApproximateNearByResult result = approximate.findNearByStores(req, 0.5, LocalTime.NOON);
+
+        assertEquals(List.of(store), result.stores());
+        assertEquals(0.0, result.errorBound());
+    }
+}
@@ -0,0 +1,225 @@
+package com.jumbo.application.domain.service;
+
+import com.jumbo.ListStoreIndex;
+import com.jumbo.adapter.out.cache.LocalSharedResultCache;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.servcie.CachingNearByService;
+import com.jumbo.application.domain.servcie.HaversineDistanceCalculator;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.NearByUseCase;
+import com.jumbo.application.port.in.SearchCursor;
+import com.jumbo.application.port.in.StoreFilter;
+import com.jumbo.application.port.out.SharedResultCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.jumbo.TestStores.store;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingNearByServiceTest {
+
+    private static final NearByRequest REQUEST = new NearByRequest(52.37, 4.89, 5, 2, false);
+
+    private final SharedResultCache shared = new LocalSharedResultCache();
+
+    @Test
+    @DisplayName("A repeated query is answered from the instance's own cache")
+    void repeatedQueryHitsLocalCache() throws Exception {
+        Replica replica = new Replica(shared);
+
+        List<Store> first = replica.service.findNearByStores(REQUEST, LocalTime.NOON);
+        List<Store> second = replica.service.findNearByStores(REQUEST, LocalTime.NOON);
+
+        verify(replica.engine, times(1)).findNearByStores(any(), any());
+        assertEquals(first, second);
+        assertEquals(first.get(1).getDistance(), second.get(1).getDistance(), 1e-9);
+        assertEquals(1, replica.count("local-hit"));
+        assertEquals(1, replica.count("miss"));
+    }
+
+    @Test
+    @DisplayName("Another replica gets the result from the shared cache as copies of its own stores")
+    void otherReplicaHitsSharedCache() throws Exception {
+        Replica a = new Replica(shared);
+        Replica b = new Replica(shared);
+
+        a.service.findNearByStores(REQUEST, LocalTime.NOON);
+        List<Store> result = b.service.findNearByStores(REQUEST, LocalTime.NOON);
+
+        verify(b.engine, never()).findNearByStores(any(), any());
+        assertEquals(2, result.size());
+        assertEquals("a", result.get(0).getUuid());
+        assertNotSame(b.stores.get(0), result.get(0));
+        assertEquals(0.5, result.get(0).getDistance(), 0.01);
+        assertEquals(420.0, result.get(0).getTravelTimeSeconds());
+        assertEquals("b", result.get(1).getUuid());
+        assertNull(result.get(1).getTravelTimeSeconds());
+        assertEquals(1, b.count("shared-hit"));
+    }
+
+    @Test
+    @DisplayName("A replica with other store data never gets results of that data")
+    void otherDataMisses() throws Exception {
+        Replica a = new Replica(shared);
+        Replica b = new Replica(shared, 52.40);
+        a.service.findNearByStores(REQUEST, LocalTime.NOON);
+
+        b.service.findNearByStores(REQUEST, LocalTime.NOON);
+
+        verify(b.engine, times(1)).findNearByStores(any(), any());
+    }
+
+    @Test
+    @DisplayName("Results are only shared between engines with the same settings")
+    void otherSettingsMiss() throws Exception {
+        Replica a = new Replica(shared);
+        Replica b = new Replica(shared);
+        a.service.findNearByStores(REQUEST, LocalTime.NOON);
+
+        b.settings.set("quadtree;routing=2,1,3,50,250.0,3600");
+        b.service.findNearByStores(REQUEST, LocalTime.NOON);
+        a.settings.set("packed");
+        a.service.findNearByStores(REQUEST, LocalTime.NOON);
+
+        verify(a.engine, times(2)).findNearByStores(any(), any());
+        verify(b.engine, times(1)).findNearByStores(any(), any());
+        assertEquals(0, b.count("shared-hit"));
+    }
+
+    @Test
+    @DisplayName("Open-store queries are cached per minute, and the first instant of a minute separately")
+    void onlyOpenKeyedByMinute() throws Exception {
+        Replica replica = new Replica(shared);
+        NearByRequest request = new NearByRequest(52.37, 4.89, 5, 2, true);
+
+        replica.service.findNearByStores(request, LocalTime.of(22, 0, 10));
+        replica.service.findNearByStores(request, LocalTime.of(22, 0, 50));
+        verify(replica.engine, times(1)).findNearByStores(any(), any());
+
+        replica.service.findNearByStores(request, LocalTime.of(22, 0));
+        replica.service.findNearByStores(request, LocalTime.of(22, 1, 10));
+        verify(replica.engine, times(3)).findNearByStores(any(), any());
+    }
+
+    @Test
+    @DisplayName("Filters are part of the key and cursor pages are not cached")
+    void filtersAndCursors() throws Exception {
+        Replica replica = new Replica(shared);
+        NearByRequest filtered = new NearByRequest(52.37, 4.89, 5, 2, false,
+                new StoreFilter("supermarket", null, null));
+        NearByRequest page = new NearByRequest(52.37, 4.89, 5, 2, false, StoreFilter.NONE,
+                new SearchCursor(1, SearchCursor.queryHash(REQUEST), 1.5, "b"));
+
+        replica.service.findNearByStores(REQUEST, LocalTime.NOON);
+        replica.service.findNearByStores(filtered, LocalTime.NOON);
+        replica.service.findNearByStores(page, LocalTime.NOON);
+        replica.service.findNearByStores(page, LocalTime.NOON);
+
+        verify(replica.engine, times(4)).findNearByStores(any(), any());
+    }
+
+    @Test
+    @DisplayName("A replica missing a key another replica is computing waits for that result")
+    void concurrentMissWaitsForOtherReplica() throws Exception {
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Replica a = new Replica(shared);
+        Replica b = new Replica(shared);
+        when(a.engine.findNearByStores(any(), any())).thenAnswer(invocation -> {
+            computing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return a.result();
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<Store>> first = executor.submit(() -> a.service.findNearByStores(REQUEST, LocalTime.NOON));
+            assertTrue(computing.await(5, TimeUnit.SECONDS));
+            Future<List<Store>> second = executor.submit(() -> b.service.findNearByStores(REQUEST, LocalTime.NOON));
+            Thread.sleep(50);
+            release.countDown();
+
+            assertEquals(2, first.get(5, TimeUnit.SECONDS).size());
+            assertEquals(2, second.get(5, TimeUnit.SECONDS).size());
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(b.engine, never()).findNearByStores(any(), any());
+        assertEquals(1, b.count("shared-hit"));
+    }
+
+    @Test
+    @DisplayName("A failing shared cache is treated as a miss")
+    void sharedCacheFailureIsAMiss() throws Exception {
+        SharedResultCache broken = mock(SharedResultCache.class);
+        when(broken.get(anyString())).thenThrow(new IllegalStateException("connection refused"));
+        when(broken.tryLock(anyString(), any())).thenThrow(new IllegalStateException("connection refused"));
+        Replica replica = new Replica(broken);
+
+        assertEquals(2, replica.service.findNearByStores(REQUEST, LocalTime.NOON).size());
+        assertEquals(2, replica.service.findNearByStores(REQUEST, LocalTime.NOON).size());
+
+        verify(replica.engine, times(1)).findNearByStores(any(), any());
+        assertTrue(replica.meterRegistry.counter("jumbo.search.cache.shared.errors").count() >= 2);
+    }
+
+    /**
+     * One instance with its own copy of the same store data and its own engine.
+     */
+    private static final class Replica {
+        final List<Store> stores;
+        final NearByUseCase engine = mock(NearByUseCase.class);
+        final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final AtomicReference<String> settings = new AtomicReference<>("quadtree");
+        final CachingNearByService service;
+
+        Replica(SharedResultCache shared) {
+            this(shared, 52.38);
+        }
+
+        Replica(SharedResultCache shared, double latitudeOfB) {
+            stores = List.of(store("a", 52.3745, 4.89), store("b", latitudeOfB, 4.89));
+            when(engine.findNearByStores(any(), any())).thenAnswer(invocation -> result());
+            service = new CachingNearByService(engine, settings::get, new ListStoreIndex(stores),
+                    new HaversineDistanceCalculator(), shared, meterRegistry, 100, Duration.ofMinutes(1),
+                    Duration.ofSeconds(5));
+        }
+
+        // the engine's answer to REQUEST
+        List<Store> result() {
+            return List.of(stores.get(0).withDistance(distance(stores.get(0))).withTravelTimeSeconds(420.0),
+                    stores.get(1).withDistance(distance(stores.get(1))));
+        }
+
+        private static double distance(Store store) {
+            return new HaversineDistanceCalculator().distanceInKm(REQUEST.latitude(), REQUEST.longitude(),
+                    store.getLatitude(), store.getLongitude());
+        }
+
+        double count(String outcome) {
+            return meterRegistry.counter("jumbo.search.cache.requests", "outcome", outcome).count();
+        }
+    }
+}
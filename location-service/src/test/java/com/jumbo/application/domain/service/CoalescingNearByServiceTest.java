@@ -0,0 +1,247 @@
+package com.jumbo.application.domain.service;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.servcie.CoalescingNearByService;
+import com.jumbo.application.domain.servcie.HaversineDistanceCalculator;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.NearByUseCase;
+import com.jumbo.application.port.in.SearchCursor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.jumbo.TestStores.store;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CoalescingNearByServiceTest {
+
+    private static final int CALLERS = 8;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final HaversineDistanceCalculator distanceCalculator = new HaversineDistanceCalculator();
+
+    @Test
+    @DisplayName("Concurrent identical queries run one search and each get their own copies")
+    void concurrentQueriesShareOneSearch() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        NearByUseCase engine = mock(NearByUseCase.class);
+        when(engine.findNearByStores(any(), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new ArrayList<>(List.of(store("a", 52.37, 4.89).withDistance(1.5), store("b", 52.37, 4.89)));
+        });
+        CoalescingNearByService service = new CoalescingNearByService(engine, distanceCalculator, meterRegistry, -1);
+        NearByRequest request = new NearByRequest(52.37, 4.89, 5, 5, false);
+
+        List<Future<List<Store>>> results = new ArrayList<>();
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        try {
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(callers.submit(() -> service.findNearByStores(request, LocalTime.NOON)));
+            }
+            awaitFollowers(CALLERS - 1);
+            release.countDown();
+
+            List<Store> first = results.getFirst().get(5, TimeUnit.SECONDS);
+            assertEquals(2, first.size());
+            Set<Store> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Future<List<Store>> result : results) {
+                List<Store> stores = result.get(5, TimeUnit.SECONDS);
+                assertEquals(first, stores);
+                assertEquals(1.5, stores.getFirst().getDistance());
+                stores.forEach(store -> assertTrue(seen.add(store), "a store was handed to two callers"));
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        verify(engine, times(1)).findNearByStores(any(), any());
+        assertEquals(1, count("leader"));
+        assertEquals(CALLERS - 1, count("follower"));
+        assertEquals(CALLERS, meterRegistry.get("jumbo.search.coalescing.fanout").summary().totalAmount());
+    }
+
+    @Test
+    @DisplayName("Nothing is kept once a search has finished")
+    void sequentialQueriesSearchAgain() {
+        NearByUseCase engine = mock(NearByUseCase.class);
+        when(engine.findNearByStores(any(), any())).thenReturn(List.of(store("a", 52.37, 4.89)));
+        CoalescingNearByService service = new CoalescingNearByService(engine, distanceCalculator, meterRegistry, 4);
+        NearByRequest request = new NearByRequest(52.37, 4.89, 5, 5, false);
+
+        service.findNearByStores(request, LocalTime.NOON);
+        service.findNearByStores(request, LocalTime.NOON);
+
+        verify(engine, times(2)).findNearByStores(any(), any());
+        assertEquals(2, count("leader"));
+        assertEquals(0, count("follower"));
+    }
+
+    @Test
+    @DisplayName("Followers see the failure of the search they joined")
+    void failureReachesFollowers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        NearByUseCase engine = mock(NearByUseCase.class);
+        when(engine.findNearByStores(any(), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            throw new IllegalStateException("index unavailable");
+        });
+        CoalescingNearByService service = new CoalescingNearByService(engine, distanceCalculator, meterRegistry, 4);
+        NearByRequest request = new NearByRequest(52.37, 4.89, 5, 5, false);
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<Store>> leader = callers.submit(() -> service.findNearByStores(request, LocalTime.NOON));
+            Future<List<Store>> follower = callers.submit(() -> service.findNearByStores(request, LocalTime.NOON));
+            awaitFollowers(1);
+            release.countDown();
+
+            for (Future<List<Store>> result : List.of(leader, follower)) {
+                ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(IllegalStateException.class, e.getCause());
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        verify(engine, times(1)).findNearByStores(any(), any());
+    }
+
+    @Test
+    @DisplayName("Searches with the caller's own coordinates and cursor, rounding only groups the callers")
+    void searchesWithTheCallersRequest() {
+        NearByUseCase engine = mock(NearByUseCase.class);
+        when(engine.findNearByStores(any(), any())).thenReturn(List.of());
+        CoalescingNearByService service = new CoalescingNearByService(engine, distanceCalculator, meterRegistry, 4);
+        NearByRequest first = new NearByRequest(52.370012, 4.889991, 5, 5, false);
+        SearchCursor after = new SearchCursor(3, SearchCursor.queryHash(first), 1.25, "b");
+        NearByRequest request = new NearByRequest(52.370012, 4.889991, 5, 5, false, null, after);
+
+        service.findNearByStores(request, LocalTime.NOON);
+
+        verify(engine).findNearByStores(request, LocalTime.NOON);
+    }
+
+    @Test
+    @DisplayName("Followers at another point get distances, radius and order from their own point")
+    void followersAtAnotherPointSeeTheirOwnDistances() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        NearByRequest leader = new NearByRequest(52.374, 4.89, 1, 5, false);
+        NearByRequest follower = new NearByRequest(52.366, 4.89, 1, 5, false);
+        Store a = store("a", 52.378, 4.89);
+        Store b = store("b", 52.367, 4.89);
+        NearByUseCase engine = mock(NearByUseCase.class);
+        when(engine.ordersByDistance()).thenReturn(true);
+        when(engine.findNearByStores(any(), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(a.withDistance(distanceFrom(leader, a)), b.withDistance(distanceFrom(leader, b)));
+        });
+        // both round to 52.37
+        CoalescingNearByService service = new CoalescingNearByService(engine, distanceCalculator, meterRegistry, 2);
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<Store>> leaderResult = callers.submit(() -> service.findNearByStores(leader, LocalTime.NOON));
+            verify(engine, timeout(5000)).findNearByStores(any(), any());
+            Future<List<Store>> followerResult =
+                    callers.submit(() -> service.findNearByStores(follower, LocalTime.NOON));
+            awaitFollowers(1);
+            release.countDown();
+
+            assertEquals(List.of("a", "b"), uuids(leaderResult.get(5, TimeUnit.SECONDS)));
+            List<Store> stores = followerResult.get(5, TimeUnit.SECONDS);
+            // a is 1.3 km from the follower, beyond its radius
+            assertEquals(List.of("b"), uuids(stores));
+            assertEquals(distanceFrom(follower, b), stores.getFirst().getDistance());
+        } finally {
+            callers.shutdownNow();
+        }
+        verify(engine, times(1)).findNearByStores(any(), any());
+    }
+
+    @Test
+    @DisplayName("Cursor pages from different points never share a search")
+    void cursorQueriesAreNotRounded() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        NearByUseCase engine = mock(NearByUseCase.class);
+        when(engine.findNearByStores(any(), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        CoalescingNearByService service = new CoalescingNearByService(engine, distanceCalculator, meterRegistry, 4);
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<List<Store>>> results = new ArrayList<>();
+            for (double latitude : new double[]{52.370001, 52.370002}) {
+                NearByRequest first = new NearByRequest(latitude, 4.89, 5, 5, false);
+                SearchCursor after = new SearchCursor(3, SearchCursor.queryHash(first), 1.25, "b");
+                NearByRequest request = new NearByRequest(latitude, 4.89, 5, 5, false, null, after);
+                results.add(callers.submit(() -> service.findNearByStores(request, LocalTime.NOON)));
+            }
+            verify(engine, timeout(5000).times(2)).findNearByStores(any(), any());
+            release.countDown();
+            for (Future<List<Store>> result : results) {
+                result.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        assertEquals(2, count("leader"));
+    }
+
+    @Test
+    @DisplayName("Passes coordinates through unchanged when rounding is off")
+    void exactCoordinatesWhenRoundingDisabled() {
+        NearByUseCase engine = mock(NearByUseCase.class);
+        when(engine.findNearByStores(any(), any())).thenReturn(List.of());
+        CoalescingNearByService service = new CoalescingNearByService(engine, distanceCalculator, meterRegistry, -1);
+        NearByRequest request = new NearByRequest(52.370012, 4.889991, 5, 5, false);
+
+        service.findNearByStores(request, LocalTime.NOON);
+
+        verify(engine).findNearByStores(request, LocalTime.NOON);
+    }
+
+    private void awaitFollowers(int followers) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count("follower") < followers) {
+            assertTrue(System.nanoTime() < deadline, "callers did not join the running search");
+            Thread.sleep(5);
+        }
+    }
+
+    private double distanceFrom(NearByRequest request, Store store) {
+        return distanceCalculator.distanceInKm(request.latitude(), request.longitude(),
+                store.getLatitude(), store.getLongitude());
+    }
+
+    private static List<String> uuids(List<Store> stores) {
+        return stores.stream().map(Store::getUuid).toList();
+    }
+
+    private double count(String role) {
+        return meterRegistry.get("jumbo.search.coalescing.requests").tag("role", role).counter().count();
+    }
+}
@@ -0,0 +1,90 @@
+package com.jumbo.application.domain.service;
+
+import com.jumbo.TestStores;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.servcie.ColumnarNearByService;
+import com.jumbo.application.domain.servcie.HaversineDistanceCalculator;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.out.StoreTable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarNearByServiceTest {
+
+    private static final LocalTime NOON = LocalTime.of(12, 0);
+
+    @Test
+    @DisplayName("Returns nearest rows in distance order and materialises only those")
+    void returnsNearestRowsInDistanceOrder() {
+        ListStoreTable table = new ListStoreTable(List.of(
+                store("far", 0.0, 0.30, true),
+                store("near", 0.0, 0.10, true),
+                store("mid", 0.0, 0.20, true)));
+        ColumnarNearByService service = new ColumnarNearByService(table, new HaversineDistanceCalculator());
+
+        List<Store> result = service.findNearByStores(new NearByRequest(0.0, 0.0, 50, 2, false), NOON);
+
+        assertEquals(List.of("near", "mid"), result.stream().map(Store::getUuid).toList());
+        assertTrue(result.get(0).getDistance() < result.get(1).getDistance());
+        assertEquals(2, table.materialised);
+    }
+
+    @Test
+    @DisplayName("Skips closed stores and stores outside the radius")
+    void skipsClosedStoresAndStoresOutsideRadius() {
+        ListStoreTable table = new ListStoreTable(List.of(
+                store("closed", 0.0, 0.001, false),
+                store("open", 0.0, 0.002, true),
+                store("outside", 0.0, 1.0, true)));
+        ColumnarNearByService service = new ColumnarNearByService(table, new HaversineDistanceCalculator());
+
+        List<Store> result = service.findNearByStores(new NearByRequest(0.0, 0.0, 1, 10, true), NOON);
+
+        assertEquals(List.of("open"), result.stream().map(Store::getUuid).toList());
+    }
+
+    private static Store store(String uuid, double lat, double lon, boolean openAtNoon) {
+        Store store = TestStores.store(uuid, lat, lon);
+        return openAtNoon ? store.opensAt(8, 0).closesAt(20, 0) : store.opensAt(14, 0).closesAt(20, 0);
+    }
+
+    private static class ListStoreTable implements StoreTable {
+        private final List<Store> stores;
+        private int materialised;
+
+        ListStoreTable(List<Store> stores) {
+            this.stores = stores;
+        }
+
+        @Override
+        public int size() {
+            return stores.size();
+        }
+
+        @Override
+        public double latitude(int row) {
+            return stores.get(row).getLatitude();
+        }
+
+        @Override
+        public double longitude(int row) {
+            return stores.get(row).getLongitude();
+        }
+
+        @Override
+        public boolean isOpen(int row, LocalTime now) {
+            return stores.get(row).isOpen(now);
+        }
+
+        @Override
+        public Store store(int row) {
+            materialised++;
+            return stores.get(row);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.jumbo.application.domain.service;
+
+import com.jumbo.ListStoreIndex;
+import com.jumbo.application.domain.model.RouteStop;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.servcie.CorridorSearchService;
+import com.jumbo.application.domain.servcie.HaversineDistanceCalculator;
+import com.jumbo.application.port.in.CorridorRequest;
+import com.jumbo.common.geo.Polyline;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.jumbo.TestStores.randomStores;
+import static com.jumbo.TestStores.store;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CorridorSearchServiceTest {
+
+    private static final double KM_PER_DEGREE = 111.195;
+    private static final LocalTime NOON = LocalTime.NOON;
+
+    @Test
+    @DisplayName("Finds the same stores as measuring every store against every route segment")
+    void matchesBruteForceOnLongRoute() {
+        Random random = new Random(1);
+        List<Store> stores = randomStores(5_000, random);
+        double[] route = wanderingRoute(2_000, random);
+        CorridorSearchService service = new CorridorSearchService(new ListStoreIndex(stores),
+                new HaversineDistanceCalculator());
+
+        double bufferKm = 1.5;
+        List<RouteStop> stops = service.findAlongRoute(
+                new CorridorRequest(Polyline.encode(route), bufferKm, 500, null, false), NOON);
+
+        // the polyline rounds to 5 decimals, measure against what the service decoded
+        double[] decoded = Polyline.decode(Polyline.encode(route));
+        Set<String> expected = stores.stream()
+                .filter(s -> distanceToRoute(s, decoded) < bufferKm - 1e-6)
+                .map(Store::getUuid)
+                .collect(Collectors.toSet());
+        Set<String> actual = stops.stream().map(stop -> stop.store().getUuid()).collect(Collectors.toSet());
+
+        assertTrue(actual.containsAll(expected), "missing stores along the route");
+        for (RouteStop stop : stops) {
+            assertEquals(distanceToRoute(stop.store(), decoded), stop.distanceFromRouteKm(), 1e-6);
+        }
+    }
+
+    @Test
+    @DisplayName("Ranks by distance from the route or by position along it")
+    void ranksByDetourOrPosition() {
+        // route due east along latitude 52 from longitude 4 to 5
+        Store far = store("far", 52.01, 4.1);
+        Store near = store("near", 52.001, 4.9);
+        Store outside = store("outside", 52.2, 4.5);
+        CorridorSearchService service = new CorridorSearchService(new ListStoreIndex(List.of(far, near, outside)),
+                new HaversineDistanceCalculator());
+        String polyline = Polyline.encode(52.0, 4.0, 52.0, 5.0);
+
+        List<RouteStop> byDetour = service.findAlongRoute(
+                new CorridorRequest(polyline, 2, 10, CorridorRequest.Ranking.DETOUR, false), NOON);
+        List<RouteStop> byPosition = service.findAlongRoute(
+                new CorridorRequest(polyline, 2, 10, CorridorRequest.Ranking.ROUTE_POSITION, false), NOON);
+
+        assertEquals(List.of("near", "far"), byDetour.stream().map(s -> s.store().getUuid()).toList());
+        assertEquals(List.of("far", "near"), byPosition.stream().map(s -> s.store().getUuid()).toList());
+        assertEquals(0.1 * KM_PER_DEGREE * Math.cos(Math.toRadians(52.01)), byPosition.getFirst().routePositionKm(),
+                0.1);
+        assertEquals(2 * byDetour.getFirst().distanceFromRouteKm(), byDetour.getFirst().roundTripKm(), 1e-9);
+        // every request gets its own copies, the indexed stores keep no distance
+        assertNotSame(near, byDetour.getFirst().store());
+        assertEquals(byDetour.getFirst().distanceFromRouteKm(), byDetour.getFirst().store().getDistance(), 1e-9);
+        assertEquals(0, near.getDistance());
+    }
+
+    private static double distanceToRoute(Store store, double[] route) {
+        double lat = store.getLatitude();
+        double lon = store.getLongitude();
+        double kx = KM_PER_DEGREE * Math.cos(Math.toRadians(lat));
+        double best = Double.MAX_VALUE;
+        for (int i = 2; i < route.length; i += 2) {
+            double ax = (route[i - 1] - lon) * kx;
+            double ay = (route[i - 2] - lat) * KM_PER_DEGREE;
+            double dx = (route[i + 1] - lon) * kx - ax;
+            double dy = (route[i] - lat) * KM_PER_DEGREE - ay;
+            double length2 = dx * dx + dy * dy;
+            double t = length2 == 0 ? 0 : Math.max(0, Math.min(1, -(ax * dx + ay * dy) / length2));
+            best = Math.min(best, Math.hypot(ax + t * dx, ay + t * dy));
+        }
+        return best;
+    }
+
+    private static double[] wanderingRoute(int vertices, Random random) {
+        double[] route = new double[vertices * 2];
+        double lat = 51.2;
+        double lon = 4.1;
+        for (int v = 0; v < vertices; v++) {
+            route[2 * v] = lat;
+            route[2 * v + 1] = lon;
+            lat = Math.min(52.9, Math.max(51.1, lat + (random.nextDouble() - 0.45) * 0.01));
+            lon = Math.min(5.9, Math.max(4.1, lon + (random.nextDouble() - 0.4) * 0.01));
+        }
+        return route;
+    }
+}
@@ -0,0 +1,85 @@
+package com.jumbo.application.domain.service;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.servcie.DelaunayNearByService;
+import com.jumbo.application.domain.servcie.HaversineDistanceCalculator;
+import com.jumbo.application.domain.servcie.PackedArrayNearByService;
+import com.jumbo.application.port.in.NearByRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Random;
+
+import static com.jumbo.TestStores.randomStores;
+import static com.jumbo.TestStores.store;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DelaunayNearByServiceTest {
+
+    @Test
+    @DisplayName("Returns the same stores as the packed scan for random queries")
+    void returnsSameStoresAsPackedScan() throws Exception {
+        List<Store> stores = withSharedLocations(randomStores(2_000, new Random(1)), new Random(1));
+        PackedArrayNearByService packed = new PackedArrayNearByService(() -> stores, new HaversineDistanceCalculator());
+        packed.init();
+        DelaunayNearByService delaunay = new DelaunayNearByService(() -> stores, new HaversineDistanceCalculator());
+        delaunay.init();
+
+        Random random = new Random(2);
+        for (int i = 0; i < 1_000; i++) {
+            // every third query is a single-store lookup; some start outside the data
+            int limit = i % 3 == 0 ? 1 : 1 + random.nextInt(50);
+            NearByRequest req = new NearByRequest(50.5 + random.nextDouble() * 3, 3.5 + random.nextDouble() * 3,
+                    1 + random.nextInt(100), limit, random.nextBoolean());
+            LocalTime now = LocalTime.of(random.nextInt(24), random.nextInt(60));
+
+            List<String> expected = packed.findNearByStores(req, now).stream().map(Store::getUuid).toList();
+            List<String> actual = delaunay.findNearByStores(req, now).stream().map(Store::getUuid).toList();
+
+            assertEquals(expected, actual, "request " + req + " at " + now);
+        }
+    }
+
+    @Test
+    @DisplayName("Returns every store sharing the nearest location")
+    void returnsStoresAtSameLocation() throws Exception {
+        List<Store> stores = List.of(store("a", 52.0, 4.0), store("b", 52.0, 4.0), store("c", 52.01, 4.0),
+                store("d", 52.1, 4.1), store("e", 51.9, 3.9));
+        DelaunayNearByService delaunay = new DelaunayNearByService(() -> stores, new HaversineDistanceCalculator());
+        delaunay.init();
+
+        List<Store> result = delaunay.findNearByStores(new NearByRequest(52.0, 4.0, 5, 3, false), LocalTime.NOON);
+
+        assertEquals(List.of("a", "b", "c"), result.stream().map(Store::getUuid).sorted().toList());
+        assertTrue(result.getFirst().getDistance() < 0.001);
+    }
+
+    @Test
+    @DisplayName("Handles store sets too small to triangulate")
+    void handlesTinyStoreSets() throws Exception {
+        DelaunayNearByService empty = new DelaunayNearByService(List::of, new HaversineDistanceCalculator());
+        empty.init();
+        assertTrue(empty.findNearByStores(new NearByRequest(52.0, 4.0, 5, 1, false), LocalTime.NOON).isEmpty());
+
+        List<Store> two = List.of(store("a", 52.0, 4.0), store("b", 52.02, 4.0));
+        DelaunayNearByService delaunay = new DelaunayNearByService(() -> two, new HaversineDistanceCalculator());
+        delaunay.init();
+        assertEquals(List.of("b"), delaunay.findNearByStores(new NearByRequest(52.03, 4.0, 5, 1, false),
+                LocalTime.NOON).stream().map(Store::getUuid).toList());
+    }
+
+    // every twentieth store moves to the location of an earlier one
+    private static List<Store> withSharedLocations(List<Store> stores, Random random) {
+        for (int i = 1; i < stores.size(); i++) {
+            if (random.nextInt(20) == 0) {
+                Store other = stores.get(random.nextInt(i));
+                stores.get(i).setLatitude(other.getLatitude());
+                stores.get(i).setLongitude(other.getLongitude());
+            }
+        }
+        return stores;
+    }
+}
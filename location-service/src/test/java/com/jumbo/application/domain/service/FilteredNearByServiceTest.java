@@ -0,0 +1,173 @@
+package com.jumbo.application.domain.service;
+
+import com.jumbo.ListStoreIndex;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.servcie.FilteredNearByService;
+import com.jumbo.application.domain.servcie.HaversineDistanceCalculator;
+import com.jumbo.application.domain.servcie.InMemNearByStore;
+import com.jumbo.application.domain.servcie.IndexedNearByService;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.NearByUseCase;
+import com.jumbo.application.port.in.SearchCursor;
+import com.jumbo.application.port.in.StoreFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.jumbo.TestStores.randomStores;
+import static com.jumbo.TestStores.store;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class FilteredNearByServiceTest {
+
+    private static final String[] TYPES = {"Supermarkt", "SupermarktPuP", "PuP"};
+
+    private final List<Store> stores = withAttributes(randomStores(10_000, new Random(1)), new Random(1));
+    private final NearByUseCase delegate = mock(NearByUseCase.class);
+    private final IndexedNearByService indexed = new IndexedNearByService(new ListStoreIndex(stores),
+            new HaversineDistanceCalculator());
+    private InMemNearByStore reference;
+    private FilteredNearByService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        reference = new InMemNearByStore(() -> stores, new HaversineDistanceCalculator());
+        reference.init();
+        service = new FilteredNearByService(delegate, indexed);
+    }
+
+    @Test
+    @DisplayName("Returns the same stores as filtering the list scan, for selective and broad filters")
+    void returnsSameStoresAsFilteredListScan() {
+        Random random = new Random(2);
+        for (int i = 0; i < 300; i++) {
+            StoreFilter filter = new StoreFilter(
+                    random.nextBoolean() ? TYPES[random.nextInt(TYPES.length)] : null,
+                    random.nextInt(3) == 0 ? null : random.nextBoolean(),
+                    random.nextInt(3) == 0 ? null : random.nextBoolean());
+            if (filter.isEmpty()) {
+                continue;
+            }
+            NearByRequest req = new NearByRequest(51 + random.nextDouble() * 2, 4 + random.nextDouble() * 2,
+                    1 + random.nextInt(100), 1 + random.nextInt(50), random.nextBoolean(), filter);
+            LocalTime now = LocalTime.of(random.nextInt(24), random.nextInt(60));
+
+            NearByRequest unfiltered = new NearByRequest(req.latitude(), req.longitude(), req.maxRadiusKm(),
+                    stores.size(), req.onlyOpen());
+            List<String> expected = reference.findNearByStores(unfiltered, now).stream()
+                    .filter(filter::matches)
+                    .limit(req.limit())
+                    .map(Store::getUuid)
+                    .toList();
+            List<String> actual = service.findNearByStores(req, now).stream().map(Store::getUuid).toList();
+
+            assertEquals(expected, actual, "request " + req + " at " + now);
+        }
+    }
+
+    @Test
+    @DisplayName("Pages through the same stores as one large query, with and without a filter")
+    void pagesResumeAfterCursor() {
+        // unfiltered first pages come from the wrapped engine
+        FilteredNearByService paged = new FilteredNearByService(reference, indexed);
+        Random random = new Random(3);
+        for (int i = 0; i < 50; i++) {
+            StoreFilter filter = random.nextBoolean() ? StoreFilter.NONE : new StoreFilter(null, true, null);
+            NearByRequest first = new NearByRequest(51 + random.nextDouble() * 2, 4 + random.nextDouble() * 2,
+                    1 + random.nextInt(50), 1 + random.nextInt(20), random.nextBoolean(), filter);
+            LocalTime now = LocalTime.of(random.nextInt(24), random.nextInt(60));
+
+            List<String> expected = reference.findNearByStores(new NearByRequest(first.latitude(),
+                            first.longitude(), first.maxRadiusKm(), stores.size(), first.onlyOpen()), now).stream()
+                    .filter(filter::matches)
+                    .limit(200)
+                    .map(Store::getUuid)
+                    .toList();
+
+            List<String> actual = new ArrayList<>();
+            SearchCursor cursor = null;
+            while (actual.size() < expected.size()) {
+                NearByRequest req = new NearByRequest(first.latitude(), first.longitude(), first.maxRadiusKm(),
+                        1 + random.nextInt(50), first.onlyOpen(), filter, cursor);
+                List<Store> page = paged.findNearByStores(req, now);
+                page.forEach(store -> actual.add(store.getUuid()));
+                if (page.size() < req.limit()) {
+                    break;
+                }
+                Store last = page.getLast();
+                cursor = new SearchCursor(0, SearchCursor.queryHash(req), last.getDistance(), last.getUuid());
+            }
+
+            assertEquals(expected, actual.subList(0, Math.min(actual.size(), expected.size())),
+                    "request " + first + " at " + now);
+        }
+    }
+
+    @Test
+    @DisplayName("Matches location types ignoring case and returns nothing for unknown types")
+    void matchesLocationTypeIgnoringCase() {
+        List<Store> result = service.findNearByStores(new NearByRequest(52, 5, 100, 10, false,
+                new StoreFilter("pup", null, null)), LocalTime.NOON);
+
+        assertEquals(10, result.size());
+        assertTrue(result.stream().allMatch(s -> s.getLocationType().equals("PuP")));
+        assertTrue(service.findNearByStores(new NearByRequest(52, 5, 100, 10, false,
+                new StoreFilter("Unknown", null, null)), LocalTime.NOON).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Sends unfiltered first pages to the wrapped engine with one extra store")
+    void delegatesUnfilteredQueries() {
+        NearByRequest req = new NearByRequest(52, 5, 10, 1, false);
+        NearByRequest withExtra = new NearByRequest(52, 5, 10, 2, false);
+        List<Store> found = List.of(stores.get(0).withDistance(1.0), stores.get(1).withDistance(2.0));
+        when(delegate.findNearByStores(withExtra, LocalTime.NOON)).thenReturn(found);
+
+        assertEquals(List.of(found.getFirst()), service.findNearByStores(req, LocalTime.NOON));
+        verify(delegate).findNearByStores(withExtra, LocalTime.NOON);
+    }
+
+    @Test
+    @DisplayName("Cuts a distance tie at the end of a first page by uuid, whatever order the engine used")
+    void cutsFirstPageTiesByUuid() {
+        List<Store> shared = List.of(store("b", 52.0, 4.0), store("a", 52.0, 4.0), store("c", 52.0, 4.0));
+        NearByUseCase byInsertionOrder = (req, now) -> shared.stream().limit(req.limit())
+                .map(s -> s.withDistance(0.0)).toList();
+        FilteredNearByService tied = new FilteredNearByService(byInsertionOrder,
+                new IndexedNearByService(new ListStoreIndex(shared), new HaversineDistanceCalculator()));
+
+        assertEquals(List.of("a", "b"), tied.findNearByStores(new NearByRequest(52.0, 4.0, 10, 2, false),
+                LocalTime.NOON).stream().map(Store::getUuid).toList());
+    }
+
+    @Test
+    @DisplayName("Does not consult the wrapped engine for filtered or paged queries")
+    void answersFilteredQueriesItself() {
+        service.findNearByStores(new NearByRequest(52, 5, 10, 5, false, new StoreFilter(null, true, null)),
+                LocalTime.NOON);
+        NearByRequest first = new NearByRequest(52, 5, 10, 5, false);
+        service.findNearByStores(new NearByRequest(52, 5, 10, 5, false, null,
+                new SearchCursor(0, SearchCursor.queryHash(first), 1.0, "s1")), LocalTime.NOON);
+
+        verifyNoInteractions(delegate);
+    }
+
+    private static List<Store> withAttributes(List<Store> stores, Random random) {
+        for (Store store : stores) {
+            store.setLocationType(TYPES[random.nextDouble() < 0.9 ? 0 : random.nextDouble() < 0.7 ? 1 : 2]);
+            store.setCollectionPoint(random.nextDouble() < 0.1);
+            store.setShowWarningMessage(random.nextDouble() < 0.02);
+        }
+        return stores;
+    }
+}
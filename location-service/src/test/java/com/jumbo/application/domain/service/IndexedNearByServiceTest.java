@@ -0,0 +1,152 @@
+package com.jumbo.application.domain.service;
+
+import com.jumbo.ListStoreIndex;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.servcie.HaversineDistanceCalculator;
+import com.jumbo.application.domain.servcie.IndexedNearByService;
+import com.jumbo.application.domain.servcie.PackedArrayNearByService;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.SearchCursor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.jumbo.TestStores.randomStores;
+import static com.jumbo.TestStores.store;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndexedNearByServiceTest {
+
+    @Test
+    @DisplayName("Returns the same stores as the packed scan for random queries")
+    void returnsSameStoresAsPackedScan() throws Exception {
+        List<Store> stores = randomStores(3_000, new Random(1));
+        PackedArrayNearByService packed = new PackedArrayNearByService(() -> stores, new HaversineDistanceCalculator());
+        packed.init();
+        IndexedNearByService indexed = new IndexedNearByService(new ListStoreIndex(stores),
+                new HaversineDistanceCalculator());
+
+        Random random = new Random(2);
+        for (int i = 0; i < 500; i++) {
+            NearByRequest req = new NearByRequest(50.5 + random.nextDouble() * 3, 3.5 + random.nextDouble() * 3,
+                    1 + random.nextInt(100), 1 + random.nextInt(50), random.nextBoolean());
+            LocalTime now = LocalTime.of(random.nextInt(24), random.nextInt(60));
+
+            List<String> expected = packed.findNearByStores(req, now).stream().map(Store::getUuid).toList();
+            List<String> actual = indexed.findNearByStores(req, now).stream().map(Store::getUuid).toList();
+
+            assertEquals(expected, actual, "request " + req + " at " + now);
+        }
+    }
+
+    @Test
+    @DisplayName("Grows the search box only until enough stores are found")
+    void growsSearchBoxUntilEnoughStores() {
+        List<Store> stores = List.of(store("near", 52.0, 4.0), store("far", 52.3, 4.0));
+        ListStoreIndex index = new ListStoreIndex(stores);
+        IndexedNearByService indexed = new IndexedNearByService(index, new HaversineDistanceCalculator());
+
+        List<Store> nearest = indexed.findNearByStores(new NearByRequest(52.0, 4.0, 100, 1, false), LocalTime.NOON);
+        assertEquals(List.of("near"), nearest.stream().map(Store::getUuid).toList());
+        assertEquals(1, index.queries());
+
+        List<Store> both = indexed.findNearByStores(new NearByRequest(52.0, 4.0, 100, 2, false), LocalTime.NOON);
+        assertEquals(List.of("near", "far"), both.stream().map(Store::getUuid).toList());
+        assertTrue(both.get(1).getDistance() > 33);
+    }
+
+    @Test
+    @DisplayName("Pages through stores sharing a location in uuid order without gaps or repeats")
+    void pagesThroughDistanceTiesByUuid() {
+        List<Store> stores = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            // ids and uuids in opposite orders, so the tie break has to come from the uuid
+            stores.add(store("tie-" + (6 - i), 52.01, 4.0));
+        }
+        stores.add(store("near", 52.0, 4.0));
+        stores.add(store("far", 52.1, 4.0));
+        IndexedNearByService indexed = new IndexedNearByService(new ListStoreIndex(stores),
+                new HaversineDistanceCalculator());
+
+        List<String> actual = new ArrayList<>();
+        SearchCursor cursor = null;
+        while (true) {
+            NearByRequest req = new NearByRequest(52.0, 4.0, 50, 3, false, null, cursor);
+            List<Store> page = indexed.findNearByStores(req, LocalTime.NOON);
+            page.forEach(store -> actual.add(store.getUuid()));
+            if (page.size() < req.limit()) {
+                break;
+            }
+            Store last = page.getLast();
+            cursor = new SearchCursor(0, SearchCursor.queryHash(req), last.getDistance(), last.getUuid());
+        }
+
+        assertEquals(List.of("near", "tie-0", "tie-1", "tie-2", "tie-3", "tie-4", "tie-5", "tie-6", "far"), actual);
+    }
+
+    @Test
+    @DisplayName("Pages through random queries with the same stores as one packed scan")
+    void pagesMatchPackedScan() throws Exception {
+        List<Store> stores = randomStores(3_000, new Random(3));
+        PackedArrayNearByService packed = new PackedArrayNearByService(() -> stores, new HaversineDistanceCalculator());
+        packed.init();
+        IndexedNearByService indexed = new IndexedNearByService(new ListStoreIndex(stores),
+                new HaversineDistanceCalculator());
+
+        Random random = new Random(4);
+        for (int i = 0; i < 50; i++) {
+            double latitude = 50.5 + random.nextDouble() * 3;
+            double longitude = 3.5 + random.nextDouble() * 3;
+            double radius = 1 + random.nextInt(100);
+            NearByRequest all = new NearByRequest(latitude, longitude, radius, stores.size(), false);
+            List<String> expected = packed.findNearByStores(all, LocalTime.NOON).stream().map(Store::getUuid).toList();
+
+            List<String> actual = new ArrayList<>();
+            SearchCursor cursor = null;
+            while (actual.size() < expected.size()) {
+                NearByRequest req = new NearByRequest(latitude, longitude, radius, 7, false, null, cursor);
+                List<Store> page = indexed.findNearByStores(req, LocalTime.NOON);
+                assertTrue(!page.isEmpty() || expected.isEmpty(), "empty page for " + req);
+                page.forEach(store -> actual.add(store.getUuid()));
+                Store last = page.getLast();
+                cursor = new SearchCursor(0, SearchCursor.queryHash(req), last.getDistance(), last.getUuid());
+            }
+
+            assertEquals(expected, actual, "request " + all);
+        }
+    }
+
+    @Test
+    @DisplayName("Skips most of the stores before the cursor for a later page")
+    void laterPageSkipsStoresBeforeCursor() {
+        List<Store> stores = new ArrayList<>();
+        for (int i = -20; i <= 20; i++) {
+            for (int j = -20; j <= 20; j++) {
+                stores.add(store(i + ":" + j, 52.0 + i * 0.001, 4.0 + j * 0.0016));
+            }
+        }
+        ListStoreIndex index = new ListStoreIndex(stores);
+        IndexedNearByService indexed = new IndexedNearByService(index, new HaversineDistanceCalculator());
+        NearByRequest first = new NearByRequest(52.0, 4.0, 50, 10, false);
+        SearchCursor after = new SearchCursor(0, SearchCursor.queryHash(first), 1.5, "");
+        NearByRequest req = new NearByRequest(52.0, 4.0, 50, 10, false, null, after);
+        long before = stores.stream().filter(s -> distance(s) <= 1.5).count();
+
+        List<Store> page = indexed.findNearByStores(req, LocalTime.NOON);
+
+        assertEquals(10, page.size());
+        assertTrue(page.getFirst().getDistance() >= 1.5);
+        // the whole grid lies inside the searched box, so every row not read was skipped as before the cursor
+        assertTrue(stores.size() - index.rows() >= before / 2,
+                index.rows() + " of " + stores.size() + " rows read with " + before + " stores before the cursor");
+    }
+
+    private static double distance(Store store) {
+        return new HaversineDistanceCalculator().distanceInKm(52.0, 4.0, store.getLatitude(), store.getLongitude());
+    }
+}
@@ -0,0 +1,64 @@
+package com.jumbo.application.domain.service;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.servcie.NearByCursorService;
+import com.jumbo.application.port.in.InvalidCursorException;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.SearchCursor;
+import com.jumbo.application.port.out.StoreRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.jumbo.TestStores.store;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NearByCursorServiceTest {
+
+    private static final NearByRequest REQUEST = new NearByRequest(52.0, 4.0, 10, 2, false);
+
+    @Test
+    @DisplayName("Accepts a cursor issued by any instance serving the same store data")
+    void acceptsCursorFromReplicaWithSameData() {
+        NearByCursorService issuer = new NearByCursorService(repository(42));
+        NearByCursorService replica = new NearByCursorService(repository(42));
+        List<Store> page = List.of(store("a", 52.0, 4.0).withDistance(0.5), store("b", 52.0, 4.0).withDistance(1.5));
+
+        String token = issuer.nextCursor(REQUEST, page).orElseThrow();
+        SearchCursor cursor = replica.decode(token);
+
+        assertEquals(new SearchCursor(42, SearchCursor.queryHash(REQUEST), 1.5, "b"), cursor);
+    }
+
+    @Test
+    @DisplayName("Rejects a cursor issued for different store data")
+    void rejectsCursorForDifferentData() {
+        String token = new SearchCursor(41, SearchCursor.queryHash(REQUEST), 1.5, "b").encode();
+
+        assertThrows(InvalidCursorException.class, () -> new NearByCursorService(repository(42)).decode(token));
+    }
+
+    @Test
+    @DisplayName("Issues no cursor after a short page")
+    void noCursorAfterShortPage() {
+        assertTrue(new NearByCursorService(repository(42))
+                .nextCursor(REQUEST, List.of(store("a", 52.0, 4.0).withDistance(0.5))).isEmpty());
+    }
+
+    private static StoreRepository repository(long fingerprint) {
+        return new StoreRepository() {
+            @Override
+            public List<Store> findAll() {
+                return List.of();
+            }
+
+            @Override
+            public long fingerprint() {
+                return fingerprint;
+            }
+        };
+    }
+}
@@ -0,0 +1,58 @@
+package com.jumbo.application.domain.service;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.servcie.HaversineDistanceCalculator;
+import com.jumbo.application.domain.servcie.InMemNearByStore;
+import com.jumbo.application.domain.servcie.PackedArrayNearByService;
+import com.jumbo.application.port.in.NearByRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Random;
+
+import static com.jumbo.TestStores.randomStores;
+import static com.jumbo.TestStores.store;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PackedArrayNearByServiceTest {
+
+    @Test
+    @DisplayName("Returns the same stores as the list scan for random queries")
+    void returnsSameStoresAsListScan() throws Exception {
+        List<Store> stores = randomStores(5_000, new Random(1));
+        InMemNearByStore reference = new InMemNearByStore(() -> stores, new HaversineDistanceCalculator());
+        reference.init();
+        PackedArrayNearByService packed = new PackedArrayNearByService(() -> stores, new HaversineDistanceCalculator());
+        packed.init();
+
+        Random random = new Random(2);
+        for (int i = 0; i < 200; i++) {
+            NearByRequest req = new NearByRequest(51 + random.nextDouble() * 2, 4 + random.nextDouble() * 2,
+                    1 + random.nextInt(100), 1 + random.nextInt(50), random.nextBoolean());
+            LocalTime now = LocalTime.of(random.nextInt(24), random.nextInt(60));
+
+            List<String> expected = reference.findNearByStores(req, now).stream().map(Store::getUuid).toList();
+            List<String> actual = packed.findNearByStores(req, now).stream().map(Store::getUuid).toList();
+
+            assertEquals(expected, actual, "request " + req + " at " + now);
+        }
+    }
+
+    @Test
+    @DisplayName("Treats stores closing after midnight as open late at night")
+    void treatsStoresClosingAfterMidnightAsOpen() throws Exception {
+        Store overnight = store("overnight", 52.0, 4.0).opensAt(22, 0).closesAt(3, 0);
+        Store daytime = store("daytime", 52.0, 4.001).opensAt(8, 0).closesAt(20, 0);
+        PackedArrayNearByService packed = new PackedArrayNearByService(() -> List.of(overnight, daytime),
+                new HaversineDistanceCalculator());
+        packed.init();
+
+        List<Store> result = packed.findNearByStores(new NearByRequest(52.0, 4.0, 5, 5, true), LocalTime.of(23, 30));
+
+        assertEquals(List.of(overnight), result);
+        assertTrue(result.getFirst().getDistance() < 0.001);
+    }
+}
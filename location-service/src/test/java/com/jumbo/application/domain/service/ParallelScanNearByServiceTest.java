@@ -0,0 +1,148 @@
+package com.jumbo.application.domain.service;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.servcie.HaversineDistanceCalculator;
+import com.jumbo.application.domain.servcie.InMemNearByStore;
+import com.jumbo.application.domain.servcie.PackedArrayNearByService;
+import com.jumbo.application.domain.servcie.ParallelScanNearByService;
+import com.jumbo.application.domain.servcie.QuadTreeNearByService;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.NearByUseCase;
+import com.jumbo.application.port.out.StoreRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.jumbo.TestStores.randomStores;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParallelScanNearByServiceTest {
+
+    @Test
+    @DisplayName("Parallel scan returns the same stores as the list scan")
+    void parallelScanReturnsSameStoresAsListScan() throws Exception {
+        List<Store> stores = randomStores(3_000, new Random(3));
+        InMemNearByStore reference = new InMemNearByStore(() -> stores, new HaversineDistanceCalculator());
+        reference.init();
+
+        assertSameResults(reference, stores, 1e9, 0);
+    }
+
+    @Test
+    @DisplayName("Parallel scan limited to fewer tasks per query returns the same stores as the list scan")
+    void limitedRequestParallelismReturnsSameStores() throws Exception {
+        List<Store> stores = randomStores(3_000, new Random(3));
+        InMemNearByStore reference = new InMemNearByStore(() -> stores, new HaversineDistanceCalculator());
+        reference.init();
+
+        assertSameResults(reference, stores, 1e9, 3);
+    }
+
+    @Test
+    @DisplayName("Delegates to the quadtree when index traversal is estimated to be cheaper")
+    void delegatesToQuadTreeWhenIndexIsCheaper() throws Exception {
+        List<Store> stores = randomStores(3_000, new Random(3));
+        QuadTreeNearByService reference = new QuadTreeNearByService(() -> stores, new HaversineDistanceCalculator());
+        reference.init();
+
+        assertSameResults(reference, stores, 0.0, 0);
+    }
+
+    @Test
+    @DisplayName("Keeps small limits on the quadtree whatever the search radius")
+    void smallLimitStaysOnQuadTree() throws Exception {
+        List<Store> stores = randomStores(20_000, new Random(3));
+        StoreRepository repository = () -> stores;
+        AtomicInteger quadTreeQueries = new AtomicInteger();
+        QuadTreeNearByService quadTree = new QuadTreeNearByService(repository, new HaversineDistanceCalculator()) {
+            @Override
+            public List<Store> findNearByStores(NearByRequest req, LocalTime now) {
+                quadTreeQueries.incrementAndGet();
+                return super.findNearByStores(req, now);
+            }
+        };
+        quadTree.init();
+        PackedArrayNearByService packed = new PackedArrayNearByService(repository, new HaversineDistanceCalculator());
+        packed.init();
+        ParallelScanNearByService service = new ParallelScanNearByService(repository, quadTree, packed,
+                1_000, 8, 4, 4);
+        service.init();
+        try {
+            service.findNearByStores(new NearByRequest(52, 5, 100, 1, false), LocalTime.NOON);
+            assertEquals(1, quadTreeQueries.get());
+
+            service.findNearByStores(new NearByRequest(52, 5, 100, 5_000, false), LocalTime.NOON);
+            assertEquals(1, quadTreeQueries.get());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Estimates the quadtree's cost from its configured initial radius")
+    void estimatesFromConfiguredInitialRadius() throws Exception {
+        List<Store> stores = randomStores(20_000, new Random(3));
+        StoreRepository repository = () -> stores;
+        AtomicInteger quadTreeQueries = new AtomicInteger();
+        QuadTreeNearByService quadTree = new QuadTreeNearByService(repository, new HaversineDistanceCalculator()) {
+            @Override
+            public NearByUseCase startingAt(double initialRadiusKm) {
+                NearByUseCase view = super.startingAt(initialRadiusKm);
+                return (req, now) -> {
+                    quadTreeQueries.incrementAndGet();
+                    return view.findNearByStores(req, now);
+                };
+            }
+        };
+        quadTree.init();
+        PackedArrayNearByService packed = new PackedArrayNearByService(repository, new HaversineDistanceCalculator());
+        packed.init();
+        ParallelScanNearByService service = new ParallelScanNearByService(repository, quadTree, packed,
+                1_000, 8, 4, 4);
+        service.init();
+        NearByRequest req = new NearByRequest(52, 5, 100, 1, false);
+        try {
+            service.startingAt(1).findNearByStores(req, LocalTime.NOON);
+            assertEquals(1, quadTreeQueries.get());
+
+            // a first envelope of 100 km already holds thousands of stores
+            List<Store> scanned = service.startingAt(100).findNearByStores(req, LocalTime.NOON);
+            assertEquals(1, quadTreeQueries.get());
+            assertEquals(quadTree.findNearByStores(req, LocalTime.NOON), scanned);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private void assertSameResults(NearByUseCase reference, List<Store> stores, double indexCostRatio,
+                                   int requestParallelism) throws Exception {
+        StoreRepository repository = () -> stores;
+        QuadTreeNearByService quadTree = new QuadTreeNearByService(repository, new HaversineDistanceCalculator());
+        quadTree.init();
+        PackedArrayNearByService packed = new PackedArrayNearByService(repository, new HaversineDistanceCalculator());
+        packed.init();
+        ParallelScanNearByService service = new ParallelScanNearByService(repository, quadTree, packed,
+                100, indexCostRatio, 4, requestParallelism);
+        service.init();
+
+        Random random = new Random(4);
+        try {
+            for (int i = 0; i < 100; i++) {
+                NearByRequest req = new NearByRequest(51 + random.nextDouble() * 2, 4 + random.nextDouble() * 2,
+                        1 + random.nextInt(100), 1 + random.nextInt(50), random.nextBoolean());
+                LocalTime now = LocalTime.of(12, 0);
+
+                List<String> expected = reference.findNearByStores(req, now).stream().map(Store::getUuid).toList();
+                List<String> actual = service.findNearByStores(req, now).stream().map(Store::getUuid).toList();
+
+                assertEquals(expected, actual, "request " + req);
+            }
+        } finally {
+            service.shutdown();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.jumbo.application.domain.service;
+
+import com.jumbo.ListStoreIndex;
+import com.jumbo.application.domain.model.PostalCodeCentroid;
+import com.jumbo.TestStores;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.servcie.PostalCodeIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostalCodeIndexTest {
+
+    private PostalCodeIndex index;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        List<Store> stores = List.of(
+                store("1012 LG", 52.3760, 4.8970),
+                store("1012 AB", 52.3740, 4.8930),
+                store("3011AD", 51.9200, 4.4790),
+                store("not a code", 50.0, 5.0));
+        List<PostalCodeCentroid> centroids = List.of(
+                new PostalCodeCentroid("3011 AD", 51.9210, 4.4800),
+                new PostalCodeCentroid("9711", 53.2190, 6.5680));
+        index = new PostalCodeIndex(new ListStoreIndex(stores), () -> centroids);
+        index.init();
+    }
+
+    @Test
+    @DisplayName("Resolves a full postal code to the position of its store")
+    void resolvesPc6() {
+        PostalCodeCentroid centroid = index.locate("1012lg").orElseThrow();
+
+        assertEquals("1012LG", centroid.postalCode());
+        assertEquals(52.3760, centroid.latitude(), 1e-5);
+        assertEquals(4.8970, centroid.longitude(), 1e-5);
+    }
+
+    @Test
+    @DisplayName("Falls back to the average of the PC4 area for unknown letters")
+    void fallsBackToPc4() {
+        PostalCodeCentroid centroid = index.locate("1012 XY").orElseThrow();
+
+        assertEquals("1012", centroid.postalCode());
+        assertEquals(52.3750, centroid.latitude(), 1e-5);
+        assertEquals(4.8950, centroid.longitude(), 1e-5);
+    }
+
+    @Test
+    @DisplayName("Prefers centroids from the file and covers codes without stores")
+    void usesCentroidFile() {
+        assertEquals(51.9210, index.locate("3011AD").orElseThrow().latitude(), 1e-5);
+        assertEquals(6.5680, index.locate("9711 AA").orElseThrow().longitude(), 1e-5);
+        assertTrue(index.locate("5211").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Normalizes spacing and case and rejects anything else")
+    void normalizes() {
+        assertEquals("1012AB", PostalCodeIndex.normalize(" 1012 ab "));
+        assertEquals("1012", PostalCodeIndex.normalize("1012"));
+        assertNull(PostalCodeIndex.normalize("0123 AB"));
+        assertNull(PostalCodeIndex.normalize("1012 A"));
+        assertNull(PostalCodeIndex.normalize(null));
+    }
+
+    private static Store store(String postalCode, double lat, double lon) {
+        Store store = TestStores.store(null, lat, lon);
+        store.setPostalCode(postalCode);
+        return store;
+    }
+}
@@ -0,0 +1,93 @@
+package com.jumbo.application.domain.service;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.servcie.HaversineDistanceCalculator;
+import com.jumbo.application.domain.servcie.PackedArrayNearByService;
+import com.jumbo.application.domain.servcie.PrecomputedCellNearByService;
+import com.jumbo.application.port.in.NearByRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Random;
+
+import static com.jumbo.TestStores.randomStores;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrecomputedCellNearByServiceTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Returns the same stores as the packed scan for random queries")
+    void returnsSameStoresAsPackedScan() throws Exception {
+        List<Store> stores = randomStores(2_000, new Random(1));
+        PackedArrayNearByService packed = packed(stores);
+        PrecomputedCellNearByService precomputed = precomputed(stores, packed, 64);
+
+        Random random = new Random(2);
+        for (int i = 0; i < 500; i++) {
+            // a little beyond the data so that points outside the grid are covered too
+            NearByRequest req = new NearByRequest(50.9 + random.nextDouble() * 2.2, 3.9 + random.nextDouble() * 2.2,
+                    1 + random.nextInt(100), 1 + random.nextInt(60), random.nextBoolean());
+            LocalTime now = LocalTime.of(random.nextInt(24), random.nextInt(60));
+
+            List<String> expected = packed.findNearByStores(req, now).stream().map(Store::getUuid).toList();
+            List<String> actual = precomputed.findNearByStores(req, now).stream().map(Store::getUuid).toList();
+
+            assertEquals(expected, actual, "request " + req + " at " + now);
+        }
+        assertTrue(meterRegistry.get("jumbo.search.precomputed.memory").gauge().value() > 0);
+    }
+
+    @Test
+    @DisplayName("Answers default queries inside the data from the cell lists alone")
+    void answersDefaultQueriesWithoutScan() throws Exception {
+        List<Store> stores = randomStores(2_000, new Random(3));
+        PackedArrayNearByService packed = packed(stores);
+        PrecomputedCellNearByService precomputed = precomputed(stores, packed, 64);
+
+        Random random = new Random(4);
+        for (int i = 0; i < 200; i++) {
+            NearByRequest req = new NearByRequest(51.2 + random.nextDouble() * 1.6, 4.2 + random.nextDouble() * 1.6,
+                    5, 5, false);
+            assertEquals(packed.findNearByStores(req, LocalTime.NOON).stream().map(Store::getUuid).toList(),
+                    precomputed.findNearByStores(req, LocalTime.NOON).stream().map(Store::getUuid).toList());
+        }
+        assertEquals(0, meterRegistry.get("jumbo.search.precomputed.fallbacks").counter().count());
+        assertEquals(1.0, meterRegistry.get("jumbo.search.precomputed.cell.size").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Falls back to the packed scan when the cells do not fit into the memory budget")
+    void fallsBackWhenOverBudget() throws Exception {
+        List<Store> stores = randomStores(2_000, new Random(5));
+        PackedArrayNearByService packed = packed(stores);
+        PrecomputedCellNearByService precomputed = precomputed(stores, packed, 0);
+        NearByRequest req = new NearByRequest(52.0, 5.0, 10, 5, false);
+
+        assertEquals(packed.findNearByStores(req, LocalTime.NOON).stream().map(Store::getUuid).toList(),
+                precomputed.findNearByStores(req, LocalTime.NOON).stream().map(Store::getUuid).toList());
+        assertEquals(0, meterRegistry.get("jumbo.search.precomputed.memory").gauge().value());
+        assertEquals(1, meterRegistry.get("jumbo.search.precomputed.fallbacks").counter().count());
+    }
+
+    private PrecomputedCellNearByService precomputed(List<Store> stores, PackedArrayNearByService packed,
+                                                     long memoryBudgetMb) throws Exception {
+        PrecomputedCellNearByService precomputed = new PrecomputedCellNearByService(() -> stores,
+                new HaversineDistanceCalculator(), packed, meterRegistry, 1.0, memoryBudgetMb, Duration.ofMinutes(1));
+        precomputed.init();
+        return precomputed;
+    }
+
+    private static PackedArrayNearByService packed(List<Store> stores) throws Exception {
+        PackedArrayNearByService packed = new PackedArrayNearByService(() -> stores, new HaversineDistanceCalculator());
+        packed.init();
+        return packed;
+    }
+}
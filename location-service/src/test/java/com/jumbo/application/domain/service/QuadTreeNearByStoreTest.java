@@ -4,14 +4,23 @@ import com.jumbo.application.domain.model.Store;
 import com.jumbo.application.domain.servcie.HaversineDistanceCalculator;
 import com.jumbo.application.domain.servcie.InMemNearByStore;
 import com.jumbo.application.domain.servcie.QuadTreeNearByService;
+import com.jumbo.application.port.in.NearByRequest;
 import com.jumbo.application.port.in.NearByUseCase;
 import com.jumbo.application.port.out.StoreRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalTime;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
+import static com.jumbo.TestStores.clusteredStores;
+import static com.jumbo.TestStores.store;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,4 +38,41 @@ class QuadTreeNearByStoreTest extends AbstractNearByServiceTest {
         service.init();
         return service;
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Searches the same tree from a configured starting radius")
+    void startingAtUsesSameTree() throws Exception {
+        when(storeRepository.findAll()).thenReturn(List.of(store("near", 52.0, 4.0), store("far", 52.3, 4.0)));
+        QuadTreeNearByService service = new QuadTreeNearByService(storeRepository, new HaversineDistanceCalculator());
+        service.init();
+        NearByRequest req = new NearByRequest(52.0, 4.0, 100, 2, false);
+
+        assertEquals(List.of("near", "far"), service.startingAt(40).findNearByStores(req, LocalTime.NOON).stream()
+                .map(Store::getUuid).toList());
+        assertEquals(List.of("near"), service.startingAt(0.5).findNearByStores(
+                new NearByRequest(52.0, 4.0, 100, 1, false), LocalTime.NOON).stream().map(Store::getUuid).toList());
+    }
+
+    @Test
+    @DisplayName("Returns the same stores as the list scan for any starting radius")
+    void returnsSameStoresAsListScan() throws Exception {
+        List<Store> stores = clusteredStores(5_000, new Random(1));
+        when(storeRepository.findAll()).thenReturn(stores);
+        QuadTreeNearByService service = new QuadTreeNearByService(storeRepository, new HaversineDistanceCalculator());
+        service.init();
+        InMemNearByStore reference = new InMemNearByStore(() -> stores, new HaversineDistanceCalculator());
+        reference.init();
+
+        Random random = new Random(2);
+        for (int i = 0; i < 300; i++) {
+            NearByRequest req = new NearByRequest(50.5 + random.nextDouble() * 3, 3.5 + random.nextDouble() * 3,
+                    1 + random.nextInt(100), 1 + random.nextInt(50), random.nextBoolean());
+            LocalTime now = LocalTime.of(random.nextInt(24), random.nextInt(60));
+            NearByUseCase quadtree = service.startingAt(0.1 + random.nextDouble() * 10);
+
+            assertEquals(reference.findNearByStores(req, now).stream().map(Store::getUuid).toList(),
+                    quadtree.findNearByStores(req, now).stream().map(Store::getUuid).toList(),
+                    "request " + req + " at " + now);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.jumbo.application.domain.service;
+
+import com.jumbo.application.domain.model.ShardRegion;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.servcie.HaversineDistanceCalculator;
+import com.jumbo.application.domain.servcie.InMemNearByStore;
+import com.jumbo.application.domain.servcie.ScatterGatherNearByService;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.out.ShardClient;
+import com.jumbo.application.port.out.ShardUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.jumbo.TestStores.randomStores;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScatterGatherNearByServiceTest {
+
+    private static final LocalTime NOON = LocalTime.NOON;
+
+    private final List<Store> stores = randomStores(8_000, new Random(3));
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private InMemNearByStore reference;
+    private List<LocalShard> shards;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        reference = new InMemNearByStore(() -> stores, new HaversineDistanceCalculator());
+        reference.init();
+        shards = new ArrayList<>();
+        for (String region : List.of("51,4,52,5", "51,5,52,6", "52,4,53,5", "52,5,53,6")) {
+            shards.add(new LocalShard(ShardRegion.parse(region), stores));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Merges the shards' top-k into the same stores as one engine over all data")
+    void mergesToSameStoresAsSingleEngine() {
+        ScatterGatherNearByService service = service(List.copyOf(shards));
+        Random random = new Random(4);
+        for (int i = 0; i < 200; i++) {
+            NearByRequest req = new NearByRequest(51 + random.nextDouble() * 2, 4 + random.nextDouble() * 2,
+                    1 + random.nextInt(100), 1 + random.nextInt(50), false);
+
+            List<String> expected = reference.findNearByStores(req, NOON).stream().map(Store::getUuid).toList();
+            List<String> actual = service.findNearByStores(req, NOON).stream().map(Store::getUuid).toList();
+
+            assertEquals(expected, actual, "request " + req);
+        }
+    }
+
+    @Test
+    @DisplayName("Only asks shards whose region comes within the search radius")
+    void skipsShardsOutsideRadius() {
+        ScatterGatherNearByService service = service(List.copyOf(shards));
+
+        service.findNearByStores(new NearByRequest(51.5, 4.5, 5, 10, false), NOON);
+
+        assertEquals(1, shards.get(0).calls.get());
+        assertEquals(0, shards.get(1).calls.get() + shards.get(2).calls.get() + shards.get(3).calls.get());
+    }
+
+    @Test
+    @DisplayName("Fails the query when a shard that was asked fails")
+    void failsWhenShardFails() {
+        List<ShardClient> withBroken = new ArrayList<>(shards);
+        withBroken.add(new ShardClient() {
+            @Override
+            public String id() {
+                return "broken";
+            }
+
+            @Override
+            public ShardRegion region() {
+                return ShardRegion.parse("51,4,53,6");
+            }
+
+            @Override
+            public List<Store> findNearByStores(NearByRequest req) {
+                throw new IllegalStateException("connection refused");
+            }
+        });
+
+        ShardUnavailableException thrown = assertThrows(ShardUnavailableException.class,
+                () -> service(withBroken).findNearByStores(new NearByRequest(52, 5, 10, 5, false), NOON));
+        assertTrue(thrown.getMessage().contains("broken"));
+    }
+
+    @Test
+    @DisplayName("Region distance never exceeds the distance to a point inside the region")
+    void regionDistanceIsLowerBound() {
+        ShardRegion region = ShardRegion.parse("51,4,52,5");
+        HaversineDistanceCalculator calculator = new HaversineDistanceCalculator();
+        Random random = new Random(5);
+        for (int i = 0; i < 1_000; i++) {
+            double lat = 49 + random.nextDouble() * 6;
+            double lon = 2 + random.nextDouble() * 6;
+            double insideLat = 51 + random.nextDouble();
+            double insideLon = 4 + random.nextDouble();
+
+            assertTrue(region.minDistanceKm(lat, lon) <= calculator.distanceInKm(lat, lon, insideLat, insideLon));
+        }
+        assertEquals(0, region.minDistanceKm(51.5, 4.5));
+    }
+
+    private ScatterGatherNearByService service(List<ShardClient> clients) {
+        return new ScatterGatherNearByService(() -> clients, new HaversineDistanceCalculator(), executor);
+    }
+
+    /**
+     * A shard in the same JVM holding only the stores of its region, as a separately started instance would.
+     */
+    private static final class LocalShard implements ShardClient {
+
+        private final ShardRegion region;
+        private final InMemNearByStore engine;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        LocalShard(ShardRegion region, List<Store> all) throws Exception {
+            this.region = region;
+            List<Store> own = all.stream().filter(s -> region.contains(s.getLatitude(), s.getLongitude())).toList();
+            this.engine = new InMemNearByStore(() -> own, new HaversineDistanceCalculator());
+            this.engine.init();
+        }
+
+        @Override
+        public String id() {
+            return region.format();
+        }
+
+        @Override
+        public ShardRegion region() {
+            return region;
+        }
+
+        @Override
+        public List<Store> findNearByStores(NearByRequest req) {
+            calls.incrementAndGet();
+            return engine.findNearByStores(req, NOON);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.jumbo.application.domain.service;
+
+import com.jumbo.ListStoreIndex;
+import com.jumbo.TestStores;
+import com.jumbo.application.domain.model.BatchGetResult;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.servcie.StoreLookupService;
+import com.jumbo.application.port.in.BatchGetRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StoreLookupServiceTest {
+
+    @Test
+    @DisplayName("Finds every store by uuid and SAP store id")
+    void findsEveryStore() throws Exception {
+        List<Store> stores = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            stores.add(store("uuid-" + i, String.valueOf(1000 + i)));
+        }
+        StoreLookupService service = lookup(stores);
+        service.init();
+
+        for (Store store : stores) {
+            assertEquals(store, service.findByUuid(store.getUuid()).orElseThrow());
+            assertEquals(store, service.findBySapStoreId(store.getSapStoreID()).orElseThrow());
+        }
+        assertTrue(service.findByUuid("uuid-5000").isEmpty());
+        assertTrue(service.findBySapStoreId(null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Handles keys with colliding hash codes")
+    void handlesHashCollisions() throws Exception {
+        // "Aa" and "BB" have the same String hash code
+        Store aa = store("Aa", null);
+        Store bb = store("BB", null);
+        StoreLookupService service = lookup(List.of(aa, bb));
+        service.init();
+
+        assertEquals(aa, service.findByUuid("Aa").orElseThrow());
+        assertEquals(bb, service.findByUuid("BB").orElseThrow());
+        assertTrue(service.findBySapStoreId("Aa").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Returns batch results in request order, without duplicates, listing unknown ids")
+    void batchGet() throws Exception {
+        Store a = store("a", "1");
+        Store b = store("b", "2");
+        Store c = store("c", "3");
+        StoreLookupService service = lookup(List.of(a, b, c));
+        service.init();
+
+        BatchGetResult result = service.batchGet(new BatchGetRequest(List.of("c", "x", "a", "c"), List.of("1", "2", "9")));
+
+        assertEquals(List.of(c, a, b), result.stores());
+        assertEquals(List.of("x"), result.missingUuids());
+        assertEquals(List.of("9"), result.missingSapStoreIds());
+    }
+
+    @Test
+    @DisplayName("Returns copies without the distance or travel time of an earlier search")
+    void returnsCleanCopies() throws Exception {
+        Store indexed = store("a", "1").withDistance(1.5).withTravelTimeSeconds(300.0);
+        StoreLookupService service = lookup(List.of(indexed));
+        service.init();
+
+        Store found = service.findByUuid("a").orElseThrow();
+
+        assertNotSame(indexed, found);
+        assertEquals(indexed, found);
+        assertEquals(0, found.getDistance());
+        assertNull(found.getTravelTimeSeconds());
+        assertEquals(0, service.batchGet(new BatchGetRequest(List.of("a"), List.of())).stores().getFirst()
+                .getDistance());
+    }
+
+    private static StoreLookupService lookup(List<Store> stores) {
+        return new StoreLookupService(new ListStoreIndex(stores));
+    }
+
+    private static Store store(String uuid, String sapStoreId) {
+        Store store = TestStores.store(uuid, 52.37, 4.89);
+        store.setSapStoreID(sapStoreId);
+        return store;
+    }
+}
@@ -0,0 +1,47 @@
+package com.jumbo.application.domain.service;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.servcie.SwitchableNearByService;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.NearByUseCase;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SwitchableNearByServiceTest {
+
+    private static final NearByRequest REQUEST = new NearByRequest(52.37, 4.89, 5, 5, false);
+
+    @Test
+    @DisplayName("Answers from the engine swapped in last and counts the swaps")
+    void swapReplacesEngine() {
+        NearByUseCase quadtree = engine("quadtree-store");
+        NearByUseCase packed = engine("packed-store");
+        SwitchableNearByService service = new SwitchableNearByService("quadtree", "quadtree", quadtree);
+
+        assertEquals("quadtree-store", service.findNearByStores(REQUEST, LocalTime.NOON).getFirst().getUuid());
+        assertEquals(0, service.version());
+
+        assertEquals("quadtree", service.swap("packed", "packed;routing=1", packed));
+
+        assertEquals("packed-store", service.findNearByStores(REQUEST, LocalTime.NOON).getFirst().getUuid());
+        assertEquals("packed", service.strategy());
+        assertEquals("packed;routing=1", service.settings());
+        assertEquals(1, service.version());
+    }
+
+    private static NearByUseCase engine(String uuid) {
+        Store store = new Store();
+        store.setUuid(uuid);
+        NearByUseCase engine = mock(NearByUseCase.class);
+        when(engine.findNearByStores(any(), any())).thenReturn(List.of(store));
+        return engine;
+    }
+}
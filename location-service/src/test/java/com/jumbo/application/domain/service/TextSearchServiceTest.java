@@ -0,0 +1,111 @@
+package com.jumbo.application.domain.service;
+
+import com.jumbo.ListStoreIndex;
+import com.jumbo.TestStores;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.servcie.HaversineDistanceCalculator;
+import com.jumbo.application.domain.servcie.StoreTextIndex;
+import com.jumbo.application.domain.servcie.TextSearchService;
+import com.jumbo.application.port.in.TextSearchRequest;
+import jakarta.validation.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextSearchServiceTest {
+
+    private final Store damrak = store("damrak", "Amsterdam", "1012 LG", "Damrak", "Jumbo Amsterdam Damrak",
+            52.3760, 4.8970);
+    private final Store zuid = store("zuid", "Amsterdam", "1077 XX", "Beethovenstraat", "Jumbo Amsterdam Zuid",
+            52.3400, 4.8770);
+    private final Store bosch = store("bosch", "'s-Hertogenbosch", "5211 AB", "Markt", "Jumbo Den Bosch Markt",
+            51.6890, 5.3030);
+    private final Store rotterdam = store("rotterdam", "Rotterdam", "3011 AD", "Coolsingel", "Jumbo Coolsingel",
+            51.9200, 4.4790);
+    private final Store cafe = store("cafe", "Utrecht", "3511 AA", "Café de Paris straat", "Jumbo Café",
+            52.0900, 5.1200);
+
+    private TextSearchService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new TextSearchService(new ListStoreIndex(List.of(damrak, zuid, bosch, rotterdam, cafe)),
+                new HaversineDistanceCalculator(), 25);
+        service.init();
+    }
+
+    @Test
+    @DisplayName("Matches every query word as a prefix")
+    void matchesEveryWordAsPrefix() {
+        assertEquals(List.of(damrak), search("amst dam"));
+        assertEquals(List.of(rotterdam), search("cool"));
+        assertTrue(search("amst xyz").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Needs a word of two characters, single letters only narrow the result")
+    void rejectsSingleLetterQueries() {
+        assertThrows(ConstraintViolationException.class, () -> search("a"));
+        assertThrows(ConstraintViolationException.class, () -> search("s a"));
+        assertEquals(List.of(bosch), search("s hert"));
+        assertTrue(search("s amst").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Ignores case, diacritics and punctuation")
+    void foldsCaseAndDiacritics() {
+        assertEquals(List.of(cafe), search("CAFE"));
+        assertEquals(List.of(cafe), search("café"));
+        assertEquals(List.of(bosch), search("hertogenbosch"));
+    }
+
+    @Test
+    @DisplayName("Finds postal codes written with or without the space")
+    void findsPostalCodes() {
+        assertEquals(List.of(damrak), search("1012lg"));
+        assertEquals(List.of(damrak), search("1012 l"));
+    }
+
+    @Test
+    @DisplayName("Ranks the nearer of two equally good matches first")
+    void ranksNearerStoreFirst() {
+        List<Store> nearZuid = service.search(new TextSearchRequest("amsterdam", 52.3390, 4.8760, 10));
+        List<Store> nearDamrak = service.search(new TextSearchRequest("amsterdam", 52.3770, 4.8980, 10));
+
+        assertEquals(List.of(zuid, damrak), nearZuid);
+        assertEquals(List.of(damrak, zuid), nearDamrak);
+        assertTrue(nearDamrak.getFirst().getDistance() < 0.5);
+        // the distance is set on a copy, the indexed store is left alone
+        assertNotSame(damrak, nearDamrak.getFirst());
+        assertEquals(0, damrak.getDistance());
+    }
+
+    @Test
+    @DisplayName("Folds text into lower case terms without diacritics")
+    void tokenizes() {
+        assertEquals(List.of("s", "hertogenbosch"), StoreTextIndex.tokenize("'s-Hertogenbosch"));
+        assertEquals(List.of("cafe", "creme"), StoreTextIndex.tokenize("Café  Crème"));
+        assertEquals(List.of(), StoreTextIndex.tokenize(" - "));
+    }
+
+    private List<Store> search(String query) {
+        return service.search(new TextSearchRequest(query, null, null, 10));
+    }
+
+    private static Store store(String uuid, String city, String postalCode, String street, String addressName,
+                               double lat, double lon) {
+        Store store = TestStores.store(uuid, lat, lon);
+        store.setCity(city);
+        store.setPostalCode(postalCode);
+        store.setStreet(street);
+        store.setAddressName(addressName);
+        return store;
+    }
+}
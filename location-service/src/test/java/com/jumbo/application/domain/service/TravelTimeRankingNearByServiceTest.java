@@ -0,0 +1,97 @@
+package com.jumbo.application.domain.service;
+
+import com.jumbo.application.domain.model.RoadGraph;
+import com.jumbo.TestStores;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.servcie.HaversineDistanceCalculator;
+import com.jumbo.application.domain.servcie.TravelTimeRankingNearByService;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.NearByUseCase;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TravelTimeRankingNearByServiceTest {
+
+    // origin on the west bank of a canal; the only bridge is 2 km north
+    private static final double[] LATITUDES = {52.000, 52.020, 52.020, 52.000, 51.990, 53.000};
+    private static final double[] LONGITUDES = {4.000, 4.000, 4.010, 4.010, 4.000, 5.000};
+    private static final int ORIGIN = 0;
+    private static final int BRIDGE_WEST = 1;
+    private static final int BRIDGE_EAST = 2;
+    private static final int ACROSS = 3;
+    private static final int SOUTH = 4;
+
+    private final RoadGraph graph = new RoadGraph(LATITUDES, LONGITUDES,
+            new int[]{ORIGIN, BRIDGE_WEST, BRIDGE_WEST, BRIDGE_EAST, BRIDGE_EAST, ACROSS, ORIGIN, SOUTH},
+            new int[]{BRIDGE_WEST, ORIGIN, BRIDGE_EAST, BRIDGE_WEST, ACROSS, BRIDGE_EAST, SOUTH, ORIGIN},
+            new float[]{200, 200, 60, 60, 200, 200, 100, 100});
+
+    @Test
+    @DisplayName("Ranks a store across the canal behind a farther store on the same bank")
+    void ranksByTravelTime() {
+        Store across = store("across", 52.000, 4.010, 0.68);
+        Store south = store("south", 51.990, 4.000, 1.11);
+        TravelTimeRankingNearByService service = service((req, now) -> List.of(across, south), 3);
+
+        List<Store> result = service.findNearByStores(new NearByRequest(52.0, 4.0, 5, 2, false), LocalTime.NOON);
+
+        assertEquals(List.of(south, across), result);
+        assertEquals(100.0, result.get(0).getTravelTimeSeconds());
+        assertEquals(460.0, result.get(1).getTravelTimeSeconds());
+        assertNull(south.getTravelTimeSeconds(), "the engine's stores are shared and stay untouched");
+    }
+
+    @Test
+    @DisplayName("Over-fetches candidates from the geometric engine and trims to the limit")
+    void overFetchesAndTrims() {
+        AtomicInteger requestedLimit = new AtomicInteger();
+        Store across = store("across", 52.000, 4.010, 0.68);
+        Store south = store("south", 51.990, 4.000, 1.11);
+        TravelTimeRankingNearByService service = service((req, now) -> {
+            requestedLimit.set(req.limit());
+            return List.of(across, south);
+        }, 3);
+
+        List<Store> result = service.findNearByStores(new NearByRequest(52.0, 4.0, 5, 1, false), LocalTime.NOON);
+
+        assertEquals(3, requestedLimit.get());
+        assertEquals(List.of(south), result);
+    }
+
+    @Test
+    @DisplayName("Puts stores the road graph cannot reach last")
+    void putsUnreachableStoresLast() {
+        Store island = store("island", 53.000, 5.000, 0.5);
+        Store across = store("across", 52.000, 4.010, 0.68);
+        TravelTimeRankingNearByService service = service((req, now) -> List.of(island, across), 3);
+
+        List<Store> result = service.findNearByStores(new NearByRequest(52.0, 4.0, 5, 2, false), LocalTime.NOON);
+
+        assertEquals(List.of(across, island), result);
+        assertNull(result.get(1).getTravelTimeSeconds());
+    }
+
+    @Test
+    @DisplayName("Snaps coordinates to the nearest road node")
+    void snapsToNearestNode() {
+        assertEquals(BRIDGE_EAST, graph.nearestNode(52.019, 4.011));
+        assertEquals(SOUTH, graph.nearestNode(51.985, 3.999));
+    }
+
+    private TravelTimeRankingNearByService service(NearByUseCase delegate, int overfetch) {
+        // 1 m origin cells snap the origin to its own node; the stores sit on their nodes, so no access legs
+        return new TravelTimeRankingNearByService(delegate, graph, new HaversineDistanceCalculator(), overfetch,
+                50, 1, 3600, 100);
+    }
+
+    private static Store store(String uuid, double lat, double lon, double distance) {
+        return TestStores.store(uuid, lat, lon).withDistance(distance);
+    }
+}
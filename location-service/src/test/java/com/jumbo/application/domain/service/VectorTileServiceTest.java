@@ -0,0 +1,83 @@
+package com.jumbo.application.domain.service;
+
+import com.jumbo.ListStoreIndex;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.servcie.VectorTileService;
+import com.jumbo.application.domain.servcie.ViewportService;
+import com.jumbo.application.port.in.TileRequest;
+import com.jumbo.common.geo.VectorTileEncoder;
+import com.jumbo.common.geo.WebMercator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.jumbo.TestStores.store;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VectorTileServiceTest {
+
+    private final List<Store> stores = List.of(store("a", 52.3702, 4.8952), store("b", 51.9244, 4.4777));
+
+    @Test
+    @DisplayName("Encodes a point feature as specified by the vector tile format")
+    void encodesPointFeature() {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("uuid", "s1");
+        properties.put("city", null);
+        VectorTileEncoder encoder = new VectorTileEncoder();
+        encoder.layer("stores").addPoint(10, 20, properties);
+        encoder.layer("clusters");
+
+        byte[] expected = {
+                0x1A, 0x26,                                     // tile.layers, 38 bytes
+                0x78, 0x02,                                     // version 2
+                0x0A, 0x06, 's', 't', 'o', 'r', 'e', 's',       // name
+                0x12, 0x0B,                                     // feature, 11 bytes
+                0x12, 0x02, 0x00, 0x00,                         // tags: key 0 = value 0
+                0x18, 0x01,                                     // type POINT
+                0x22, 0x03, 0x09, 0x14, 0x28,                   // MoveTo(1), zigzag(10), zigzag(20)
+                0x1A, 0x04, 'u', 'u', 'i', 'd',                 // keys
+                0x22, 0x04, 0x0A, 0x02, 's', '1',               // values: string "s1"
+                0x28, (byte) 0x80, 0x20                         // extent 4096
+        };
+        assertArrayEquals(expected, encoder.encode());
+    }
+
+    @Test
+    @DisplayName("Serves repeated requests for a tile from the cache")
+    void servesRepeatedRequestsFromCache() throws Exception {
+        VectorTileService tiles = tileService();
+
+        byte[] first = tiles.findTile(new TileRequest(5, 16, 10));
+        byte[] second = tiles.findTile(new TileRequest(5, 16, 10));
+
+        assertSame(first, second);
+        assertTrue(first.length > 0);
+    }
+
+    @Test
+    @DisplayName("Puts each store in exactly one tile at street level")
+    void putsStoreInOneTile() throws Exception {
+        VectorTileService tiles = tileService();
+        int z = 14;
+        Store store = stores.getFirst();
+        int x = (int) (WebMercator.x(store.getLongitude()) * (1 << z));
+        int y = (int) (WebMercator.y(store.getLatitude()) * (1 << z));
+
+        assertTrue(tiles.findTile(new TileRequest(z, x, y)).length > 0);
+        assertEquals(0, tiles.findTile(new TileRequest(z, x + 1, y)).length);
+        assertEquals(0, tiles.findTile(new TileRequest(z, x, y + 1)).length);
+    }
+
+    private VectorTileService tileService() throws Exception {
+        ViewportService viewport = new ViewportService(new ListStoreIndex(stores), 12, 500);
+        viewport.init();
+        return new VectorTileService(viewport, 16);
+    }
+}
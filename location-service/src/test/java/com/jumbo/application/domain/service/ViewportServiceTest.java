@@ -0,0 +1,85 @@
+package com.jumbo.application.domain.service;
+
+import com.jumbo.ListStoreIndex;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.model.StoreCluster;
+import com.jumbo.application.domain.model.ViewportResult;
+import com.jumbo.application.domain.servcie.ViewportService;
+import com.jumbo.application.port.in.ViewportRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static com.jumbo.TestStores.randomStores;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ViewportServiceTest {
+
+    @Test
+    @DisplayName("Clusters at every zoom level account for every store in the viewport")
+    void clustersCountEveryStore() throws Exception {
+        List<Store> stores = randomStores(2_000, new Random(1));
+        ViewportService service = new ViewportService(new ListStoreIndex(stores), 12, 500);
+        service.init();
+
+        ViewportRequest world = new ViewportRequest(-85, -180, 85, 180, 0);
+        for (int zoom = 0; zoom <= 12; zoom++) {
+            ViewportResult result = service.findInBounds(new ViewportRequest(world.minLatitude(),
+                    world.minLongitude(), world.maxLatitude(), world.maxLongitude(), zoom));
+
+            assertTrue(result.clustered());
+            assertEquals(stores.size(), result.clusters().stream().mapToInt(StoreCluster::count).sum(),
+                    "zoom " + zoom);
+        }
+    }
+
+    @Test
+    @DisplayName("Returns individual stores inside the viewport above the cluster zoom")
+    void returnsStoresAboveClusterZoom() throws Exception {
+        List<Store> stores = randomStores(2_000, new Random(2));
+        ViewportService service = new ViewportService(new ListStoreIndex(stores), 12, 500);
+        service.init();
+
+        ViewportRequest req = new ViewportRequest(52.0, 4.5, 52.1, 4.6, 15);
+        ViewportResult result = service.findInBounds(req);
+
+        long expected = stores.stream()
+                .filter(s -> s.getLatitude() >= 52.0 && s.getLatitude() <= 52.1)
+                .filter(s -> s.getLongitude() >= 4.5 && s.getLongitude() <= 4.6)
+                .count();
+        assertFalse(result.clustered());
+        assertEquals(expected, result.stores().size());
+    }
+
+    @Test
+    @DisplayName("Falls back to clusters when a zoomed-in viewport holds too many stores")
+    void fallsBackToClustersWhenTooManyStores() throws Exception {
+        List<Store> stores = randomStores(2_000, new Random(3));
+        ViewportService service = new ViewportService(new ListStoreIndex(stores), 12, 10);
+        service.init();
+
+        ViewportResult result = service.findInBounds(new ViewportRequest(51, 4, 53, 6, 16));
+
+        assertTrue(result.clustered());
+        assertTrue(result.clusters().size() <= 10, "clusters " + result.clusters().size());
+        assertTrue(result.zoom() < 12);
+        assertEquals(stores.size(), result.clusters().stream().mapToInt(StoreCluster::count).sum());
+    }
+
+    @Test
+    @DisplayName("Coarsens clusters until the viewport holds at most max-stores of them")
+    void coarsensClustersToMaxStores() throws Exception {
+        List<Store> stores = randomStores(2_000, new Random(4));
+        ViewportService service = new ViewportService(new ListStoreIndex(stores), 12, 50);
+        service.init();
+
+        ViewportResult result = service.findInBounds(new ViewportRequest(-85, -180, 85, 180, 12));
+
+        assertTrue(result.clusters().size() <= 50, "clusters " + result.clusters().size());
+        assertEquals(stores.size(), result.clusters().stream().mapToInt(StoreCluster::count).sum());
+    }
+}
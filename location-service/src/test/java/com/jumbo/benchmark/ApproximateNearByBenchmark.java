@@ -0,0 +1,111 @@
+package com.jumbo.benchmark;
+
+import com.jumbo.application.domain.model.ApproximateNearByResult;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.servcie.ApproximateNearByService;
+import com.jumbo.application.domain.servcie.HaversineDistanceCalculator;
+import com.jumbo.application.domain.servcie.PackedArrayNearByService;
+import com.jumbo.application.domain.servcie.QuadTreeNearByService;
+import com.jumbo.application.port.in.NearByRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link ApproximateNearByService} for several values of epsilon on clustered store data, against the
+ * exact quadtree and packed scan. The recall@k of each epsilon (share of the exact top-k that the approximate search
+ * also returns) and the mean reported error bound are computed once per trial over the same query set and printed
+ * next to the JMH results, so both sides of the trade-off come from one run. The exact benchmarks do not depend on
+ * epsilon and only serve as the baseline.
+ * <p>
+ * Run with {@code mvn test-compile} followed by this class' {@code main} method on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApproximateNearByBenchmark {
+
+    private static final LocalTime NOON = LocalTime.of(12, 0);
+    private static final int CLUSTERS = 40;
+
+    @Param({"10000", "100000"})
+    private int storeCount;
+
+    @Param({"0", "0.1", "0.5"})
+    private double epsilon;
+
+    @Param({"5", "25"})
+    private int limit;
+
+    private ApproximateNearByService approximate;
+    private QuadTreeNearByService quadTree;
+    private PackedArrayNearByService packedScan;
+    private NearByRequest[] requests;
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        List<Store> stores = BenchmarkStores.clustered(storeCount, CLUSTERS, 42);
+        HaversineDistanceCalculator distanceCalculator = new HaversineDistanceCalculator();
+        packedScan = new PackedArrayNearByService(() -> stores, distanceCalculator);
+        packedScan.init();
+        quadTree = new QuadTreeNearByService(() -> stores, distanceCalculator);
+        quadTree.init();
+        approximate = new ApproximateNearByService(() -> stores, distanceCalculator, packedScan);
+        approximate.init();
+
+        double[][] points = BenchmarkStores.clusteredQueryPoints(1024, CLUSTERS, 42, 7);
+        requests = new NearByRequest[points.length];
+        for (int i = 0; i < points.length; i++) {
+            requests[i] = new NearByRequest(points[i][0], points[i][1], 25, limit, false);
+        }
+        printRecall();
+    }
+
+    private void printRecall() {
+        long found = 0;
+        long expected = 0;
+        double bounds = 0;
+        for (NearByRequest request : requests) {
+            Set<String> exact = new HashSet<>();
+            packedScan.findNearByStores(request, NOON).forEach(store -> exact.add(store.getUuid()));
+            ApproximateNearByResult result = approximate.findNearByStores(request, epsilon, NOON);
+            found += result.stores().stream().filter(store -> exact.contains(store.getUuid())).count();
+            expected += exact.size();
+            bounds += result.errorBound();
+        }
+        System.out.printf("%nstores=%d epsilon=%s limit=%d: recall@%d %.4f, mean error bound %.4f%n",
+                storeCount, epsilon, limit, limit, (double) found / expected, bounds / requests.length);
+    }
+
+    private NearByRequest nextRequest() {
+        next = (next + 1) & (requests.length - 1);
+        return requests[next];
+    }
+
+    @Benchmark
+    public List<Store> approximate() {
+        return approximate.findNearByStores(nextRequest(), epsilon, NOON).stores();
+    }
+
+    @Benchmark
+    public List<Store> exactQuadTree() {
+        return quadTree.findNearByStores(nextRequest(), NOON);
+    }
+
+    @Benchmark
+    public List<Store> exactPackedScan() {
+        return packedScan.findNearByStores(nextRequest(), NOON);
+    }
+
+    public static void main(String[] args) throws Exception {
+        org.openjdk.jmh.Main.main(new String[]{ApproximateNearByBenchmark.class.getSimpleName()});
+    }
+}
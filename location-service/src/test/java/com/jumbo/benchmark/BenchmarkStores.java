@@ -0,0 +1,99 @@
+package com.jumbo.benchmark;
+
+import com.jumbo.TestStores;
+import com.jumbo.application.domain.model.Store;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic store data sets for the JMH benchmarks, spread over the bounding box of the Netherlands.
+ */
+final class BenchmarkStores {
+
+    static final double MIN_LAT = 50.75;
+    static final double MAX_LAT = 53.55;
+    static final double MIN_LON = 3.35;
+    static final double MAX_LON = 7.22;
+
+    private BenchmarkStores() {
+    }
+
+    static List<Store> uniform(int count, long seed) {
+        Random random = new Random(seed);
+        List<Store> stores = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            stores.add(store(i,
+                    MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT),
+                    MIN_LON + random.nextDouble() * (MAX_LON - MIN_LON),
+                    random));
+        }
+        return stores;
+    }
+
+    /**
+     * Stores gathered around {@code clusters} town centres, with a fifth of them spread over the whole country.
+     */
+    static List<Store> clustered(int count, int clusters, long seed) {
+        Random random = new Random(seed);
+        double[][] centres = centres(clusters, random);
+        List<Store> stores = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (random.nextInt(5) == 0) {
+                stores.add(store(i,
+                        MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT),
+                        MIN_LON + random.nextDouble() * (MAX_LON - MIN_LON),
+                        random));
+            } else {
+                double[] centre = centres[random.nextInt(clusters)];
+                stores.add(store(i, centre[0] + random.nextGaussian() * 0.05, centre[1] + random.nextGaussian() * 0.08,
+                        random));
+            }
+        }
+        return stores;
+    }
+
+    /**
+     * Query points around the same town centres as {@link #clustered} with the same seed, where the users are.
+     */
+    static double[][] clusteredQueryPoints(int count, int clusters, long seed, long querySeed) {
+        double[][] centres = centres(clusters, new Random(seed));
+        Random random = new Random(querySeed);
+        double[][] points = new double[count][];
+        for (int i = 0; i < count; i++) {
+            double[] centre = centres[random.nextInt(clusters)];
+            points[i] = new double[]{centre[0] + random.nextGaussian() * 0.1, centre[1] + random.nextGaussian() * 0.15};
+        }
+        return points;
+    }
+
+    private static double[][] centres(int clusters, Random random) {
+        double[][] centres = new double[clusters][];
+        for (int c = 0; c < clusters; c++) {
+            centres[c] = new double[]{
+                    MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT),
+                    MIN_LON + random.nextDouble() * (MAX_LON - MIN_LON)};
+        }
+        return centres;
+    }
+
+    static double[][] queryPoints(int count, long seed) {
+        Random random = new Random(seed);
+        double[][] points = new double[count][];
+        for (int i = 0; i < count; i++) {
+            points[i] = new double[]{
+                    MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT),
+                    MIN_LON + random.nextDouble() * (MAX_LON - MIN_LON)};
+        }
+        return points;
+    }
+
+    static Store store(int id, double lat, double lon, Random random) {
+        Store store = TestStores.store("store-" + id, lat, lon);
+        store.setCity("City" + (id % 400));
+        store.opensAt(7 + random.nextInt(3), 0);
+        store.closesAt(20 + random.nextInt(3), 0);
+        return store;
+    }
+}
@@ -0,0 +1,101 @@
+package com.jumbo.benchmark;
+
+import com.jumbo.adapter.out.persistence.SqliteStoreDatabase;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.servcie.IndexedNearByService;
+import com.jumbo.application.domain.servcie.HaversineDistanceCalculator;
+import com.jumbo.application.domain.servcie.PackedArrayNearByService;
+import com.jumbo.application.domain.servcie.QuadTreeNearByService;
+import com.jumbo.application.port.in.NearByRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@code database} strategy, which pushes the search box down to the SQLite R*Tree, with the in-memory
+ * quadtree and packed scan. Run with several threads ({@code -t 4}) to include the contention on the connection pool.
+ * <p>
+ * Run with {@code mvn test-compile} followed by this class' {@code main} method on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseNearByBenchmark {
+
+    private static final LocalTime NOON = LocalTime.of(12, 0);
+
+    @Param({"10000", "100000"})
+    private int storeCount;
+
+    @Param({"5", "25"})
+    private double radiusKm;
+
+    private Path file;
+    private SqliteStoreDatabase database;
+    private IndexedNearByService databaseSearch;
+    private QuadTreeNearByService quadTree;
+    private PackedArrayNearByService packedScan;
+    private NearByRequest[] requests;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        List<Store> stores = BenchmarkStores.clustered(storeCount, 40, 42);
+        HaversineDistanceCalculator distanceCalculator = new HaversineDistanceCalculator();
+        file = Files.createTempFile("jumbo-benchmark", ".db");
+        SqliteStoreDatabase.write(file, stores, 0L);
+        database = SqliteStoreDatabase.open(file, 0L, Runtime.getRuntime().availableProcessors()).orElseThrow();
+        databaseSearch = new IndexedNearByService(database, distanceCalculator);
+        quadTree = new QuadTreeNearByService(() -> stores, distanceCalculator);
+        quadTree.init();
+        packedScan = new PackedArrayNearByService(() -> stores, distanceCalculator);
+        packedScan.init();
+
+        double[][] points = BenchmarkStores.clusteredQueryPoints(1024, 40, 42, 7);
+        requests = new NearByRequest[points.length];
+        for (int i = 0; i < points.length; i++) {
+            requests[i] = new NearByRequest(points[i][0], points[i][1], radiusKm, 5, true);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        database.close();
+        Files.deleteIfExists(file);
+    }
+
+    private NearByRequest nextRequest(Cursor cursor) {
+        cursor.next = (cursor.next + 1) & (requests.length - 1);
+        return requests[cursor.next];
+    }
+
+    @Benchmark
+    public List<Store> database(Cursor cursor) {
+        return databaseSearch.findNearByStores(nextRequest(cursor), NOON);
+    }
+
+    @Benchmark
+    public List<Store> quadTree(Cursor cursor) {
+        return quadTree.findNearByStores(nextRequest(cursor), NOON);
+    }
+
+    @Benchmark
+    public List<Store> packedScan(Cursor cursor) {
+        return packedScan.findNearByStores(nextRequest(cursor), NOON);
+    }
+
+    public static void main(String[] args) throws Exception {
+        org.openjdk.jmh.Main.main(new String[]{DatabaseNearByBenchmark.class.getSimpleName()});
+    }
+}
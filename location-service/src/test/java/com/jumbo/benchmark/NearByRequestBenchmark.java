@@ -0,0 +1,39 @@
+package com.jumbo.benchmark;
+
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.common.validation.Validation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of constructing a valid {@link NearByRequest} with the compiled range checks, compared with running the
+ * reflective Bean Validation pass the constructor used to do for every request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NearByRequestBenchmark {
+
+    private double latitude = 52.3702;
+    private double longitude = 4.8952;
+
+    @Benchmark
+    public NearByRequest compiledChecks() {
+        return new NearByRequest(latitude, longitude, 5.0, 5, false);
+    }
+
+    @Benchmark
+    public NearByRequest reflectiveValidation() {
+        NearByRequest request = new NearByRequest(latitude, longitude, 5.0, 5, false);
+        Validation.validate(request);
+        return request;
+    }
+
+    public static void main(String[] args) throws Exception {
+        org.openjdk.jmh.Main.main(new String[]{NearByRequestBenchmark.class.getSimpleName()});
+    }
+}
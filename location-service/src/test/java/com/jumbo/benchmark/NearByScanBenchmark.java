@@ -0,0 +1,75 @@
+package com.jumbo.benchmark;
+
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.servcie.HaversineDistanceCalculator;
+import com.jumbo.application.domain.servcie.InMemNearByStore;
+import com.jumbo.application.domain.servcie.PackedArrayNearByService;
+import com.jumbo.application.port.in.NearByRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the list-of-objects scan of {@link InMemNearByStore} with the structure-of-arrays scan of
+ * {@link PackedArrayNearByService}.
+ * <p>
+ * Run with {@code mvn test-compile} followed by this class' {@code main} method (or
+ * {@code org.openjdk.jmh.Main NearByScanBenchmark}) on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NearByScanBenchmark {
+
+    private static final LocalTime NOON = LocalTime.of(12, 0);
+
+    @Param({"1000", "100000", "1000000"})
+    private int storeCount;
+
+    @Param({"5", "100"})
+    private double radiusKm;
+
+    private InMemNearByStore listScan;
+    private PackedArrayNearByService packedScan;
+    private NearByRequest[] requests;
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        List<Store> stores = BenchmarkStores.uniform(storeCount, 42);
+        listScan = new InMemNearByStore(() -> stores, new HaversineDistanceCalculator());
+        listScan.init();
+        packedScan = new PackedArrayNearByService(() -> stores, new HaversineDistanceCalculator());
+        packedScan.init();
+
+        double[][] points = BenchmarkStores.queryPoints(1024, 7);
+        requests = new NearByRequest[points.length];
+        for (int i = 0; i < points.length; i++) {
+            requests[i] = new NearByRequest(points[i][0], points[i][1], radiusKm, 5, true);
+        }
+    }
+
+    private NearByRequest nextRequest() {
+        next = (next + 1) & (requests.length - 1);
+        return requests[next];
+    }
+
+    @Benchmark
+    public List<Store> listOfObjects() {
+        return listScan.findNearByStores(nextRequest(), NOON);
+    }
+
+    @Benchmark
+    public List<Store> structureOfArrays() {
+        return packedScan.findNearByStores(nextRequest(), NOON);
+    }
+
+    public static void main(String[] args) throws Exception {
+        org.openjdk.jmh.Main.main(new String[]{NearByScanBenchmark.class.getSimpleName()});
+    }
+}
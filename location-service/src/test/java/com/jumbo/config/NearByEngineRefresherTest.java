@@ -0,0 +1,92 @@
+package com.jumbo.config;
+
+import com.jumbo.application.domain.servcie.SwitchableNearByService;
+import com.jumbo.application.port.in.NearByUseCase;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NearByEngineRefresherTest {
+
+    private final NearByEngineFactory engineFactory = mock(NearByEngineFactory.class);
+    private final NearByUseCase quadtree = mock(NearByUseCase.class);
+    private final NearByUseCase packed = mock(NearByUseCase.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SwitchableNearByService service;
+    private NearByEngineRefresher refresher;
+
+    @BeforeEach
+    void setUp() {
+        when(engineFactory.strategies()).thenReturn(new LinkedHashSet<>(List.of("quadtree", "packed", "adaptive")));
+        service = new SwitchableNearByService("quadtree", "quadtree", quadtree);
+        refresher = new NearByEngineRefresher(engineFactory, service, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        refresher.shutdown();
+    }
+
+    @Test
+    void rebuild_NewStrategy_SwapsEngineAndRecordsSwitch() throws Exception {
+        when(engineFactory.build()).thenReturn(new NearByEngineFactory.Engine("packed", "packed", packed));
+
+        refresher.rebuild().get(5, TimeUnit.SECONDS);
+
+        assertEquals("packed", service.strategy());
+        assertEquals(1.0, meterRegistry.get("jumbo.search.engine.switches")
+                .tags("strategy", "packed", "outcome", "success").counter().count());
+        assertEquals(1.0, meterRegistry.get("jumbo.search.engine.active").tag("strategy", "packed").gauge().value());
+        assertEquals(0.0, meterRegistry.get("jumbo.search.engine.active").tag("strategy", "quadtree").gauge().value());
+        assertEquals(1.0, meterRegistry.get("jumbo.search.engine.version").gauge().value());
+    }
+
+    @Test
+    void rebuild_BuildFails_KeepsRunningEngine() throws Exception {
+        when(engineFactory.build()).thenThrow(new IllegalStateException("Unknown search strategy 'kd-tree'"));
+
+        assertThrows(CompletionException.class, () -> refresher.rebuild().join());
+
+        assertEquals("quadtree", service.strategy());
+        assertEquals(0, service.version());
+        assertEquals(1.0, meterRegistry.get("jumbo.search.engine.switches")
+                .tags("outcome", "failure").counter().count());
+    }
+
+    @Test
+    void onEnvironmentChange_SearchKey_Rebuilds() throws Exception {
+        when(engineFactory.build()).thenReturn(new NearByEngineFactory.Engine("packed", "packed", packed));
+
+        refresher.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("jumbo.location.search.strategy")));
+
+        verify(engineFactory, timeout(5_000)).build();
+    }
+
+    @Test
+    void onEnvironmentChange_UnrelatedKey_DoesNotRebuild() throws Exception {
+        refresher.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("jumbo.location.tiles.max-age")));
+
+        verify(engineFactory, never()).build();
+        assertFalse(NearByEngineRefresher.affectsEngine(Set.of("logging.level.com.jumbo")));
+        assertTrue(NearByEngineRefresher.affectsEngine(Set.of("jumbo.location.routing.cache-size")));
+    }
+}
@@ -0,0 +1,32 @@
+package com.jumbo.config;
+
+import com.jumbo.application.domain.servcie.HaversineDistanceCalculator;
+import com.jumbo.application.domain.servcie.SwitchableNearByService;
+import com.jumbo.application.port.in.NearByUseCase;
+import com.jumbo.application.port.out.SpatialStoreIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class NearByServiceConfigTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void nearByService_CoordinatorWithoutSharding_FailsAtStartup() {
+        NearByServiceConfig config = new NearByServiceConfig();
+        ReflectionTestUtils.setField(config, "shardingCoordinator", true);
+        ReflectionTestUtils.setField(config, "shardingEnabled", false);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> config.nearByService(
+                new SwitchableNearByService("quadtree", "quadtree", mock(NearByUseCase.class)),
+                mock(ObjectProvider.class), mock(ObjectProvider.class), mock(ObjectProvider.class),
+                mock(SpatialStoreIndex.class), new HaversineDistanceCalculator(), new SimpleMeterRegistry()));
+
+        assertTrue(e.getMessage().contains("jumbo.location.sharding.enabled=true"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.jumbo.integration;
+
+import com.jumbo.LocationServiceApplication;
+import com.jumbo.adapter.out.persistence.SqliteStoreRepository;
+import com.jumbo.application.domain.model.ApproximateNearByResult;
+import com.jumbo.application.domain.model.Store;
+import com.jumbo.application.domain.servcie.InMemNearByStore;
+import com.jumbo.application.domain.servcie.QuadTreeNearByService;
+import com.jumbo.application.domain.servcie.SwitchableNearByService;
+import com.jumbo.application.port.in.ApproximateNearByUseCase;
+import com.jumbo.application.port.in.NearByRequest;
+import com.jumbo.application.port.in.NearByUseCase;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(classes = LocationServiceApplication.class)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "jumbo.location.stores.storage=sqlite",
+        "jumbo.location.search.strategy="
+})
+@DisplayName("SQLite storage integration tests")
+class SqliteStorageIntegrationTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @MockitoSpyBean
+    private SqliteStoreRepository storeRepository;
+
+    @Autowired
+    private NearByUseCase nearByService;
+
+    @Autowired
+    private SwitchableNearByService localNearByService;
+
+    @Autowired
+    private ApproximateNearByUseCase approximateNearByService;
+
+    @Test
+    @DisplayName("Should not create the heap-resident engines")
+    void shouldNotCreateHeapResidentEngines() throws Exception {
+        assertThat(context.getBeanNamesForType(InMemNearByStore.class)).isEmpty();
+        assertThat(context.getBeanNamesForType(QuadTreeNearByService.class)).isEmpty();
+        assertThat(localNearByService.strategy()).isEqualTo("database");
+        // nothing reads the full store list at startup
+        verify(storeRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("Should answer nearby and approximate queries from the database")
+    void shouldAnswerNearbyAndApproximateQueries() {
+        NearByRequest request = new NearByRequest(52.3702, 4.8952, 10.0, 5, false);
+        LocalTime now = LocalTime.of(14, 0);
+
+        List<Store> stores = nearByService.findNearByStores(request, now);
+        ApproximateNearByResult approximate = approximateNearByService.findNearByStores(request, 0.5, now);
+
+        assertThat(stores).hasSize(5).isSortedAccordingTo((a, b) -> Double.compare(a.getDistance(), b.getDistance()));
+        assertThat(approximate.errorBound()).isZero();
+        assertThat(approximate.stores()).extracting(Store::getUuid)
+                .containsExactlyElementsOf(stores.stream().map(Store::getUuid).toList());
+    }
+}
@@ -1,5 +1,5 @@
 import axios from 'axios';
-import { Store, NearByRequest, ApiErrorResponse, DetailedError } from './types';
+import { Store, NearByRequest, ViewportResult, ApiErrorResponse, DetailedError } from './types';
 
 // Helper function to get API base URL from environment
 const getApiBaseUrl = (): string => {
@@ -14,6 +14,61 @@ const getApiBaseUrl = (): string => {
 const API_BASE_URL = getApiBaseUrl();
 
 export const storeService = {
+  async searchStores(params: {
+    q: string;
+    latitude?: number;
+    longitude?: number;
+    limit?: number;
+  }): Promise<Store[]> {
+    try {
+      const response = await axios.get(`${API_BASE_URL}/stores/search`, { params });
+      return response.data;
+    } catch (error: any) {
+      console.error('Error searching stores:', error);
+
+      if (error.response?.data) {
+        const apiError: ApiErrorResponse = error.response.data;
+        throw {
+          message: apiError.message || apiError.error || 'An error occurred',
+          validationErrors: apiError.validationErrors
+        } as DetailedError;
+      }
+
+      throw {
+        message: 'Failed to search stores. Please check your connection and try again.',
+        validationErrors: undefined
+      } as DetailedError;
+    }
+  },
+
+  async getStoresInBounds(params: {
+    minLat: number;
+    minLon: number;
+    maxLat: number;
+    maxLon: number;
+    zoom: number;
+  }): Promise<ViewportResult> {
+    try {
+      const response = await axios.get(`${API_BASE_URL}/stores/in-bounds`, { params });
+      return response.data;
+    } catch (error: any) {
+      console.error('Error fetching stores in bounds:', error);
+
+      if (error.response?.data) {
+        const apiError: ApiErrorResponse = error.response.data;
+        throw {
+          message: apiError.message || apiError.error || 'An error occurred',
+          validationErrors: apiError.validationErrors
+        } as DetailedError;
+      }
+
+      throw {
+        message: 'Failed to fetch stores for the map. Please check your connection and try again.',
+        validationErrors: undefined
+      } as DetailedError;
+    }
+  },
+
   async getClosestStores(params: {
     latitude: number;
     longitude: number;
@@ -16,6 +16,7 @@ export interface Store {
   collectionPoint: boolean;
   sapStoreID?: string;
   distance: number;
+  travelTimeSeconds?: number;
 }
 
 export interface NearByRequest {
@@ -26,6 +27,19 @@ export interface NearByRequest {
   onlyOpen: boolean;
 }
 
+export interface StoreCluster {
+  latitude: number;
+  longitude: number;
+  count: number;
+}
+
+export interface ViewportResult {
+  zoom: number;
+  clustered: boolean;
+  clusters: StoreCluster[];
+  stores: Store[];
+}
+
 export interface ApiErrorResponse {
   timestamp: string;
   status: number;